@@ -114,12 +114,7 @@ public class ChunkerModel extends BaseModel {
    */
   @Deprecated
   public MaxentModel getChunkerModel() {
-    if (artifactMap.get(CHUNKER_MODEL_ENTRY_NAME) instanceof MaxentModel) {
-      return (MaxentModel) artifactMap.get(CHUNKER_MODEL_ENTRY_NAME);
-    }
-    else {
-      return null;
-    }
+    return getMaxentModel(CHUNKER_MODEL_ENTRY_NAME);
   }
 
   public SequenceClassificationModel<TokenTag> getChunkerSequenceModel() {
@@ -134,7 +129,7 @@ public class ChunkerModel extends BaseModel {
         beamSize = Integer.parseInt(beamSizeString);
       }
 
-      return new BeamSearch<>(beamSize, (MaxentModel) artifactMap.get(CHUNKER_MODEL_ENTRY_NAME));
+      return new BeamSearch<>(beamSize, getCompiledMaxentModel(CHUNKER_MODEL_ENTRY_NAME));
     }
     else if (artifactMap.get(CHUNKER_MODEL_ENTRY_NAME) instanceof SequenceClassificationModel) {
       return (SequenceClassificationModel) artifactMap.get(CHUNKER_MODEL_ENTRY_NAME);
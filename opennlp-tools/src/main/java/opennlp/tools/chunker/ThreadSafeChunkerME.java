@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.chunker;
+
+import opennlp.tools.util.PerThreadInstances;
+import opennlp.tools.util.Sequence;
+import opennlp.tools.util.Span;
+
+/**
+ * A thread-safe version of {@link ChunkerME}. All threads share the
+ * {@link ChunkerModel}, every thread chunks with its own {@link ChunkerME}
+ * instance which holds the per call state, it is created on first use.
+ * <p>
+ * {@link #close()} releases the instances of all threads.
+ */
+public class ThreadSafeChunkerME implements Chunker, AutoCloseable {
+
+  private final PerThreadInstances<ChunkerME> chunkers;
+
+  public ThreadSafeChunkerME(ChunkerModel model) {
+    chunkers = new PerThreadInstances<>(() -> new ChunkerME(model));
+  }
+
+  private ChunkerME getChunker() {
+    return chunkers.get();
+  }
+
+  @Override
+  public String[] chunk(String[] toks, String[] tags) {
+    return getChunker().chunk(toks, tags);
+  }
+
+  @Override
+  public Span[] chunkAsSpans(String[] toks, String[] tags) {
+    return getChunker().chunkAsSpans(toks, tags);
+  }
+
+  @Override
+  public Sequence[] topKSequences(String[] sentence, String[] tags) {
+    return getChunker().topKSequences(sentence, tags);
+  }
+
+  @Override
+  public Sequence[] topKSequences(String[] sentence, String[] tags, double minSequenceScore) {
+    return getChunker().topKSequences(sentence, tags, minSequenceScore);
+  }
+
+  /**
+   * Returns the probabilities of the last sequence chunked by the calling thread.
+   *
+   * @return the probabilities, see {@link ChunkerME#probs()}
+   */
+  public double[] probs() {
+    return getChunker().probs();
+  }
+
+  /**
+   * Releases the chunker instances of all threads, this chunker can't be used afterwards.
+   */
+  @Override
+  public void close() {
+    chunkers.close();
+  }
+}
@@ -81,6 +81,6 @@ public class DoccatModel extends BaseModel {
   }
 
   public MaxentModel getMaxentModel() {
-    return (MaxentModel) artifactMap.get(DOCCAT_MODEL_ENTRY_NAME);
+    return getMaxentModel(DOCCAT_MODEL_ENTRY_NAME);
   }
 }
@@ -21,11 +21,14 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 
+import opennlp.tools.ml.BatchEvaluator;
 import opennlp.tools.ml.EventTrainer;
 import opennlp.tools.ml.TrainerFactory;
 import opennlp.tools.ml.model.MaxentModel;
@@ -80,6 +83,37 @@ public class DocumentCategorizerME implements DocumentCategorizer {
     return this.categorize(text, Collections.emptyMap());
   }
 
+  /**
+   * Categorizes a batch of documents. The features of identical documents are
+   * only generated once and the model is only evaluated once for documents
+   * with identical features.
+   *
+   * @param documents the tokens of the documents
+   *
+   * @return the category probabilities of each document
+   */
+  public List<double[]> categorize(List<String[]> documents) {
+    return categorize(documents, null);
+  }
+
+  /**
+   * Categorizes a batch of documents. The features of identical documents are
+   * only generated once and the model is only evaluated once for documents
+   * with identical features. The feature generation and the evaluation of the
+   * distinct documents is split into parts which are processed by the executor,
+   * the feature generators must be thread-safe if an executor is used.
+   *
+   * @param documents the tokens of the documents
+   * @param executor the executor, or null to process the batch on the calling thread
+   *
+   * @return the category probabilities of each document
+   */
+  public List<double[]> categorize(List<String[]> documents, ExecutorService executor) {
+    List<String[]> contexts = BatchEvaluator.applyDistinct(documents,
+        text -> mContextGenerator.getContext(text, Collections.emptyMap()), null, executor);
+    return BatchEvaluator.eval(model.getMaxentModel(), contexts, executor);
+  }
+
   /**
    * Returns a map in which the key is the category name and the value is the score
    *
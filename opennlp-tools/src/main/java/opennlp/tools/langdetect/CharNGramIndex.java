@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.langdetect;
+
+import java.util.Arrays;
+
+import opennlp.tools.ml.model.FeatureHasher;
+
+/**
+ * An immutable table of the character n-grams known to a model, which finds the
+ * n-grams of a text without creating a string for each of them.
+ * <p>
+ * The text is lower cased into a char buffer once, then the window of each start
+ * position is extended from the min to the max length while its hash is updated
+ * with {@link FeatureHasher#update(long, char)}. The hash selects the slot in the
+ * table and a match is confirmed by comparing the chars, the found n-grams are
+ * exactly the distinct n-grams of
+ * {@link DefaultLanguageDetectorContextGenerator#getContext(CharSequence)} which
+ * are known to the model. Unknown n-grams are skipped, they have no parameters.
+ * <p>
+ * The table can be shared between threads, the per-document state is kept in
+ * {@link Counts} instances.
+ */
+final class CharNGramIndex {
+
+  private final int minLength;
+  private final int maxLength;
+
+  private final long[] hashes;
+  private final String[] keys;
+  private final int[] ids;
+  private final int mask;
+  private final int numIds;
+
+  /**
+   * Initializes the index with the predicates of a model, the id of a
+   * predicate is its position in the array. Predicates which are not
+   * n-grams of the given lengths are ignored.
+   *
+   * @param predicates the predicates of the model
+   * @param minLength the min n-gram length
+   * @param maxLength the max n-gram length
+   */
+  CharNGramIndex(String[] predicates, int minLength, int maxLength) {
+    if (minLength < 1 || maxLength < minLength) {
+      throw new IllegalArgumentException("Invalid n-gram lengths: " + minLength + ", " + maxLength);
+    }
+
+    this.minLength = minLength;
+    this.maxLength = maxLength;
+    this.numIds = predicates.length;
+
+    int capacity = 2;
+    while (capacity < predicates.length * 2) {
+      capacity <<= 1;
+    }
+    hashes = new long[capacity];
+    keys = new String[capacity];
+    ids = new int[capacity];
+    mask = capacity - 1;
+
+    for (int i = 0; i < predicates.length; i++) {
+      String predicate = predicates[i];
+      if (predicate.length() >= minLength && predicate.length() <= maxLength) {
+        long hash = FeatureHasher.hash(predicate);
+        int slot = slot(hash);
+        while (keys[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        keys[slot] = predicate;
+        ids[slot] = i;
+      }
+    }
+  }
+
+  /**
+   * @return the min n-gram length
+   */
+  int getMinLength() {
+    return minLength;
+  }
+
+  /**
+   * @return the max n-gram length
+   */
+  int getMaxLength() {
+    return maxLength;
+  }
+
+  private int slot(long hash) {
+    int h = (int) (hash ^ (hash >>> 32)) * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  /**
+   * Creates the per-document state for this index, it must only be used by one thread at a time.
+   *
+   * @return the new counts
+   */
+  Counts newCounts() {
+    return new Counts(numIds);
+  }
+
+  /**
+   * Replaces the text of the counts with the lower cased text and clears the counts.
+   *
+   * @param text the normalized text
+   * @param counts the counts
+   */
+  void setText(CharSequence text, Counts counts) {
+    counts.clear();
+    appendText(text, counts);
+  }
+
+  /**
+   * Appends the lower cased text to the text of the counts, the counts are not changed.
+   *
+   * @param text the normalized text
+   * @param counts the counts
+   */
+  void appendText(CharSequence text, Counts counts) {
+    int length = counts.length + text.length();
+    if (counts.chars.length < length) {
+      counts.chars = Arrays.copyOf(counts.chars, Math.max(length, counts.chars.length * 2));
+    }
+    char[] chars = counts.chars;
+    for (int i = counts.length; i < length; i++) {
+      chars[i] = Character.toLowerCase(text.charAt(i - counts.length));
+    }
+    counts.length = length;
+  }
+
+  /**
+   * Counts the n-grams which end in the range <code>(from, to]</code> of the text,
+   * the n-grams of a text can be counted in consecutive ranges.
+   *
+   * @param counts the counts with the text
+   * @param from the end of the previously counted range
+   * @param to the end of the range, at most the length of the text
+   */
+  void count(Counts counts, int from, int to) {
+    char[] chars = counts.chars;
+    for (int start = Math.max(0, from - maxLength + 1); start < to; start++) {
+      long hash = FeatureHasher.begin();
+      int end = start;
+      for (int length = 1; length <= maxLength && end < to; length++) {
+        hash = FeatureHasher.update(hash, chars[end++]);
+        if (length >= minLength && end > from) {
+          int id = get(hash, chars, start, length);
+          if (id >= 0) {
+            counts.add(id);
+          }
+        }
+      }
+    }
+  }
+
+  private int get(long hash, char[] chars, int start, int length) {
+    int slot = slot(hash);
+    String key;
+    while ((key = keys[slot]) != null) {
+      if (hashes[slot] == hash && equals(key, chars, start, length)) {
+        return ids[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private static boolean equals(String key, char[] chars, int start, int length) {
+    if (key.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (key.charAt(i) != chars[start + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The lower cased text of a document and the term frequencies of its known n-grams,
+   * the arrays are reused for the next document.
+   */
+  static final class Counts {
+
+    private char[] chars = new char[256];
+    private int length;
+
+    private int[] ids = new int[64];
+    private int size;
+
+    /** The frequency of each id, only the entries of the found ids are non zero. */
+    private final int[] freqs;
+
+    private Counts(int numIds) {
+      freqs = new int[numIds];
+    }
+
+    private void add(int id) {
+      if (freqs[id]++ == 0) {
+        if (size == ids.length) {
+          ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+      }
+    }
+
+    private void clear() {
+      for (int i = 0; i < size; i++) {
+        freqs[ids[i]] = 0;
+      }
+      size = 0;
+      length = 0;
+    }
+
+    /**
+     * @return the length of the text
+     */
+    int length() {
+      return length;
+    }
+
+    /**
+     * @return the ids of the distinct n-grams found so far, only the first
+     *     {@link #size()} elements are valid
+     */
+    int[] ids() {
+      return ids;
+    }
+
+    /**
+     * @return the number of distinct n-grams found so far
+     */
+    int size() {
+      return size;
+    }
+
+    /**
+     * @param id the id of an n-gram
+     * @return the number of times the n-gram was found
+     */
+    int frequency(int id) {
+      return freqs[id];
+    }
+  }
+}
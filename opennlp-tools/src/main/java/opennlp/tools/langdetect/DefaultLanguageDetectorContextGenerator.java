@@ -17,13 +17,12 @@
 
 package opennlp.tools.langdetect;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
-import opennlp.tools.ngram.NGramModel;
-import opennlp.tools.util.StringList;
 import opennlp.tools.util.normalizer.AggregateCharSequenceNormalizer;
 import opennlp.tools.util.normalizer.CharSequenceNormalizer;
+import opennlp.tools.util.normalizer.FusedCharSequenceNormalizer;
 
 /**
  * A context generator for language detector.
@@ -46,7 +45,10 @@ public class DefaultLanguageDetectorContextGenerator implements LanguageDetector
     this.minLength = minLength;
     this.maxLength = maxLength;
 
-    this.normalizer = new AggregateCharSequenceNormalizer(normalizers);
+    // the built in normalizers are applied in one scan without regular expressions
+    this.normalizer = FusedCharSequenceNormalizer.isSupported(normalizers)
+        ? new FusedCharSequenceNormalizer(normalizers)
+        : new AggregateCharSequenceNormalizer(normalizers);
   }
 
   /**
@@ -56,14 +58,18 @@ public class DefaultLanguageDetectorContextGenerator implements LanguageDetector
    */
   @Override
   public String[] getContext(CharSequence document) {
-    Collection<String> context = new ArrayList<>();
+    CharSequence text = normalizer.normalize(document);
 
-    NGramModel model = new NGramModel();
-    model.add(normalizer.normalize(document), minLength, maxLength);
+    char[] chars = new char[text.length()];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = Character.toLowerCase(text.charAt(i));
+    }
 
-    for (StringList tokenList : model) {
-      if (tokenList.size() > 0) {
-        context.add(tokenList.getToken(0));
+    // the distinct lower cased n-grams, without the interned token lists of an NGramModel
+    Set<String> context = new LinkedHashSet<>();
+    for (int length = minLength; length <= maxLength; length++) {
+      for (int start = 0; start + length <= chars.length; start++) {
+        context.add(new String(chars, start, length));
       }
     }
     return context.toArray(new String[context.size()]);
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.langdetect;
+
+/**
+ * The settings of the incremental language detection of a {@link ProbingLanguageDetector}.
+ * <p>
+ * The text is consumed in chunks of {@link #getChunkSize()} chars. After each chunk the
+ * detection stops if the confidence of the top language exceeds the confidence of the
+ * second language by at least {@link #getMinDiff()}, or if {@link #getMaxLength()}
+ * chars have been consumed.
+ */
+public class LanguageDetectorConfig {
+
+  public static final int DEFAULT_CHUNK_SIZE = 300;
+  public static final int DEFAULT_MAX_LENGTH = 10000;
+  public static final double DEFAULT_MIN_DIFF = 0.20;
+
+  public static final LanguageDetectorConfig DEFAULT_LANGUAGE_DETECTOR_CONFIG =
+      new LanguageDetectorConfig();
+
+  private final int chunkSize;
+  private final int maxLength;
+  private final double minDiff;
+
+  /**
+   * Initializes the config with the default settings.
+   */
+  public LanguageDetectorConfig() {
+    this(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_LENGTH, DEFAULT_MIN_DIFF);
+  }
+
+  /**
+   * Initializes the config.
+   *
+   * @param chunkSize the number of chars consumed between two checks, must be positive
+   * @param maxLength the max number of chars to consume, must be positive
+   * @param minDiff the min difference between the confidence of the top two languages
+   *     to stop the detection, between 0 and 1
+   */
+  public LanguageDetectorConfig(int chunkSize, int maxLength, double minDiff) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+    }
+    if (maxLength < 1) {
+      throw new IllegalArgumentException("maxLength must be positive: " + maxLength);
+    }
+    if (minDiff < 0 || minDiff > 1) {
+      throw new IllegalArgumentException("minDiff must be between 0 and 1: " + minDiff);
+    }
+
+    this.chunkSize = chunkSize;
+    this.maxLength = maxLength;
+    this.minDiff = minDiff;
+  }
+
+  /**
+   * @return the number of chars consumed between two checks
+   */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  /**
+   * @return the max number of chars to consume
+   */
+  public int getMaxLength() {
+    return maxLength;
+  }
+
+  /**
+   * @return the min difference between the confidence of the top two languages
+   *     to stop the detection
+   */
+  public double getMinDiff() {
+    return minDiff;
+  }
+}
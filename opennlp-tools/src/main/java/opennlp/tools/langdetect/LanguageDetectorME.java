@@ -18,13 +18,19 @@
 package opennlp.tools.langdetect;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import opennlp.tools.ml.AbstractEventTrainer;
+import opennlp.tools.ml.BatchEvaluator;
 import opennlp.tools.ml.EventTrainer;
 import opennlp.tools.ml.TrainerFactory;
+import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.CompiledModel;
 import opennlp.tools.ml.model.MaxentModel;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.TrainingParameters;
@@ -32,11 +38,24 @@ import opennlp.tools.util.TrainingParameters;
 /**
  * Implements learnable Language Detector
  */
-public class LanguageDetectorME implements LanguageDetector {
+public class LanguageDetectorME implements LanguageDetector, ProbingLanguageDetector {
 
   private LanguageDetectorModel model;
   private LanguageDetectorContextGenerator mContextGenerator;
 
+  /**
+   * The compiled model and the index of its n-grams, if the default context generator
+   * is used and the model can be compiled, otherwise null.
+   */
+  private CompiledModel compiledModel;
+  private CharNGramIndex ngramIndex;
+
+  /**
+   * The n-gram buffers of the calling threads, a buffer can only be used by one thread
+   * at a time and is too large to be allocated for every document.
+   */
+  private ThreadLocal<CharNGramIndex.Counts> threadCounts;
+
   /**
    * Initializes the current instance with a language detector model. Default feature
    * generation is used.
@@ -46,11 +65,190 @@ public class LanguageDetectorME implements LanguageDetector {
   public LanguageDetectorME(LanguageDetectorModel model) {
     this.model = model;
     this.mContextGenerator = model.getFactory().getContextGenerator();
+
+    MaxentModel maxentModel = model.getMaxentModel();
+    if (mContextGenerator.getClass() == DefaultLanguageDetectorContextGenerator.class
+        && maxentModel instanceof AbstractModel && ((AbstractModel) maxentModel).isCompilable()) {
+      DefaultLanguageDetectorContextGenerator generator =
+          (DefaultLanguageDetectorContextGenerator) mContextGenerator;
+      compiledModel = ((AbstractModel) maxentModel).compile();
+      ngramIndex = model.getCharNGramIndex(compiledModel, generator.minLength, generator.maxLength);
+      threadCounts = ThreadLocal.withInitial(ngramIndex::newCounts);
+    }
   }
 
   @Override
   public Language[] predictLanguages(CharSequence content) {
-    double[] eval = model.getMaxentModel().eval(mContextGenerator.getContext(content.toString()));
+    if (ngramIndex != null) {
+      return toLanguages(evalNGrams(content, threadCounts.get()));
+    }
+    return toLanguages(model.getMaxentModel().eval(mContextGenerator.getContext(content)));
+  }
+
+  /**
+   * Evaluates the compiled model directly on the ids of the n-grams of the document,
+   * the result equals the evaluation of the context strings up to the rounding
+   * caused by the different order of the n-grams.
+   */
+  private double[] evalNGrams(CharSequence content, CharNGramIndex.Counts counts) {
+    ngramIndex.setText(normalize(content), counts);
+    ngramIndex.count(counts, 0, counts.length());
+    return compiledModel.eval(counts.ids(), counts.size(), null,
+        new double[compiledModel.getNumOutcomes()]);
+  }
+
+  private CharSequence normalize(CharSequence content) {
+    return ((DefaultLanguageDetectorContextGenerator) mContextGenerator).normalizer.normalize(content);
+  }
+
+  @Override
+  public ProbingLanguageDetectionResult probingPredictLanguages(CharSequence content) {
+    return probingPredictLanguages(content, LanguageDetectorConfig.DEFAULT_LANGUAGE_DETECTOR_CONFIG);
+  }
+
+  /**
+   * Predicts the languages from a prefix of the text. The chunks of the text are
+   * normalized one by one and the n-grams of each chunk are added to the scores
+   * of the previous chunks, the n-grams which span two chunks are included. The
+   * chunks end at white space, that the normalized chunks match the normalized
+   * text, unless a token is longer than the chunk size.
+   * <p>
+   * If the n-grams can't be evaluated directly, because a custom context generator is
+   * used or the model can't be compiled, the context of the whole consumed prefix is
+   * generated and evaluated after each chunk.
+   *
+   * @param content the text
+   * @param config the settings which control when the detection stops
+   * @return the languages and the number of consumed chars
+   */
+  @Override
+  public ProbingLanguageDetectionResult probingPredictLanguages(CharSequence content,
+      LanguageDetectorConfig config) {
+    int maxLength = Math.min(content.length(), config.getMaxLength());
+
+    CharNGramIndex.Counts ngramCounts = null;
+    double[] scores = null;
+    double[] probs = new double[model.getMaxentModel().getNumOutcomes()];
+    if (ngramIndex != null) {
+      ngramCounts = threadCounts.get();
+      ngramIndex.setText("", ngramCounts);
+      scores = compiledModel.createScores();
+    }
+
+    // true if the white space at the end of the previous chunks was removed by the normalizers
+    boolean separate = false;
+
+    int end = 0;
+    do {
+      int start = end;
+      end = chunkEnd(content, start, Math.min(start + config.getChunkSize(), maxLength), maxLength);
+
+      if (ngramIndex != null) {
+        int from = ngramCounts.length();
+        int fromId = ngramCounts.size();
+
+        CharSequence chunk = normalize(content.subSequence(start, end));
+        boolean endsWithSpace = end > start && Character.isWhitespace(content.charAt(end - 1));
+        if (chunk.length() > 0) {
+          // restore the separator which would be kept when the whole text is normalized
+          if (separate && from > 0 && !Character.isWhitespace(chunk.charAt(0))) {
+            ngramIndex.appendText(" ", ngramCounts);
+          }
+          ngramIndex.appendText(chunk, ngramCounts);
+          separate = endsWithSpace && !Character.isWhitespace(chunk.charAt(chunk.length() - 1));
+        }
+        else {
+          separate |= endsWithSpace;
+        }
+
+        ngramIndex.count(ngramCounts, from, ngramCounts.length());
+        compiledModel.addScores(ngramCounts.ids(), fromId, ngramCounts.size(), scores);
+        compiledModel.normalize(scores, probs);
+      }
+      else {
+        probs = model.getMaxentModel().eval(
+            mContextGenerator.getContext(content.subSequence(0, end)));
+      }
+    } while (end < maxLength && margin(probs) < config.getMinDiff());
+
+    return new ProbingLanguageDetectionResult(toLanguages(probs), end);
+  }
+
+  /**
+   * Moves the end of a chunk behind the current token and the following white space,
+   * that the normalizers see whole tokens. Text without white space is cut at the
+   * next chunk size.
+   */
+  private static int chunkEnd(CharSequence content, int start, int end, int maxLength) {
+    int limit = Math.min(end + (end - start), maxLength);
+    while (end < limit && !Character.isWhitespace(content.charAt(end))) {
+      end++;
+    }
+    while (end < limit && Character.isWhitespace(content.charAt(end))) {
+      end++;
+    }
+    return end;
+  }
+
+  /**
+   * Computes the difference between the two highest probabilities.
+   */
+  private static double margin(double[] probs) {
+    double first = 0;
+    double second = 0;
+    for (double prob : probs) {
+      if (prob > first) {
+        second = first;
+        first = prob;
+      }
+      else if (prob > second) {
+        second = prob;
+      }
+    }
+    return first - second;
+  }
+
+  /**
+   * Predicts the languages of a batch of documents.
+   *
+   * @param documents the documents
+   *
+   * @return the languages of each document ordered by descending confidence
+   */
+  public List<Language[]> predictLanguages(List<? extends CharSequence> documents) {
+    return predictLanguages(documents, null);
+  }
+
+  /**
+   * Predicts the languages of a batch of documents. The feature generation
+   * and the evaluation is split into parts which are processed by the executor.
+   *
+   * @param documents the documents
+   * @param executor the executor, or null to process the batch on the calling thread
+   *
+   * @return the languages of each document ordered by descending confidence
+   */
+  public List<Language[]> predictLanguages(List<? extends CharSequence> documents,
+      ExecutorService executor) {
+    List<double[]> evals;
+    if (ngramIndex != null) {
+      evals = BatchEvaluator.apply(documents,
+          document -> evalNGrams(document, threadCounts.get()), executor);
+    }
+    else {
+      List<String[]> contexts = BatchEvaluator.apply(documents,
+          document -> mContextGenerator.getContext(document), executor);
+      evals = BatchEvaluator.eval(model.getMaxentModel(), contexts, executor);
+    }
+
+    List<Language[]> languages = new ArrayList<>(evals.size());
+    for (double[] eval : evals) {
+      languages.add(toLanguages(eval));
+    }
+    return languages;
+  }
+
+  private Language[] toLanguages(double[] eval) {
     Language[] arr = new Language[eval.length];
     for (int i = 0; i < eval.length; i++) {
       arr[i] = new Language(model.getMaxentModel().getOutcome(i), eval[i]);
@@ -24,6 +24,7 @@ import java.net.URL;
 import java.util.Map;
 
 import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.CompiledModel;
 import opennlp.tools.ml.model.MaxentModel;
 import opennlp.tools.util.BaseToolFactory;
 import opennlp.tools.util.InvalidFormatException;
@@ -37,6 +38,8 @@ public class LanguageDetectorModel extends BaseModel {
   private static final String COMPONENT_NAME = "LanguageDetectorME";
   private static final String LANGDETECT_MODEL_ENTRY_NAME = "langdetect.model";
 
+  private transient volatile CharNGramIndex ngramIndex;
+
   public LanguageDetectorModel(MaxentModel langdetectModel,
                                Map<String, String> manifestInfoEntries,
                                LanguageDetectorFactory factory) {
@@ -77,6 +80,25 @@ public class LanguageDetectorModel extends BaseModel {
   }
 
   public MaxentModel getMaxentModel() {
-    return (MaxentModel) artifactMap.get(LANGDETECT_MODEL_ENTRY_NAME);
+    return getMaxentModel(LANGDETECT_MODEL_ENTRY_NAME);
+  }
+
+  /**
+   * Retrieves the n-gram index for the predicates of the compiled model, it is
+   * created on the first call and then shared by all callers.
+   *
+   * @param compiledModel the compiled form of the maxent model
+   * @param minLength the min n-gram length
+   * @param maxLength the max n-gram length
+   *
+   * @return the n-gram index
+   */
+  CharNGramIndex getCharNGramIndex(CompiledModel compiledModel, int minLength, int maxLength) {
+    CharNGramIndex index = ngramIndex;
+    if (index == null || index.getMinLength() != minLength || index.getMaxLength() != maxLength) {
+      index = new CharNGramIndex(compiledModel.getPredicateIndex().toArray(), minLength, maxLength);
+      ngramIndex = index;
+    }
+    return index;
   }
 }
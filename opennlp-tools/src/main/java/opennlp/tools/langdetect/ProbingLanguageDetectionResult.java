@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.langdetect;
+
+/**
+ * The result of an incremental language detection, the predicted languages and
+ * the number of chars which were consumed to predict them.
+ */
+public class ProbingLanguageDetectionResult {
+
+  private final Language[] languages;
+  private final int length;
+
+  public ProbingLanguageDetectionResult(Language[] languages, int length) {
+    this.languages = languages;
+    this.length = length;
+  }
+
+  /**
+   * @return the languages ordered by descending confidence
+   */
+  public Language[] getLanguages() {
+    return languages;
+  }
+
+  /**
+   * @return the number of chars of the content which were consumed
+   */
+  public int getLength() {
+    return length;
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.langdetect;
+
+/**
+ * A language detector which consumes a text only until the language is clear,
+ * this is much cheaper than {@link LanguageDetector#predictLanguages(CharSequence)}
+ * for long documents.
+ */
+public interface ProbingLanguageDetector {
+
+  /**
+   * Predicts the languages with the {@link LanguageDetectorConfig#DEFAULT_LANGUAGE_DETECTOR_CONFIG}.
+   *
+   * @param content the text
+   * @return the languages and the number of consumed chars
+   */
+  ProbingLanguageDetectionResult probingPredictLanguages(CharSequence content);
+
+  /**
+   * Predicts the languages from a prefix of the text.
+   *
+   * @param content the text
+   * @param config the settings which control when the detection stops
+   * @return the languages and the number of consumed chars
+   */
+  ProbingLanguageDetectionResult probingPredictLanguages(CharSequence content,
+      LanguageDetectorConfig config);
+}
@@ -17,13 +17,29 @@
 
 package opennlp.tools.ml;
 
+import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import opennlp.tools.ml.model.AbstractDataIndexer;
+import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.BinaryFileDataReader;
+import opennlp.tools.ml.model.Context;
 import opennlp.tools.ml.model.DataIndexer;
 import opennlp.tools.ml.model.DataIndexerFactory;
 import opennlp.tools.ml.model.Event;
+import opennlp.tools.ml.model.FileEventStream;
+import opennlp.tools.ml.model.GenericModelReader;
 import opennlp.tools.ml.model.HashSumEventStream;
+import opennlp.tools.ml.model.InitialParameters;
 import opennlp.tools.ml.model.MaxentModel;
 import opennlp.tools.util.InsufficientTrainingDataException;
 import opennlp.tools.util.ObjectStream;
@@ -35,6 +51,40 @@ public abstract class AbstractEventTrainer extends AbstractTrainer implements Ev
   public static final String DATA_INDEXER_ONE_PASS_VALUE = "OnePass";
   public static final String DATA_INDEXER_TWO_PASS_VALUE = "TwoPass";
   public static final String DATA_INDEXER_ONE_PASS_REAL_VALUE = "OnePassRealValue";
+  public static final String DATA_INDEXER_EXTERNAL_SORT_VALUE = "ExternalSort";
+  public static final String DATA_INDEXER_PARALLEL_VALUE = "Parallel";
+  public static final String DATA_INDEXER_HASHING_VALUE = "Hashing";
+
+  /**
+   * The path of a model to start the training from, either a model file or
+   * a packaged model which contains exactly one <code>.model</code> entry.
+   */
+  public static final String INITIAL_MODEL_PARAM = "InitialModel";
+
+  /**
+   * The path of a file with held-out events, one event per line in the format of
+   * {@link FileEventStream#toLine(Event)}. If it is set, an {@link EarlyStoppingMonitor}
+   * is added which evaluates the model on these events.
+   */
+  public static final String HELD_OUT_EVENTS_PARAM = "HeldOutEvents";
+
+  /**
+   * The number of iterations between two held-out evaluations.
+   */
+  public static final String HELD_OUT_INTERVAL_PARAM = "HeldOutInterval";
+  public static final int HELD_OUT_INTERVAL_DEFAULT = 1;
+
+  /**
+   * The number of held-out evaluations without improvement after which the training stops.
+   */
+  public static final String HELD_OUT_PATIENCE_PARAM = "HeldOutPatience";
+  public static final int HELD_OUT_PATIENCE_DEFAULT = 3;
+
+  private AbstractModel initialModel;
+
+  private EarlyStoppingMonitor heldOutMonitor;
+
+  private final List<TrainingMonitor> trainingMonitors = new ArrayList<>();
 
   public AbstractEventTrainer() {
   }
@@ -56,6 +106,170 @@ public abstract class AbstractEventTrainer extends AbstractTrainer implements Ev
 
   public abstract boolean isSortAndMerge();
 
+  /**
+   * Sets the model to start the training from instead of zero parameters. A model
+   * which is part of a packaged model can be retrieved with
+   * {@link opennlp.tools.util.model.BaseModel#getArtifact(String)}.
+   * <p>
+   * GIS, QN and Perceptron only keep the predicates and outcomes of the new training
+   * data, the retrained model is pruned to that vocabulary. These trainers should be
+   * trained on the complete data. NaiveBayes adds the counts of the new data to the
+   * counts of the existing model and keeps all of its predicates and outcomes, it can
+   * be trained on only the new data.
+   *
+   * @param model the existing model, or null to train from scratch
+   */
+  public void setInitialModel(MaxentModel model) {
+    if (model != null && !(model instanceof AbstractModel)) {
+      throw new IllegalArgumentException("Initial model must be an AbstractModel, but is: "
+          + model.getClass().getName());
+    }
+    this.initialModel = (AbstractModel) model;
+  }
+
+  /**
+   * Retrieves the parameters of the initial model mapped onto the given index.
+   *
+   * @param indexer the index of the training data
+   * @param modelTypes the model types the trainer can start from
+   * @return the initial parameters, or null if no initial model was set
+   */
+  protected InitialParameters getInitialParameters(DataIndexer indexer,
+      AbstractModel.ModelType... modelTypes) {
+    return getInitialParameters(indexer, false, modelTypes);
+  }
+
+  /**
+   * Retrieves the parameters of the initial model mapped onto the given index.
+   *
+   * @param indexer the index of the training data
+   * @param union true to keep the predicates and outcomes which only occur in the
+   *     initial model, see {@link InitialParameters#getPredLabels()}
+   * @param modelTypes the model types the trainer can start from
+   * @return the initial parameters, or null if no initial model was set
+   */
+  protected InitialParameters getInitialParameters(DataIndexer indexer, boolean union,
+      AbstractModel.ModelType... modelTypes) {
+
+    if (initialModel == null) {
+      return null;
+    }
+
+    if (!Arrays.asList(modelTypes).contains(initialModel.getModelType())) {
+      throw new IllegalArgumentException("Cannot start training from a "
+          + initialModel.getModelType() + " model, expected one of " + Arrays.toString(modelTypes));
+    }
+
+    InitialParameters parameters = new InitialParameters(initialModel,
+        indexer.getPredLabels(), indexer.getOutcomeLabels(), union);
+
+    display("Starting from an existing model with " + parameters.getNumInitializedPredicates()
+        + " of " + parameters.getPredLabels().length + " predicates\n");
+
+    return parameters;
+  }
+
+  /**
+   * Adds a monitor which is notified after every iteration of the training.
+   * Trainers which do not iterate over the training data never notify the monitors.
+   * Held-out early stopping can also be configured with the {@link #HELD_OUT_EVENTS_PARAM}
+   * parameter, which works for trainers created by the tools.
+   *
+   * @param monitor the monitor
+   */
+  public void addTrainingMonitor(TrainingMonitor monitor) {
+    trainingMonitors.add(monitor);
+  }
+
+  /**
+   * @return true if at least one training monitor was added
+   */
+  protected boolean hasTrainingMonitors() {
+    return !trainingMonitors.isEmpty();
+  }
+
+  /**
+   * Notifies the training monitors about a completed iteration.
+   *
+   * @param metrics the metrics of the iteration
+   * @param model creates a snapshot of the current model, it is called at most once
+   *
+   * @return true if one of the monitors requested to stop the training
+   */
+  protected boolean iterationCompleted(IterationMetrics metrics, Supplier<AbstractModel> model) {
+
+    if (trainingMonitors.isEmpty()) {
+      return false;
+    }
+
+    AbstractModel[] snapshot = new AbstractModel[1];
+    Supplier<AbstractModel> sharedModel = () -> {
+      if (snapshot[0] == null) {
+        snapshot[0] = model.get();
+      }
+      return snapshot[0];
+    };
+
+    boolean stop = false;
+    for (TrainingMonitor monitor : trainingMonitors) {
+      stop |= monitor.iterationCompleted(metrics, sharedModel);
+    }
+
+    if (stop) {
+      display("Stopping: requested by training monitor\n");
+    }
+
+    return stop;
+  }
+
+  /**
+   * Creates a copy of the parameters, so that a model snapshot is not changed
+   * by the following training iterations.
+   *
+   * @param params the parameters
+   * @return the copied parameters
+   */
+  protected static Context[] copyParameters(Context[] params) {
+    Context[] copy = new Context[params.length];
+    for (int pi = 0; pi < params.length; pi++) {
+      copy[pi] = new Context(params[pi].getOutcomes(), params[pi].getParameters().clone());
+    }
+    return copy;
+  }
+
+  private static AbstractModel readInitialModel(File file) throws IOException {
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+
+      // Packaged models are zip files and start with the local file header signature
+      in.mark(4);
+      boolean zip = in.read() == 'P' && in.read() == 'K';
+      in.reset();
+
+      if (!zip) {
+        return new GenericModelReader(new BinaryFileDataReader(in)).getModel();
+      }
+
+      ZipInputStream zin = new ZipInputStream(in);
+      AbstractModel model = null;
+      ZipEntry entry;
+      while ((entry = zin.getNextEntry()) != null) {
+        if (entry.getName().endsWith(".model")) {
+          if (model != null) {
+            throw new IllegalArgumentException("Initial model " + file
+                + " contains more than one model, use setInitialModel instead");
+          }
+          model = new GenericModelReader(new BinaryFileDataReader(zin)).getModel();
+        }
+      }
+
+      if (model == null) {
+        throw new IllegalArgumentException("Initial model " + file + " does not contain a model");
+      }
+
+      return model;
+    }
+  }
+
   public DataIndexer getDataIndexer(ObjectStream<Event> events) throws IOException {
 
     trainingParameters.put(AbstractDataIndexer.SORT_PARAM, isSortAndMerge());
@@ -78,7 +292,41 @@ public abstract class AbstractEventTrainer extends AbstractTrainer implements Ev
       throw new InsufficientTrainingDataException("Training data must contain more than one outcome");
     }
 
+    if (initialModel == null) {
+      String initialModelPath = trainingParameters.getStringParameter(INITIAL_MODEL_PARAM, null);
+      if (initialModelPath != null) {
+        initialModel = readInitialModel(new File(initialModelPath));
+      }
+    }
+
+    if (heldOutMonitor == null) {
+      String heldOutPath = trainingParameters.getStringParameter(HELD_OUT_EVENTS_PARAM, null);
+      if (heldOutPath != null) {
+        try (ObjectStream<Event> heldOutEvents = new FileEventStream(new File(heldOutPath))) {
+          heldOutMonitor = new EarlyStoppingMonitor(heldOutEvents,
+              trainingParameters.getIntParameter(HELD_OUT_INTERVAL_PARAM, HELD_OUT_INTERVAL_DEFAULT),
+              trainingParameters.getIntParameter(HELD_OUT_PATIENCE_PARAM, HELD_OUT_PATIENCE_DEFAULT));
+        }
+        addTrainingMonitor(heldOutMonitor);
+      }
+    }
+
+    for (TrainingMonitor monitor : trainingMonitors) {
+      monitor.trainingStarted();
+    }
+
     MaxentModel model = doTrain(indexer);
+
+    // with early stopping the best model replaces the model of the last iteration
+    for (TrainingMonitor monitor : trainingMonitors) {
+      if (monitor instanceof EarlyStoppingMonitor) {
+        AbstractModel bestModel = ((EarlyStoppingMonitor) monitor).getBestModel();
+        if (bestModel != null) {
+          model = bestModel;
+          break;
+        }
+      }
+    }
     addToReport(AbstractTrainer.TRAINER_TYPE_PARAM, EventTrainer.EVENT_VALUE);
     return model;
   }
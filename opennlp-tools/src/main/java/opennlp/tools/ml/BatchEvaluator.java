@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ml;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import opennlp.tools.ml.model.MaxentModel;
+import opennlp.tools.util.cache.ArrayKey;
+
+/**
+ * Evaluates batches of inputs, identical inputs of a batch are only processed
+ * once and the distinct inputs can optionally be processed in parallel by
+ * an {@link ExecutorService}.
+ */
+public final class BatchEvaluator {
+
+  private BatchEvaluator() {
+  }
+
+  /**
+   * Evaluates the model on all contexts of a batch. The model is only
+   * evaluated once for contexts with identical predicates.
+   *
+   * @param model the model, must be thread-safe if an executor is used
+   * @param contexts the contexts to evaluate
+   * @param executor the executor to evaluate the distinct contexts, or null
+   *     to evaluate them on the calling thread
+   *
+   * @return the outcome probabilities for each context, in the order of the contexts
+   */
+  public static List<double[]> eval(MaxentModel model, List<String[]> contexts,
+      ExecutorService executor) {
+    return applyDistinct(contexts, model::eval, double[]::clone, executor);
+  }
+
+  /**
+   * Applies a function to all inputs of a batch, the function is only called
+   * once for inputs with identical elements.
+   *
+   * @param inputs the inputs
+   * @param function the function, must be thread-safe if an executor is used
+   * @param copier creates a copy of a result for repeated inputs, or null to
+   *     share the result object between identical inputs
+   * @param executor the executor to apply the function to the distinct inputs,
+   *     or null to process them on the calling thread
+   *
+   * @return the results, in the order of the inputs
+   */
+  public static <R> List<R> applyDistinct(List<String[]> inputs, Function<String[], R> function,
+      UnaryOperator<R> copier, ExecutorService executor) {
+
+    Map<ArrayKey, Integer> distinctIndex = new HashMap<>();
+    List<String[]> distinct = new ArrayList<>();
+    int[] inputToDistinct = new int[inputs.size()];
+
+    for (int i = 0; i < inputs.size(); i++) {
+      String[] input = inputs.get(i);
+      Integer index = distinctIndex.putIfAbsent(new ArrayKey(input), distinct.size());
+      if (index == null) {
+        index = distinct.size();
+        distinct.add(input);
+      }
+      inputToDistinct[i] = index;
+    }
+
+    List<R> distinctResults = apply(distinct, function, executor);
+
+    List<R> results = new ArrayList<>(inputs.size());
+    boolean[] used = new boolean[distinct.size()];
+    for (int i = 0; i < inputToDistinct.length; i++) {
+      int index = inputToDistinct[i];
+      R result = distinctResults.get(index);
+      if (used[index] && copier != null) {
+        result = copier.apply(result);
+      }
+      used[index] = true;
+      results.add(result);
+    }
+
+    return results;
+  }
+
+  /**
+   * Applies a function to all inputs of a batch, the inputs are split into
+   * consecutive parts which are submitted to the executor.
+   *
+   * @param inputs the inputs
+   * @param function the function, must be thread-safe if an executor is used
+   * @param executor the executor, or null to process the inputs on the calling thread
+   *
+   * @return the results, in the order of the inputs
+   */
+  public static <T, R> List<R> apply(List<T> inputs, Function<T, R> function,
+      ExecutorService executor) {
+
+    if (executor == null || inputs.size() < 2) {
+      List<R> results = new ArrayList<>(inputs.size());
+      for (T input : inputs) {
+        results.add(function.apply(input));
+      }
+      return results;
+    }
+
+    int numParts = Math.min(inputs.size(), Runtime.getRuntime().availableProcessors() * 2);
+    int partSize = (inputs.size() + numParts - 1) / numParts;
+
+    List<Future<List<R>>> parts = new ArrayList<>();
+    for (int start = 0; start < inputs.size(); start += partSize) {
+      List<T> part = inputs.subList(start, Math.min(start + partSize, inputs.size()));
+      parts.add(executor.submit(() -> apply(part, function, null)));
+    }
+
+    List<R> results = new ArrayList<>(inputs.size());
+    try {
+      for (Future<List<R>> part : parts) {
+        results.addAll(part.get());
+      }
+    }
+    catch (InterruptedException e) {
+      for (Future<List<R>> part : parts) {
+        part.cancel(true);
+      }
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the batch", e);
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Failed to process the batch", e.getCause());
+    }
+
+    return results;
+  }
+}
@@ -17,21 +17,31 @@
 
 package opennlp.tools.ml;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-import java.util.PriorityQueue;
-import java.util.Queue;
 
 import opennlp.tools.ml.model.MaxentModel;
 import opennlp.tools.ml.model.SequenceClassificationModel;
 import opennlp.tools.util.BeamSearchContextGenerator;
-import opennlp.tools.util.Cache;
 import opennlp.tools.util.Sequence;
 import opennlp.tools.util.SequenceValidator;
+import opennlp.tools.util.cache.ArrayKey;
+import opennlp.tools.util.cache.ConcurrentCache;
+import opennlp.tools.util.cache.EvictionPolicy;
+import opennlp.tools.util.cache.Weigher;
 
 /**
  * Performs k-best search over sequence.  This is based on the description in
  * Ratnaparkhi (1998), PhD diss, Univ. of Pennsylvania.
+ * <p>
+ * The hypotheses of the beam are kept in preallocated parallel arrays of
+ * back-pointers, outcome ids and scores, the top-k extensions at each position
+ * are selected with a bounded heap. {@link Sequence} objects are only created
+ * for the returned results.
+ * <p>
+ * The model is evaluated as it is passed in. The tool models pass the compiled
+ * form of their models, see {@link opennlp.tools.ml.model.AbstractModel#compile()},
+ * which evaluates faster.
  *
  * @see Sequence
  * @see SequenceValidator
@@ -47,9 +57,11 @@ public class BeamSearch<T> implements SequenceClassificationModel<T> {
   protected MaxentModel model;
 
   private double[] probs;
-  private Cache<String[], double[]> contextsCache;
+  private ConcurrentCache<ArrayKey, double[]> contextsCache;
   private static final int zeroLog = -100000;
 
+  private final Beams beams = new Beams();
+
   /**
    * Creates new search object.
    *
@@ -60,14 +72,34 @@ public class BeamSearch<T> implements SequenceClassificationModel<T> {
     this(size, model, 0);
   }
 
+  /**
+   * Creates new search object which caches the evaluations of the given
+   * number of contexts.
+   *
+   * @param size The size of the beam (k).
+   * @param model the model for assigning probabilities to the sequence outcomes.
+   * @param cacheSize the number of contexts to cache, zero disables the cache
+   */
   public BeamSearch(int size, MaxentModel model, int cacheSize) {
+    this(size, model, cacheSize > 0 ? new ConcurrentCache<>(cacheSize, EvictionPolicy.LRU,
+        Weigher.entries(), 1) : null);
+  }
+
+  /**
+   * Creates new search object which caches the model evaluations in the given
+   * cache, the cache can be shared with other searches and threads.
+   *
+   * @param size The size of the beam (k).
+   * @param model the model for assigning probabilities to the sequence outcomes.
+   * @param contextsCache the cache for the evaluations, or null to disable caching
+   */
+  public BeamSearch(int size, MaxentModel model, ConcurrentCache<ArrayKey, double[]> contextsCache) {
 
     this.size = size;
+
     this.model = model;
 
-    if (cacheSize > 0) {
-      contextsCache = new Cache<>(cacheSize);
-    }
+    this.contextsCache = contextsCache;
 
     this.probs = new double[model.getNumOutcomes()];
   }
@@ -86,74 +118,77 @@ public class BeamSearch<T> implements SequenceClassificationModel<T> {
       Object[] additionalContext, double minSequenceScore,
       BeamSearchContextGenerator<T> cg, SequenceValidator<T> validator) {
 
-    Queue<Sequence> prev = new PriorityQueue<>(size);
-    Queue<Sequence> next = new PriorityQueue<>(size);
-    Queue<Sequence> tmp;
-    prev.add(new Sequence());
-
     if (additionalContext == null) {
       additionalContext = EMPTY_ADDITIONAL_CONTEXT;
     }
 
+    if (sequence.length == 0) {
+      return numSequences > 0 ? new Sequence[] {new Sequence()} : new Sequence[0];
+    }
+
+    Beams b = beams;
+    b.init(Math.max(size, numSequences), sequence.length, model.getNumOutcomes());
+
     for (int i = 0; i < sequence.length; i++) {
-      int sz = Math.min(size, prev.size());
+      int sz = Math.min(size, b.beamSize);
 
-      for (int sc = 0; prev.size() > 0 && sc < sz; sc++) {
-        Sequence top = prev.remove();
-        List<String> tmpOutcomes = top.getOutcomes();
-        String[] outcomes = tmpOutcomes.toArray(new String[tmpOutcomes.size()]);
+      b.clearCandidates();
+
+      for (int sc = 0; sc < sz; sc++) {
+        String[] outcomes = b.histories[sc];
         String[] contexts = cg.getContext(i, sequence, outcomes, additionalContext);
         double[] scores;
         if (contextsCache != null) {
-          scores = contextsCache.computeIfAbsent(contexts, c -> model.eval(c, probs));
+          ArrayKey key = new ArrayKey(model, contexts);
+          scores = contextsCache.get(key);
+          if (scores == null) {
+            scores = model.eval(contexts, probs);
+            contextsCache.put(new ArrayKey(model, contexts.clone()), scores.clone());
+          }
         } else {
           scores = model.eval(contexts, probs);
         }
 
-        double[] temp_scores = new double[scores.length];
-        System.arraycopy(scores, 0, temp_scores, 0, scores.length);
-
-        Arrays.sort(temp_scores);
-
-        double min = temp_scores[Math.max(0,scores.length - size)];
+        double min = b.threshold(scores, size);
+        double topScore = b.scores[sc];
 
         for (int p = 0; p < scores.length; p++) {
           if (scores[p] >= min) {
             String out = model.getOutcome(p);
             if (validator.validSequence(i, sequence, outcomes, out)) {
-              Sequence ns = new Sequence(top, out, scores[p]);
-              if (ns.getScore() > minSequenceScore) {
-                next.add(ns);
+              double score = topScore + Math.log(scores[p]);
+              if (score > minSequenceScore) {
+                b.addCandidate(score, sc, p, scores[p]);
               }
             }
           }
         }
 
-        if (next.size() == 0) { //if no advanced sequences, advance all valid
+        if (b.numCandidates == 0) { //if no advanced sequences, advance all valid
           for (int p = 0; p < scores.length; p++) {
             String out = model.getOutcome(p);
             if (validator.validSequence(i, sequence, outcomes, out)) {
-              Sequence ns = new Sequence(top, out, scores[p]);
-              if (ns.getScore() > minSequenceScore) {
-                next.add(ns);
+              double score = topScore + Math.log(scores[p]);
+              if (score > minSequenceScore) {
+                b.addCandidate(score, sc, p, scores[p]);
               }
             }
           }
         }
       }
 
-      //    make prev = next; and re-init next (we reuse existing prev set once we clear it)
-      prev.clear();
-      tmp = prev;
-      prev = next;
-      next = tmp;
+      b.advance(i, model);
+
+      if (b.beamSize == 0) {
+        return new Sequence[0];
+      }
     }
 
-    int numSeq = Math.min(numSequences, prev.size());
+    int numSeq = Math.min(numSequences, b.beamSize);
     Sequence[] topSequences = new Sequence[numSeq];
 
     for (int seqIndex = 0; seqIndex < numSeq; seqIndex++) {
-      topSequences[seqIndex] = prev.remove();
+      topSequences[seqIndex] = b.toSequence(seqIndex, sequence.length);
     }
 
     return topSequences;
@@ -184,4 +219,206 @@ public class BeamSearch<T> implements SequenceClassificationModel<T> {
 
     return outcomes;
   }
+
+  /**
+   * The search lattice. The hypotheses of the current beam are sorted by
+   * descending score, for every position the back-pointer, outcome id and
+   * probability of each hypothesis is stored so that the results can be
+   * reconstructed at the end. The candidates of the next beam are kept in
+   * a bounded min-heap. The arrays are reused across searches and only grow.
+   */
+  static final class Beams {
+
+    private int capacity;
+
+    /** Per position and hypothesis the index of the parent hypothesis. */
+    private int[][] parents = new int[0][];
+    /** Per position and hypothesis the outcome id. */
+    private int[][] outcomeIds = new int[0][];
+    /** Per position and hypothesis the probability of the outcome. */
+    private double[][] outcomeProbs = new double[0][];
+
+    /** The scores of the current beam. */
+    double[] scores = new double[0];
+    /** The outcomes of the current beam, the array length is the position. */
+    String[][] histories = new String[0][];
+    private String[][] nextHistories = new String[0][];
+    int beamSize;
+
+    private double[] candScores = new double[0];
+    private int[] candParents = new int[0];
+    private int[] candOutcomes = new int[0];
+    private double[] candProbs = new double[0];
+    int numCandidates;
+
+    /** The top scores of an evaluation in ascending order. */
+    private double[] topScores = new double[0];
+
+    void init(int capacity, int length, int numOutcomes) {
+      if (this.capacity < capacity) {
+        this.capacity = capacity;
+        scores = new double[capacity];
+        histories = new String[capacity][];
+        nextHistories = new String[capacity][];
+        candScores = new double[capacity];
+        candParents = new int[capacity];
+        candOutcomes = new int[capacity];
+        candProbs = new double[capacity];
+        parents = new int[0][];
+        outcomeIds = new int[0][];
+        outcomeProbs = new double[0][];
+      }
+
+      if (parents.length < length) {
+        int oldLength = parents.length;
+        parents = Arrays.copyOf(parents, length);
+        outcomeIds = Arrays.copyOf(outcomeIds, length);
+        outcomeProbs = Arrays.copyOf(outcomeProbs, length);
+        for (int i = oldLength; i < length; i++) {
+          parents[i] = new int[this.capacity];
+          outcomeIds[i] = new int[this.capacity];
+          outcomeProbs[i] = new double[this.capacity];
+        }
+      }
+
+      if (topScores.length < numOutcomes) {
+        topScores = new double[numOutcomes];
+      }
+
+      scores[0] = 0d;
+      histories[0] = new String[0];
+      beamSize = 1;
+    }
+
+    /**
+     * Computes the score an outcome needs to be among the size best outcomes,
+     * if there are less outcomes than size all outcomes are accepted.
+     */
+    double threshold(double[] probs, int size) {
+      int k = Math.min(size, probs.length);
+      if (k <= 0) {
+        return Double.NEGATIVE_INFINITY;
+      }
+
+      int count = 0;
+      for (double score : probs) {
+        if (count < k) {
+          int pos = count++;
+          while (pos > 0 && topScores[pos - 1] > score) {
+            topScores[pos] = topScores[pos - 1];
+            pos--;
+          }
+          topScores[pos] = score;
+        }
+        else if (score > topScores[0]) {
+          int pos = 0;
+          while (pos + 1 < k && topScores[pos + 1] < score) {
+            topScores[pos] = topScores[pos + 1];
+            pos++;
+          }
+          topScores[pos] = score;
+        }
+      }
+      return topScores[0];
+    }
+
+    void clearCandidates() {
+      numCandidates = 0;
+    }
+
+    void addCandidate(double score, int parent, int outcome, double prob) {
+      if (numCandidates < capacity) {
+        int pos = numCandidates++;
+        while (pos > 0) {
+          int up = (pos - 1) >>> 1;
+          if (candScores[up] <= score) {
+            break;
+          }
+          moveCandidate(up, pos);
+          pos = up;
+        }
+        setCandidate(pos, score, parent, outcome, prob);
+      }
+      else if (score > candScores[0]) {
+        siftDown(0, numCandidates, score, parent, outcome, prob);
+      }
+    }
+
+    private void siftDown(int pos, int n, double score, int parent, int outcome, double prob) {
+      while (true) {
+        int child = 2 * pos + 1;
+        if (child >= n) {
+          break;
+        }
+        if (child + 1 < n && candScores[child + 1] < candScores[child]) {
+          child++;
+        }
+        if (score <= candScores[child]) {
+          break;
+        }
+        moveCandidate(child, pos);
+        pos = child;
+      }
+      setCandidate(pos, score, parent, outcome, prob);
+    }
+
+    private void moveCandidate(int from, int to) {
+      setCandidate(to, candScores[from], candParents[from], candOutcomes[from], candProbs[from]);
+    }
+
+    private void setCandidate(int pos, double score, int parent, int outcome, double prob) {
+      candScores[pos] = score;
+      candParents[pos] = parent;
+      candOutcomes[pos] = outcome;
+      candProbs[pos] = prob;
+    }
+
+    /**
+     * Replaces the current beam with the candidates, ordered by descending score.
+     */
+    void advance(int position, MaxentModel model) {
+      int n = numCandidates;
+
+      // heap sort, the smallest candidate is moved to the end of the heap
+      for (int last = n - 1; last > 0; last--) {
+        double score = candScores[last];
+        int parent = candParents[last];
+        int outcome = candOutcomes[last];
+        double prob = candProbs[last];
+        moveCandidate(0, last);
+        siftDown(0, last, score, parent, outcome, prob);
+      }
+
+      for (int j = 0; j < n; j++) {
+        parents[position][j] = candParents[j];
+        outcomeIds[position][j] = candOutcomes[j];
+        outcomeProbs[position][j] = candProbs[j];
+        scores[j] = candScores[j];
+
+        String[] parentHistory = histories[candParents[j]];
+        String[] history = Arrays.copyOf(parentHistory, position + 1);
+        history[position] = model.getOutcome(candOutcomes[j]);
+        nextHistories[j] = history;
+      }
+
+      String[][] tmp = histories;
+      histories = nextHistories;
+      nextHistories = tmp;
+      beamSize = n;
+      numCandidates = 0;
+    }
+
+    Sequence toSequence(int hypothesis, int length) {
+      Double[] probs = new Double[length];
+
+      int h = hypothesis;
+      for (int i = length - 1; i >= 0; i--) {
+        probs[i] = outcomeProbs[i][h];
+        h = parents[i][h];
+      }
+
+      return new Sequence(scores[hypothesis], new ArrayList<>(Arrays.asList(histories[hypothesis])),
+          new ArrayList<>(Arrays.asList(probs)));
+    }
+  }
 }
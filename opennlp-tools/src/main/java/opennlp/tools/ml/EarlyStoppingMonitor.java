@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.Event;
+import opennlp.tools.util.ObjectStream;
+
+/**
+ * A {@link TrainingMonitor} which evaluates the model on held-out events every few
+ * iterations and stops the training when the held-out accuracy stops improving.
+ * The model with the best held-out accuracy is returned by the trainer.
+ */
+public class EarlyStoppingMonitor implements TrainingMonitor {
+
+  private final List<Event> heldOutEvents = new ArrayList<>();
+  private final int evaluationInterval;
+  private final int patience;
+  private final double minImprovement;
+
+  private double bestAccuracy = -1;
+  private int bestIteration;
+  private AbstractModel bestModel;
+
+  // Number of evaluations since the best accuracy was reached
+  private int evaluationsWithoutImprovement;
+
+  private final List<Double> accuracies = new ArrayList<>();
+
+  /**
+   * Initializes the current instance. The held-out events are read into memory.
+   *
+   * @param heldOutEvents the held-out events
+   * @param evaluationInterval the number of iterations between two evaluations
+   * @param patience the number of evaluations without improvement after which
+   *                 the training is stopped
+   * @param minImprovement the minimal increase of the held-out accuracy which
+   *                       counts as an improvement
+   *
+   * @throws IOException if reading the held-out events fails
+   */
+  public EarlyStoppingMonitor(ObjectStream<Event> heldOutEvents, int evaluationInterval,
+      int patience, double minImprovement) throws IOException {
+
+    if (evaluationInterval < 1) {
+      throw new IllegalArgumentException("evaluationInterval must be at least 1");
+    }
+
+    if (patience < 1) {
+      throw new IllegalArgumentException("patience must be at least 1");
+    }
+
+    Event event;
+    while ((event = heldOutEvents.read()) != null) {
+      this.heldOutEvents.add(event);
+    }
+
+    if (this.heldOutEvents.isEmpty()) {
+      throw new IllegalArgumentException("heldOutEvents must not be empty");
+    }
+
+    this.evaluationInterval = evaluationInterval;
+    this.patience = patience;
+    this.minImprovement = minImprovement;
+  }
+
+  public EarlyStoppingMonitor(ObjectStream<Event> heldOutEvents, int evaluationInterval,
+      int patience) throws IOException {
+    this(heldOutEvents, evaluationInterval, patience, 0);
+  }
+
+  @Override
+  public void trainingStarted() {
+    bestAccuracy = -1;
+    bestIteration = 0;
+    bestModel = null;
+    evaluationsWithoutImprovement = 0;
+    accuracies.clear();
+  }
+
+  @Override
+  public boolean iterationCompleted(IterationMetrics metrics, Supplier<AbstractModel> model) {
+
+    if (metrics.getIteration() % evaluationInterval != 0) {
+      return false;
+    }
+
+    AbstractModel current = model.get();
+    double accuracy = evaluate(current);
+    accuracies.add(accuracy);
+
+    if (accuracy > bestAccuracy + minImprovement || bestModel == null) {
+      bestAccuracy = accuracy;
+      bestIteration = metrics.getIteration();
+      bestModel = current;
+      evaluationsWithoutImprovement = 0;
+      return false;
+    }
+
+    return ++evaluationsWithoutImprovement >= patience;
+  }
+
+  private double evaluate(AbstractModel model) {
+    int correct = 0;
+    for (Event event : heldOutEvents) {
+      double[] probs = model.eval(event.getContext(), event.getValues());
+      if (model.getBestOutcome(probs).equals(event.getOutcome())) {
+        correct++;
+      }
+    }
+    return (double) correct / heldOutEvents.size();
+  }
+
+  /**
+   * @return the model with the best held-out accuracy, or null if no evaluation was done
+   */
+  public AbstractModel getBestModel() {
+    return bestModel;
+  }
+
+  /**
+   * @return the best held-out accuracy, or -1 if no evaluation was done
+   */
+  public double getBestAccuracy() {
+    return bestAccuracy;
+  }
+
+  /**
+   * @return the iteration of the best model, or 0 if no evaluation was done
+   */
+  public int getBestIteration() {
+    return bestIteration;
+  }
+
+  /**
+   * @return the held-out accuracies of all evaluations, in iteration order
+   */
+  public List<Double> getAccuracies() {
+    return accuracies;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml;
+
+/**
+ * The metrics of a single training iteration, which are passed to the
+ * {@link TrainingMonitor}s of a trainer.
+ */
+public class IterationMetrics {
+
+  private final int iteration;
+  private final long iterationNanos;
+  private final long elapsedNanos;
+  private final double logLikelihood;
+  private final double trainingAccuracy;
+  private final long numEvents;
+
+  /**
+   * Initializes the current instance.
+   *
+   * @param iteration the iteration, starting at 1
+   * @param iterationNanos the duration of the iteration in nanoseconds
+   * @param elapsedNanos the duration of the training up to and including this iteration
+   * @param logLikelihood the log-likelihood of the training data, or {@link Double#NaN}
+   *                      if the trainer does not compute it
+   * @param trainingAccuracy the accuracy on the training data
+   * @param numEvents the number of events which were processed in the iteration
+   */
+  public IterationMetrics(int iteration, long iterationNanos, long elapsedNanos,
+      double logLikelihood, double trainingAccuracy, long numEvents) {
+    this.iteration = iteration;
+    this.iterationNanos = iterationNanos;
+    this.elapsedNanos = elapsedNanos;
+    this.logLikelihood = logLikelihood;
+    this.trainingAccuracy = trainingAccuracy;
+    this.numEvents = numEvents;
+  }
+
+  public int getIteration() {
+    return iteration;
+  }
+
+  /**
+   * @return the duration of the iteration in milliseconds
+   */
+  public double getIterationTimeMillis() {
+    return iterationNanos / 1e6;
+  }
+
+  /**
+   * @return the duration of the training so far in milliseconds
+   */
+  public double getElapsedTimeMillis() {
+    return elapsedNanos / 1e6;
+  }
+
+  /**
+   * @return the log-likelihood of the training data, or {@link Double#NaN} if the
+   *         trainer does not compute it. For regularized trainers the value includes
+   *         the regularization penalty.
+   */
+  public double getLogLikelihood() {
+    return logLikelihood;
+  }
+
+  public double getTrainingAccuracy() {
+    return trainingAccuracy;
+  }
+
+  public long getNumEvents() {
+    return numEvents;
+  }
+
+  /**
+   * @return the number of events which were processed per second in this iteration
+   */
+  public double getEventsPerSecond() {
+    return iterationNanos > 0 ? numEvents * 1e9 / iterationNanos : Double.POSITIVE_INFINITY;
+  }
+
+  @Override
+  public String toString() {
+    return "Iteration: " + iteration
+        + " Time: " + getIterationTimeMillis() + "ms"
+        + " Log-likelihood: " + logLikelihood
+        + " Accuracy: " + trainingAccuracy
+        + " Events/s: " + getEventsPerSecond();
+  }
+}
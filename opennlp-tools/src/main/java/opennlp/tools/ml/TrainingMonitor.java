@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml;
+
+import java.util.function.Supplier;
+
+import opennlp.tools.ml.model.AbstractModel;
+
+/**
+ * A {@link TrainingMonitor} is notified by an iterative {@link AbstractEventTrainer}
+ * after every training iteration. It can record the metrics of the iterations and
+ * stop the training early.
+ *
+ * @see AbstractEventTrainer#addTrainingMonitor(TrainingMonitor)
+ * @see AbstractEventTrainer#HELD_OUT_EVENTS_PARAM
+ * @see EarlyStoppingMonitor
+ */
+public interface TrainingMonitor {
+
+  /**
+   * Called before the first iteration of every training run. A monitor which is
+   * added to a trainer that is trained several times resets its state here.
+   */
+  default void trainingStarted() {
+  }
+
+  /**
+   * Called after each training iteration.
+   *
+   * @param metrics the metrics of the completed iteration
+   * @param model creates a snapshot of the model after this iteration, which is
+   *              expensive and should only be done if the model is needed
+   *
+   * @return true to stop the training after this iteration, false to continue
+   */
+  boolean iterationCompleted(IterationMetrics metrics, Supplier<AbstractModel> model);
+}
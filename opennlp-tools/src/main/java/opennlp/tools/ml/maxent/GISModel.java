@@ -18,6 +18,7 @@
 package opennlp.tools.ml.maxent;
 
 import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.CompiledModel;
 import opennlp.tools.ml.model.Context;
 import opennlp.tools.ml.model.EvalParameters;
 import opennlp.tools.ml.model.Prior;
@@ -103,6 +104,11 @@ public final class GISModel extends AbstractModel {
    *         method getOutcome(int i).
    */
   public final double[] eval(String[] context, float[] values, double[] outsums) {
+    CompiledModel compiled = getCompiledModel();
+    if (compiled != null) {
+      return compiled.eval(context, values, outsums);
+    }
+
     Context[] scontexts = new Context[context.length];
     for (int i = 0; i < context.length; i++) {
       scontexts[i] = pmap.get(context[i]);
@@ -182,23 +188,13 @@ public final class GISModel extends AbstractModel {
    */
   static double[] eval(Context[] context, float[] values, double[] prior,
                        EvalParameters model) {
-    int[] numfeats = new int[model.getNumOutcomes()];
-    int[] activeOutcomes;
-    double[] activeParameters;
     double value = 1;
     for (int ci = 0; ci < context.length; ci++) {
       if (context[ci] != null) {
-        Context predParams = context[ci];
-        activeOutcomes = predParams.getOutcomes();
-        activeParameters = predParams.getParameters();
         if (values != null) {
           value = values[ci];
         }
-        for (int ai = 0; ai < activeOutcomes.length; ai++) {
-          int oid = activeOutcomes[ai];
-          numfeats[oid]++;
-          prior[oid] += activeParameters[ai] * value;
-        }
+        context[ci].addScores(prior, value);
       }
     }
 
@@ -28,10 +28,12 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import opennlp.tools.ml.AbstractEventTrainer;
+import opennlp.tools.ml.IterationMetrics;
 import opennlp.tools.ml.model.AbstractModel;
 import opennlp.tools.ml.model.DataIndexer;
 import opennlp.tools.ml.model.EvalParameters;
 import opennlp.tools.ml.model.Event;
+import opennlp.tools.ml.model.InitialParameters;
 import opennlp.tools.ml.model.MaxentModel;
 import opennlp.tools.ml.model.MutableContext;
 import opennlp.tools.ml.model.OnePassDataIndexer;
@@ -92,6 +94,14 @@ public class GISTrainer extends AbstractEventTrainer {
    * Number of outcomes.
    */
   private int numOutcomes;
+  /**
+   * Training accuracy of the last iteration.
+   */
+  private double iterationAccuracy;
+  /**
+   * Number of events seen in the last iteration.
+   */
+  private int iterationEvents;
   /**
    * Records the array of predicates seen in each event.
    */
@@ -461,6 +471,12 @@ public class GISTrainer extends AbstractEventTrainer {
       }
     }
 
+    InitialParameters initialParameters =
+        getInitialParameters(di, AbstractModel.ModelType.Maxent, AbstractModel.ModelType.MaxentQn);
+    if (initialParameters != null) {
+      initialParameters.initialize(params);
+    }
+
     display("...done.\n");
 
     /* Find the parameters *****/
@@ -486,7 +502,9 @@ public class GISTrainer extends AbstractEventTrainer {
     double prevLL = 0.0;
     double currLL;
     display("Performing " + iterations + " iterations.\n");
+    long startTime = System.nanoTime();
     for (int i = 1; i <= iterations; i++) {
+      long iterationStart = System.nanoTime();
       if (i < 10) {
         display("  " + i + ":  ");
       } else if (i < 100) {
@@ -495,6 +513,14 @@ public class GISTrainer extends AbstractEventTrainer {
         display(i + ":  ");
       }
       currLL = nextIteration(correctionConstant, completionService);
+
+      long now = System.nanoTime();
+      if (iterationCompleted(new IterationMetrics(i, now - iterationStart, now - startTime,
+          currLL, iterationAccuracy, iterationEvents),
+          () -> new GISModel(copyParameters(params), predLabels, outcomeLabels))) {
+        break;
+      }
+
       if (i > 1) {
         if (prevLL > currLL) {
           System.err.println("Model Diverging: loglikelihood decreased");
@@ -627,7 +653,10 @@ public class GISTrainer extends AbstractEventTrainer {
       }
     }
 
-    display(". loglikelihood=" + loglikelihood + "\t" + ((double) numCorrect / numEvents) + "\n");
+    iterationAccuracy = (double) numCorrect / numEvents;
+    iterationEvents = numEvents;
+
+    display(". loglikelihood=" + loglikelihood + "\t" + iterationAccuracy + "\n");
 
     return loglikelihood;
   }
@@ -28,21 +28,38 @@ public class ArrayMath {
     if (vecA == null || vecB == null || vecA.length != vecB.length)
       return Double.NaN;
 
-    double product = 0.0;
-    for (int i = 0; i < vecA.length; i++) {
-      product += vecA[i] * vecB[i];
+    // Four independent partial sums, the additions of one block do not wait for
+    // each other and can be executed in parallel by the processor
+    double p0 = 0, p1 = 0, p2 = 0, p3 = 0;
+    int i = 0;
+    for (int blockEnd = vecA.length & ~3; i < blockEnd; i += 4) {
+      p0 += vecA[i] * vecB[i];
+      p1 += vecA[i + 1] * vecB[i + 1];
+      p2 += vecA[i + 2] * vecB[i + 2];
+      p3 += vecA[i + 3] * vecB[i + 3];
     }
-    return product;
+    for (; i < vecA.length; i++) {
+      p0 += vecA[i] * vecB[i];
+    }
+    return (p0 + p1) + (p2 + p3);
   }
 
   /**
    * L1-norm
    */
   public static double l1norm(double[] v) {
-    double norm = 0;
-    for (int i = 0; i < v.length; i++)
-      norm += Math.abs(v[i]);
-    return norm;
+    double n0 = 0, n1 = 0, n2 = 0, n3 = 0;
+    int i = 0;
+    for (int blockEnd = v.length & ~3; i < blockEnd; i += 4) {
+      n0 += Math.abs(v[i]);
+      n1 += Math.abs(v[i + 1]);
+      n2 += Math.abs(v[i + 2]);
+      n3 += Math.abs(v[i + 3]);
+    }
+    for (; i < v.length; i++) {
+      n0 += Math.abs(v[i]);
+    }
+    return (n0 + n1) + (n2 + n3);
   }
 
   /**
@@ -76,6 +93,30 @@ public class ArrayMath {
     return max + Math.log(sum);
   }
 
+  /**
+   * Replaces the elements of x by their normalized exponentials
+   * e^{x_i} / \sum_{j=1}^n e^{x_j} and returns \log(\sum_{j=1}^n e^{x_j}).
+   * Only one exponential is computed per element, while {@link #logSumOfExps(double[])}
+   * followed by a normalization needs two.
+   *
+   * @param x input vector, receives the probabilities
+   * @return log-sum of exponentials of the input vector elements
+   */
+  public static double softmax(double[] x) {
+    double max = max(x);
+    double sum = 0.0;
+    for (int i = 0; i < x.length; i++) {
+      double e = x[i] != Double.NEGATIVE_INFINITY ? Math.exp(x[i] - max) : 0;
+      x[i] = e;
+      sum += e;
+    }
+    double norm = 1 / sum;
+    for (int i = 0; i < x.length; i++) {
+      x[i] *= norm;
+    }
+    return max + Math.log(sum);
+  }
+
   public static double max(double[] x) {
     int maxIdx = maxIdx(x);
     return x[maxIdx];
@@ -27,4 +27,19 @@ public interface Function {
   double valueAt(double[] x);
 
   double[] gradientAt(double[] x);
+
+  /**
+   * Computes the value and the gradient at the same point. Implementations which
+   * derive both from the same intermediate results should override this method
+   * to traverse their data only once.
+   *
+   * @param x the point
+   * @param gradient receives the gradient at x
+   * @return the value at x
+   */
+  default double valueAndGradientAt(double[] x, double[] gradient) {
+    double value = valueAt(x);
+    System.arraycopy(gradientAt(x), 0, gradient, 0, gradient.length);
+    return value;
+  }
 }
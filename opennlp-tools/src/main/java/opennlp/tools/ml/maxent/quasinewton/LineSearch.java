@@ -47,6 +47,10 @@ public class LineSearch {
     // To avoid recomputing in the loop
     double cachedProd = C * dirGradientAtX;
 
+    // The first step is usually accepted, its gradient is computed together
+    // with the value in one pass
+    boolean gradientComputed = true;
+
     while (true) {
       // Get next point
       for (int i = 0; i < dimension; i++) {
@@ -54,7 +58,9 @@ public class LineSearch {
       }
 
       // New value
-      valueAtNextPoint = function.valueAt(nextPoint);
+      valueAtNextPoint = gradientComputed
+          ? function.valueAndGradientAt(nextPoint, gradAtNextPoint)
+          : function.valueAt(nextPoint);
 
       currFctEvalCount++;
 
@@ -64,11 +70,14 @@ public class LineSearch {
 
       // Shrink step size
       stepSize *= RHO;
+      gradientComputed = false;
     }
 
     // Compute and save gradient at the new point
-    System.arraycopy(function.gradientAt(nextPoint), 0, gradAtNextPoint, 0,
-        gradAtNextPoint.length);
+    if (!gradientComputed) {
+      System.arraycopy(function.gradientAt(nextPoint), 0, gradAtNextPoint, 0,
+          gradAtNextPoint.length);
+    }
 
     // Update line search result
     lsr.setAll(stepSize, valueAtX, valueAtNextPoint,
@@ -103,6 +112,10 @@ public class LineSearch {
       signX[i] = x[i] == 0 ? -pseudoGradAtX[i] : x[i];
     }
 
+    // The first step is usually accepted, its gradient is computed together
+    // with the value in one pass
+    boolean gradientComputed = true;
+
     while (true) {
       // Get next point
       for (int i = 0; i < dimension; i++) {
@@ -116,8 +129,9 @@ public class LineSearch {
       }
 
       // New value
-      valueAtNextPoint = function.valueAt(nextPoint) +
-          l1Cost * ArrayMath.l1norm(nextPoint);
+      valueAtNextPoint = (gradientComputed
+          ? function.valueAndGradientAt(nextPoint, gradAtNextPoint)
+          : function.valueAt(nextPoint)) + l1Cost * ArrayMath.l1norm(nextPoint);
 
       currFctEvalCount++;
 
@@ -132,11 +146,14 @@ public class LineSearch {
 
       // Shrink step size
       stepSize *= RHO;
+      gradientComputed = false;
     }
 
     // Compute and save gradient at the new point
-    System.arraycopy(function.gradientAt(nextPoint), 0, gradAtNextPoint, 0,
-        gradAtNextPoint.length);
+    if (!gradientComputed) {
+      System.arraycopy(function.gradientAt(nextPoint), 0, gradAtNextPoint, 0,
+          gradAtNextPoint.length);
+    }
 
     // Update line search result
     lsr.setAll(stepSize, valueAtX, valueAtNextPoint, gradAtX,
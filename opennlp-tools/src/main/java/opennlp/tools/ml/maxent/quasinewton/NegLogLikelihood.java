@@ -20,7 +20,6 @@ package opennlp.tools.ml.maxent.quasinewton;
 import java.util.Arrays;
 
 import opennlp.tools.ml.model.DataIndexer;
-import opennlp.tools.ml.model.OnePassRealValueDataIndexer;
 
 /**
  * Evaluate negative log-likelihood and its gradient from DataIndexer.
@@ -47,11 +46,7 @@ public class NegLogLikelihood implements Function {
   public NegLogLikelihood(DataIndexer indexer) {
 
     // Get data from indexer.
-    if (indexer instanceof OnePassRealValueDataIndexer) {
-      this.values = indexer.getValues();
-    } else {
-      this.values = null;
-    }
+    this.values = indexer.getValues();
 
     this.contexts    = indexer.getContexts();
     this.outcomeList = indexer.getOutcomeList();
@@ -84,76 +79,129 @@ public class NegLogLikelihood implements Function {
       throw new IllegalArgumentException(
           "x is invalid, its dimension is not equal to domain dimension.");
 
-    int ci, oi, ai, vectorIndex, outcome;
-    double predValue, logSumOfExps;
+    return valueAt(x, 0, numContexts, tempSums);
+  }
+
+  /**
+   * Compute gradient
+   */
+  public double[] gradientAt(double[] x) {
+
+    if (x.length != dimension)
+      throw new IllegalArgumentException(
+          "x is invalid, its dimension is not equal to the function.");
+
+    Arrays.fill(gradient, 0);
+    valueAndGradientAt(x, 0, numContexts, expectation, gradient);
+
+    return gradient;
+  }
+
+  /**
+   * Negative log-likelihood and its gradient, computed in one pass over the contexts
+   */
+  @Override
+  public double valueAndGradientAt(double[] x, double[] gradient) {
+
+    if (x.length != dimension || gradient.length != dimension)
+      throw new IllegalArgumentException(
+          "x is invalid, its dimension is not equal to the function.");
+
+    Arrays.fill(gradient, 0);
+    return valueAndGradientAt(x, 0, numContexts, expectation, gradient);
+  }
+
+  /**
+   * Computes the negative log-likelihood of the contexts in the given range.
+   *
+   * @param sums temporary array of length numOutcomes
+   */
+  protected double valueAt(double[] x, int start, int end, double[] sums) {
     double negLogLikelihood = 0;
 
-    for (ci = 0; ci < numContexts; ci++) {
-      for (oi = 0; oi < numOutcomes; oi++) {
-        tempSums[oi] = 0;
-        for (ai = 0; ai < contexts[ci].length; ai++) {
-          vectorIndex = indexOf(oi, contexts[ci][ai]);
-          predValue = values != null ? values[ci][ai] : 1.0;
-          tempSums[oi] += predValue * x[vectorIndex];
-        }
-      }
+    for (int ci = start; ci < end; ci++) {
+      scores(x, contexts[ci], values != null ? values[ci] : null, sums);
 
-      logSumOfExps = ArrayMath.logSumOfExps(tempSums);
+      double logSumOfExps = ArrayMath.logSumOfExps(sums);
 
-      outcome = outcomeList[ci];
-      negLogLikelihood -= (tempSums[outcome] - logSumOfExps) * numTimesEventsSeen[ci];
+      negLogLikelihood -= (sums[outcomeList[ci]] - logSumOfExps) * numTimesEventsSeen[ci];
     }
 
     return negLogLikelihood;
   }
 
   /**
-   * Compute gradient
+   * Computes the negative log-likelihood of the contexts in the given range and
+   * adds their gradient to the given array. The scores of a context are computed
+   * once and used for both.
+   *
+   * @param expectation temporary array of length numOutcomes
    */
-  public double[] gradientAt(double[] x) {
+  protected double valueAndGradientAt(double[] x, int start, int end,
+      double[] expectation, double[] gradient) {
+    double negLogLikelihood = 0;
 
-    if (x.length != dimension)
-      throw new IllegalArgumentException(
-          "x is invalid, its dimension is not equal to the function.");
+    for (int ci = start; ci < end; ci++) {
+      int[] context = contexts[ci];
+      float[] value = values != null ? values[ci] : null;
+      int outcome = outcomeList[ci];
+      int count = numTimesEventsSeen[ci];
 
-    int ci, oi, ai, vectorIndex;
-    double predValue, logSumOfExps;
-    int empirical;
+      scores(x, context, value, expectation);
 
-    // Reset gradient
-    Arrays.fill(gradient, 0);
+      double score = expectation[outcome];
+      double logSumOfExps = ArrayMath.softmax(expectation);
+
+      negLogLikelihood -= (score - logSumOfExps) * count;
 
-    for (ci = 0; ci < numContexts; ci++) {
-      for (oi = 0; oi < numOutcomes; oi++) {
-        expectation[oi] = 0;
-        for (ai = 0; ai < contexts[ci].length; ai++) {
-          vectorIndex = indexOf(oi, contexts[ci][ai]);
-          predValue = values != null ? values[ci][ai] : 1.0;
-          expectation[oi] += predValue * x[vectorIndex];
+      for (int oi = 0; oi < numOutcomes; oi++) {
+        double weight = (oi == outcome ? expectation[oi] - 1 : expectation[oi]) * count;
+        int base = indexOf(oi, 0);
+        if (value == null) {
+          for (int ai = 0; ai < context.length; ai++) {
+            gradient[base + context[ai]] += weight;
+          }
+        }
+        else {
+          for (int ai = 0; ai < context.length; ai++) {
+            gradient[base + context[ai]] += weight * value[ai];
+          }
         }
       }
+    }
 
-      logSumOfExps = ArrayMath.logSumOfExps(expectation);
+    return negLogLikelihood;
+  }
 
-      for (oi = 0; oi < numOutcomes; oi++) {
-        expectation[oi] = Math.exp(expectation[oi] - logSumOfExps);
+  /**
+   * Computes the unnormalized scores of the outcomes for a context, each score
+   * is summed in a local variable instead of the array.
+   */
+  private void scores(double[] x, int[] context, float[] value, double[] sums) {
+    for (int oi = 0; oi < numOutcomes; oi++) {
+      int base = indexOf(oi, 0);
+      double sum = 0;
+      if (value == null) {
+        for (int ai = 0; ai < context.length; ai++) {
+          sum += x[base + context[ai]];
+        }
       }
-
-      for (oi = 0; oi < numOutcomes; oi++) {
-        empirical = outcomeList[ci] == oi ? 1 : 0;
-        for (ai = 0; ai < contexts[ci].length; ai++) {
-          vectorIndex = indexOf(oi, contexts[ci][ai]);
-          predValue = values != null ? values[ci][ai] : 1.0;
-          gradient[vectorIndex] +=
-              predValue * (expectation[oi] - empirical) * numTimesEventsSeen[ci];
+      else {
+        for (int ai = 0; ai < context.length; ai++) {
+          sum += value[ai] * x[base + context[ai]];
         }
       }
+      sums[oi] = sum;
     }
-
-    return gradient;
   }
 
-  protected int indexOf(int outcomeId, int featureId) {
+  /**
+   * Returns the index of the parameter of an outcome and a feature, the parameters
+   * of an outcome are stored consecutively. The method is final because the scores
+   * and the gradient are computed with this layout inlined, the outcome offset is
+   * hoisted out of the loop over the features.
+   */
+  protected final int indexOf(int outcomeId, int featureId) {
     return outcomeId * numFeatures + featureId;
   }
 }
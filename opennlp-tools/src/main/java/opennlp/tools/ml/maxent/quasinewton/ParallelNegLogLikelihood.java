@@ -99,6 +99,34 @@ public class ParallelNegLogLikelihood extends NegLogLikelihood {
     return gradient;
   }
 
+  /**
+   * Negative log-likelihood and gradient, computed in one pass over the contexts
+   */
+  @Override
+  public double valueAndGradientAt(double[] x, double[] gradient) {
+
+    if (x.length != dimension || gradient.length != dimension)
+      throw new IllegalArgumentException(
+          "x is invalid, its dimension is not equal to the function.");
+
+    computeInParallel(x, NegLLAndGradientComputeTask.class);
+
+    double negLogLikelihood = 0;
+    for (int t = 0; t < threads; t++) {
+      negLogLikelihood += negLogLikelihoodThread[t];
+    }
+
+    System.arraycopy(gradientThread[0], 0, gradient, 0, dimension);
+    for (int t = 1; t < threads; t++) {
+      double[] partial = gradientThread[t];
+      for (int i = 0; i < dimension; i++) {
+        gradient[i] += partial[i];
+      }
+    }
+
+    return negLogLikelihood;
+  }
+
   /**
    * Compute tasks in parallel
    */
@@ -169,27 +197,8 @@ public class ParallelNegLogLikelihood extends NegLogLikelihood {
 
     @Override
     public NegLLComputeTask call() {
-      int ci, oi, ai, vectorIndex, outcome;
-      double predValue, logSumOfExps;
-      negLogLikelihoodThread[threadIndex] = 0;
-
-      for (ci = startIndex; ci < startIndex + length; ci++) {
-        for (oi = 0; oi < numOutcomes; oi++) {
-          tempSums[oi] = 0;
-          for (ai = 0; ai < contexts[ci].length; ai++) {
-            vectorIndex = indexOf(oi, contexts[ci][ai]);
-            predValue = values != null ? values[ci][ai] : 1.0;
-            tempSums[oi] += predValue * x[vectorIndex];
-          }
-        }
-
-        logSumOfExps = ArrayMath.logSumOfExps(tempSums);
-
-        outcome = outcomeList[ci];
-        negLogLikelihoodThread[threadIndex] -=
-            (tempSums[outcome] - logSumOfExps) * numTimesEventsSeen[ci];
-      }
-
+      negLogLikelihoodThread[threadIndex] =
+          valueAt(x, startIndex, startIndex + length, tempSums);
       return this;
     }
   }
@@ -208,40 +217,34 @@ public class ParallelNegLogLikelihood extends NegLogLikelihood {
 
     @Override
     public GradientComputeTask call() {
-      int ci, oi, ai, vectorIndex;
-      double predValue, logSumOfExps;
-      int empirical;
-
       // Reset gradientThread
       Arrays.fill(gradientThread[threadIndex], 0);
 
-      for (ci = startIndex; ci < startIndex + length; ci++) {
-        for (oi = 0; oi < numOutcomes; oi++) {
-          expectation[oi] = 0;
-          for (ai = 0; ai < contexts[ci].length; ai++) {
-            vectorIndex = indexOf(oi, contexts[ci][ai]);
-            predValue = values != null ? values[ci][ai] : 1.0;
-            expectation[oi] += predValue * x[vectorIndex];
-          }
-        }
-
-        logSumOfExps = ArrayMath.logSumOfExps(expectation);
-
-        for (oi = 0; oi < numOutcomes; oi++) {
-          expectation[oi] = Math.exp(expectation[oi] - logSumOfExps);
-        }
-
-        for (oi = 0; oi < numOutcomes; oi++) {
-          empirical = outcomeList[ci] == oi ? 1 : 0;
-          for (ai = 0; ai < contexts[ci].length; ai++) {
-            vectorIndex = indexOf(oi, contexts[ci][ai]);
-            predValue = values != null ? values[ci][ai] : 1.0;
-            gradientThread[threadIndex][vectorIndex] +=
-                predValue * (expectation[oi] - empirical) * numTimesEventsSeen[ci];
-          }
-        }
-      }
+      valueAndGradientAt(x, startIndex, startIndex + length, expectation,
+          gradientThread[threadIndex]);
+      return this;
+    }
+  }
+
+  /**
+   * Task for computing partial value of negative log-likelihood and partial gradient
+   */
+  class NegLLAndGradientComputeTask extends ComputeTask {
+
+    final double[] expectation;
+
+    public NegLLAndGradientComputeTask(int threadIndex, int startIndex, int length,
+        double[] x) {
+      super(threadIndex, startIndex, length, x);
+      this.expectation = new double[numOutcomes];
+    }
+
+    @Override
+    public NegLLAndGradientComputeTask call() {
+      Arrays.fill(gradientThread[threadIndex], 0);
 
+      negLogLikelihoodThread[threadIndex] = valueAndGradientAt(x, startIndex,
+          startIndex + length, expectation, gradientThread[threadIndex]);
       return this;
     }
   }
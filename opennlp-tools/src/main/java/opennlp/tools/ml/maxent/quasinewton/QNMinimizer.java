@@ -107,6 +107,9 @@ public class QNMinimizer {
   // This is optional and can be omitted.
   private Evaluator evaluator;
 
+  // Is notified after every iteration
+  private IterationListener iterationListener;
+
   public QNMinimizer() {
     this(L1COST_DEFAULT, L2COST_DEFAULT);
   }
@@ -169,26 +172,46 @@ public class QNMinimizer {
     this.evaluator = evaluator;
   }
 
+  public IterationListener getIterationListener() {
+    return iterationListener;
+  }
+
+  public void setIterationListener(IterationListener iterationListener) {
+    this.iterationListener = iterationListener;
+  }
+
   /**
    * Find the parameters that minimize the objective function
    * @param function objective function
    * @return minimizing parameters
    */
   public double[] minimize(Function function) {
+    // Start at the origin
+    return minimize(function, new double[function.getDimension()]);
+  }
+
+  /**
+   * Find the parameters that minimize the objective function
+   * @param function objective function
+   * @param initialPoint the point to start the search from
+   * @return minimizing parameters
+   */
+  public double[] minimize(Function function, double[] initialPoint) {
 
     Function l2RegFunction = new L2RegFunction(function, l2Cost);
     this.dimension  = l2RegFunction.getDimension();
     this.updateInfo = new UpdateInfo(this.m, this.dimension);
 
-    // Current point is at the origin
-    double[] currPoint = new double[dimension];
+    if (initialPoint.length != dimension)
+      throw new IllegalArgumentException(
+          "initialPoint is invalid, its dimension is not equal to the function.");
 
-    double currValue = l2RegFunction.valueAt(currPoint);
+    double[] currPoint = new double[dimension];
+    System.arraycopy(initialPoint, 0, currPoint, 0, dimension);
 
-    // Gradient at the current point
+    // Value and gradient at the current point
     double[] currGrad = new double[dimension];
-    System.arraycopy(l2RegFunction.gradientAt(currPoint), 0,
-        currGrad, 0, dimension);
+    double currValue = l2RegFunction.valueAndGradientAt(currPoint, currGrad);
 
     // Pseudo-gradient - only use when L1-regularization is enabled
     double[] pseudoGrad = null;
@@ -267,6 +290,10 @@ public class QNMinimizer {
               "\t" + lsr.getFuncChangeRate() + "\n");
         }
       }
+      if (iterationListener != null && iterationListener.iterationCompleted(
+          iter, lsr.getValueAtNext(), lsr.getNextPoint()))
+        break;
+
       if (isConverged(lsr))
         break;
 
@@ -509,6 +536,19 @@ public class QNMinimizer {
       return gradient;
     }
 
+    @Override
+    public double valueAndGradientAt(double[] x, double[] gradient) {
+      checkDimension(x);
+      double value = f.valueAndGradientAt(x, gradient);
+      if (l2Cost > 0) {
+        value += l2Cost * ArrayMath.innerProduct(x, x);
+        for (int i = 0; i < x.length; i++) {
+          gradient[i] += 2 * l2Cost * x[i];
+        }
+      }
+      return value;
+    }
+
     private void checkDimension(double[] x) {
       if (x.length != getDimension())
         throw new IllegalArgumentException(
@@ -529,4 +569,18 @@ public class QNMinimizer {
      */
     double evaluate(double[] parameters);
   }
+
+  /**
+   * Is notified after each iteration and can stop the minimization.
+   */
+  public interface IterationListener {
+    /**
+     * Called after an iteration
+     * @param iteration the iteration, starting at 1
+     * @param value the value of the objective function at the current point
+     * @param point the current point, must not be modified
+     * @return true to stop the minimization
+     */
+    boolean iterationCompleted(int iteration, double value, double[] point);
+  }
 }
@@ -18,6 +18,7 @@
 package opennlp.tools.ml.maxent.quasinewton;
 
 import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.CompiledModel;
 import opennlp.tools.ml.model.Context;
 
 public class QNModel extends AbstractModel {
@@ -60,6 +61,10 @@ public class QNModel extends AbstractModel {
    * @return Normalized probabilities for the outcomes given the context.
    */
   private double[] eval(String[] context, float[] values, double[] probs) {
+    CompiledModel compiled = getCompiledModel();
+    if (compiled != null) {
+      return compiled.eval(context, values, probs);
+    }
 
     for (int ci = 0; ci < context.length; ci++) {
       Context pred = getPredIndex(context[ci]);
@@ -68,12 +73,7 @@ public class QNModel extends AbstractModel {
         double predValue = 1.0;
         if (values != null) predValue = values[ci];
 
-        double[] parameters = pred.getParameters();
-        int[] outcomes = pred.getOutcomes();
-        for (int i = 0; i < outcomes.length; i++) {
-          int oi = outcomes[i];
-          probs[oi] += predValue * parameters[i];
-        }
+        pred.addScores(probs, predValue);
       }
     }
 
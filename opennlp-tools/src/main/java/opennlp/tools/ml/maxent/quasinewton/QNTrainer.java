@@ -23,10 +23,12 @@ import java.util.List;
 import java.util.Map;
 
 import opennlp.tools.ml.AbstractEventTrainer;
+import opennlp.tools.ml.IterationMetrics;
 import opennlp.tools.ml.maxent.quasinewton.QNMinimizer.Evaluator;
 import opennlp.tools.ml.model.AbstractModel;
 import opennlp.tools.ml.model.Context;
 import opennlp.tools.ml.model.DataIndexer;
+import opennlp.tools.ml.model.InitialParameters;
 import opennlp.tools.util.TrainingParameters;
 
 /**
@@ -53,6 +55,10 @@ public class QNTrainer extends AbstractEventTrainer {
   public static final String MAX_FCT_EVAL_PARAM = "MaxFctEval";
   public static final int MAX_FCT_EVAL_DEFAULT  = 30000;
 
+  // Only train parameters for the observed (predicate, outcome) pairs
+  public static final String SPARSE_PARAM = "SparseParameters";
+  public static final boolean SPARSE_DEFAULT = false;
+
   // Number of threads
   private int threads;
 
@@ -66,6 +72,9 @@ public class QNTrainer extends AbstractEventTrainer {
   private int m;
   private int maxFctEval;
 
+  // Parameter space covers only the observed (predicate, outcome) pairs
+  private boolean sparse;
+
   public QNTrainer(TrainingParameters parameters) {
     super(parameters);
   }
@@ -93,6 +102,7 @@ public class QNTrainer extends AbstractEventTrainer {
     this.threads    = THREADS_DEFAULT;
     this.l1Cost     = L1COST_DEFAULT;
     this.l2Cost     = L2COST_DEFAULT;
+    this.sparse     = SPARSE_DEFAULT;
   }
 
   // >> Members related to AbstractEventTrainer
@@ -107,6 +117,7 @@ public class QNTrainer extends AbstractEventTrainer {
     this.threads = trainingParameters.getIntParameter(THREADS_PARAM, THREADS_DEFAULT);
     this.l1Cost = trainingParameters.getDoubleParameter(L1COST_PARAM, L1COST_DEFAULT);
     this.l2Cost = trainingParameters.getDoubleParameter(L2COST_PARAM, L2COST_DEFAULT);
+    this.sparse = trainingParameters.getBooleanParameter(SPARSE_PARAM, SPARSE_DEFAULT);
   }
   
   @Override
@@ -175,6 +186,10 @@ public class QNTrainer extends AbstractEventTrainer {
   // << Members related to AbstractEventTrainer
   public QNModel trainModel(int iterations, DataIndexer indexer) {
 
+    if (sparse) {
+      return trainSparseModel(iterations, indexer);
+    }
+
     // Train model's parameters
     Function objectiveFunction;
     if (threads == 1) {
@@ -188,16 +203,38 @@ public class QNTrainer extends AbstractEventTrainer {
     QNMinimizer minimizer = new QNMinimizer(
         l1Cost, l2Cost, iterations, m, maxFctEval, printMessages);
     minimizer.setEvaluator(new ModelEvaluator(indexer));
+    if (hasTrainingMonitors()) {
+      minimizer.setIterationListener(createIterationListener(indexer, minimizer.getEvaluator(),
+          x -> toContexts(x, indexer.getPredLabels().length, indexer.getOutcomeLabels().length)));
+    }
+
+    double[] initialPoint = new double[objectiveFunction.getDimension()];
+    InitialParameters initialParameters = getInitialParameters(indexer,
+        AbstractModel.ModelType.MaxentQn, AbstractModel.ModelType.Maxent);
+    if (initialParameters != null) {
+      int nPreds = indexer.getPredLabels().length;
+      int nOutcomes = indexer.getOutcomeLabels().length;
+      double[] alpha = new double[nOutcomes];
+      for (int pi = 0; pi < nPreds; pi++) {
+        if (initialParameters.getParameters(pi, alpha)) {
+          for (int oi = 0; oi < nOutcomes; oi++) {
+            initialPoint[oi * nPreds + pi] = alpha[oi];
+          }
+        }
+      }
+    }
 
-    double[] parameters = minimizer.minimize(objectiveFunction);
+    double[] parameters = minimizer.minimize(objectiveFunction, initialPoint);
 
     // Construct model with trained parameters
     String[] predLabels = indexer.getPredLabels();
-    int nPredLabels = predLabels.length;
-
     String[] outcomeNames = indexer.getOutcomeLabels();
-    int nOutcomes = outcomeNames.length;
 
+    return new QNModel(toContexts(parameters, predLabels.length, outcomeNames.length),
+        predLabels, outcomeNames);
+  }
+
+  private static Context[] toContexts(double[] parameters, int nPredLabels, int nOutcomes) {
     Context[] params = new Context[nPredLabels];
     for (int ci = 0; ci < params.length; ci++) {
       List<Integer> outcomePattern = new ArrayList<>(nOutcomes);
@@ -210,8 +247,77 @@ public class QNTrainer extends AbstractEventTrainer {
       params[ci] = new Context(ArrayMath.toIntArray(outcomePattern),
           ArrayMath.toDoubleArray(alpha));
     }
+    return params;
+  }
+
+  /**
+   * Creates a listener which passes the metrics of each iteration to the training monitors.
+   */
+  private QNMinimizer.IterationListener createIterationListener(DataIndexer indexer,
+      Evaluator evaluator, java.util.function.Function<double[], Context[]> toContexts) {
+
+    long numEvents = 0;
+    for (int count : indexer.getNumTimesEventsSeen()) {
+      numEvents += count;
+    }
+    long events = numEvents;
+
+    long startTime = System.nanoTime();
+    long[] iterationStart = {startTime};
+
+    return (iteration, value, point) -> {
+      long now = System.nanoTime();
+      IterationMetrics metrics = new IterationMetrics(iteration, now - iterationStart[0],
+          now - startTime, -value, evaluator.evaluate(point), events);
+
+      boolean stop = iterationCompleted(metrics, () -> {
+        double[] x = point.clone();
+        // The minimizer undoes the double L2 shrinkage of the elastic net only at the end
+        if (l1Cost > 0 && l2Cost > 0) {
+          for (int i = 0; i < x.length; i++) {
+            x[i] = Math.sqrt(1 + l2Cost) * x[i];
+          }
+        }
+        return new QNModel(toContexts.apply(x), indexer.getPredLabels(), indexer.getOutcomeLabels());
+      });
 
-    return new QNModel(params, predLabels, outcomeNames);
+      iterationStart[0] = System.nanoTime();
+      return stop;
+    };
+  }
+
+  /**
+   * Trains a model whose parameters only cover the (predicate, outcome) pairs
+   * which occur in the training data, see {@link SparseNegLogLikelihood}.
+   */
+  private QNModel trainSparseModel(int iterations, DataIndexer indexer) {
+
+    if (threads == 1) {
+      System.out.println("Computing sparse model parameters ...");
+    } else {
+      System.out.println("Computing sparse model parameters in " + threads + " threads ...");
+    }
+
+    SparseNegLogLikelihood objectiveFunction = new SparseNegLogLikelihood(indexer, threads);
+
+    QNMinimizer minimizer = new QNMinimizer(
+        l1Cost, l2Cost, iterations, m, maxFctEval, printMessages);
+    minimizer.setEvaluator(new SparseModelEvaluator(indexer, objectiveFunction));
+    if (hasTrainingMonitors()) {
+      minimizer.setIterationListener(createIterationListener(indexer, minimizer.getEvaluator(),
+          objectiveFunction::toContexts));
+    }
+
+    InitialParameters initialParameters = getInitialParameters(indexer,
+        AbstractModel.ModelType.MaxentQn, AbstractModel.ModelType.Maxent);
+    double[] initialPoint = initialParameters != null
+        ? objectiveFunction.getInitialPoint(initialParameters)
+        : objectiveFunction.getInitialPoint();
+
+    double[] parameters = minimizer.minimize(objectiveFunction, initialPoint);
+
+    return new QNModel(objectiveFunction.toContexts(parameters),
+        indexer.getPredLabels(), indexer.getOutcomeLabels());
   }
 
   /**
@@ -257,4 +363,41 @@ public class QNTrainer extends AbstractEventTrainer {
       return (double) nCorrect / nTotalEvents;
     }
   }
+
+  /**
+   * For measuring the training accuracy of a sparse model
+   */
+  private static class SparseModelEvaluator implements Evaluator {
+
+    private final DataIndexer indexer;
+    private final SparseNegLogLikelihood function;
+
+    SparseModelEvaluator(DataIndexer indexer, SparseNegLogLikelihood function) {
+      this.indexer = indexer;
+      this.function = function;
+    }
+
+    @Override
+    public double evaluate(double[] parameters) {
+      int[][] contexts  = indexer.getContexts();
+      float[][] values  = indexer.getValues();
+      int[] nEventsSeen = indexer.getNumTimesEventsSeen();
+      int[] outcomeList = indexer.getOutcomeList();
+
+      double[] probs = new double[indexer.getOutcomeLabels().length];
+
+      int nCorrect     = 0;
+      int nTotalEvents = 0;
+
+      for (int ei = 0; ei < contexts.length; ei++) {
+        function.eval(contexts[ei], values == null ? null : values[ei], probs, parameters);
+        if (ArrayMath.maxIdx(probs) == outcomeList[ei]) {
+          nCorrect += nEventsSeen[ei];
+        }
+        nTotalEvents += nEventsSeen[ei];
+      }
+
+      return (double) nCorrect / nTotalEvents;
+    }
+  }
 }
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.maxent.quasinewton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import opennlp.tools.ml.model.Context;
+import opennlp.tools.ml.model.DataIndexer;
+import opennlp.tools.ml.model.InitialParameters;
+
+/**
+ * Negative log-likelihood whose parameter space only covers the (predicate, outcome)
+ * pairs which were observed in the training data, like the parameters of a GIS model.
+ * <p>
+ * The parameters of a predicate are stored contiguously, the parameter of the k-th
+ * observed outcome of predicate p is at index {@code offsets[p] + k}. The gradient
+ * and the history kept by the {@link QNMinimizer} are therefore proportional to the
+ * number of non-zero parameters, and not to {@code numOutcomes * numFeatures}.
+ */
+public class SparseNegLogLikelihood implements Function {
+
+  private final int dimension;
+  private final int numOutcomes;
+  private final int numContexts;
+
+  // Information from data index
+  private final float[][] values;
+  private final int[][] contexts;
+  private final int[] outcomeList;
+  private final int[] numTimesEventsSeen;
+
+  // Start of the parameters of each predicate, the last entry is the dimension
+  private final int[] offsets;
+
+  // Outcome of each parameter
+  private final int[] outcomes;
+
+  private final int threads;
+
+  private final double[] gradient;
+
+  // Partial gradient of each thread, only allocated if more than one thread is used
+  private final double[][] gradientThread;
+
+  public SparseNegLogLikelihood(DataIndexer indexer) {
+    this(indexer, 1);
+  }
+
+  public SparseNegLogLikelihood(DataIndexer indexer, int threads) {
+
+    if (threads <= 0)
+      throw new IllegalArgumentException(
+          "Number of threads must 1 or larger");
+
+    this.values = indexer.getValues();
+
+    this.contexts    = indexer.getContexts();
+    this.outcomeList = indexer.getOutcomeList();
+    this.numTimesEventsSeen = indexer.getNumTimesEventsSeen();
+
+    this.numOutcomes = indexer.getOutcomeLabels().length;
+    this.numContexts = this.contexts.length;
+    this.threads = threads;
+
+    int numFeatures = indexer.getPredLabels().length;
+
+    // Collect the outcomes seen with each predicate, the bit set of a predicate
+    // is stored in numOutcomes / 64 + 1 consecutive words
+    int words = (numOutcomes + 63) >>> 6;
+    long[] seen = new long[numFeatures * words];
+    for (int ci = 0; ci < numContexts; ci++) {
+      int outcome = outcomeList[ci];
+      for (int pred : contexts[ci]) {
+        seen[pred * words + (outcome >>> 6)] |= 1L << outcome;
+      }
+    }
+
+    this.offsets = new int[numFeatures + 1];
+    for (int pi = 0; pi < numFeatures; pi++) {
+      int count = 0;
+      for (int wi = 0; wi < words; wi++) {
+        count += Long.bitCount(seen[pi * words + wi]);
+      }
+      offsets[pi + 1] = offsets[pi] + count;
+    }
+
+    this.dimension = offsets[numFeatures];
+    this.outcomes = new int[dimension];
+    for (int pi = 0, k = 0; pi < numFeatures; pi++) {
+      for (int oi = 0; oi < numOutcomes; oi++) {
+        if ((seen[pi * words + (oi >>> 6)] & (1L << oi)) != 0) {
+          outcomes[k++] = oi;
+        }
+      }
+    }
+
+    this.gradient = new double[dimension];
+    this.gradientThread = threads > 1 ? new double[threads][dimension] : null;
+  }
+
+  public int getDimension() {
+    return this.dimension;
+  }
+
+  public double[] getInitialPoint() {
+    return new double[dimension];
+  }
+
+  /**
+   * Retrieves the point which corresponds to the parameters of an existing model.
+   */
+  double[] getInitialPoint(InitialParameters initialParameters) {
+    double[] x = new double[dimension];
+    double[] parameters = new double[numOutcomes];
+    for (int pi = 0; pi < offsets.length - 1; pi++) {
+      if (initialParameters.getParameters(pi, parameters)) {
+        for (int k = offsets[pi]; k < offsets[pi + 1]; k++) {
+          x[k] = parameters[outcomes[k]];
+        }
+      }
+    }
+    return x;
+  }
+
+  /**
+   * Negative log-likelihood
+   */
+  public double valueAt(double[] x) {
+
+    if (x.length != dimension)
+      throw new IllegalArgumentException(
+          "x is invalid, its dimension is not equal to domain dimension.");
+
+    if (threads == 1) {
+      return valueAt(x, 0, numContexts);
+    }
+
+    double[] partial = new double[threads];
+    computeInParallel((ti, start, end) -> partial[ti] = valueAt(x, start, end));
+
+    double negLogLikelihood = 0;
+    for (int t = 0; t < threads; t++) {
+      negLogLikelihood += partial[t];
+    }
+
+    return negLogLikelihood;
+  }
+
+  /**
+   * Compute gradient
+   */
+  public double[] gradientAt(double[] x) {
+
+    if (x.length != dimension)
+      throw new IllegalArgumentException(
+          "x is invalid, its dimension is not equal to the function.");
+
+    valueAndGradientAt(x, gradient);
+    return gradient;
+  }
+
+  /**
+   * Negative log-likelihood and gradient, computed in one pass over the contexts
+   */
+  @Override
+  public double valueAndGradientAt(double[] x, double[] gradient) {
+
+    if (x.length != dimension || gradient.length != dimension)
+      throw new IllegalArgumentException(
+          "x is invalid, its dimension is not equal to the function.");
+
+    if (threads == 1) {
+      return valueAndGradientAt(x, 0, numContexts, gradient);
+    }
+
+    double[] partial = new double[threads];
+    computeInParallel((ti, start, end) ->
+        partial[ti] = valueAndGradientAt(x, start, end, gradientThread[ti]));
+
+    double negLogLikelihood = 0;
+    for (int t = 0; t < threads; t++) {
+      negLogLikelihood += partial[t];
+    }
+
+    // Accumulate gradient
+    System.arraycopy(gradientThread[0], 0, gradient, 0, dimension);
+    for (int t = 1; t < threads; t++) {
+      double[] partialGradient = gradientThread[t];
+      for (int i = 0; i < dimension; i++) {
+        gradient[i] += partialGradient[i];
+      }
+    }
+
+    return negLogLikelihood;
+  }
+
+  private double valueAt(double[] x, int start, int end) {
+    double[] tempSums = new double[numOutcomes];
+    double negLogLikelihood = 0;
+
+    for (int ci = start; ci < end; ci++) {
+      scores(ci, x, tempSums);
+
+      double logSumOfExps = ArrayMath.logSumOfExps(tempSums);
+
+      negLogLikelihood -= (tempSums[outcomeList[ci]] - logSumOfExps) * numTimesEventsSeen[ci];
+    }
+
+    return negLogLikelihood;
+  }
+
+  private double valueAndGradientAt(double[] x, int start, int end, double[] gradient) {
+    double[] expectation = new double[numOutcomes];
+    double negLogLikelihood = 0;
+
+    Arrays.fill(gradient, 0);
+
+    for (int ci = start; ci < end; ci++) {
+      scores(ci, x, expectation);
+
+      int outcome = outcomeList[ci];
+      double score = expectation[outcome];
+      double logSumOfExps = ArrayMath.softmax(expectation);
+
+      int count = numTimesEventsSeen[ci];
+      negLogLikelihood -= (score - logSumOfExps) * count;
+
+      // The empirical count is subtracted once per predicate below, it is folded
+      // into the expectation to keep the inner loop free of branches
+      expectation[outcome] -= 1;
+
+      int[] context = contexts[ci];
+      float[] value = values != null ? values[ci] : null;
+      for (int ai = 0; ai < context.length; ai++) {
+        double weight = value != null ? value[ai] * count : count;
+        int pred = context[ai];
+        for (int k = offsets[pred], predEnd = offsets[pred + 1]; k < predEnd; k++) {
+          gradient[k] += weight * expectation[outcomes[k]];
+        }
+      }
+    }
+
+    return negLogLikelihood;
+  }
+
+  private void scores(int ci, double[] x, double[] sums) {
+    Arrays.fill(sums, 0);
+    addScores(contexts[ci], values != null ? values[ci] : null, sums, x);
+  }
+
+  /**
+   * Adds the scores of the given context to the outcome sums, without normalizing them.
+   */
+  private void addScores(int[] context, float[] value, double[] sums, double[] x) {
+    for (int ai = 0; ai < context.length; ai++) {
+      double predValue = value != null ? value[ai] : 1.0;
+      int pred = context[ai];
+      for (int k = offsets[pred], end = offsets[pred + 1]; k < end; k++) {
+        sums[outcomes[k]] += predValue * x[k];
+      }
+    }
+  }
+
+  /**
+   * Model evaluation which should be used during training to report model accuracy.
+   *
+   * @param context Indices of the predicates observed at the present decision point.
+   * @param value Weights of the predicates, or {@code null}.
+   * @param probs Receives the probabilities of the outcomes.
+   * @param x The current parameters.
+   * @return Normalized probabilities for the outcomes given the context.
+   */
+  double[] eval(int[] context, float[] value, double[] probs, double[] x) {
+    Arrays.fill(probs, 0);
+    addScores(context, value, probs, x);
+
+    double logSumExp = ArrayMath.logSumOfExps(probs);
+    for (int oi = 0; oi < numOutcomes; oi++) {
+      probs[oi] = Math.exp(probs[oi] - logSumExp);
+    }
+
+    return probs;
+  }
+
+  /**
+   * Converts the trained parameters into the per predicate {@link Context}s of a model.
+   * Only the observed outcomes of each predicate are part of its {@link Context}.
+   */
+  Context[] toContexts(double[] x) {
+    Context[] params = new Context[offsets.length - 1];
+    for (int pi = 0; pi < params.length; pi++) {
+      params[pi] = new Context(Arrays.copyOfRange(outcomes, offsets[pi], offsets[pi + 1]),
+          Arrays.copyOfRange(x, offsets[pi], offsets[pi + 1]));
+    }
+    return params;
+  }
+
+  private interface RangeTask {
+    void compute(int threadIndex, int start, int end);
+  }
+
+  private void computeInParallel(RangeTask task) {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    int taskSize = numContexts / threads;
+    int leftOver = numContexts % threads;
+
+    try {
+      List<Future<?>> futures = new ArrayList<>(threads);
+      for (int i = 0; i < threads; i++) {
+        final int ti = i;
+        final int start = i * taskSize;
+        final int end = start + taskSize + (i == threads - 1 ? leftOver : 0);
+        futures.add(executor.submit(() -> task.compute(ti, start, end)));
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
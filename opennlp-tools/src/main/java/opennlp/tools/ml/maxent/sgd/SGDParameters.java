@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.maxent.sgd;
+
+/**
+ * The parameters of a log-linear model which is trained with a stochastic
+ * optimizer. Every predicate only has parameters for the outcomes it has
+ * been observed with, like the models trained with GIS.
+ * <p>
+ * The updates are applied without locks (Hogwild), concurrent updates of
+ * the same parameter might overwrite each other, which is accepted since
+ * the features of the events are sparse.
+ */
+final class SGDParameters {
+
+  private final SGDTrainer.Optimizer optimizer;
+  private final double learningRate;
+  private final double beta;
+  private final double l1Cost;
+  private final double l2Cost;
+
+  /** The outcome ids of the parameters of each predicate. */
+  private final int[][] outcomePatterns;
+  private final double[][] weights;
+
+  /** The sums of the squared gradients, used by AdaGrad and FTRL. */
+  private final double[][] squaredGradients;
+
+  /** The FTRL accumulators of the adjusted gradients. */
+  private final double[][] z;
+
+  SGDParameters(int[][] outcomePatterns, SGDTrainer.Optimizer optimizer, double learningRate,
+      double beta, double l1Cost, double l2Cost) {
+    this.outcomePatterns = outcomePatterns;
+    this.optimizer = optimizer;
+    this.learningRate = learningRate;
+    this.beta = beta;
+    this.l1Cost = l1Cost;
+    this.l2Cost = l2Cost;
+
+    weights = new double[outcomePatterns.length][];
+    squaredGradients = optimizer != SGDTrainer.Optimizer.SGD ?
+        new double[outcomePatterns.length][] : null;
+    z = optimizer == SGDTrainer.Optimizer.FTRL ? new double[outcomePatterns.length][] : null;
+
+    for (int pi = 0; pi < outcomePatterns.length; pi++) {
+      weights[pi] = new double[outcomePatterns[pi].length];
+      if (squaredGradients != null) {
+        squaredGradients[pi] = new double[outcomePatterns[pi].length];
+      }
+      if (z != null) {
+        z[pi] = new double[outcomePatterns[pi].length];
+      }
+    }
+  }
+
+  int[] getOutcomePattern(int predId) {
+    return outcomePatterns[predId];
+  }
+
+  double[] getWeights(int predId) {
+    return weights[predId];
+  }
+
+  int getNumPredicates() {
+    return outcomePatterns.length;
+  }
+
+  /**
+   * Adds the weighted parameters of a predicate to the outcome scores.
+   */
+  void score(int predId, double value, double[] scores) {
+    int[] pattern = outcomePatterns[predId];
+    double[] w = weights[predId];
+    for (int k = 0; k < pattern.length; k++) {
+      scores[pattern[k]] += w[k] * value;
+    }
+  }
+
+  /**
+   * Updates the parameters of a predicate.
+   *
+   * @param predId the predicate
+   * @param gradient the gradient of the loss for the outcomes of the predicate's pattern
+   */
+  void update(int predId, double[] gradient) {
+    double[] w = weights[predId];
+
+    switch (optimizer) {
+      case SGD:
+        for (int k = 0; k < w.length; k++) {
+          w[k] = shrink(w[k] - learningRate * (gradient[k] + l2Cost * w[k]), learningRate * l1Cost);
+        }
+        break;
+
+      case ADAGRAD: {
+        double[] n = squaredGradients[predId];
+        for (int k = 0; k < w.length; k++) {
+          double g = gradient[k] + l2Cost * w[k];
+          n[k] += g * g;
+          if (n[k] > 0) {
+            double rate = learningRate / Math.sqrt(n[k]);
+            w[k] = shrink(w[k] - rate * g, rate * l1Cost);
+          }
+        }
+        break;
+      }
+
+      case FTRL: {
+        // FTRL-Proximal, see: Ad Click Prediction: a View from the Trenches.
+        // H. Brendan McMahan et al., KDD 2013
+        double[] n = squaredGradients[predId];
+        double[] zk = z[predId];
+        for (int k = 0; k < w.length; k++) {
+          double g = gradient[k];
+          double sigma = (Math.sqrt(n[k] + g * g) - Math.sqrt(n[k])) / learningRate;
+          zk[k] += g - sigma * w[k];
+          n[k] += g * g;
+
+          if (Math.abs(zk[k]) <= l1Cost) {
+            w[k] = 0;
+          }
+          else {
+            w[k] = -(zk[k] - Math.signum(zk[k]) * l1Cost)
+                / ((beta + Math.sqrt(n[k])) / learningRate + l2Cost);
+          }
+        }
+        break;
+      }
+
+      default:
+        throw new IllegalStateException("Unsupported optimizer: " + optimizer);
+    }
+  }
+
+  /**
+   * Moves a weight towards zero by the L1 penalty, but not beyond zero.
+   */
+  private static double shrink(double weight, double penalty) {
+    if (weight > penalty) {
+      return weight - penalty;
+    }
+    else if (weight < -penalty) {
+      return weight + penalty;
+    }
+    return 0;
+  }
+}
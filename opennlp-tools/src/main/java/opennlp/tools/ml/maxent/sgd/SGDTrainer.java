@@ -0,0 +1,685 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.maxent.sgd;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import opennlp.tools.ml.AbstractTrainer;
+import opennlp.tools.ml.EventTrainer;
+import opennlp.tools.ml.maxent.GISModel;
+import opennlp.tools.ml.model.Context;
+import opennlp.tools.ml.model.DataIndexer;
+import opennlp.tools.ml.model.Event;
+import opennlp.tools.ml.model.PredicateIndex;
+import opennlp.tools.util.InsufficientTrainingDataException;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.TrainingParameters;
+
+/**
+ * Maxent model trainer which minimizes the negative log likelihood with
+ * stochastic mini-batch gradient descent, optionally with AdaGrad or
+ * FTRL-Proximal learning rates.
+ * <p>
+ * The trainer streams over the events instead of indexing them. The first
+ * pass over the stream only collects the outcomes, the predicate counts and
+ * the outcomes every predicate was observed with, which define the parameter
+ * space like in GIS. Every following pass is one epoch, the events are read
+ * in mini-batches which are processed by the worker threads, each applies
+ * the sparse gradient of its mini-batch without locking. The event stream
+ * must support {@link ObjectStream#reset()}. The events of a stream are read in
+ * the order of the stream, the events of a {@link DataIndexer} are shuffled in
+ * every epoch.
+ * <p>
+ * The memory usage is bounded by the number of predicates and their observed
+ * outcomes and doesn't depend on the number of events. With the FTRL optimizer
+ * and an L1 cost most parameters are exactly zero and are dropped from the
+ * trained model, which is a standard {@link GISModel}.
+ */
+public class SGDTrainer extends AbstractTrainer implements EventTrainer {
+
+  public static final String MAXENT_SGD_VALUE = "MAXENT_SGD";
+
+  /**
+   * The optimizers which can be used to update the parameters.
+   */
+  public enum Optimizer {
+    /** Plain stochastic gradient descent with a constant learning rate. */
+    SGD,
+    /** Per parameter learning rates which decrease with the sum of the squared gradients. */
+    ADAGRAD,
+    /** FTRL-Proximal which produces sparse models with an L1 cost. */
+    FTRL
+  }
+
+  public static final String OPTIMIZER_PARAM = "Optimizer";
+  public static final String OPTIMIZER_DEFAULT = Optimizer.ADAGRAD.name();
+
+  public static final String LEARNING_RATE_PARAM = "LearningRate";
+  public static final double LEARNING_RATE_DEFAULT = 0.1;
+
+  /** The smoothing of the FTRL learning rates. */
+  public static final String FTRL_BETA_PARAM = "FtrlBeta";
+  public static final double FTRL_BETA_DEFAULT = 1.0;
+
+  public static final String L1COST_PARAM = "L1Cost";
+  public static final double L1COST_DEFAULT = 0;
+
+  public static final String L2COST_PARAM = "L2Cost";
+  public static final double L2COST_DEFAULT = 0;
+
+  public static final String MINI_BATCH_SIZE_PARAM = "MiniBatchSize";
+  public static final int MINI_BATCH_SIZE_DEFAULT = 16;
+
+  /** The seed of the shuffling of the events of a {@link DataIndexer}. */
+  public static final String SHUFFLE_SEED_PARAM = "ShuffleSeed";
+  public static final long SHUFFLE_SEED_DEFAULT = 1;
+
+  public static final int ITERATIONS_DEFAULT = 10;
+
+  /** Signals the workers that all mini-batches of an epoch have been read. */
+  private static final Event[] END_OF_EPOCH = new Event[0];
+
+  private String optimizerName;
+  private Optimizer optimizer;
+  private double learningRate;
+  private double beta;
+  private double l1Cost;
+  private double l2Cost;
+  private int miniBatchSize;
+  private long shuffleSeed;
+  private int threads;
+
+  private String[] outcomeLabels;
+  private Map<String, Integer> outcomeIds;
+  private String[] predLabels;
+  private PredicateIndex predicateIndex;
+  private SGDParameters parameters;
+
+  public SGDTrainer() {
+  }
+
+  public SGDTrainer(TrainingParameters parameters) {
+    super(parameters);
+  }
+
+  @Override
+  public void init(TrainingParameters trainingParameters, Map<String, String> reportMap) {
+    super.init(trainingParameters, reportMap);
+
+    optimizerName = trainingParameters.getStringParameter(OPTIMIZER_PARAM, OPTIMIZER_DEFAULT);
+    learningRate = trainingParameters.getDoubleParameter(LEARNING_RATE_PARAM, LEARNING_RATE_DEFAULT);
+    beta = trainingParameters.getDoubleParameter(FTRL_BETA_PARAM, FTRL_BETA_DEFAULT);
+    l1Cost = trainingParameters.getDoubleParameter(L1COST_PARAM, L1COST_DEFAULT);
+    l2Cost = trainingParameters.getDoubleParameter(L2COST_PARAM, L2COST_DEFAULT);
+    miniBatchSize = trainingParameters.getIntParameter(MINI_BATCH_SIZE_PARAM, MINI_BATCH_SIZE_DEFAULT);
+    shuffleSeed = Long.parseLong(trainingParameters.getStringParameter(SHUFFLE_SEED_PARAM,
+        Long.toString(SHUFFLE_SEED_DEFAULT)));
+    threads = trainingParameters.getIntParameter(TrainingParameters.THREADS_PARAM, 1);
+  }
+
+  @Deprecated
+  @Override
+  public void init(Map<String, String> trainParams, Map<String, String> reportMap) {
+    init(new TrainingParameters(trainParams), reportMap);
+  }
+
+  @Override
+  public void validate() {
+    super.validate();
+
+    String algorithmName = getAlgorithm();
+    if (algorithmName != null && !MAXENT_SGD_VALUE.equals(algorithmName)) {
+      throw new IllegalArgumentException("algorithmName must be MAXENT_SGD");
+    }
+
+    try {
+      optimizer = Optimizer.valueOf(optimizerName);
+    }
+    catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown optimizer: " + optimizerName, e);
+    }
+
+    if (learningRate <= 0) {
+      throw new IllegalArgumentException("Learning rate must be > 0");
+    }
+
+    if (beta < 0) {
+      throw new IllegalArgumentException("FTRL beta must be >= 0");
+    }
+
+    if (l1Cost < 0 || l2Cost < 0) {
+      throw new IllegalArgumentException("Regularization costs must be >= 0");
+    }
+
+    if (miniBatchSize < 1) {
+      throw new IllegalArgumentException("Mini-batch size must be >= 1");
+    }
+
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads must be >= 1");
+    }
+  }
+
+  @Override
+  public GISModel train(ObjectStream<Event> events) throws IOException {
+    validate();
+
+    int iterations = trainingParameters.getIntParameter(ITERATIONS_PARAM, ITERATIONS_DEFAULT);
+    int cutoff = getCutoff();
+
+    display("Collecting outcomes and predicates using cutoff of " + cutoff + "...  ");
+    int numEvents = collectPredicates(events, cutoff);
+    display("done. " + numEvents + " events\n");
+
+    if (outcomeLabels.length <= 1) {
+      throw new InsufficientTrainingDataException("Training data must contain more than one outcome");
+    }
+
+    if (predLabels.length == 0) {
+      throw new InsufficientTrainingDataException("Insufficient training data to create model.");
+    }
+
+    display("\t    Number of Outcomes: " + outcomeLabels.length + "\n");
+    display("\t  Number of Predicates: " + predLabels.length + "\n");
+
+    display("Performing " + iterations + " epochs with " + optimizer + " in "
+        + threads + " threads.\n");
+
+    ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+    try {
+      for (int epoch = 1; epoch <= iterations; epoch++) {
+        events.reset();
+        EpochStats stats = executor != null ?
+            nextEpoch(events, executor) : nextEpoch(events);
+
+        display(String.format("%3d:  loglikelihood=%.6f accuracy=%.6f\n", epoch,
+            stats.logLikelihood / stats.numEvents, (double) stats.numCorrect / stats.numEvents));
+      }
+    }
+    finally {
+      if (executor != null) {
+        executor.shutdown();
+      }
+    }
+
+    GISModel model = createModel();
+    addToReport(AbstractTrainer.TRAINER_TYPE_PARAM, EventTrainer.EVENT_VALUE);
+    return model;
+  }
+
+  @Override
+  public GISModel train(DataIndexer indexer) throws IOException {
+    return train(new IndexedEventStream(indexer, shuffleSeed));
+  }
+
+  /**
+   * Reads all events once to collect the outcomes, the predicates which occur
+   * at least cutoff times and the outcomes each predicate was observed with.
+   *
+   * @return the number of events
+   */
+  private int collectPredicates(ObjectStream<Event> events, int cutoff) throws IOException {
+    outcomeIds = new HashMap<>();
+    Map<String, Integer> provisionalIds = new HashMap<>();
+    int[] counts = new int[1024];
+    int[][] patterns = new int[1024][];
+
+    int numEvents = 0;
+    Event ev;
+    while ((ev = events.read()) != null) {
+      numEvents++;
+      outcomeIds.putIfAbsent(ev.getOutcome(), outcomeIds.size());
+      int outcome = outcomeIds.get(ev.getOutcome());
+
+      for (String predicate : ev.getContext()) {
+        Integer id = provisionalIds.get(predicate);
+        if (id == null) {
+          id = provisionalIds.size();
+          provisionalIds.put(predicate, id);
+          if (id == counts.length) {
+            counts = Arrays.copyOf(counts, id * 2);
+            patterns = Arrays.copyOf(patterns, id * 2);
+          }
+          patterns[id] = new int[0];
+        }
+        counts[id]++;
+        patterns[id] = addOutcome(patterns[id], outcome);
+      }
+    }
+
+    outcomeLabels = new String[outcomeIds.size()];
+    for (Map.Entry<String, Integer> entry : outcomeIds.entrySet()) {
+      outcomeLabels[entry.getValue()] = entry.getKey();
+    }
+
+    int[] finalCounts = counts;
+    predLabels = provisionalIds.keySet().stream()
+        .filter(predicate -> finalCounts[provisionalIds.get(predicate)] >= cutoff)
+        .sorted()
+        .toArray(String[]::new);
+
+    int[][] outcomePatterns = new int[predLabels.length][];
+    for (int pi = 0; pi < predLabels.length; pi++) {
+      outcomePatterns[pi] = patterns[provisionalIds.get(predLabels[pi])];
+      Arrays.sort(outcomePatterns[pi]);
+    }
+
+    predicateIndex = new PredicateIndex(predLabels);
+    parameters = new SGDParameters(outcomePatterns, optimizer, learningRate, beta, l1Cost, l2Cost);
+
+    return numEvents;
+  }
+
+  private static int[] addOutcome(int[] pattern, int outcome) {
+    for (int oid : pattern) {
+      if (oid == outcome) {
+        return pattern;
+      }
+    }
+    int[] extended = Arrays.copyOf(pattern, pattern.length + 1);
+    extended[pattern.length] = outcome;
+    return extended;
+  }
+
+  /**
+   * Trains one epoch on the calling thread.
+   */
+  private EpochStats nextEpoch(ObjectStream<Event> events) throws IOException {
+    Worker worker = new Worker();
+
+    Event[] batch = new Event[miniBatchSize];
+    int length;
+    while ((length = readBatch(events, batch)) > 0) {
+      worker.train(batch, length);
+    }
+
+    return worker.stats;
+  }
+
+  /**
+   * Trains one epoch, the calling thread reads the mini-batches and
+   * the workers train on them.
+   */
+  private EpochStats nextEpoch(ObjectStream<Event> events, ExecutorService executor)
+      throws IOException {
+
+    BlockingQueue<Event[]> queue = new ArrayBlockingQueue<>(threads * 4);
+
+    List<Future<EpochStats>> workers = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      workers.add(executor.submit(() -> {
+        Worker worker = new Worker();
+        Event[] batch;
+        while ((batch = queue.take()) != END_OF_EPOCH) {
+          worker.train(batch, batch.length);
+        }
+        return worker.stats;
+      }));
+    }
+
+    Event[] batch = new Event[miniBatchSize];
+    int length;
+    while ((length = readBatch(events, batch)) > 0) {
+      put(queue, length == batch.length ? batch : Arrays.copyOf(batch, length), workers);
+      batch = new Event[miniBatchSize];
+    }
+
+    for (int i = 0; i < threads; i++) {
+      put(queue, END_OF_EPOCH, workers);
+    }
+
+    EpochStats stats = new EpochStats();
+    for (Future<EpochStats> worker : workers) {
+      EpochStats workerStats = get(worker);
+      stats.numEvents += workerStats.numEvents;
+      stats.numCorrect += workerStats.numCorrect;
+      stats.logLikelihood += workerStats.logLikelihood;
+    }
+    return stats;
+  }
+
+  private static int readBatch(ObjectStream<Event> events, Event[] batch) throws IOException {
+    int length = 0;
+    Event ev;
+    while (length < batch.length && (ev = events.read()) != null) {
+      batch[length++] = ev;
+    }
+    return length;
+  }
+
+  /**
+   * Hands a mini-batch to the workers, fails if a worker failed and can't take it anymore.
+   */
+  private static void put(BlockingQueue<Event[]> queue, Event[] batch,
+      List<Future<EpochStats>> workers) {
+    try {
+      while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+        for (Future<EpochStats> worker : workers) {
+          if (worker.isDone()) {
+            get(worker);
+          }
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while training", e);
+    }
+  }
+
+  private static <T> T get(Future<T> future) {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while training", e);
+    }
+    catch (ExecutionException e) {
+      throw new RuntimeException("Exception during training: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Creates the model, parameters which are zero are dropped.
+   */
+  private GISModel createModel() {
+    List<String> labels = new ArrayList<>(predLabels.length);
+    List<Context> params = new ArrayList<>(predLabels.length);
+
+    for (int pi = 0; pi < predLabels.length; pi++) {
+      int[] pattern = parameters.getOutcomePattern(pi);
+      double[] weights = parameters.getWeights(pi);
+
+      int numNonZero = 0;
+      for (double weight : weights) {
+        if (weight != 0) {
+          numNonZero++;
+        }
+      }
+
+      if (numNonZero > 0) {
+        int[] outcomes = new int[numNonZero];
+        double[] values = new double[numNonZero];
+        for (int k = 0, j = 0; k < pattern.length; k++) {
+          if (weights[k] != 0) {
+            outcomes[j] = pattern[k];
+            values[j] = weights[k];
+            j++;
+          }
+        }
+        labels.add(predLabels[pi]);
+        params.add(new Context(outcomes, values));
+      }
+    }
+
+    display("Kept " + labels.size() + " of " + predLabels.length + " predicates.\n");
+
+    return new GISModel(params.toArray(new Context[params.size()]),
+        labels.toArray(new String[labels.size()]), outcomeLabels);
+  }
+
+  private static final class EpochStats {
+    private long numEvents;
+    private long numCorrect;
+    private double logLikelihood;
+  }
+
+  /**
+   * Computes the gradients of mini-batches and applies them to the parameters,
+   * every thread uses its own worker.
+   */
+  private final class Worker {
+
+    private final EpochStats stats = new EpochStats();
+    private final SparseGradient gradient = new SparseGradient();
+    private final double[] probs = new double[outcomeLabels.length];
+    private int[] predIds = new int[64];
+    private float[] predValues = new float[64];
+
+    void train(Event[] batch, int length) {
+      int batchEvents = 0;
+
+      for (int ei = 0; ei < length; ei++) {
+        Event event = batch[ei];
+        Integer outcome = outcomeIds.get(event.getOutcome());
+        String[] context = event.getContext();
+        float[] values = event.getValues();
+
+        if (predIds.length < context.length) {
+          predIds = new int[context.length];
+          predValues = new float[context.length];
+        }
+
+        int numActive = 0;
+        for (int ci = 0; ci < context.length; ci++) {
+          int predId = predicateIndex.get(context[ci]);
+          if (predId >= 0) {
+            predIds[numActive] = predId;
+            predValues[numActive] = values != null ? values[ci] : 1;
+            numActive++;
+          }
+        }
+
+        // events with no active features or unknown outcomes are skipped
+        if (numActive == 0 || outcome == null) {
+          continue;
+        }
+
+        Arrays.fill(probs, 0);
+        for (int i = 0; i < numActive; i++) {
+          parameters.score(predIds[i], predValues[i], probs);
+        }
+
+        int best = 0;
+        double max = probs[0];
+        for (int oid = 1; oid < probs.length; oid++) {
+          if (probs[oid] > max) {
+            max = probs[oid];
+            best = oid;
+          }
+        }
+
+        double normal = 0;
+        for (int oid = 0; oid < probs.length; oid++) {
+          probs[oid] = Math.exp(probs[oid] - max);
+          normal += probs[oid];
+        }
+        for (int oid = 0; oid < probs.length; oid++) {
+          probs[oid] /= normal;
+        }
+
+        stats.numEvents++;
+        stats.logLikelihood += Math.log(probs[outcome]);
+        if (best == outcome) {
+          stats.numCorrect++;
+        }
+        batchEvents++;
+
+        // the gradient of the negative log likelihood is the
+        // expected minus the observed feature value
+        for (int i = 0; i < numActive; i++) {
+          int[] pattern = parameters.getOutcomePattern(predIds[i]);
+          double[] row = gradient.row(predIds[i], pattern.length);
+          for (int k = 0; k < pattern.length; k++) {
+            double observed = pattern[k] == outcome ? 1 : 0;
+            row[k] += (probs[pattern[k]] - observed) * predValues[i];
+          }
+        }
+      }
+
+      if (batchEvents > 0) {
+        gradient.apply(parameters, 1d / batchEvents);
+      }
+    }
+  }
+
+  /**
+   * Sums up the gradients of a mini-batch for the predicates which occurred in it.
+   */
+  private static final class SparseGradient {
+
+    private int[] keys = new int[256];
+    private double[][] rows = new double[256][];
+    private int size;
+
+    /**
+     * Retrieves the gradient row of a predicate, the row is created on first access.
+     */
+    double[] row(int predId, int length) {
+      int mask = keys.length - 1;
+      int key = predId + 1;
+      int slot = slot(key, mask);
+      while (keys[slot] != 0) {
+        if (keys[slot] == key) {
+          return rows[slot];
+        }
+        slot = (slot + 1) & mask;
+      }
+
+      keys[slot] = key;
+      rows[slot] = new double[length];
+      if (++size * 2 > keys.length) {
+        resize();
+        return row(predId, length);
+      }
+      return rows[slot];
+    }
+
+    private static int slot(int key, int mask) {
+      int h = key * 0x9E3779B9;
+      return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void resize() {
+      int[] oldKeys = keys;
+      double[][] oldRows = rows;
+      keys = new int[oldKeys.length * 2];
+      rows = new double[keys.length][];
+
+      int mask = keys.length - 1;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != 0) {
+          int slot = slot(oldKeys[i], mask);
+          while (keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+          }
+          keys[slot] = oldKeys[i];
+          rows[slot] = oldRows[i];
+        }
+      }
+    }
+
+    /**
+     * Applies the scaled gradients to the parameters and clears them.
+     */
+    void apply(SGDParameters parameters, double scale) {
+      for (int slot = 0; slot < keys.length; slot++) {
+        if (keys[slot] != 0) {
+          double[] row = rows[slot];
+          for (int k = 0; k < row.length; k++) {
+            row[k] *= scale;
+          }
+          parameters.update(keys[slot] - 1, row);
+          keys[slot] = 0;
+          rows[slot] = null;
+        }
+      }
+      size = 0;
+    }
+  }
+
+  /**
+   * Replays the unique events of a data indexer as often as they were seen, plain SGD
+   * converges poorly on sorted events. The first pass reads the events in the order of
+   * the indexer, every reset shuffles the order for the next epoch.
+   */
+  private static final class IndexedEventStream implements ObjectStream<Event> {
+
+    private final DataIndexer indexer;
+    private final Random random;
+
+    /** The unique event index of every event. */
+    private final int[] order;
+    private int position;
+
+    IndexedEventStream(DataIndexer indexer, long seed) {
+      this.indexer = indexer;
+      this.random = new Random(seed);
+
+      int[] numTimesEventsSeen = indexer.getNumTimesEventsSeen();
+      int numEvents = 0;
+      for (int ei = 0; ei < indexer.getContexts().length; ei++) {
+        numEvents += numTimesEventsSeen[ei];
+      }
+
+      order = new int[numEvents];
+      for (int ei = 0, i = 0; ei < indexer.getContexts().length; ei++) {
+        for (int n = 0; n < numTimesEventsSeen[ei]; n++) {
+          order[i++] = ei;
+        }
+      }
+    }
+
+    @Override
+    public Event read() {
+      if (position == order.length) {
+        return null;
+      }
+
+      int eventIndex = order[position++];
+      int[] predIds = indexer.getContexts()[eventIndex];
+
+      String[] context = new String[predIds.length];
+      for (int ci = 0; ci < context.length; ci++) {
+        context[ci] = indexer.getPredLabels()[predIds[ci]];
+      }
+
+      float[][] values = indexer.getValues();
+      return new Event(indexer.getOutcomeLabels()[indexer.getOutcomeList()[eventIndex]],
+          context, values != null ? values[eventIndex] : null);
+    }
+
+    @Override
+    public void reset() {
+      position = 0;
+
+      // Fisher-Yates shuffle
+      for (int i = order.length - 1; i > 0; i--) {
+        int j = random.nextInt(i + 1);
+        int eventIndex = order[i];
+        order[i] = order[j];
+        order[j] = eventIndex;
+      }
+    }
+  }
+}
@@ -60,7 +60,8 @@ public abstract class AbstractDataIndexer implements DataIndexer {
         AbstractTrainer.VERBOSE_DEFAULT);
   }
 
-  private int numEvents;
+  /** The number of events which have been indexed. */
+  protected int numEvents;
   /** The integer contexts associated with each unique event. */
   protected int[][] contexts;
   /** The integer outcome associated with each unique event. */
@@ -39,6 +39,9 @@ public abstract class AbstractModel implements MaxentModel {
   /** The type of the model. */
   protected ModelType modelType;
 
+  /** The compiled form of this model, created on the first call of {@link #compile()}. */
+  private volatile CompiledModel compiledModel;
+
   protected AbstractModel(Context[] params, String[] predLabels,
       Map<String, Context> pmap, String[] outcomeNames) {
     this.pmap = pmap;
@@ -139,6 +142,56 @@ public abstract class AbstractModel implements MaxentModel {
     return evalParams.getNumOutcomes();
   }
 
+  /**
+   * Checks if this model can be compiled with {@link #compile()}.
+   *
+   * @return true if the model can be compiled
+   */
+  public boolean isCompilable() {
+    return CompiledModel.isSupported(this);
+  }
+
+  /**
+   * Retrieves the compiled form of this model, it is created on the first call
+   * and then shared by all callers.
+   * <p>
+   * Once compiled this model keeps only the parameters of the compiled model and
+   * evaluates through it. The contexts of the predicate map and of
+   * {@link #getDataStructures()} are then created from the compiled parameters on
+   * every access.
+   *
+   * @return the compiled model
+   *
+   * @throws IllegalArgumentException if the model can't be compiled
+   */
+  public CompiledModel compile() {
+    CompiledModel compiled = compiledModel;
+    if (compiled == null) {
+      synchronized (this) {
+        compiled = compiledModel;
+        if (compiled == null) {
+          compiled = new CompiledModel(this);
+          compiledModel = compiled;
+
+          // release the contexts, the parameters are only kept by the compiled model
+          pmap = compiled.asContextMap();
+          evalParams = new EvalParameters(null, evalParams.getNumOutcomes());
+        }
+      }
+    }
+    return compiled;
+  }
+
+  /**
+   * Retrieves the compiled form of this model, sub classes evaluate through it
+   * once it exists.
+   *
+   * @return the compiled model or null if {@link #compile()} wasn't called yet
+   */
+  protected final CompiledModel getCompiledModel() {
+    return compiledModel;
+  }
+
   /**
    * Provides the fundamental data structures which encode the maxent model
    * information.  This method will usually only be needed by
@@ -158,7 +211,8 @@ public abstract class AbstractModel implements MaxentModel {
    */
   public final Object[] getDataStructures() {
     Object[] data = new Object[3];
-    data[0] = evalParams.getParams();
+    Context[] params = evalParams.getParams();
+    data[0] = params != null ? params : compile().getContexts();
     data[1] = pmap;
     data[2] = outcomeNames;
     return data;
@@ -166,7 +220,7 @@ public abstract class AbstractModel implements MaxentModel {
 
   @Override
   public int hashCode() {
-    return Objects.hash(pmap, Arrays.hashCode(outcomeNames), evalParams, prior);
+    return Objects.hash(pmap, Arrays.hashCode(outcomeNames), prior);
   }
 
   @Override
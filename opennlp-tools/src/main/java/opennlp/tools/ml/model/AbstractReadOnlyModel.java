@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ml.model;
+
+import java.text.DecimalFormat;
+
+/**
+ * The outcome methods shared by the read-only models, which store their outcome
+ * names in an array.
+ */
+abstract class AbstractReadOnlyModel implements MaxentModel {
+
+  /**
+   * @return the names of the outcomes, indexed by outcome id
+   */
+  abstract String[] getOutcomeNames();
+
+  public String getBestOutcome(double[] ocs) {
+    String[] outcomeNames = getOutcomeNames();
+    int best = 0;
+    for (int i = 1; i < ocs.length; i++)
+      if (ocs[i] > ocs[best]) best = i;
+    return outcomeNames[best];
+  }
+
+  public String getAllOutcomes(double[] ocs) {
+    String[] outcomeNames = getOutcomeNames();
+    DecimalFormat df =  new DecimalFormat("0.0000");
+    StringBuilder sb = new StringBuilder(ocs.length * 2);
+    for (int i = 0; i < ocs.length; i++) {
+      if (i > 0) {
+        sb.append("  ");
+      }
+      sb.append(outcomeNames[i]).append("[").append(df.format(ocs[i])).append("]");
+    }
+    return sb.toString();
+  }
+
+  public String getOutcome(int i) {
+    return getOutcomeNames()[i];
+  }
+
+  public int getIndex(String outcome) {
+    String[] outcomeNames = getOutcomeNames();
+    for (int i = 0; i < outcomeNames.length; i++) {
+      if (outcomeNames[i].equals(outcome))
+        return i;
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ml.model;
+
+import opennlp.tools.util.cache.ArrayKey;
+import opennlp.tools.util.cache.ConcurrentCache;
+
+/**
+ * A {@link MaxentModel} which caches the evaluations of a wrapped model.
+ * <p>
+ * The cache is keyed by the content of the context and by the wrapped model,
+ * one cache can be shared by many models and threads. Evaluations with
+ * predicate values are not cached. The model is thread-safe if the wrapped
+ * model is.
+ */
+public class CachedMaxentModel implements MaxentModel {
+
+  private final MaxentModel model;
+  private final ConcurrentCache<ArrayKey, double[]> cache;
+
+  /**
+   * Initializes the model.
+   *
+   * @param model the model to evaluate on a cache miss
+   * @param cache the cache for the evaluations
+   */
+  public CachedMaxentModel(MaxentModel model, ConcurrentCache<ArrayKey, double[]> cache) {
+    this.model = model;
+    this.cache = cache;
+  }
+
+  public MaxentModel getModel() {
+    return model;
+  }
+
+  public ConcurrentCache<ArrayKey, double[]> getCache() {
+    return cache;
+  }
+
+  public double[] eval(String[] context) {
+    return eval(context, new double[model.getNumOutcomes()]);
+  }
+
+  public double[] eval(String[] context, double[] probs) {
+    ArrayKey key = new ArrayKey(model, context);
+    double[] cached = cache.get(key);
+
+    if (cached == null) {
+      cached = model.eval(context, probs).clone();
+      cache.put(new ArrayKey(model, context.clone()), cached);
+    }
+
+    System.arraycopy(cached, 0, probs, 0, cached.length);
+    return probs;
+  }
+
+  public double[] eval(String[] context, float[] values) {
+    return model.eval(context, values);
+  }
+
+  public String getBestOutcome(double[] outcomes) {
+    return model.getBestOutcome(outcomes);
+  }
+
+  public String getAllOutcomes(double[] outcomes) {
+    return model.getAllOutcomes(outcomes);
+  }
+
+  public String getOutcome(int i) {
+    return model.getOutcome(i);
+  }
+
+  public int getIndex(String outcome) {
+    return model.getIndex(outcome);
+  }
+
+  public int getNumOutcomes() {
+    return model.getNumOutcomes();
+  }
+}
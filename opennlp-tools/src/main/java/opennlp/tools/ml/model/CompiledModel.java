@@ -0,0 +1,425 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ml.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import opennlp.tools.ml.maxent.GISModel;
+import opennlp.tools.ml.maxent.quasinewton.ArrayMath;
+import opennlp.tools.ml.maxent.quasinewton.QNModel;
+import opennlp.tools.ml.perceptron.PerceptronModel;
+
+/**
+ * A read-only, compiled form of a loaded {@link AbstractModel}.
+ * <p>
+ * The predicates are stored in a {@link PredicateIndex} and the parameters
+ * of all predicates are packed into one flat array, the parameters of
+ * a predicate are stored consecutively and are located with an offsets array.
+ * The evaluation doesn't allocate any objects and can be done either with
+ * predicate strings or with predicate ids previously retrieved with
+ * {@link #getPredicateIndex()}.
+ * <p>
+ * The evaluation produces exactly the same probabilities as the model it was
+ * compiled from. Instances are immutable and can be shared between threads.
+ *
+ * @see AbstractModel#compile()
+ */
+public final class CompiledModel extends AbstractReadOnlyModel {
+
+  private final AbstractModel.ModelType modelType;
+  private final String[] outcomeNames;
+  private final int numOutcomes;
+
+  private final PredicateIndex predicateIndex;
+
+  /** The start of the parameters of predicate i, the end is stored at i + 1. */
+  private final int[] offsets;
+  private final int[] outcomes;
+  private final double[] parameters;
+
+  /** True if the outcomes of predicate i are 0, 1, ..., n - 1. */
+  private final boolean[] firstOutcomes;
+
+  CompiledModel(AbstractModel model) {
+
+    if (!isSupported(model)) {
+      throw new IllegalArgumentException("Model type can't be compiled: " + model.getModelType());
+    }
+
+    modelType = model.getModelType();
+    outcomeNames = model.outcomeNames;
+    numOutcomes = model.evalParams.getNumOutcomes();
+
+    String[] predLabels = new String[model.pmap.size()];
+    Context[] params = new Context[predLabels.length];
+
+    int numParams = 0;
+    int pid = 0;
+    for (Map.Entry<String, Context> entry : model.pmap.entrySet()) {
+      predLabels[pid] = entry.getKey();
+      params[pid] = entry.getValue();
+      numParams += params[pid].getOutcomes().length;
+      pid++;
+    }
+
+    predicateIndex = new PredicateIndex(predLabels);
+
+    offsets = new int[predLabels.length + 1];
+    outcomes = new int[numParams];
+    parameters = new double[numParams];
+
+    int offset = 0;
+    for (int i = 0; i < params.length; i++) {
+      offsets[i] = offset;
+      int[] activeOutcomes = params[i].getOutcomes();
+      System.arraycopy(activeOutcomes, 0, outcomes, offset, activeOutcomes.length);
+      System.arraycopy(params[i].getParameters(), 0, parameters, offset, activeOutcomes.length);
+      offset += activeOutcomes.length;
+    }
+    offsets[params.length] = offset;
+
+    firstOutcomes = new boolean[params.length];
+    for (int i = 0; i < params.length; i++) {
+      firstOutcomes[i] = Context.isSequence(outcomes, offsets[i], offsets[i + 1]);
+    }
+  }
+
+  /**
+   * Checks if the evaluation of a model can be compiled. Naive bayes models,
+   * maxent models with a non uniform prior and sub classes which might override
+   * the evaluation are not supported.
+   *
+   * @param model the model to check
+   * @return true if the model can be compiled
+   */
+  static boolean isSupported(AbstractModel model) {
+    if (model.getModelType() == null) {
+      return false;
+    }
+
+    Class<?> modelClass = model.getClass();
+
+    switch (model.getModelType()) {
+      case Maxent:
+        return modelClass == GISModel.class && model.prior instanceof UniformPrior;
+      case MaxentQn:
+        return modelClass == QNModel.class;
+      case Perceptron:
+        return modelClass == PerceptronModel.class;
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  String[] getOutcomeNames() {
+    return outcomeNames;
+  }
+
+  /**
+   * Creates the context of a predicate, the parameters are copied.
+   */
+  Context getContext(int predId) {
+    return new Context(Arrays.copyOfRange(outcomes, offsets[predId], offsets[predId + 1]),
+        Arrays.copyOfRange(parameters, offsets[predId], offsets[predId + 1]));
+  }
+
+  /**
+   * Creates the contexts of all predicates, ordered by their ids.
+   */
+  Context[] getContexts() {
+    Context[] contexts = new Context[predicateIndex.size()];
+    for (int predId = 0; predId < contexts.length; predId++) {
+      contexts[predId] = getContext(predId);
+    }
+    return contexts;
+  }
+
+  /**
+   * Creates a read-only view which maps the predicates to their contexts, every
+   * access creates the context from the packed parameters.
+   */
+  Map<String, Context> asContextMap() {
+    return new ContextMap();
+  }
+
+  private final class ContextMap extends AbstractMap<String, Context> {
+
+    @Override
+    public int size() {
+      return predicateIndex.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof String && predicateIndex.get((String) key) >= 0;
+    }
+
+    @Override
+    public Context get(Object key) {
+      int predId = key instanceof String ? predicateIndex.get((String) key) : -1;
+      return predId >= 0 ? getContext(predId) : null;
+    }
+
+    @Override
+    public Set<Entry<String, Context>> entrySet() {
+      return new AbstractSet<Entry<String, Context>>() {
+
+        @Override
+        public int size() {
+          return predicateIndex.size();
+        }
+
+        @Override
+        public Iterator<Entry<String, Context>> iterator() {
+          String[] predLabels = predicateIndex.toArray();
+
+          return new Iterator<Entry<String, Context>>() {
+
+            private int predId;
+
+            @Override
+            public boolean hasNext() {
+              return predId < predLabels.length;
+            }
+
+            @Override
+            public Entry<String, Context> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              Entry<String, Context> entry =
+                  new SimpleImmutableEntry<>(predLabels[predId], getContext(predId));
+              predId++;
+              return entry;
+            }
+          };
+        }
+      };
+    }
+  }
+
+  int[] getOffsets() {
+    return offsets;
+  }
+
+  int[] getOutcomes() {
+    return outcomes;
+  }
+
+  double[] getParameters() {
+    return parameters;
+  }
+
+  /**
+   * Retrieves the index which maps the predicates of this model to the ids
+   * accepted by {@link #eval(int[], double[])}.
+   *
+   * @return the predicate index
+   */
+  public PredicateIndex getPredicateIndex() {
+    return predicateIndex;
+  }
+
+  public AbstractModel.ModelType getModelType() {
+    return modelType;
+  }
+
+  public double[] eval(String[] context) {
+    return eval(context, null, new double[numOutcomes]);
+  }
+
+  public double[] eval(String[] context, double[] probs) {
+    return eval(context, null, probs);
+  }
+
+  public double[] eval(String[] context, float[] values) {
+    return eval(context, values, new double[numOutcomes]);
+  }
+
+  /**
+   * Evaluates a context given as predicate strings.
+   *
+   * @param context the predicates which have been observed at the present decision point
+   * @param values the values of the predicates or null if all are one
+   * @param probs the array to store the distribution in, the previous content is overwritten
+   * @return the probs array with the normalized probabilities for the outcomes
+   */
+  public double[] eval(String[] context, float[] values, double[] probs) {
+    initScores(modelType, numOutcomes, probs);
+    for (int ci = 0; ci < context.length; ci++) {
+      int predId = predicateIndex.get(context[ci]);
+      if (predId >= 0) {
+        addScores(predId, values != null ? values[ci] : 1, probs);
+      }
+    }
+    return normalize(modelType, numOutcomes, probs);
+  }
+
+  /**
+   * Evaluates a context given as predicate ids.
+   *
+   * @param predIds the ids of the observed predicates, negative ids are ignored
+   * @param probs the array to store the distribution in, the previous content is overwritten
+   * @return the probs array with the normalized probabilities for the outcomes
+   */
+  public double[] eval(int[] predIds, double[] probs) {
+    return eval(predIds, predIds.length, null, probs);
+  }
+
+  /**
+   * Evaluates a context given as predicate ids.
+   *
+   * @param predIds the ids of the observed predicates, negative ids are ignored
+   * @param length the number of ids to use from predIds
+   * @param values the values of the predicates or null if all are one
+   * @param probs the array to store the distribution in, the previous content is overwritten
+   * @return the probs array with the normalized probabilities for the outcomes
+   */
+  public double[] eval(int[] predIds, int length, float[] values, double[] probs) {
+    initScores(modelType, numOutcomes, probs);
+    for (int ci = 0; ci < length; ci++) {
+      int predId = predIds[ci];
+      if (predId >= 0) {
+        addScores(predId, values != null ? values[ci] : 1, probs);
+      }
+    }
+    return normalize(modelType, numOutcomes, probs);
+  }
+
+  /**
+   * Creates the unnormalized scores of an empty context. The scores of a context can
+   * be accumulated over several calls of {@link #addScores(int[], int, int, double[])}
+   * and be normalized at any point with {@link #normalize(double[], double[])}.
+   *
+   * @return the initial scores
+   */
+  public double[] createScores() {
+    double[] scores = new double[numOutcomes];
+    initScores(modelType, numOutcomes, scores);
+    return scores;
+  }
+
+  /**
+   * Adds the parameters of predicates to unnormalized scores.
+   *
+   * @param predIds the ids of the predicates, negative ids are ignored
+   * @param start the index of the first id to add
+   * @param end the index after the last id to add
+   * @param scores the scores created with {@link #createScores()}
+   */
+  public void addScores(int[] predIds, int start, int end, double[] scores) {
+    for (int ci = start; ci < end; ci++) {
+      if (predIds[ci] >= 0) {
+        addScores(predIds[ci], 1, scores);
+      }
+    }
+  }
+
+  /**
+   * Normalizes accumulated scores, the scores are not modified.
+   *
+   * @param scores the scores created with {@link #createScores()}
+   * @param probs the array to store the distribution in, the previous content is overwritten
+   * @return the probs array with the normalized probabilities for the outcomes
+   */
+  public double[] normalize(double[] scores, double[] probs) {
+    System.arraycopy(scores, 0, probs, 0, numOutcomes);
+    return normalize(modelType, numOutcomes, probs);
+  }
+
+  /**
+   * Sets the scores to the initial value used by the given model type, that is
+   * the log of the uniform prior for maxent models and zero otherwise.
+   */
+  static void initScores(AbstractModel.ModelType modelType, int numOutcomes, double[] scores) {
+    Arrays.fill(scores, 0, numOutcomes,
+        modelType == AbstractModel.ModelType.Maxent ? Math.log(1.0 / numOutcomes) : 0);
+  }
+
+  void addScores(int predId, double value, double[] scores) {
+    int start = offsets[predId];
+    int end = offsets[predId + 1];
+    if (firstOutcomes[predId]) {
+      // consecutive elements, the loop is vectorized by the JIT compiler
+      for (int ai = start; ai < end; ai++) {
+        scores[ai - start] += parameters[ai] * value;
+      }
+    }
+    else {
+      for (int ai = start; ai < end; ai++) {
+        scores[outcomes[ai]] += parameters[ai] * value;
+      }
+    }
+  }
+
+  /**
+   * Normalizes the scores exactly like the evaluation of the source model does.
+   */
+  static double[] normalize(AbstractModel.ModelType modelType, int numOutcomes, double[] scores) {
+    switch (modelType) {
+      case Maxent: {
+        double normal = 0.0;
+        for (int oid = 0; oid < numOutcomes; oid++) {
+          scores[oid] = Math.exp(scores[oid]);
+          normal += scores[oid];
+        }
+        for (int oid = 0; oid < numOutcomes; oid++) {
+          scores[oid] /= normal;
+        }
+        break;
+      }
+      case MaxentQn: {
+        double logSumExp = ArrayMath.logSumOfExps(scores);
+        for (int oid = 0; oid < numOutcomes; oid++) {
+          scores[oid] = Math.exp(scores[oid] - logSumExp);
+        }
+        break;
+      }
+      case Perceptron: {
+        double maxPrior = 1;
+        for (int oid = 0; oid < numOutcomes; oid++) {
+          if (maxPrior < Math.abs(scores[oid]))
+            maxPrior = Math.abs(scores[oid]);
+        }
+        double normal = 0.0;
+        for (int oid = 0; oid < numOutcomes; oid++) {
+          scores[oid] = Math.exp(scores[oid] / maxPrior);
+          normal += scores[oid];
+        }
+        for (int oid = 0; oid < numOutcomes; oid++) {
+          scores[oid] /= normal;
+        }
+        break;
+      }
+      default:
+        throw new IllegalStateException("Unsupported model type: " + modelType);
+    }
+    return scores;
+  }
+
+  public int getNumOutcomes() {
+    return numOutcomes;
+  }
+}
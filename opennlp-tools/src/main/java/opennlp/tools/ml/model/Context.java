@@ -32,6 +32,9 @@ public class Context {
   /** The outcomes which occur with this context. */
   protected int[] outcomes;
 
+  /** True if the outcomes are 0, 1, ..., n - 1, see {@link #addScores(double[], double)}. */
+  private final boolean firstOutcomes;
+
   /**
    * Creates a new parameters object with the specified parameters associated with the specified
    * outcome pattern.
@@ -41,6 +44,19 @@ public class Context {
   public Context(int[] outcomePattern, double[] parameters) {
     this.outcomes = outcomePattern;
     this.parameters = parameters;
+    this.firstOutcomes = isSequence(outcomePattern, 0, outcomePattern.length);
+  }
+
+  /**
+   * Checks if a range of outcomes is the sequence 0, 1, ..., n - 1.
+   */
+  static boolean isSequence(int[] outcomes, int start, int end) {
+    for (int ai = start; ai < end; ai++) {
+      if (outcomes[ai] != ai - start) {
+        return false;
+      }
+    }
+    return true;
   }
 
   /**
@@ -59,6 +75,31 @@ public class Context {
     return parameters;
   }
 
+  /**
+   * Adds the parameters, multiplied with a value, to the scores of their outcomes.
+   * <p>
+   * Models with many outcomes usually have parameters for all outcomes of a context,
+   * then they are added in a loop over consecutive elements, which the JIT compiler
+   * vectorizes, instead of through the outcome indices.
+   *
+   * @param scores the scores of all outcomes
+   * @param value the value of the predicate
+   */
+  public void addScores(double[] scores, double value) {
+    int[] activeOutcomes = outcomes;
+    double[] activeParameters = parameters;
+    if (firstOutcomes) {
+      for (int oid = 0; oid < activeOutcomes.length; oid++) {
+        scores[oid] += activeParameters[oid] * value;
+      }
+    }
+    else {
+      for (int ai = 0; ai < activeOutcomes.length; ai++) {
+        scores[activeOutcomes[ai]] += activeParameters[ai] * value;
+      }
+    }
+  }
+
   @Override
   public int hashCode() {
     return Objects.hash(Arrays.hashCode(parameters), Arrays.hashCode(outcomes));
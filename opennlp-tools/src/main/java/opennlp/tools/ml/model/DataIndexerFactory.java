@@ -50,6 +50,18 @@ public class DataIndexerFactory {
         indexer = new OnePassRealValueDataIndexer();
         break;
 
+      case AbstractEventTrainer.DATA_INDEXER_EXTERNAL_SORT_VALUE:
+        indexer = new ExternalSortDataIndexer();
+        break;
+
+      case AbstractEventTrainer.DATA_INDEXER_PARALLEL_VALUE:
+        indexer = new ParallelDataIndexer();
+        break;
+
+      case AbstractEventTrainer.DATA_INDEXER_HASHING_VALUE:
+        indexer = new HashingDataIndexer();
+        break;
+
       default:
         // if the user passes in a class name for the indexer, try to instantiate the class.
         indexer = ExtensionLoader.instantiateExtension(DataIndexer.class, indexerParam);
@@ -0,0 +1,486 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import opennlp.tools.util.InsufficientTrainingDataException;
+import opennlp.tools.util.ObjectStream;
+
+/**
+ * Collecting event and context counts without keeping all events in memory.
+ * <p>
+ * The first pass counts the predicates and writes the events with
+ * provisional predicate ids in a compact binary form to a temporary file.
+ * The second pass maps the events to the predicates which passed the cutoff,
+ * sorts them in runs of at most {@link #RUN_SIZE_PARAM} events, merges the
+ * duplicates of each run and writes it to another temporary file. Finally the
+ * sorted runs are merged and only the unique events are kept in memory.
+ * <p>
+ * The result is identical to the one of the {@link TwoPassDataIndexer}, but
+ * the memory usage is bounded by the run size and the number of unique events
+ * instead of the number of all events.
+ * <p>
+ * The bound requires sorting. With {@link #SORT_PARAM} set to false duplicate events
+ * are not merged, the indexed events contain every event and all of them are kept
+ * in memory, like the {@link TwoPassDataIndexer} does.
+ */
+public class ExternalSortDataIndexer extends AbstractDataIndexer {
+
+  /**
+   * The maximum number of events which are sorted in memory at once.
+   */
+  public static final String RUN_SIZE_PARAM = "ExternalSortRunSize";
+  public static final int RUN_SIZE_DEFAULT = 1000000;
+
+  public ExternalSortDataIndexer() {}
+
+  @Override
+  public void index(ObjectStream<Event> eventStream) throws IOException {
+    int cutoff = trainingParameters.getIntParameter(CUTOFF_PARAM, CUTOFF_DEFAULT);
+    boolean sort = trainingParameters.getBooleanParameter(SORT_PARAM, SORT_DEFAULT);
+    int runSize = trainingParameters.getIntParameter(RUN_SIZE_PARAM, RUN_SIZE_DEFAULT);
+
+    if (runSize < 1) {
+      throw new IllegalArgumentException(RUN_SIZE_PARAM + " must be at least 1, but is " + runSize);
+    }
+
+    long start = System.currentTimeMillis();
+
+    display("Indexing events with ExternalSort using cutoff of " + cutoff + "\n\n");
+
+    if (!sort) {
+      display("WARNING: events are not sorted, all events are kept in memory. Set "
+          + SORT_PARAM + " to true to bound the memory usage.\n");
+    }
+
+    display("\tComputing event counts...  ");
+
+    File eventFile = File.createTempFile("events", null);
+    eventFile.deleteOnExit();
+    List<File> runFiles = new ArrayList<>();
+
+    try {
+      PredicateCounter counter = new PredicateCounter();
+      Map<String, Integer> omap = new HashMap<>();
+
+      int numEvents;
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(eventFile)))) {
+        numEvents = computeEventCounts(eventStream, out, counter, omap);
+      }
+
+      display("done. " + numEvents + " events\n");
+
+      int[] predIds = counter.assignIds(cutoff);
+      outcomeLabels = toIndexedStringArray(omap);
+
+      display("\tIndexing...  ");
+
+      List<ComparableEvent> run = new ArrayList<>();
+      int numIndexedEvents = 0;
+
+      try (DataInputStream in = new DataInputStream(
+          new BufferedInputStream(new FileInputStream(eventFile)))) {
+        for (int i = 0; i < numEvents; i++) {
+          ComparableEvent event = readIndexedEvent(in, predIds);
+
+          if (event != null) {
+            run.add(event);
+            numIndexedEvents++;
+
+            if (sort && run.size() >= runSize) {
+              runFiles.add(writeRun(run));
+              run.clear();
+            }
+          }
+        }
+      }
+      eventFile.delete();
+
+      display("done.\n");
+
+      if (sort) {
+        display("Sorting and merging events... ");
+      }
+      else {
+        display("Collecting events... ");
+      }
+
+      if (runFiles.isEmpty()) {
+        // all events fit into a single run
+        sortAndMerge(run, sort);
+      }
+      else {
+        if (!run.isEmpty()) {
+          runFiles.add(writeRun(run));
+          run.clear();
+        }
+        mergeRuns(runFiles, numIndexedEvents);
+      }
+    }
+    finally {
+      eventFile.delete();
+      for (File runFile : runFiles) {
+        runFile.delete();
+      }
+    }
+
+    display(String.format("Done indexing in %.2f s.\n", (System.currentTimeMillis() - start) / 1000d));
+  }
+
+  /**
+   * Reads the events, counts the predicates and writes the events with
+   * provisional predicate ids to the event store.
+   *
+   * Protocol:
+   *  1 - (var int) - Event outcome id
+   *  2 - (var int) - Event context array length
+   *  3+ - (var int) - Provisional predicate id
+   *  4 - (var int) - Event values array length
+   *  5+ - (float) - Event value
+   */
+  private int computeEventCounts(ObjectStream<Event> eventStream, DataOutputStream eventStore,
+      PredicateCounter counter, Map<String, Integer> omap) throws IOException {
+    int eventCount = 0;
+
+    Event ev;
+    while ((ev = eventStream.read()) != null) {
+      eventCount++;
+
+      omap.putIfAbsent(ev.getOutcome(), omap.size());
+      writeVarInt(eventStore, omap.get(ev.getOutcome()));
+
+      String[] ec = ev.getContext();
+      writeVarInt(eventStore, ec.length);
+      for (String ctxString : ec) {
+        writeVarInt(eventStore, counter.add(ctxString));
+      }
+
+      writeValues(eventStore, ev.getValues());
+    }
+
+    return eventCount;
+  }
+
+  /**
+   * Reads an event from the event store and maps it to the final predicate ids.
+   *
+   * @return the event or null if none of its predicates passed the cutoff
+   */
+  private ComparableEvent readIndexedEvent(DataInput in, int[] predIds) throws IOException {
+    int outcome = readVarInt(in);
+
+    int contextLength = readVarInt(in);
+    int[] context = new int[contextLength];
+    int length = 0;
+    for (int i = 0; i < contextLength; i++) {
+      int predId = predIds[readVarInt(in)];
+      if (predId >= 0) {
+        context[length++] = predId;
+      }
+    }
+
+    float[] values = readValues(in);
+
+    // drop events with no active features
+    if (length == 0) {
+      display("Dropped event " + outcomeLabels[outcome] + "\n");
+      return null;
+    }
+
+    return new ComparableEvent(outcome, length == contextLength ? context
+        : Arrays.copyOf(context, length), values);
+  }
+
+  /**
+   * Sorts the events of a run, merges the duplicates and writes it to a temporary file.
+   *
+   * Protocol:
+   *  1 - (var int) - Event outcome id
+   *  2 - (var int) - Number of times the event was seen
+   *  3 - (var int) - Event context array length
+   *  4+ - (var int) - Predicate id
+   *  5 - (var int) - Event values array length
+   *  6+ - (float) - Event value
+   */
+  private static File writeRun(List<ComparableEvent> run) throws IOException {
+    Collections.sort(run);
+
+    File runFile = File.createTempFile("events-run", null);
+    runFile.deleteOnExit();
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(runFile)))) {
+
+      ComparableEvent champion = run.get(0);
+      for (int i = 1; i < run.size(); i++) {
+        ComparableEvent event = run.get(i);
+        if (champion.compareTo(event) == 0) {
+          champion.seen += event.seen;
+        }
+        else {
+          writeRunEvent(out, champion);
+          champion = event;
+        }
+      }
+      writeRunEvent(out, champion);
+    }
+
+    return runFile;
+  }
+
+  private static void writeRunEvent(DataOutput out, ComparableEvent event) throws IOException {
+    writeVarInt(out, event.outcome);
+    writeVarInt(out, event.seen);
+    writeVarInt(out, event.predIndexes.length);
+    for (int predIndex : event.predIndexes) {
+      writeVarInt(out, predIndex);
+    }
+    writeValues(out, event.values);
+  }
+
+  /**
+   * Merges the sorted runs and keeps the unique events.
+   */
+  private void mergeRuns(List<File> runFiles, int numIndexedEvents) throws IOException {
+    PriorityQueue<RunReader> queue = new PriorityQueue<>(runFiles.size());
+    List<ComparableEvent> uniqueEvents = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < runFiles.size(); i++) {
+        RunReader reader = new RunReader(runFiles.get(i), i);
+        if (reader.head != null) {
+          queue.add(reader);
+        }
+        else {
+          reader.close();
+        }
+      }
+
+      ComparableEvent champion = null;
+      while (!queue.isEmpty()) {
+        RunReader reader = queue.poll();
+        ComparableEvent event = reader.head;
+
+        if (champion != null && champion.compareTo(event) == 0) {
+          champion.seen += event.seen;
+        }
+        else {
+          champion = event;
+          uniqueEvents.add(champion);
+        }
+
+        if (reader.next() != null) {
+          queue.add(reader);
+        }
+        else {
+          reader.close();
+        }
+      }
+    }
+    finally {
+      for (RunReader reader : queue) {
+        reader.close();
+      }
+    }
+
+    if (uniqueEvents.isEmpty()) {
+      throw new InsufficientTrainingDataException("Insufficient training data to create model.");
+    }
+
+    display("done. Reduced " + numIndexedEvents + " events to " + uniqueEvents.size() + ".\n");
+
+    numEvents = numIndexedEvents;
+    contexts = new int[uniqueEvents.size()][];
+    outcomeList = new int[uniqueEvents.size()];
+    numTimesEventsSeen = new int[uniqueEvents.size()];
+
+    for (int i = 0; i < uniqueEvents.size(); i++) {
+      ComparableEvent event = uniqueEvents.get(i);
+      numTimesEventsSeen[i] = event.seen;
+      outcomeList[i] = event.outcome;
+      contexts[i] = event.predIndexes;
+    }
+  }
+
+  private static void writeValues(DataOutput out, float[] values) throws IOException {
+    if (values == null) {
+      writeVarInt(out, 0);
+    }
+    else {
+      writeVarInt(out, values.length);
+      for (float value : values) {
+        out.writeFloat(value);
+      }
+    }
+  }
+
+  private static float[] readValues(DataInput in) throws IOException {
+    int valuesLength = readVarInt(in);
+    float[] values = null;
+    if (valuesLength > 0) {
+      values = new float[valuesLength];
+      for (int i = 0; i < valuesLength; i++) {
+        values[i] = in.readFloat();
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Writes a non negative int with seven bits per byte, small ids need only one byte.
+   */
+  static void writeVarInt(DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed var int");
+  }
+
+  /**
+   * Counts the predicates by provisional ids which are assigned in the
+   * order in which the predicates occur first.
+   */
+  private final class PredicateCounter {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private String[] labels = new String[1024];
+    private int[] counts = new int[1024];
+
+    int add(String predicate) {
+      Integer id = ids.get(predicate);
+      if (id == null) {
+        id = ids.size();
+        ids.put(predicate, id);
+        if (id == counts.length) {
+          labels = Arrays.copyOf(labels, id * 2);
+          counts = Arrays.copyOf(counts, id * 2);
+        }
+        labels[id] = predicate;
+      }
+      counts[id]++;
+      return id;
+    }
+
+    /**
+     * Assigns the final ids to the predicates which occur at least cutoff
+     * times in sorted order, like the {@link TwoPassDataIndexer} does.
+     *
+     * @return the final ids indexed by the provisional ids, -1 for predicates below the cutoff
+     */
+    int[] assignIds(int cutoff) {
+      String[] predicateSet = ids.keySet().stream()
+          .filter(predicate -> counts[ids.get(predicate)] >= cutoff)
+          .sorted()
+          .toArray(String[]::new);
+
+      int[] predIds = new int[ids.size()];
+      Arrays.fill(predIds, -1);
+
+      predLabels = predicateSet;
+      predCounts = new int[predicateSet.length];
+      for (int i = 0; i < predicateSet.length; i++) {
+        int provisionalId = ids.get(predicateSet[i]);
+        predCounts[i] = counts[provisionalId];
+        predIds[provisionalId] = i;
+      }
+
+      return predIds;
+    }
+  }
+
+  /**
+   * Reads the events of a sorted run, the readers are ordered by their current
+   * event and then by the position of the run to make the merge deterministic.
+   */
+  private static final class RunReader implements Comparable<RunReader> {
+
+    private final DataInputStream in;
+    private final int position;
+    private ComparableEvent head;
+
+    RunReader(File runFile, int position) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(runFile)));
+      this.position = position;
+      next();
+    }
+
+    ComparableEvent next() throws IOException {
+      int outcome;
+      try {
+        outcome = readVarInt(in);
+      }
+      catch (EOFException e) {
+        head = null;
+        return null;
+      }
+
+      int seen = readVarInt(in);
+      int[] context = new int[readVarInt(in)];
+      for (int i = 0; i < context.length; i++) {
+        context[i] = readVarInt(in);
+      }
+
+      head = new ComparableEvent(outcome, context, readValues(in));
+      head.seen = seen;
+      return head;
+    }
+
+    void close() throws IOException {
+      in.close();
+    }
+
+    @Override
+    public int compareTo(RunReader other) {
+      int compareEvents = head.compareTo(other.head);
+      return compareEvents != 0 ? compareEvents : Integer.compare(position, other.position);
+    }
+  }
+}
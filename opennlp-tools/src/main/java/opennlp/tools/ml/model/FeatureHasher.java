@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+/**
+ * Maps feature strings to ids in a fixed range of <code>2^bits</code> without a
+ * predicate table, which is known as the hashing trick.
+ * <p>
+ * The hash is the 64 bit FNV-1a hash of the UTF-16 chars of the feature, it can be
+ * computed incrementally, e.g. over a character array without creating the feature
+ * string first. The id is taken from the high bits of the mixed hash and the
+ * optional sign from its lowest bit. Features which collide on an id cancel out
+ * on average when they have different signs. The hash is stable across JVMs and
+ * releases, models depend on it.
+ */
+public final class FeatureHasher {
+
+  private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long PRIME = 0x100000001b3L;
+
+  public static final int MAX_BITS = 30;
+
+  private FeatureHasher() {
+  }
+
+  /**
+   * @return the hash of the empty string, to start an incremental hash
+   */
+  public static long begin() {
+    return OFFSET_BASIS;
+  }
+
+  /**
+   * Continues a hash with one more char.
+   *
+   * @param hash the hash of the previous chars
+   * @param c the next char
+   * @return the hash including the char
+   */
+  public static long update(long hash, char c) {
+    return (hash ^ c) * PRIME;
+  }
+
+  /**
+   * Continues a hash with a range of chars.
+   *
+   * @param hash the hash of the previous chars
+   * @param chars the chars
+   * @param start the index of the first char
+   * @param end the index after the last char
+   * @return the hash including the chars
+   */
+  public static long update(long hash, char[] chars, int start, int end) {
+    for (int i = start; i < end; i++) {
+      hash = (hash ^ chars[i]) * PRIME;
+    }
+    return hash;
+  }
+
+  /**
+   * Continues a hash with a range of chars.
+   *
+   * @param hash the hash of the previous chars
+   * @param chars the chars
+   * @param start the index of the first char
+   * @param end the index after the last char
+   * @return the hash including the chars
+   */
+  public static long update(long hash, CharSequence chars, int start, int end) {
+    for (int i = start; i < end; i++) {
+      hash = (hash ^ chars.charAt(i)) * PRIME;
+    }
+    return hash;
+  }
+
+  /**
+   * Computes the hash of a feature.
+   *
+   * @param feature the feature
+   * @return the hash
+   */
+  public static long hash(CharSequence feature) {
+    return update(OFFSET_BASIS, feature, 0, feature.length());
+  }
+
+  /**
+   * Maps a hash to a feature id.
+   *
+   * @param hash the hash of the feature
+   * @param bits the number of bits of the id
+   * @return the id, between 0 and <code>2^bits - 1</code>
+   */
+  public static int id(long hash, int bits) {
+    return (int) (mix(hash) >>> (64 - bits));
+  }
+
+  /**
+   * Maps a hash to the sign of the feature, it is independent of the id.
+   *
+   * @param hash the hash of the feature
+   * @return 1 or -1
+   */
+  public static int sign(long hash) {
+    return (mix(hash) & 1) == 0 ? 1 : -1;
+  }
+
+  // the final mix of MurmurHash3, FNV-1a alone has weak high bits for short inputs
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * Maps a feature to its id.
+   *
+   * @param feature the feature
+   * @param bits the number of bits of the id
+   * @return the id, between 0 and <code>2^bits - 1</code>
+   */
+  public static int id(CharSequence feature, int bits) {
+    return id(hash(feature), bits);
+  }
+
+  /**
+   * Checks that the number of bits can be used for feature ids.
+   *
+   * @param bits the number of bits
+   * @throws IllegalArgumentException if bits is not between 1 and {@link #MAX_BITS}
+   */
+  public static void checkBits(int bits) {
+    if (bits < 1 || bits > MAX_BITS) {
+      throw new IllegalArgumentException("Feature hash bits must be between 1 and "
+          + MAX_BITS + ": " + bits);
+    }
+  }
+}
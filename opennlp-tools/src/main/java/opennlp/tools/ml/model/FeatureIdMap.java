@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ml.model;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table which maps non-negative feature ids to ints,
+ * its size depends on the number of distinct ids and not on the range of the ids.
+ * <p>
+ * <b>Note:</b> Instances are not thread safe.
+ */
+final class FeatureIdMap {
+
+  private int[] keys = emptyKeys(16);
+  private int[] values = new int[16];
+  private int size;
+
+  private static int[] emptyKeys(int length) {
+    int[] keys = new int[length];
+    Arrays.fill(keys, -1);
+    return keys;
+  }
+
+  private int slot(int id) {
+    int mask = keys.length - 1;
+    int slot = id & mask;
+    while (keys[slot] != -1 && keys[slot] != id) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Retrieves the value of an id.
+   *
+   * @return the value or -1 if the id is not contained
+   */
+  int get(int id) {
+    int slot = slot(id);
+    return keys[slot] == id ? values[slot] : -1;
+  }
+
+  void put(int id, int value) {
+    int slot = slot(id);
+    if (keys[slot] == id) {
+      values[slot] = value;
+    }
+    else {
+      insert(slot, id, value);
+    }
+  }
+
+  /**
+   * Increments the value of an id by one, an id which is not contained yet is set to one.
+   */
+  void increment(int id) {
+    int slot = slot(id);
+    if (keys[slot] == id) {
+      values[slot]++;
+    }
+    else {
+      insert(slot, id, 1);
+    }
+  }
+
+  private void insert(int slot, int id, int value) {
+    keys[slot] = id;
+    values[slot] = value;
+
+    if (++size * 2 > keys.length) {
+      resize();
+    }
+  }
+
+  private void resize() {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+
+    keys = emptyKeys(oldKeys.length * 2);
+    values = new int[keys.length];
+
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != -1) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Retrieves all contained ids in ascending order.
+   */
+  int[] sortedIds() {
+    int[] ids = new int[size];
+    int length = 0;
+    for (int key : keys) {
+      if (key != -1) {
+        ids[length++] = key;
+      }
+    }
+    Arrays.sort(ids);
+    return ids;
+  }
+}
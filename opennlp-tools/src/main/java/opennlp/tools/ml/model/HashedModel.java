@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.util.Arrays;
+
+/**
+ * A read-only model which is evaluated with hashed feature ids, created by
+ * {@link FeatureHasher}, instead of predicate strings.
+ * <p>
+ * The predicates of the underlying model are the decimal feature ids, as they are
+ * produced by the {@link HashingDataIndexer} or by context generators which hash
+ * their features for training. The evaluation looks up the parameters of a feature id
+ * in an open addressing table which is sized by the number of trained features, not by
+ * the <code>2^bits</code> possible ids. The contexts passed to the
+ * <code>eval</code> methods contain the original feature strings, they are hashed
+ * like during training. If the model is signed, the value of each feature is
+ * multiplied with its sign.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class HashedModel extends AbstractReadOnlyModel {
+
+  /**
+   * The manifest property of a component model which contains the number of bits
+   * of the feature ids, if its model was trained on hashed features.
+   */
+  public static final String BITS_PROPERTY = "FeatureHash-Bits";
+
+  /**
+   * The manifest property of a component model which indicates if the hashed
+   * features are signed.
+   */
+  public static final String SIGNED_PROPERTY = "FeatureHash-Signed";
+
+  private final CompiledModel model;
+  private final int bits;
+  private final boolean signed;
+
+  /** The feature ids of the trained predicates in open addressing slots, -1 for empty slots. */
+  private final int[] slotFeatureIds;
+
+  /** The predicate id of the feature id in the same slot. */
+  private final int[] slotPredIds;
+  private final int mask;
+
+  /**
+   * Initializes the model.
+   *
+   * @param model a model which was trained on hashed feature ids
+   * @param bits the number of bits of the feature ids
+   *
+   * @throws IllegalArgumentException if the model is not trained on feature ids
+   *     in the range of the bits, or can't be compiled
+   */
+  public HashedModel(MaxentModel model, int bits) {
+    this(model, bits, false);
+  }
+
+  /**
+   * Initializes the model.
+   *
+   * @param model a model which was trained on hashed feature ids
+   * @param bits the number of bits of the feature ids
+   * @param signed true if the features were signed during training
+   *
+   * @throws IllegalArgumentException if the model is not trained on feature ids
+   *     in the range of the bits, or can't be compiled
+   */
+  public HashedModel(MaxentModel model, int bits, boolean signed) {
+    FeatureHasher.checkBits(bits);
+
+    if (!(model instanceof AbstractModel)) {
+      throw new IllegalArgumentException("Model must be an AbstractModel, but is: "
+          + model.getClass().getName());
+    }
+
+    this.model = ((AbstractModel) model).compile();
+    this.bits = bits;
+    this.signed = signed;
+
+    String[] predLabels = this.model.getPredicateIndex().toArray();
+
+    // at most half of the slots are used
+    int capacity = Integer.highestOneBit(Math.max(predLabels.length, 1)) * 4;
+    slotFeatureIds = new int[capacity];
+    Arrays.fill(slotFeatureIds, -1);
+    slotPredIds = new int[capacity];
+    mask = capacity - 1;
+
+    for (int pid = 0; pid < predLabels.length; pid++) {
+      int featureId;
+      try {
+        featureId = Integer.parseInt(predLabels[pid]);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Predicate is not a hashed feature id: "
+            + predLabels[pid]);
+      }
+
+      if (featureId < 0 || featureId >= 1 << bits) {
+        throw new IllegalArgumentException("Feature id " + featureId
+            + " is out of the range of " + bits + " bits");
+      }
+
+      int slot = slot(featureId);
+      while (slotFeatureIds[slot] != -1 && slotFeatureIds[slot] != featureId) {
+        slot = (slot + 1) & mask;
+      }
+      slotFeatureIds[slot] = featureId;
+      slotPredIds[slot] = pid;
+    }
+  }
+
+  private int slot(int featureId) {
+    int h = featureId * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & mask;
+  }
+
+  /**
+   * @return the predicate id of the feature id, or -1 if the feature was not seen in training
+   */
+  private int predId(int featureId) {
+    int slot = slot(featureId);
+    int id;
+    while ((id = slotFeatureIds[slot]) != -1) {
+      if (id == featureId) {
+        return slotPredIds[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * @return the number of bits of the feature ids
+   */
+  public int getBits() {
+    return bits;
+  }
+
+  /**
+   * @return true if the features are signed
+   */
+  public boolean isSigned() {
+    return signed;
+  }
+
+  /**
+   * Evaluates a context given as hashed feature ids.
+   *
+   * @param featureIds the ids of the observed features
+   * @param length the number of ids to use from featureIds
+   * @param probs the array to store the distribution in, the previous content is overwritten
+   * @return the probs array with the normalized probabilities for the outcomes
+   */
+  public double[] eval(int[] featureIds, int length, double[] probs) {
+    AbstractModel.ModelType modelType = model.getModelType();
+    int numOutcomes = model.getNumOutcomes();
+
+    CompiledModel.initScores(modelType, numOutcomes, probs);
+    for (int ci = 0; ci < length; ci++) {
+      int predId = predId(featureIds[ci]);
+      if (predId >= 0) {
+        model.addScores(predId, 1, probs);
+      }
+    }
+    return CompiledModel.normalize(modelType, numOutcomes, probs);
+  }
+
+  public double[] eval(String[] context) {
+    return eval(context, null, new double[model.getNumOutcomes()]);
+  }
+
+  public double[] eval(String[] context, double[] probs) {
+    return eval(context, null, probs);
+  }
+
+  public double[] eval(String[] context, float[] values) {
+    return eval(context, values, new double[model.getNumOutcomes()]);
+  }
+
+  /**
+   * Evaluates a context of feature strings, they are hashed like during training.
+   *
+   * @param context the features
+   * @param values the values of the features, or null
+   * @param probs the array to store the distribution in, the previous content is overwritten
+   * @return the probs array with the normalized probabilities for the outcomes
+   */
+  public double[] eval(String[] context, float[] values, double[] probs) {
+    AbstractModel.ModelType modelType = model.getModelType();
+    int numOutcomes = model.getNumOutcomes();
+
+    CompiledModel.initScores(modelType, numOutcomes, probs);
+    for (int ci = 0; ci < context.length; ci++) {
+      long hash = FeatureHasher.hash(context[ci]);
+      int predId = predId(FeatureHasher.id(hash, bits));
+      if (predId >= 0) {
+        double value = values != null ? values[ci] : 1;
+        model.addScores(predId, signed ? FeatureHasher.sign(hash) * value : value, probs);
+      }
+    }
+    return CompiledModel.normalize(modelType, numOutcomes, probs);
+  }
+
+  @Override
+  String[] getOutcomeNames() {
+    return model.getOutcomeNames();
+  }
+
+  public int getNumOutcomes() {
+    return model.getNumOutcomes();
+  }
+}
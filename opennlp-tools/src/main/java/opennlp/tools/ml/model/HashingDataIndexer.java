@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ml.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import opennlp.tools.util.InsufficientTrainingDataException;
+import opennlp.tools.util.ObjectStream;
+
+/**
+ * An indexer which maps the features of the events to ids in a fixed range with
+ * the {@link FeatureHasher}, instead of building a table of all predicate strings.
+ * <p>
+ * The feature strings are hashed while the events are read and are not retained,
+ * the memory used for the index only depends on the number of events and the number
+ * of distinct feature ids. Ids which occur less often than the cutoff are dropped. The predicates
+ * of the trained model are the decimal ids, the model is evaluated with a
+ * {@link HashedModel}. The number of bits and the sign setting are reported as the
+ * {@link HashedModel#BITS_PROPERTY} and {@link HashedModel#SIGNED_PROPERTY}
+ * properties, which end up in the manifest of the component model.
+ * <p>
+ * Signed features have the values 1 and -1. They can only be trained by trainers
+ * which support negative feature values, e.g. the QN and perceptron trainers.
+ */
+public class HashingDataIndexer extends AbstractDataIndexer {
+
+  public static final String BITS_PARAM = "FeatureHashBits";
+  public static final int BITS_DEFAULT = 20;
+
+  public static final String SIGNED_PARAM = "FeatureHashSigned";
+  public static final boolean SIGNED_DEFAULT = false;
+
+  private float[][] values;
+
+  public HashingDataIndexer() {
+  }
+
+  @Override
+  public float[][] getValues() {
+    return values;
+  }
+
+  @Override
+  public void index(ObjectStream<Event> eventStream) throws IOException {
+    int cutoff = trainingParameters.getIntParameter(CUTOFF_PARAM, CUTOFF_DEFAULT);
+    boolean sort = trainingParameters.getBooleanParameter(SORT_PARAM, SORT_DEFAULT);
+    int bits = trainingParameters.getIntParameter(BITS_PARAM, BITS_DEFAULT);
+    boolean signed = trainingParameters.getBooleanParameter(SIGNED_PARAM, SIGNED_DEFAULT);
+
+    FeatureHasher.checkBits(bits);
+
+    long start = System.currentTimeMillis();
+
+    display("Indexing events with " + bits + " bit feature hashing using cutoff of "
+        + cutoff + "\n\n");
+
+    display("\tHashing events...  ");
+
+    // Only the ids which occur are counted, 2^bits can be far more than the number of features
+    FeatureIdMap idCounts = new FeatureIdMap();
+
+    Map<String, Integer> omap = new HashMap<>();
+    List<ComparableEvent> hashedEvents = new ArrayList<>();
+
+    Event ev;
+    while ((ev = eventStream.read()) != null) {
+      String[] context = ev.getContext();
+      float[] eventValues = ev.getValues();
+
+      int[] ids = new int[context.length];
+      float[] idValues = signed || eventValues != null ? new float[context.length] : null;
+      for (int i = 0; i < context.length; i++) {
+        long hash = FeatureHasher.hash(context[i]);
+        ids[i] = FeatureHasher.id(hash, bits);
+        idCounts.increment(ids[i]);
+
+        if (idValues != null) {
+          float value = eventValues != null ? eventValues[i] : 1;
+          idValues[i] = signed ? FeatureHasher.sign(hash) * value : value;
+        }
+      }
+
+      omap.putIfAbsent(ev.getOutcome(), omap.size());
+      hashedEvents.add(new ComparableEvent(omap.get(ev.getOutcome()), ids, idValues));
+    }
+    display("done. " + hashedEvents.size() + " events\n");
+
+    display("\tIndexing...  ");
+    int[] sortedIds = idCounts.sortedIds();
+    int numPreds = 0;
+    for (int id : sortedIds) {
+      if (idCounts.get(id) >= cutoff) {
+        numPreds++;
+      }
+    }
+
+    // The predicate index of each id which passed the cutoff
+    FeatureIdMap predIndex = new FeatureIdMap();
+    predLabels = new String[numPreds];
+    predCounts = new int[numPreds];
+    int pi = 0;
+    for (int id : sortedIds) {
+      int count = idCounts.get(id);
+      if (count >= cutoff) {
+        predLabels[pi] = Integer.toString(id);
+        predCounts[pi] = count;
+        predIndex.put(id, pi++);
+      }
+    }
+    idCounts = null;
+
+    List<ComparableEvent> eventsToCompare = new ArrayList<>(hashedEvents.size());
+    for (ComparableEvent event : hashedEvents) {
+      int[] ids = event.predIndexes;
+      int length = 0;
+      for (int i = 0; i < ids.length; i++) {
+        int predId = predIndex.get(ids[i]);
+        if (predId >= 0) {
+          ids[length] = predId;
+          if (event.values != null) {
+            event.values[length] = event.values[i];
+          }
+          length++;
+        }
+      }
+
+      // drop events with no active features
+      if (length > 0) {
+        eventsToCompare.add(new ComparableEvent(event.outcome, Arrays.copyOf(ids, length),
+            event.values != null ? Arrays.copyOf(event.values, length) : null));
+      }
+      else {
+        display("Dropped event " + event.outcome + "\n");
+      }
+    }
+    hashedEvents = null;
+
+    outcomeLabels = toIndexedStringArray(omap);
+    display("done.\n");
+
+    display("Sorting and merging events... ");
+    sortAndMerge(eventsToCompare, sort);
+    display(String.format("Done indexing in %.2f s.\n", (System.currentTimeMillis() - start) / 1000d));
+
+    if (reportMap != null) {
+      reportMap.put(HashedModel.BITS_PROPERTY, Integer.toString(bits));
+      reportMap.put(HashedModel.SIGNED_PROPERTY, Boolean.toString(signed));
+    }
+  }
+
+  @Override
+  protected int sortAndMerge(List<ComparableEvent> eventsToCompare, boolean sort)
+      throws InsufficientTrainingDataException {
+    int numUniqueEvents = super.sortAndMerge(eventsToCompare, sort);
+
+    boolean hasValues = false;
+    for (ComparableEvent event : eventsToCompare) {
+      if (event != null && event.values != null) {
+        hasValues = true;
+        break;
+      }
+    }
+
+    values = null;
+    if (hasValues) {
+      values = new float[numUniqueEvents][];
+      for (int i = 0, j = 0; i < eventsToCompare.size(); i++) {
+        ComparableEvent event = eventsToCompare.get(i);
+        if (event != null) {
+          values[j++] = event.values;
+        }
+      }
+    }
+    return numUniqueEvents;
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parameters of an existing model, mapped onto the predicates and outcomes
+ * of a new training index. A trainer uses them as the starting point of the training
+ * instead of zero parameters, so that a model which is retrained on slightly changed
+ * data converges in a few iterations.
+ * <p>
+ * Predicates and outcomes are matched by name. Predicates and outcomes which only
+ * occur in the new index start at zero. By default the ones which only occur in the
+ * existing model are not part of the new model, the retrained model is pruned to the
+ * vocabulary of the new training data. If the union of both is requested, they are
+ * appended to the labels of the new index and keep the parameters of the existing model.
+ */
+public class InitialParameters {
+
+  private final String[] predLabels;
+
+  private final String[] outcomeLabels;
+
+  private final Context[] contexts;
+
+  // Maps the outcome ids of the existing model to the ids of the new index
+  private final int[] outcomeMap;
+
+  private final int numOutcomes;
+
+  private int numInitializedPreds;
+
+  /**
+   * Initializes the current instance.
+   *
+   * @param model the existing model
+   * @param predLabels the predicates of the new training index
+   * @param outcomeLabels the outcomes of the new training index
+   */
+  public InitialParameters(AbstractModel model, String[] predLabels, String[] outcomeLabels) {
+    this(model, predLabels, outcomeLabels, false);
+  }
+
+  /**
+   * Initializes the current instance.
+   *
+   * @param model the existing model
+   * @param predLabels the predicates of the new training index
+   * @param outcomeLabels the outcomes of the new training index
+   * @param union true to append the predicates and outcomes which only occur in the
+   *     existing model to the ones of the new index, false to drop them
+   */
+  @SuppressWarnings("unchecked")
+  public InitialParameters(AbstractModel model, String[] predLabels, String[] outcomeLabels,
+      boolean union) {
+
+    Object[] data = model.getDataStructures();
+    Map<String, Context> pmap = (Map<String, Context>) data[1];
+    String[] modelOutcomes = (String[]) data[2];
+
+    if (union) {
+      predLabels = union(predLabels, pmap.keySet());
+      outcomeLabels = union(outcomeLabels, Arrays.asList(modelOutcomes));
+    }
+
+    this.predLabels = predLabels;
+    this.outcomeLabels = outcomeLabels;
+
+    Map<String, Integer> outcomeIndex = new HashMap<>(outcomeLabels.length * 2);
+    for (int oi = 0; oi < outcomeLabels.length; oi++) {
+      outcomeIndex.put(outcomeLabels[oi], oi);
+    }
+
+    outcomeMap = new int[modelOutcomes.length];
+    for (int oi = 0; oi < modelOutcomes.length; oi++) {
+      Integer index = outcomeIndex.get(modelOutcomes[oi]);
+      outcomeMap[oi] = index != null ? index : -1;
+    }
+
+    contexts = new Context[predLabels.length];
+    for (int pi = 0; pi < predLabels.length; pi++) {
+      contexts[pi] = pmap.get(predLabels[pi]);
+      if (contexts[pi] != null) {
+        numInitializedPreds++;
+      }
+    }
+
+    numOutcomes = outcomeLabels.length;
+  }
+
+  /**
+   * Appends the model labels which are not contained in the given labels, sorted
+   * by name, so that the ids of the given labels stay the same.
+   */
+  private static String[] union(String[] labels, Collection<String> modelLabels) {
+    Set<String> known = new HashSet<>(Arrays.asList(labels));
+
+    List<String> added = new ArrayList<>();
+    for (String label : modelLabels) {
+      if (!known.contains(label)) {
+        added.add(label);
+      }
+    }
+    Collections.sort(added);
+
+    String[] union = Arrays.copyOf(labels, labels.length + added.size());
+    for (int i = 0; i < added.size(); i++) {
+      union[labels.length + i] = added.get(i);
+    }
+    return union;
+  }
+
+  /**
+   * Retrieves the predicates the parameters are mapped onto. These are the predicates of
+   * the new index, followed by the ones which only occur in the existing model if the
+   * union was requested.
+   *
+   * @return the predicate labels
+   */
+  public String[] getPredLabels() {
+    return predLabels;
+  }
+
+  /**
+   * Retrieves the outcomes the parameters are mapped onto. These are the outcomes of
+   * the new index, followed by the ones which only occur in the existing model if the
+   * union was requested.
+   *
+   * @return the outcome labels
+   */
+  public String[] getOutcomeLabels() {
+    return outcomeLabels;
+  }
+
+  /**
+   * Retrieves the number of predicates which have parameters in the existing model.
+   *
+   * @return the number of initialized predicates
+   */
+  public int getNumInitializedPredicates() {
+    return numInitializedPreds;
+  }
+
+  /**
+   * Retrieves the parameters of a predicate for all outcomes of the new index.
+   *
+   * @param predId the predicate id, see {@link #getPredLabels()}
+   * @param parameters receives the parameters in the order of {@link #getOutcomeLabels()},
+   *     outcomes without a parameter are set to zero
+   * @return true if the existing model contains the predicate, false otherwise
+   */
+  public boolean getParameters(int predId, double[] parameters) {
+
+    if (parameters.length != numOutcomes) {
+      throw new IllegalArgumentException("parameters must have length " + numOutcomes);
+    }
+
+    Arrays.fill(parameters, 0);
+
+    Context context = contexts[predId];
+    if (context == null) {
+      return false;
+    }
+
+    int[] outcomes = context.getOutcomes();
+    double[] values = context.getParameters();
+    for (int i = 0; i < outcomes.length; i++) {
+      int oi = outcomeMap[outcomes[i]];
+      if (oi != -1) {
+        parameters[oi] = values[i];
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Sets the parameters of the given contexts to the parameters of the existing model.
+   * Only the outcomes of the pattern of each context are set.
+   *
+   * @param params the parameters of the trainer, one context per predicate
+   */
+  public void initialize(MutableContext[] params) {
+    double[] parameters = new double[numOutcomes];
+    for (int pi = 0; pi < params.length; pi++) {
+      if (getParameters(pi, parameters)) {
+        int[] outcomes = params[pi].getOutcomes();
+        for (int aoi = 0; aoi < outcomes.length; aoi++) {
+          params[pi].setParameter(aoi, parameters[outcomes[aoi]]);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,407 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import opennlp.tools.util.InvalidFormatException;
+
+/**
+ * A {@link MaxentModel} which is evaluated directly from a memory mapped
+ * model file written by {@link MappedModelWriter}.
+ * <p>
+ * The file is not parsed when it is opened, the predicate hash table and the
+ * parameter arrays are only views on the mapping. Opening a model is therefore
+ * nearly instant, the model doesn't occupy heap space apart from the outcome
+ * names, and all processes which map the same file share the pages of the
+ * operating system page cache.
+ * <p>
+ * The parameters are stored with the {@link ParameterPrecision} chosen when
+ * the file was written. With double precision the evaluation produces exactly
+ * the same probabilities as the model the file was written from. Instances are
+ * immutable and can be shared between threads. Since a mapping is limited to 2GB
+ * the file can't be larger than that.
+ * <p>
+ * A tool model which is created around a mapped model stores it as an uncompressed,
+ * aligned entry of its package. When the package is loaded from a file the entry is
+ * mapped from the package file, otherwise its content is read into the heap.
+ *
+ * @see MappedModelWriter
+ */
+public final class MappedModel extends AbstractReadOnlyModel {
+
+  /** The magic number at the start of every file, reads as "ONLPMMAP". */
+  static final long MAGIC = 0x4F4E4C504D4D4150L;
+  static final int VERSION = 1;
+
+  /**
+   * The size of the header: magic number, version, model type, precision and
+   * six section lengths padded to eight bytes.
+   */
+  static final int HEADER_SIZE = 48;
+
+  /** The complete content of the model file. */
+  private final ByteBuffer buffer;
+
+  private final AbstractModel.ModelType modelType;
+  private final ParameterPrecision precision;
+  private final String[] outcomeNames;
+  private final int numOutcomes;
+
+  private final int mask;
+  private final IntBuffer slots;
+  private final IntBuffer predHashes;
+  private final IntBuffer predCharOffsets;
+  private final CharBuffer predChars;
+
+  private final IntBuffer offsets;
+  private final IntBuffer outcomes;
+
+  // only the view which matches the precision is set
+  private final DoubleBuffer doubleParameters;
+  private final FloatBuffer floatParameters;
+  private final ShortBuffer shortParameters;
+  private final ByteBuffer byteParameters;
+
+  /** The per outcome scale factors of quantized parameters, otherwise null. */
+  private final double[] scales;
+
+  private MappedModel(ByteBuffer buffer) throws InvalidFormatException {
+    this.buffer = buffer;
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+    if (buffer.capacity() < HEADER_SIZE || buffer.getLong(0) != MAGIC) {
+      throw new InvalidFormatException("Not a memory mapped model file!");
+    }
+
+    if (buffer.getInt(8) != VERSION) {
+      throw new InvalidFormatException("Unsupported mapped model version: " + buffer.getInt(8));
+    }
+
+    int modelTypeId = buffer.getInt(12);
+    if (modelTypeId < 0 || modelTypeId >= AbstractModel.ModelType.values().length) {
+      throw new InvalidFormatException("Unknown model type: " + modelTypeId);
+    }
+    modelType = AbstractModel.ModelType.values()[modelTypeId];
+
+    int precisionId = buffer.getInt(16);
+    if (precisionId < 0 || precisionId >= ParameterPrecision.values().length) {
+      throw new InvalidFormatException("Unknown parameter precision: " + precisionId);
+    }
+    precision = ParameterPrecision.values()[precisionId];
+
+    numOutcomes = buffer.getInt(20);
+    int numOutcomeChars = buffer.getInt(24);
+    int tableSize = buffer.getInt(28);
+    int numPreds = buffer.getInt(32);
+    int numPredChars = buffer.getInt(36);
+    int numParams = buffer.getInt(40);
+
+    if (Integer.bitCount(tableSize) != 1 || size(precision, numOutcomes, numOutcomeChars,
+        tableSize, numPreds, numPredChars, numParams) != buffer.capacity()) {
+      throw new InvalidFormatException("Mapped model file is corrupt!");
+    }
+
+    Sections sections = new Sections(HEADER_SIZE);
+
+    IntBuffer outcomeCharOffsets = slice(buffer, sections.next(numOutcomes + 1, 4)).asIntBuffer();
+    CharBuffer outcomeChars = slice(buffer, sections.next(numOutcomeChars, 2)).asCharBuffer();
+    outcomeNames = new String[numOutcomes];
+    for (int i = 0; i < numOutcomes; i++) {
+      outcomeNames[i] = outcomeChars.subSequence(outcomeCharOffsets.get(i),
+          outcomeCharOffsets.get(i + 1)).toString();
+    }
+
+    DoubleBuffer scaleBuffer = slice(buffer,
+        sections.next(precision.isQuantized() ? numOutcomes : 0, 8)).asDoubleBuffer();
+    if (precision.isQuantized()) {
+      scales = new double[numOutcomes];
+      scaleBuffer.get(scales);
+    }
+    else {
+      scales = null;
+    }
+
+    mask = tableSize - 1;
+    slots = slice(buffer, sections.next(tableSize, 4)).asIntBuffer();
+    predHashes = slice(buffer, sections.next(numPreds, 4)).asIntBuffer();
+    predCharOffsets = slice(buffer, sections.next(numPreds + 1, 4)).asIntBuffer();
+    predChars = slice(buffer, sections.next(numPredChars, 2)).asCharBuffer();
+
+    offsets = slice(buffer, sections.next(numPreds + 1, 4)).asIntBuffer();
+    outcomes = slice(buffer, sections.next(numParams, 4)).asIntBuffer();
+
+    ByteBuffer parameters = slice(buffer, sections.next(numParams, precision.getSize()));
+    doubleParameters = precision == ParameterPrecision.DOUBLE ? parameters.asDoubleBuffer() : null;
+    floatParameters = precision == ParameterPrecision.FLOAT ? parameters.asFloatBuffer() : null;
+    shortParameters = precision == ParameterPrecision.INT16 ? parameters.asShortBuffer() : null;
+    byteParameters = precision == ParameterPrecision.INT8 ? parameters : null;
+  }
+
+  /**
+   * Maps a model file into memory.
+   *
+   * @param modelFile the file written by {@link MappedModelWriter}
+   * @return the model
+   *
+   * @throws IOException if the file can't be mapped
+   * @throws InvalidFormatException if the file is not a valid mapped model
+   */
+  public static MappedModel map(File modelFile) throws IOException {
+    return map(modelFile, 0, modelFile.length());
+  }
+
+  /**
+   * Maps a model file which is stored uncompressed inside another file, e.g. the
+   * entry of a model package, into memory.
+   *
+   * @param file the file which contains the model file
+   * @param offset the position of the model file inside the file
+   * @param size the size of the model file
+   * @return the model
+   *
+   * @throws IOException if the file can't be mapped
+   * @throws InvalidFormatException if the content is not a valid mapped model
+   */
+  public static MappedModel map(File file, long offset, long size) throws IOException {
+    if (size > Integer.MAX_VALUE) {
+      throw new InvalidFormatException("Mapped model file is too large: " + size);
+    }
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      // the mapping stays valid after the channel is closed
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+      return new MappedModel(buffer);
+    }
+  }
+
+  /**
+   * Wraps a buffer which contains the content of a model file, e.g. to
+   * load the model from a source which can't be mapped.
+   *
+   * @param buffer the buffer with the complete file content, starting at position zero
+   * @return the model
+   *
+   * @throws InvalidFormatException if the content is not a valid mapped model
+   */
+  public static MappedModel wrap(ByteBuffer buffer) throws InvalidFormatException {
+    return new MappedModel(buffer.duplicate());
+  }
+
+  /**
+   * Computes the size of a model file in bytes.
+   */
+  static long size(ParameterPrecision precision, int numOutcomes, int numOutcomeChars,
+      int tableSize, int numPreds, int numPredChars, int numParams) {
+    Sections sections = new Sections(HEADER_SIZE);
+    sections.next(numOutcomes + 1, 4);
+    sections.next(numOutcomeChars, 2);
+    sections.next(precision.isQuantized() ? numOutcomes : 0, 8);
+    sections.next(tableSize, 4);
+    sections.next(numPreds, 4);
+    sections.next(numPreds + 1, 4);
+    sections.next(numPredChars, 2);
+    sections.next(numPreds + 1, 4);
+    sections.next(numParams, 4);
+    sections.next(numParams, precision.getSize());
+    return sections.end;
+  }
+
+  /**
+   * Lays out the consecutive sections of a model file, every section
+   * starts at an eight byte boundary.
+   */
+  static final class Sections {
+
+    private long end;
+
+    Sections(long start) {
+      end = start;
+    }
+
+    /**
+     * Appends a section and returns its start and end as [start, end).
+     */
+    long[] next(int count, int elementSize) {
+      long start = (end + 7) & ~7L;
+      end = start + (long) count * elementSize;
+      return new long[] {start, end};
+    }
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, long[] section) {
+    ByteBuffer view = buffer.duplicate();
+    view.limit((int) section[1]);
+    view.position((int) section[0]);
+    return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Writes the content of the model file, e.g. to store the model in a model package.
+   *
+   * @param out the stream to write to, it remains open
+   *
+   * @throws IOException if writing fails
+   */
+  public void write(OutputStream out) throws IOException {
+    ByteBuffer content = buffer.duplicate();
+    content.clear();
+
+    byte[] chunk = new byte[8192];
+    while (content.hasRemaining()) {
+      int length = Math.min(chunk.length, content.remaining());
+      content.get(chunk, 0, length);
+      out.write(chunk, 0, length);
+    }
+  }
+
+  public AbstractModel.ModelType getModelType() {
+    return modelType;
+  }
+
+  public ParameterPrecision getPrecision() {
+    return precision;
+  }
+
+  /**
+   * Retrieves the id of a predicate.
+   *
+   * @param predicate the predicate
+   * @return the id of the predicate or -1 if it is not part of this model
+   */
+  public int getPredicateId(String predicate) {
+    int hash = PredicateIndex.hash(predicate);
+    int slot = hash & mask;
+    int entry;
+    while ((entry = slots.get(slot)) != 0) {
+      int predId = entry - 1;
+      if (predHashes.get(predId) == hash && matches(predId, predicate)) {
+        return predId;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private boolean matches(int predId, String predicate) {
+    int start = predCharOffsets.get(predId);
+    int length = predCharOffsets.get(predId + 1) - start;
+    if (length != predicate.length()) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (predChars.get(start + i) != predicate.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public double[] eval(String[] context) {
+    return eval(context, null, new double[numOutcomes]);
+  }
+
+  public double[] eval(String[] context, double[] probs) {
+    return eval(context, null, probs);
+  }
+
+  public double[] eval(String[] context, float[] values) {
+    return eval(context, values, new double[numOutcomes]);
+  }
+
+  /**
+   * Evaluates a context given as predicate strings.
+   *
+   * @param context the predicates which have been observed at the present decision point
+   * @param values the values of the predicates or null if all are one
+   * @param probs the array to store the distribution in, the previous content is overwritten
+   * @return the probs array with the normalized probabilities for the outcomes
+   */
+  public double[] eval(String[] context, float[] values, double[] probs) {
+    if (scales != null) {
+      Arrays.fill(probs, 0, numOutcomes, 0);
+    }
+    else {
+      CompiledModel.initScores(modelType, numOutcomes, probs);
+    }
+
+    for (int ci = 0; ci < context.length; ci++) {
+      int predId = getPredicateId(context[ci]);
+      if (predId >= 0) {
+        addScores(predId, values != null ? values[ci] : 1, probs);
+      }
+    }
+
+    if (scales != null) {
+      QuantizedModel.rescale(modelType, numOutcomes, scales, probs);
+    }
+    return CompiledModel.normalize(modelType, numOutcomes, probs);
+  }
+
+  private void addScores(int predId, double value, double[] scores) {
+    int start = offsets.get(predId);
+    int end = offsets.get(predId + 1);
+    switch (precision) {
+      case DOUBLE:
+        for (int ai = start; ai < end; ai++) {
+          scores[outcomes.get(ai)] += doubleParameters.get(ai) * value;
+        }
+        break;
+      case FLOAT:
+        for (int ai = start; ai < end; ai++) {
+          scores[outcomes.get(ai)] += floatParameters.get(ai) * value;
+        }
+        break;
+      case INT16:
+        for (int ai = start; ai < end; ai++) {
+          scores[outcomes.get(ai)] += shortParameters.get(ai) * value;
+        }
+        break;
+      case INT8:
+        for (int ai = start; ai < end; ai++) {
+          scores[outcomes.get(ai)] += byteParameters.get(ai) * value;
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unsupported precision: " + precision);
+    }
+  }
+
+  @Override
+  String[] getOutcomeNames() {
+    return outcomeNames;
+  }
+
+  public int getNumOutcomes() {
+    return numOutcomes;
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes a model in the uncompressed, memory mappable format which is
+ * read by {@link MappedModel}.
+ * <p>
+ * All numbers are little endian and every section starts at an eight
+ * byte boundary. After the header follow the outcome names, the scale factors
+ * of quantized parameters, the open addressing predicate hash table, the
+ * predicate hashes and strings and the parameters of all predicates packed
+ * into flat arrays. The parameters are stored in the requested
+ * {@link ParameterPrecision}.
+ * <p>
+ * Only models which can be compiled, see {@link AbstractModel#isCompilable()},
+ * and {@link QuantizedModel}s can be written in this format.
+ */
+public class MappedModelWriter {
+
+  private final QuantizedModel model;
+  private final File file;
+  private final OutputStream out;
+
+  /**
+   * Initializes the writer, the parameters are written with double precision.
+   *
+   * @param model the model to write
+   * @param file the file to write the model to
+   */
+  public MappedModelWriter(AbstractModel model, File file) {
+    this(model, file, ParameterPrecision.DOUBLE);
+  }
+
+  /**
+   * Initializes the writer.
+   *
+   * @param model the model to write
+   * @param file the file to write the model to
+   * @param precision the precision in which the parameters are written
+   */
+  public MappedModelWriter(AbstractModel model, File file, ParameterPrecision precision) {
+    if (!model.isCompilable()) {
+      throw new IllegalArgumentException("Model type can't be mapped: " + model.getModelType());
+    }
+
+    this.model = new QuantizedModel(model.compile(), precision);
+    this.file = file;
+    this.out = null;
+  }
+
+  /**
+   * Initializes the writer, the parameters are written in the precision of the model.
+   *
+   * @param model the model to write
+   * @param out the stream to write the model to, it is not closed
+   */
+  public MappedModelWriter(QuantizedModel model, OutputStream out) {
+    this.model = model;
+    this.file = null;
+    this.out = out;
+  }
+
+  public void persist() throws IOException {
+
+    String[] outcomeNames = model.getOutcomeNames();
+    String[] predLabels = model.getPredicateIndex().toArray();
+    int[] outcomes = model.getOutcomes();
+    ParameterPrecision precision = model.getPrecision();
+    double[] scales = precision.isQuantized() ? model.getScales() : new double[0];
+
+    int[] outcomeCharOffsets = charOffsets(outcomeNames);
+    int[] predCharOffsets = charOffsets(predLabels);
+    int tableSize = PredicateIndex.tableSize(predLabels.length);
+    int mask = tableSize - 1;
+
+    int[] slots = new int[tableSize];
+    int[] predHashes = new int[predLabels.length];
+    for (int pid = 0; pid < predLabels.length; pid++) {
+      predHashes[pid] = PredicateIndex.hash(predLabels[pid]);
+      int slot = predHashes[pid] & mask;
+      while (slots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = pid + 1;
+    }
+
+    long size = MappedModel.size(precision, outcomeNames.length, outcomeCharOffsets[outcomeNames.length],
+        tableSize, predLabels.length, predCharOffsets[predLabels.length], outcomes.length);
+
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Model is too large to be mapped: " + size + " bytes");
+    }
+
+    if (file != null) {
+      try (RandomAccessFile fileOut = new RandomAccessFile(file, "rw")) {
+        fileOut.setLength(size);
+
+        MappedByteBuffer buffer = fileOut.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        put(buffer, outcomeNames, outcomeCharOffsets, scales, slots, predHashes, predLabels,
+            predCharOffsets);
+        buffer.force();
+      }
+    }
+    else {
+      ByteBuffer buffer = ByteBuffer.allocate((int) size);
+      put(buffer, outcomeNames, outcomeCharOffsets, scales, slots, predHashes, predLabels,
+          predCharOffsets);
+      out.write(buffer.array());
+      out.flush();
+    }
+  }
+
+  private void put(ByteBuffer buffer, String[] outcomeNames, int[] outcomeCharOffsets,
+      double[] scales, int[] slots, int[] predHashes, String[] predLabels, int[] predCharOffsets) {
+    int[] offsets = model.getOffsets();
+    int[] outcomes = model.getOutcomes();
+    ParameterPrecision precision = model.getPrecision();
+    int tableSize = slots.length;
+
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+    buffer.putLong(MappedModel.MAGIC);
+    buffer.putInt(MappedModel.VERSION);
+    buffer.putInt(model.getModelType().ordinal());
+    buffer.putInt(precision.ordinal());
+    buffer.putInt(outcomeNames.length);
+    buffer.putInt(outcomeCharOffsets[outcomeNames.length]);
+    buffer.putInt(tableSize);
+    buffer.putInt(predLabels.length);
+    buffer.putInt(predCharOffsets[predLabels.length]);
+    buffer.putInt(outcomes.length);
+
+    MappedModel.Sections sections = new MappedModel.Sections(MappedModel.HEADER_SIZE);
+
+    buffer.position((int) sections.next(outcomeCharOffsets.length, 4)[0]);
+    buffer.asIntBuffer().put(outcomeCharOffsets);
+
+    buffer.position((int) sections.next(outcomeCharOffsets[outcomeNames.length], 2)[0]);
+    putChars(buffer, outcomeNames);
+
+    buffer.position((int) sections.next(scales.length, 8)[0]);
+    buffer.asDoubleBuffer().put(scales);
+
+    buffer.position((int) sections.next(slots.length, 4)[0]);
+    buffer.asIntBuffer().put(slots);
+
+    buffer.position((int) sections.next(predHashes.length, 4)[0]);
+    buffer.asIntBuffer().put(predHashes);
+
+    buffer.position((int) sections.next(predCharOffsets.length, 4)[0]);
+    buffer.asIntBuffer().put(predCharOffsets);
+
+    buffer.position((int) sections.next(predCharOffsets[predLabels.length], 2)[0]);
+    putChars(buffer, predLabels);
+
+    buffer.position((int) sections.next(offsets.length, 4)[0]);
+    buffer.asIntBuffer().put(offsets);
+
+    buffer.position((int) sections.next(outcomes.length, 4)[0]);
+    buffer.asIntBuffer().put(outcomes);
+
+    buffer.position((int) sections.next(outcomes.length, precision.getSize())[0]);
+    switch (precision) {
+      case DOUBLE:
+        buffer.asDoubleBuffer().put(model.getDoubleParameters());
+        break;
+      case FLOAT:
+        buffer.asFloatBuffer().put(model.getFloatParameters());
+        break;
+      case INT16:
+        buffer.asShortBuffer().put(model.getShortParameters());
+        break;
+      case INT8:
+        buffer.put(model.getByteParameters());
+        break;
+      default:
+        throw new IllegalStateException("Unsupported precision: " + precision);
+    }
+  }
+
+  private static int[] charOffsets(String[] strings) {
+    int[] charOffsets = new int[strings.length + 1];
+    for (int i = 0; i < strings.length; i++) {
+      charOffsets[i + 1] = charOffsets[i] + strings[i].length();
+    }
+    return charOffsets;
+  }
+
+  private static void putChars(ByteBuffer buffer, String[] strings) {
+    for (String string : strings) {
+      for (int i = 0; i < string.length(); i++) {
+        buffer.putChar(string.charAt(i));
+      }
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.io.IOException;
+
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.eval.Mean;
+
+/**
+ * Compares a model with a reference model on a stream of events, e.g. a
+ * {@link QuantizedModel} with the double precision model it was created from.
+ * <p>
+ * Both models must have the same outcomes in the same order. The evaluator
+ * measures the accuracy of both models, how often their best outcomes agree
+ * and how much their probabilities differ.
+ */
+public class ModelDeltaEvaluator {
+
+  private final MaxentModel referenceModel;
+  private final MaxentModel model;
+
+  private final Mean referenceAccuracy = new Mean();
+  private final Mean accuracy = new Mean();
+  private final Mean agreement = new Mean();
+  private final Mean meanProbabilityDelta = new Mean();
+  private double maxProbabilityDelta;
+
+  /**
+   * Initializes the evaluator.
+   *
+   * @param referenceModel the model to compare against, usually with double precision
+   * @param model the model to evaluate
+   */
+  public ModelDeltaEvaluator(MaxentModel referenceModel, MaxentModel model) {
+    if (referenceModel.getNumOutcomes() != model.getNumOutcomes()) {
+      throw new IllegalArgumentException("The models must have the same outcomes!");
+    }
+
+    for (int i = 0; i < model.getNumOutcomes(); i++) {
+      if (!referenceModel.getOutcome(i).equals(model.getOutcome(i))) {
+        throw new IllegalArgumentException("The models must have the same outcomes!");
+      }
+    }
+
+    this.referenceModel = referenceModel;
+    this.model = model;
+  }
+
+  /**
+   * Evaluates a single event.
+   *
+   * @param event the event with the expected outcome
+   */
+  public void evaluateEvent(Event event) {
+    double[] referenceProbs = referenceModel.eval(event.getContext(), event.getValues());
+    double[] probs = model.eval(event.getContext(), event.getValues());
+
+    String referenceOutcome = referenceModel.getBestOutcome(referenceProbs);
+    String outcome = model.getBestOutcome(probs);
+
+    referenceAccuracy.add(referenceOutcome.equals(event.getOutcome()) ? 1 : 0);
+    accuracy.add(outcome.equals(event.getOutcome()) ? 1 : 0);
+    agreement.add(referenceOutcome.equals(outcome) ? 1 : 0);
+
+    for (int oid = 0; oid < probs.length; oid++) {
+      double delta = Math.abs(referenceProbs[oid] - probs[oid]);
+      meanProbabilityDelta.add(delta);
+      maxProbabilityDelta = Math.max(maxProbabilityDelta, delta);
+    }
+  }
+
+  /**
+   * Evaluates all events of a stream.
+   *
+   * @param events the events with the expected outcomes
+   *
+   * @throws IOException if reading the events fails
+   */
+  public void evaluate(ObjectStream<Event> events) throws IOException {
+    Event event;
+    while ((event = events.read()) != null) {
+      evaluateEvent(event);
+    }
+  }
+
+  /**
+   * @return the number of evaluated events
+   */
+  public long getEventCount() {
+    return accuracy.count();
+  }
+
+  /**
+   * @return the accuracy of the reference model
+   */
+  public double getReferenceAccuracy() {
+    return referenceAccuracy.mean();
+  }
+
+  /**
+   * @return the accuracy of the evaluated model
+   */
+  public double getAccuracy() {
+    return accuracy.mean();
+  }
+
+  /**
+   * @return the accuracy of the evaluated model minus the accuracy of the reference model
+   */
+  public double getAccuracyDelta() {
+    return accuracy.mean() - referenceAccuracy.mean();
+  }
+
+  /**
+   * @return the fraction of events for which both models predict the same outcome
+   */
+  public double getAgreement() {
+    return agreement.mean();
+  }
+
+  /**
+   * @return the mean absolute difference of the outcome probabilities
+   */
+  public double getMeanProbabilityDelta() {
+    return meanProbabilityDelta.mean();
+  }
+
+  /**
+   * @return the largest absolute difference of an outcome probability
+   */
+  public double getMaxProbabilityDelta() {
+    return maxProbabilityDelta;
+  }
+
+  @Override
+  public String toString() {
+    return "Events: " + getEventCount() + "\n" +
+        "Reference accuracy: " + getReferenceAccuracy() + "\n" +
+        "Accuracy: " + getAccuracy() + "\n" +
+        "Accuracy delta: " + getAccuracyDelta() + "\n" +
+        "Agreement: " + getAgreement() + "\n" +
+        "Mean probability delta: " + getMeanProbabilityDelta() + "\n" +
+        "Max probability delta: " + getMaxProbabilityDelta();
+  }
+}
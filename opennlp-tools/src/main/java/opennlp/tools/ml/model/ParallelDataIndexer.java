@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.TrainingParameters;
+
+/**
+ * Collecting event and context counts with multiple threads.
+ * <p>
+ * The calling thread reads the events in batches and assigns the outcome ids,
+ * while the worker threads count the predicates of the batches in sharded,
+ * primitive keyed counters. The counters of the workers are merged shard by
+ * shard in parallel, and the batches are mapped to their predicate ids in
+ * parallel as well. The events are kept in memory, like in the
+ * {@link OnePassDataIndexer}.
+ * <p>
+ * The result is identical to the one of the single threaded
+ * {@link OnePassDataIndexer} and {@link TwoPassDataIndexer}. The number of
+ * worker threads is set with {@link TrainingParameters#THREADS_PARAM} and
+ * defaults to the number of available processors.
+ */
+public class ParallelDataIndexer extends AbstractDataIndexer {
+
+  private static final int BATCH_SIZE = 1024;
+
+  /** Signals the workers that all batches have been read. */
+  private static final Event[] END_OF_STREAM = new Event[0];
+
+  public ParallelDataIndexer() {}
+
+  @Override
+  public void index(ObjectStream<Event> eventStream) throws IOException {
+    int cutoff = trainingParameters.getIntParameter(CUTOFF_PARAM, CUTOFF_DEFAULT);
+    boolean sort = trainingParameters.getBooleanParameter(SORT_PARAM, SORT_DEFAULT);
+    int threads = trainingParameters.getIntParameter(TrainingParameters.THREADS_PARAM,
+        Runtime.getRuntime().availableProcessors());
+
+    if (threads < 1) {
+      throw new IllegalArgumentException("Threads must be at least 1, but is " + threads);
+    }
+
+    long start = System.currentTimeMillis();
+
+    display("Indexing events with Parallel using cutoff of " + cutoff + " and "
+        + threads + " threads\n\n");
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      display("\tComputing event counts...  ");
+
+      Map<String, Integer> omap = new HashMap<>();
+      List<Event[]> batches = new ArrayList<>();
+      List<PredicateCounts> counts = computeEventCounts(eventStream, omap, batches, executor, threads);
+
+      int numEvents = 0;
+      for (Event[] batch : batches) {
+        numEvents += batch.length;
+      }
+      display("done. " + numEvents + " events\n");
+
+      PredicateIndex predicateIndex = mergeCounts(counts, cutoff, executor);
+      outcomeLabels = toIndexedStringArray(omap);
+
+      display("\tIndexing...  ");
+      List<ComparableEvent> eventsToCompare = index(batches, predicateIndex, omap, executor);
+      display("done.\n");
+
+      if (sort) {
+        display("Sorting and merging events... ");
+
+        // the parallel sort is stable, the sort in sortAndMerge then only
+        // needs one pass to verify the order
+        ComparableEvent[] sorted = eventsToCompare.toArray(new ComparableEvent[0]);
+        Arrays.parallelSort(sorted);
+        eventsToCompare = Arrays.asList(sorted);
+      }
+      else {
+        display("Collecting events... ");
+      }
+      sortAndMerge(eventsToCompare, sort);
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    display(String.format("Done indexing in %.2f s.\n", (System.currentTimeMillis() - start) / 1000d));
+  }
+
+  /**
+   * Reads the events in batches on the calling thread and counts their
+   * predicates on the worker threads, every worker has its own counts.
+   */
+  private List<PredicateCounts> computeEventCounts(ObjectStream<Event> eventStream,
+      Map<String, Integer> omap, List<Event[]> batches, ExecutorService executor, int threads)
+      throws IOException {
+
+    BlockingQueue<Event[]> queue = new ArrayBlockingQueue<>(threads * 4);
+
+    List<Future<PredicateCounts>> workers = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      workers.add(executor.submit(() -> {
+        PredicateCounts counts = new PredicateCounts(threads);
+        Event[] batch;
+        while ((batch = queue.take()) != END_OF_STREAM) {
+          for (Event event : batch) {
+            for (String predicate : event.getContext()) {
+              counts.increment(predicate);
+            }
+          }
+        }
+        return counts;
+      }));
+    }
+
+    Event[] batch = new Event[BATCH_SIZE];
+    int length = 0;
+
+    Event ev;
+    while ((ev = eventStream.read()) != null) {
+      omap.putIfAbsent(ev.getOutcome(), omap.size());
+
+      batch[length++] = ev;
+      if (length == batch.length) {
+        batches.add(batch);
+        put(queue, batch, workers);
+        batch = new Event[BATCH_SIZE];
+        length = 0;
+      }
+    }
+
+    if (length > 0) {
+      batch = Arrays.copyOf(batch, length);
+      batches.add(batch);
+      put(queue, batch, workers);
+    }
+
+    for (int i = 0; i < threads; i++) {
+      put(queue, END_OF_STREAM, workers);
+    }
+
+    List<PredicateCounts> counts = new ArrayList<>(threads);
+    for (Future<PredicateCounts> worker : workers) {
+      counts.add(get(worker));
+    }
+    return counts;
+  }
+
+  /**
+   * Hands a batch to the workers, fails if a worker failed and can't take it anymore.
+   */
+  private static void put(BlockingQueue<Event[]> queue, Event[] batch,
+      List<Future<PredicateCounts>> workers) {
+    try {
+      while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+        for (Future<PredicateCounts> worker : workers) {
+          if (worker.isDone()) {
+            get(worker);
+          }
+        }
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while indexing the events", e);
+    }
+  }
+
+  /**
+   * Merges the counts of all workers shard by shard and assigns the ids to the
+   * predicates which occur at least cutoff times in sorted order.
+   */
+  private PredicateIndex mergeCounts(List<PredicateCounts> counts, int cutoff,
+      ExecutorService executor) {
+
+    int numShards = counts.get(0).getNumShards();
+
+    List<Future<PredicateCounts.Shard>> merges = new ArrayList<>(numShards);
+    for (int i = 0; i < numShards; i++) {
+      int shard = i;
+      merges.add(executor.submit(() -> {
+        PredicateCounts.Shard merged = new PredicateCounts.Shard();
+        for (PredicateCounts workerCounts : counts) {
+          merged.addAll(workerCounts.getShard(shard));
+        }
+        return merged;
+      }));
+    }
+
+    List<PredicateCounts.Shard> shards = new ArrayList<>(numShards);
+    int numPredicates = 0;
+    for (Future<PredicateCounts.Shard> merge : merges) {
+      PredicateCounts.Shard shard = get(merge);
+      shards.add(shard);
+      numPredicates += shard.size();
+    }
+
+    String[] predicateSet = new String[numPredicates];
+    int length = 0;
+    for (PredicateCounts.Shard shard : shards) {
+      String[] predicates = shard.predicates(cutoff);
+      System.arraycopy(predicates, 0, predicateSet, length, predicates.length);
+      length += predicates.length;
+    }
+    predicateSet = Arrays.copyOf(predicateSet, length);
+    Arrays.parallelSort(predicateSet);
+
+    predLabels = predicateSet;
+    predCounts = new int[predicateSet.length];
+    for (int i = 0; i < predicateSet.length; i++) {
+      int hash = PredicateIndex.hash(predicateSet[i]);
+      predCounts[i] = shards.get(PredicateCounts.shard(hash, numShards)).get(predicateSet[i]);
+    }
+
+    return new PredicateIndex(predicateSet);
+  }
+
+  /**
+   * Maps the batches to their predicate ids on the worker threads and
+   * collects the events in the order in which they were read.
+   */
+  private List<ComparableEvent> index(List<Event[]> batches, PredicateIndex predicateIndex,
+      Map<String, Integer> omap, ExecutorService executor) {
+
+    List<Future<ComparableEvent[]>> indexedBatches = new ArrayList<>(batches.size());
+    for (Event[] batch : batches) {
+      indexedBatches.add(executor.submit(() -> {
+        ComparableEvent[] indexed = new ComparableEvent[batch.length];
+        int[] predIds = new int[16];
+        for (int i = 0; i < batch.length; i++) {
+          String[] context = batch[i].getContext();
+          if (predIds.length < context.length) {
+            predIds = new int[context.length];
+          }
+
+          int length = 0;
+          for (String predicate : context) {
+            int predId = predicateIndex.get(predicate);
+            if (predId >= 0) {
+              predIds[length++] = predId;
+            }
+          }
+
+          // events with no active features are dropped
+          if (length > 0) {
+            indexed[i] = new ComparableEvent(omap.get(batch[i].getOutcome()),
+                Arrays.copyOf(predIds, length), batch[i].getValues());
+          }
+        }
+        return indexed;
+      }));
+    }
+
+    List<ComparableEvent> eventsToCompare = new ArrayList<>();
+    for (int bi = 0; bi < batches.size(); bi++) {
+      Event[] batch = batches.get(bi);
+      ComparableEvent[] indexed = get(indexedBatches.get(bi));
+
+      // release the events of the batch as soon as they are indexed
+      batches.set(bi, null);
+
+      for (int i = 0; i < indexed.length; i++) {
+        if (indexed[i] != null) {
+          eventsToCompare.add(indexed[i]);
+        }
+        else {
+          display("Dropped event " + batch[i].getOutcome() + ":"
+              + Arrays.asList(batch[i].getContext()) + "\n");
+        }
+      }
+    }
+    return eventsToCompare;
+  }
+
+  private static <T> T get(Future<T> future) {
+    try {
+      return future.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while indexing the events", e);
+    }
+    catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Failed to index the events", e.getCause());
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+/**
+ * The precision in which the parameters of a model are stored.
+ * <p>
+ * The integer precisions are linearly quantized, each outcome has a scale
+ * factor which maps the largest absolute parameter of the outcome to the
+ * largest value of the integer type.
+ *
+ * @see QuantizedModel
+ * @see MappedModelWriter
+ */
+public enum ParameterPrecision {
+
+  /** Parameters are stored as 64 bit doubles, this is lossless. */
+  DOUBLE(8, 0),
+
+  /** Parameters are stored as 32 bit floats. */
+  FLOAT(4, 0),
+
+  /** Parameters are quantized to 16 bit integers. */
+  INT16(2, Short.MAX_VALUE),
+
+  /** Parameters are quantized to 8 bit integers. */
+  INT8(1, Byte.MAX_VALUE);
+
+  private final int size;
+  private final int maxValue;
+
+  ParameterPrecision(int size, int maxValue) {
+    this.size = size;
+    this.maxValue = maxValue;
+  }
+
+  /**
+   * @return the number of bytes of one parameter
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @return true if the parameters are quantized and need per outcome scale factors
+   */
+  public boolean isQuantized() {
+    return maxValue > 0;
+  }
+
+  /**
+   * @return the largest quantized value or zero if the precision is not quantized
+   */
+  int getMaxValue() {
+    return maxValue;
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table which counts predicates in primitive ints,
+ * this avoids the boxing of a {@code HashMap<String, Integer>}. The table is
+ * split into shards by the high bits of the predicate hash, so the counts of
+ * different instances can be merged shard by shard in parallel.
+ * <p>
+ * <b>Note:</b> Instances are not thread safe.
+ */
+final class PredicateCounts {
+
+  private final Shard[] shards;
+
+  /**
+   * Initializes the counts.
+   *
+   * @param numShards the number of shards
+   */
+  PredicateCounts(int numShards) {
+    shards = new Shard[numShards];
+    for (int i = 0; i < numShards; i++) {
+      shards[i] = new Shard();
+    }
+  }
+
+  /**
+   * Retrieves the shard a predicate belongs to.
+   */
+  static int shard(int hash, int numShards) {
+    return (int) (((hash & 0xFFFFFFFFL) * numShards) >>> 32);
+  }
+
+  /**
+   * Increments the count of a predicate by one.
+   */
+  void increment(String predicate) {
+    int hash = PredicateIndex.hash(predicate);
+    shards[shard(hash, shards.length)].add(predicate, hash, 1);
+  }
+
+  Shard getShard(int shard) {
+    return shards[shard];
+  }
+
+  int getNumShards() {
+    return shards.length;
+  }
+
+  /**
+   * One shard of the counts, the slot of a predicate is taken from the low bits of the hash.
+   */
+  static final class Shard {
+
+    private String[] keys = new String[16];
+    private int[] hashes = new int[16];
+    private int[] counts = new int[16];
+    private int size;
+
+    void add(String predicate, int hash, int count) {
+      int mask = keys.length - 1;
+      int slot = hash & mask;
+      String key;
+      while ((key = keys[slot]) != null) {
+        if (hashes[slot] == hash && key.equals(predicate)) {
+          counts[slot] += count;
+          return;
+        }
+        slot = (slot + 1) & mask;
+      }
+
+      keys[slot] = predicate;
+      hashes[slot] = hash;
+      counts[slot] = count;
+
+      if (++size * 2 > keys.length) {
+        resize();
+      }
+    }
+
+    /**
+     * Adds all counts of another shard to this shard.
+     */
+    void addAll(Shard other) {
+      for (int slot = 0; slot < other.keys.length; slot++) {
+        if (other.keys[slot] != null) {
+          add(other.keys[slot], other.hashes[slot], other.counts[slot]);
+        }
+      }
+    }
+
+    private void resize() {
+      String[] oldKeys = keys;
+      int[] oldHashes = hashes;
+      int[] oldCounts = counts;
+
+      keys = new String[oldKeys.length * 2];
+      hashes = new int[keys.length];
+      counts = new int[keys.length];
+
+      int mask = keys.length - 1;
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldKeys[i] != null) {
+          int slot = oldHashes[i] & mask;
+          while (keys[slot] != null) {
+            slot = (slot + 1) & mask;
+          }
+          keys[slot] = oldKeys[i];
+          hashes[slot] = oldHashes[i];
+          counts[slot] = oldCounts[i];
+        }
+      }
+    }
+
+    int size() {
+      return size;
+    }
+
+    /**
+     * Retrieves the count of a predicate.
+     *
+     * @return the count or zero if the predicate was not counted
+     */
+    int get(String predicate) {
+      int hash = PredicateIndex.hash(predicate);
+      int mask = keys.length - 1;
+      int slot = hash & mask;
+      String key;
+      while ((key = keys[slot]) != null) {
+        if (hashes[slot] == hash && key.equals(predicate)) {
+          return counts[slot];
+        }
+        slot = (slot + 1) & mask;
+      }
+      return 0;
+    }
+
+    /**
+     * Retrieves all predicates which have been counted at least cutoff times.
+     */
+    String[] predicates(int cutoff) {
+      String[] predicates = new String[size];
+      int length = 0;
+      for (int slot = 0; slot < keys.length; slot++) {
+        if (keys[slot] != null && counts[slot] >= cutoff) {
+          predicates[length++] = keys[slot];
+        }
+      }
+      return Arrays.copyOf(predicates, length);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ml.model;
+
+import java.util.Map;
+
+/**
+ * An immutable, open addressing hash table which maps predicate strings
+ * to their integer ids. Lookups only touch two parallel arrays and never
+ * allocate, which makes it cheaper than a {@link java.util.HashMap} on the
+ * evaluation hot path.
+ */
+public final class PredicateIndex {
+
+  private final String[] keys;
+  private final int[] ids;
+  private final int mask;
+  private final int size;
+
+  /**
+   * Initializes the index with the given predicates, the id of a predicate
+   * is its position in the array.
+   *
+   * @param predLabels the predicates, must not contain duplicates
+   */
+  public PredicateIndex(String[] predLabels) {
+    int capacity = tableSize(predLabels.length);
+    keys = new String[capacity];
+    ids = new int[capacity];
+    mask = capacity - 1;
+    size = predLabels.length;
+
+    for (int i = 0; i < predLabels.length; i++) {
+      int slot = slot(predLabels[i]);
+      while (keys[slot] != null) {
+        if (keys[slot].equals(predLabels[i])) {
+          throw new IllegalArgumentException("Duplicate predicate: " + predLabels[i]);
+        }
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = predLabels[i];
+      ids[slot] = i;
+    }
+  }
+
+  /**
+   * Initializes the index from a predicate to id map.
+   *
+   * @param pmap the mapping of predicates to ids
+   */
+  public PredicateIndex(Map<String, Integer> pmap) {
+    this(toLabels(pmap));
+  }
+
+  private static String[] toLabels(Map<String, Integer> pmap) {
+    String[] predLabels = new String[pmap.size()];
+    for (Map.Entry<String, Integer> entry : pmap.entrySet()) {
+      predLabels[entry.getValue()] = entry.getKey();
+    }
+    return predLabels;
+  }
+
+  /**
+   * Computes a power of two table size which keeps the load factor at or below 0.5.
+   */
+  static int tableSize(int numKeys) {
+    int capacity = 2;
+    while (capacity < numKeys * 2) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  /**
+   * Spreads the cached {@link String#hashCode()} so that strings which only
+   * differ in their last characters don't cluster in the table.
+   */
+  static int hash(String key) {
+    int h = key.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private int slot(String key) {
+    return hash(key) & mask;
+  }
+
+  /**
+   * Retrieves the id of a predicate.
+   *
+   * @param predicate the predicate
+   * @return the id of the predicate or -1 if it is not part of this index
+   */
+  public int get(String predicate) {
+    int slot = slot(predicate);
+    String key;
+    while ((key = keys[slot]) != null) {
+      if (key.equals(predicate)) {
+        return ids[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Retrieves the ids of all predicates in a context.
+   *
+   * @param context the predicates
+   * @param predIds the array to store the ids in, unknown predicates are set to -1,
+   *     must be at least as long as context
+   * @return the predIds array
+   */
+  public int[] get(String[] context, int[] predIds) {
+    for (int i = 0; i < context.length; i++) {
+      predIds[i] = get(context[i]);
+    }
+    return predIds;
+  }
+
+  /**
+   * Retrieves all predicates ordered by their ids.
+   *
+   * @return a new array with the predicate of id i at index i
+   */
+  public String[] toArray() {
+    String[] predLabels = new String[size];
+    for (int slot = 0; slot < keys.length; slot++) {
+      if (keys[slot] != null) {
+        predLabels[ids[slot]] = keys[slot];
+      }
+    }
+    return predLabels;
+  }
+
+  /**
+   * @return the number of predicates in this index
+   */
+  public int size() {
+    return size;
+  }
+}
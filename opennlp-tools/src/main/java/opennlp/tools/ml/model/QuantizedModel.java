@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.util.Arrays;
+
+/**
+ * A {@link MaxentModel} which stores its parameters with a reduced
+ * {@link ParameterPrecision}, e.g. as floats or as linearly quantized
+ * 8 or 16 bit integers with one scale factor per outcome.
+ * <p>
+ * The parameters are packed into flat arrays like in {@link CompiledModel},
+ * an int8 model needs roughly an eighth of the memory of the double parameters
+ * and more of the model fits into the CPU caches. The probabilities differ
+ * slightly from the ones of the source model, use {@link ModelDeltaEvaluator}
+ * to measure the impact on the accuracy.
+ * <p>
+ * A tool model which is created around a quantized model stores it in the format of
+ * {@link MappedModelWriter} and loads it as a {@link MappedModel} with the same
+ * precision.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class QuantizedModel extends AbstractReadOnlyModel {
+
+  private final AbstractModel.ModelType modelType;
+  private final ParameterPrecision precision;
+  private final String[] outcomeNames;
+  private final int numOutcomes;
+
+  private final PredicateIndex predicateIndex;
+  private final int[] offsets;
+  private final int[] outcomes;
+
+  // only the array which matches the precision is set
+  private final double[] doubleParameters;
+  private final float[] floatParameters;
+  private final short[] shortParameters;
+  private final byte[] byteParameters;
+
+  /** The per outcome scale factors of quantized parameters, otherwise null. */
+  private final double[] scales;
+
+  /**
+   * Initializes the model with the parameters of a model which can be compiled.
+   *
+   * @param model the source model, see {@link AbstractModel#isCompilable()}
+   * @param precision the precision of the parameters
+   */
+  public QuantizedModel(AbstractModel model, ParameterPrecision precision) {
+    this(new CompiledModel(model), precision);
+  }
+
+  QuantizedModel(CompiledModel model, ParameterPrecision precision) {
+    this.modelType = model.getModelType();
+    this.precision = precision;
+    this.outcomeNames = model.getOutcomeNames();
+    this.numOutcomes = model.getNumOutcomes();
+    this.predicateIndex = model.getPredicateIndex();
+    this.offsets = model.getOffsets();
+    this.outcomes = model.getOutcomes();
+
+    double[] parameters = model.getParameters();
+
+    double[] doubleParams = null;
+    float[] floatParams = null;
+    short[] shortParams = null;
+    byte[] byteParams = null;
+    double[] outcomeScales = null;
+
+    switch (precision) {
+      case DOUBLE:
+        doubleParams = parameters;
+        break;
+      case FLOAT:
+        floatParams = new float[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+          floatParams[i] = (float) parameters[i];
+        }
+        break;
+      case INT16:
+        outcomeScales = scales(outcomes, parameters, numOutcomes, precision);
+        shortParams = new short[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+          shortParams[i] = (short) quantize(parameters[i], outcomeScales[outcomes[i]], precision);
+        }
+        break;
+      case INT8:
+        outcomeScales = scales(outcomes, parameters, numOutcomes, precision);
+        byteParams = new byte[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+          byteParams[i] = (byte) quantize(parameters[i], outcomeScales[outcomes[i]], precision);
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported precision: " + precision);
+    }
+
+    doubleParameters = doubleParams;
+    floatParameters = floatParams;
+    shortParameters = shortParams;
+    byteParameters = byteParams;
+    scales = outcomeScales;
+  }
+
+  /**
+   * Computes the scale factors which map the largest absolute parameter
+   * of each outcome to the largest value of the quantized type.
+   */
+  static double[] scales(int[] outcomes, double[] parameters, int numOutcomes,
+      ParameterPrecision precision) {
+    double[] scales = new double[numOutcomes];
+    for (int i = 0; i < parameters.length; i++) {
+      scales[outcomes[i]] = Math.max(scales[outcomes[i]], Math.abs(parameters[i]));
+    }
+    for (int oid = 0; oid < numOutcomes; oid++) {
+      scales[oid] /= precision.getMaxValue();
+    }
+    return scales;
+  }
+
+  static int quantize(double parameter, double scale, ParameterPrecision precision) {
+    if (scale == 0) {
+      return 0;
+    }
+    long value = Math.round(parameter / scale);
+    return (int) Math.max(-precision.getMaxValue(), Math.min(precision.getMaxValue(), value));
+  }
+
+  /**
+   * Sets the scores of the outcomes after the weighted quantized parameters
+   * have been summed up in them.
+   */
+  static double[] rescale(AbstractModel.ModelType modelType, int numOutcomes, double[] scales,
+      double[] scores) {
+    double prior = modelType == AbstractModel.ModelType.Maxent ? Math.log(1.0 / numOutcomes) : 0;
+    for (int oid = 0; oid < numOutcomes; oid++) {
+      scores[oid] = prior + scores[oid] * scales[oid];
+    }
+    return scores;
+  }
+
+  public AbstractModel.ModelType getModelType() {
+    return modelType;
+  }
+
+  public ParameterPrecision getPrecision() {
+    return precision;
+  }
+
+  /**
+   * Retrieves the index which maps the predicates of this model to the ids
+   * accepted by {@link #eval(int[], double[])}.
+   *
+   * @return the predicate index
+   */
+  public PredicateIndex getPredicateIndex() {
+    return predicateIndex;
+  }
+
+  @Override
+  String[] getOutcomeNames() {
+    return outcomeNames;
+  }
+
+  int[] getOffsets() {
+    return offsets;
+  }
+
+  int[] getOutcomes() {
+    return outcomes;
+  }
+
+  double[] getDoubleParameters() {
+    return doubleParameters;
+  }
+
+  float[] getFloatParameters() {
+    return floatParameters;
+  }
+
+  short[] getShortParameters() {
+    return shortParameters;
+  }
+
+  byte[] getByteParameters() {
+    return byteParameters;
+  }
+
+  double[] getScales() {
+    return scales;
+  }
+
+  public double[] eval(String[] context) {
+    return eval(context, null, new double[numOutcomes]);
+  }
+
+  public double[] eval(String[] context, double[] probs) {
+    return eval(context, null, probs);
+  }
+
+  public double[] eval(String[] context, float[] values) {
+    return eval(context, values, new double[numOutcomes]);
+  }
+
+  /**
+   * Evaluates a context given as predicate strings.
+   *
+   * @param context the predicates which have been observed at the present decision point
+   * @param values the values of the predicates or null if all are one
+   * @param probs the array to store the distribution in, the previous content is overwritten
+   * @return the probs array with the normalized probabilities for the outcomes
+   */
+  public double[] eval(String[] context, float[] values, double[] probs) {
+    initScores(probs);
+    for (int ci = 0; ci < context.length; ci++) {
+      int predId = predicateIndex.get(context[ci]);
+      if (predId >= 0) {
+        addScores(predId, values != null ? values[ci] : 1, probs);
+      }
+    }
+    return normalize(probs);
+  }
+
+  /**
+   * Evaluates a context given as predicate ids.
+   *
+   * @param predIds the ids of the observed predicates, negative ids are ignored
+   * @param probs the array to store the distribution in, the previous content is overwritten
+   * @return the probs array with the normalized probabilities for the outcomes
+   */
+  public double[] eval(int[] predIds, double[] probs) {
+    initScores(probs);
+    for (int predId : predIds) {
+      if (predId >= 0) {
+        addScores(predId, 1, probs);
+      }
+    }
+    return normalize(probs);
+  }
+
+  private void initScores(double[] scores) {
+    if (scales != null) {
+      Arrays.fill(scores, 0, numOutcomes, 0);
+    }
+    else {
+      CompiledModel.initScores(modelType, numOutcomes, scores);
+    }
+  }
+
+  private void addScores(int predId, double value, double[] scores) {
+    int start = offsets[predId];
+    int end = offsets[predId + 1];
+    switch (precision) {
+      case DOUBLE:
+        for (int ai = start; ai < end; ai++) {
+          scores[outcomes[ai]] += doubleParameters[ai] * value;
+        }
+        break;
+      case FLOAT:
+        for (int ai = start; ai < end; ai++) {
+          scores[outcomes[ai]] += floatParameters[ai] * value;
+        }
+        break;
+      case INT16:
+        for (int ai = start; ai < end; ai++) {
+          scores[outcomes[ai]] += shortParameters[ai] * value;
+        }
+        break;
+      case INT8:
+        for (int ai = start; ai < end; ai++) {
+          scores[outcomes[ai]] += byteParameters[ai] * value;
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unsupported precision: " + precision);
+    }
+  }
+
+  private double[] normalize(double[] scores) {
+    if (scales != null) {
+      rescale(modelType, numOutcomes, scales, scores);
+    }
+    return CompiledModel.normalize(modelType, numOutcomes, scores);
+  }
+
+  public int getNumOutcomes() {
+    return numOutcomes;
+  }
+}
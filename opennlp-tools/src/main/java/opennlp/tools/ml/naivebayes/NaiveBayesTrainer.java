@@ -23,6 +23,7 @@ import opennlp.tools.ml.AbstractEventTrainer;
 import opennlp.tools.ml.model.AbstractModel;
 import opennlp.tools.ml.model.DataIndexer;
 import opennlp.tools.ml.model.EvalParameters;
+import opennlp.tools.ml.model.InitialParameters;
 import opennlp.tools.ml.model.MutableContext;
 import opennlp.tools.util.TrainingParameters;
 
@@ -118,6 +119,15 @@ public class NaiveBayesTrainer extends AbstractEventTrainer {
     outcomeList = di.getOutcomeList();
 
     predLabels = di.getPredLabels();
+
+    // The predicates and outcomes which only occur in the initial model keep their counts
+    InitialParameters initialParameters =
+        getInitialParameters(di, true, AbstractModel.ModelType.NaiveBayes);
+    if (initialParameters != null) {
+      predLabels = initialParameters.getPredLabels();
+      outcomeLabels = initialParameters.getOutcomeLabels();
+    }
+
     numPreds = predLabels.length;
     numOutcomes = outcomeLabels.length;
 
@@ -129,7 +139,7 @@ public class NaiveBayesTrainer extends AbstractEventTrainer {
 
     display("Computing model parameters...\n");
 
-    MutableContext[] finalParameters = findParameters();
+    MutableContext[] finalParameters = findParameters(initialParameters);
 
     display("...done.\n");
 
@@ -137,7 +147,7 @@ public class NaiveBayesTrainer extends AbstractEventTrainer {
     return new NaiveBayesModel(finalParameters, predLabels, outcomeLabels);
   }
 
-  private MutableContext[] findParameters() {
+  private MutableContext[] findParameters(InitialParameters initialParameters) {
 
     int[] allOutcomesPattern = new int[numOutcomes];
     for (int oi = 0; oi < numOutcomes; oi++)
@@ -151,6 +161,11 @@ public class NaiveBayesTrainer extends AbstractEventTrainer {
         params[pi].setParameter(aoi, 0.0);
     }
 
+    // The counts of the initial model are added to the counts of the training data
+    if (initialParameters != null) {
+      initialParameters.initialize(params);
+    }
+
     EvalParameters evalParams = new EvalParameters(params, numOutcomes);
 
     double stepSize = 1;
@@ -18,6 +18,7 @@
 package opennlp.tools.ml.perceptron;
 
 import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.CompiledModel;
 import opennlp.tools.ml.model.Context;
 import opennlp.tools.ml.model.EvalParameters;
 
@@ -41,6 +42,11 @@ public class PerceptronModel extends AbstractModel {
   }
 
   public double[] eval(String[] context, float[] values,double[] outsums) {
+    CompiledModel compiled = getCompiledModel();
+    if (compiled != null) {
+      return compiled.eval(context, values, outsums);
+    }
+
     Context[] scontexts = new Context[context.length];
     java.util.Arrays.fill(outsums, 0);
     for (int i = 0; i < context.length; i++) {
@@ -65,22 +71,13 @@ public class PerceptronModel extends AbstractModel {
 
   static double[] eval(Context[] context, float[] values, double[] prior, EvalParameters model,
                        boolean normalize) {
-    Context[] params = model.getParams();
-    double[] activeParameters;
-    int[] activeOutcomes;
     double value = 1;
     for (int ci = 0; ci < context.length; ci++) {
       if (context[ci] != null) {
-        Context predParams = context[ci];
-        activeOutcomes = predParams.getOutcomes();
-        activeParameters = predParams.getParameters();
         if (values != null) {
           value = values[ci];
         }
-        for (int ai = 0; ai < activeOutcomes.length; ai++) {
-          int oid = activeOutcomes[ai];
-          prior[oid] += activeParameters[ai] * value;
-        }
+        context[ci].addScores(prior, value);
       }
     }
 
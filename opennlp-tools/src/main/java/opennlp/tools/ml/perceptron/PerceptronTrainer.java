@@ -18,11 +18,20 @@
 package opennlp.tools.ml.perceptron;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import opennlp.tools.ml.AbstractEventTrainer;
+import opennlp.tools.ml.IterationMetrics;
 import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.Context;
 import opennlp.tools.ml.model.DataIndexer;
 import opennlp.tools.ml.model.EvalParameters;
+import opennlp.tools.ml.model.InitialParameters;
 import opennlp.tools.ml.model.MutableContext;
 import opennlp.tools.util.TrainingParameters;
 
@@ -32,7 +41,14 @@ import opennlp.tools.util.TrainingParameters;
  * average weighting as described in:
  * Discriminative Training Methods for Hidden Markov Models: Theory and Experiments
  * with the Perceptron Algorithm. Michael Collins, EMNLP 2002.
- *
+ * <p>
+ * With more than one thread the training uses iterative parameter mixing as
+ * described in: Distributed Training Strategies for the Structured Perceptron.
+ * Ryan McDonald, Keith Hall and Gideon Mann, NAACL 2010. The events are split
+ * into one shard per thread, every shard is trained for one iteration starting
+ * from the current parameters and afterwards the parameters of the shards are
+ * averaged. The averaging over the iterations and the tolerance based stopping
+ * work on the mixed parameters.
  */
 public class PerceptronTrainer extends AbstractEventTrainer {
 
@@ -78,6 +94,8 @@ public class PerceptronTrainer extends AbstractEventTrainer {
 
   private boolean useSkippedlAveraging;
 
+  private int threads = 1;
+
   public PerceptronTrainer() {
   }
 
@@ -143,6 +161,8 @@ public class PerceptronTrainer extends AbstractEventTrainer {
 
     this.setTolerance(tolerance);
 
+    this.setThreads(trainingParameters.getIntParameter(TrainingParameters.THREADS_PARAM, 1));
+
     model = this.trainModel(iterations, indexer, cutoff, useAverage);
 
     return model;
@@ -182,6 +202,22 @@ public class PerceptronTrainer extends AbstractEventTrainer {
     stepSizeDecrease = decrease;
   }
 
+  /**
+   * Sets the number of threads, with more than one thread the events are
+   * trained in parallel with iterative parameter mixing.
+   *
+   * @param threads the number of threads
+   */
+  public void setThreads(int threads) {
+
+    if (threads < 1) {
+      throw new
+          IllegalArgumentException("threads must be at least one but is " + threads + "!");
+    }
+
+    this.threads = threads;
+  }
+
   /**
    * Enables skipped averaging, this flag changes the standard
    * averaging to special averaging instead.
@@ -228,7 +264,8 @@ public class PerceptronTrainer extends AbstractEventTrainer {
 
     display("Computing model parameters...\n");
 
-    MutableContext[] finalParameters = findParameters(iterations, useAverage);
+    MutableContext[] finalParameters = findParameters(iterations, useAverage,
+        getInitialParameters(di, AbstractModel.ModelType.Perceptron));
 
     display("...done.\n");
 
@@ -236,7 +273,8 @@ public class PerceptronTrainer extends AbstractEventTrainer {
     return new PerceptronModel(finalParameters, predLabels, outcomeLabels);
   }
 
-  private MutableContext[] findParameters(int iterations, boolean useAverage) {
+  private MutableContext[] findParameters(int iterations, boolean useAverage,
+      InitialParameters initialParameters) {
 
     display("Performing " + iterations + " iterations.\n");
 
@@ -252,6 +290,10 @@ public class PerceptronTrainer extends AbstractEventTrainer {
         params[pi].setParameter(aoi, 0.0);
     }
 
+    if (initialParameters != null) {
+      initialParameters.initialize(params);
+    }
+
     EvalParameters evalParams = new EvalParameters(params, numOutcomes);
 
     /* Stores the sum of parameter values of each predicate over many iterations. */
@@ -274,86 +316,86 @@ public class PerceptronTrainer extends AbstractEventTrainer {
     // A counter for the denominator for averaging.
     int numTimesSummed = 0;
 
-    double stepsize = 1;
-    for (int i = 1; i <= iterations; i++) {
-
-      // Decrease the stepsize by a small amount.
-      if (stepSizeDecrease != null)
-        stepsize *= 1 - stepSizeDecrease;
-
-      displayIteration(i);
-
-      int numCorrect = 0;
-
-      for (int ei = 0; ei < numUniqueEvents; ei++) {
-        int targetOutcome = outcomeList[ei];
-
-        for (int ni = 0; ni < this.numTimesEventsSeen[ei]; ni++) {
-
-          // Compute the model's prediction according to the current parameters.
-          double[] modelDistribution = new double[numOutcomes];
-          if (values != null)
-            PerceptronModel.eval(contexts[ei], values[ei], modelDistribution, evalParams, false);
-          else
-            PerceptronModel.eval(contexts[ei], null, modelDistribution, evalParams, false);
-
-          int maxOutcome = maxIndex(modelDistribution);
-
-          // If the predicted outcome is different from the target
-          // outcome, do the standard update: boost the parameters
-          // associated with the target and reduce those associated
-          // with the incorrect predicted outcome.
-          if (maxOutcome != targetOutcome) {
-            for (int ci = 0; ci < contexts[ei].length; ci++) {
-              int pi = contexts[ei][ci];
-              if (values == null) {
-                params[pi].updateParameter(targetOutcome, stepsize);
-                params[pi].updateParameter(maxOutcome, -stepsize);
-              } else {
-                params[pi].updateParameter(targetOutcome, stepsize * values[ei][ci]);
-                params[pi].updateParameter(maxOutcome, -stepsize * values[ei][ci]);
-              }
-            }
-          }
-
-          // Update the counts for accuracy.
-          if (maxOutcome == targetOutcome)
-            numCorrect++;
+    // The parameters of the shards when training with parameter mixing
+    MutableContext[][] shardParams = null;
+    ExecutorService executor = null;
+    if (threads > 1) {
+      shardParams = new MutableContext[threads][numPreds];
+      for (int si = 0; si < threads; si++) {
+        for (int pi = 0; pi < numPreds; pi++) {
+          shardParams[si][pi] = new MutableContext(allOutcomesPattern, new double[numOutcomes]);
         }
       }
+      executor = Executors.newFixedThreadPool(threads);
+    }
 
-      // Calculate the training accuracy and display.
-      double trainingAccuracy = (double) numCorrect / numEvents;
-      if (i < 10 || (i % 10) == 0)
-        display(". (" + numCorrect + "/" + numEvents + ") " + trainingAccuracy + "\n");
+    try {
+      double stepsize = 1;
+      long startTime = System.nanoTime();
+      for (int i = 1; i <= iterations; i++) {
+        long iterationStart = System.nanoTime();
 
-      // TODO: Make averaging configurable !!!
+        // Decrease the stepsize by a small amount.
+        if (stepSizeDecrease != null)
+          stepsize *= 1 - stepSizeDecrease;
 
-      boolean doAveraging;
+        displayIteration(i);
 
-      doAveraging = useAverage && useSkippedlAveraging && (i < 20 || isPerfectSquare(i)) || useAverage;
+        int numCorrect;
+        if (executor != null) {
+          numCorrect = nextMixedIteration(params, shardParams, executor, stepsize);
+        }
+        else {
+          numCorrect = nextIteration(params, 0, 1, stepsize);
+        }
 
-      if (doAveraging) {
-        numTimesSummed++;
-        for (int pi = 0; pi < numPreds; pi++)
-          for (int aoi = 0; aoi < numOutcomes; aoi++)
-            summedParams[pi].updateParameter(aoi, params[pi].getParameters()[aoi]);
-      }
+        // Calculate the training accuracy and display.
+        double trainingAccuracy = (double) numCorrect / numEvents;
+        if (i < 10 || (i % 10) == 0)
+          display(". (" + numCorrect + "/" + numEvents + ") " + trainingAccuracy + "\n");
 
-      // If the tolerance is greater than the difference between the
-      // current training accuracy and all of the previous three
-      // training accuracies, stop training.
-      if (Math.abs(prevAccuracy1 - trainingAccuracy) < tolerance
-          && Math.abs(prevAccuracy2 - trainingAccuracy) < tolerance
-          && Math.abs(prevAccuracy3 - trainingAccuracy) < tolerance) {
-        display("Stopping: change in training set accuracy less than " + tolerance + "\n");
-        break;
-      }
+        // TODO: Make averaging configurable !!!
+
+        boolean doAveraging;
+
+        doAveraging = useAverage && useSkippedlAveraging && (i < 20 || isPerfectSquare(i)) || useAverage;
+
+        if (doAveraging) {
+          numTimesSummed++;
+          for (int pi = 0; pi < numPreds; pi++)
+            for (int aoi = 0; aoi < numOutcomes; aoi++)
+              summedParams[pi].updateParameter(aoi, params[pi].getParameters()[aoi]);
+        }
 
-      // Update the previous training accuracies.
-      prevAccuracy1 = prevAccuracy2;
-      prevAccuracy2 = prevAccuracy3;
-      prevAccuracy3 = trainingAccuracy;
+        long now = System.nanoTime();
+        int summed = numTimesSummed;
+        if (iterationCompleted(new IterationMetrics(i, now - iterationStart, now - startTime,
+            Double.NaN, trainingAccuracy, numEvents), () -> new PerceptronModel(
+                useAverage && summed > 0 ? averageParameters(summedParams, summed)
+                    : copyParameters(params), predLabels, outcomeLabels))) {
+          break;
+        }
+
+        // If the tolerance is greater than the difference between the
+        // current training accuracy and all of the previous three
+        // training accuracies, stop training.
+        if (Math.abs(prevAccuracy1 - trainingAccuracy) < tolerance
+            && Math.abs(prevAccuracy2 - trainingAccuracy) < tolerance
+            && Math.abs(prevAccuracy3 - trainingAccuracy) < tolerance) {
+          display("Stopping: change in training set accuracy less than " + tolerance + "\n");
+          break;
+        }
+
+        // Update the previous training accuracies.
+        prevAccuracy1 = prevAccuracy2;
+        prevAccuracy2 = prevAccuracy3;
+        prevAccuracy3 = trainingAccuracy;
+      }
+    }
+    finally {
+      if (executor != null) {
+        executor.shutdown();
+      }
     }
 
     // Output the final training stats.
@@ -375,6 +417,120 @@ public class PerceptronTrainer extends AbstractEventTrainer {
 
   }
 
+  /**
+   * Trains one iteration over the events of a shard, the shard contains
+   * every numShards-th unique event starting at the shard index.
+   *
+   * @return the number of correctly predicted events
+   */
+  private int nextIteration(MutableContext[] params, int shard, int numShards, double stepsize) {
+    EvalParameters evalParams = new EvalParameters(params, numOutcomes);
+
+    int numCorrect = 0;
+
+    for (int ei = shard; ei < numUniqueEvents; ei += numShards) {
+      int targetOutcome = outcomeList[ei];
+
+      for (int ni = 0; ni < this.numTimesEventsSeen[ei]; ni++) {
+
+        // Compute the model's prediction according to the current parameters.
+        double[] modelDistribution = new double[numOutcomes];
+        if (values != null)
+          PerceptronModel.eval(contexts[ei], values[ei], modelDistribution, evalParams, false);
+        else
+          PerceptronModel.eval(contexts[ei], null, modelDistribution, evalParams, false);
+
+        int maxOutcome = maxIndex(modelDistribution);
+
+        // If the predicted outcome is different from the target
+        // outcome, do the standard update: boost the parameters
+        // associated with the target and reduce those associated
+        // with the incorrect predicted outcome.
+        if (maxOutcome != targetOutcome) {
+          for (int ci = 0; ci < contexts[ei].length; ci++) {
+            int pi = contexts[ei][ci];
+            if (values == null) {
+              params[pi].updateParameter(targetOutcome, stepsize);
+              params[pi].updateParameter(maxOutcome, -stepsize);
+            } else {
+              params[pi].updateParameter(targetOutcome, stepsize * values[ei][ci]);
+              params[pi].updateParameter(maxOutcome, -stepsize * values[ei][ci]);
+            }
+          }
+        }
+
+        // Update the counts for accuracy.
+        if (maxOutcome == targetOutcome)
+          numCorrect++;
+      }
+    }
+
+    return numCorrect;
+  }
+
+  /**
+   * Trains one iteration with parameter mixing, every shard starts with the
+   * current parameters, which are replaced by the mean of the shard parameters.
+   *
+   * @return the number of correctly predicted events
+   */
+  private int nextMixedIteration(MutableContext[] params, MutableContext[][] shardParams,
+      ExecutorService executor, double stepsize) {
+
+    List<Future<Integer>> shards = new ArrayList<>(shardParams.length);
+    for (int si = 0; si < shardParams.length; si++) {
+      int shard = si;
+      shards.add(executor.submit(() -> {
+        MutableContext[] localParams = shardParams[shard];
+        for (int pi = 0; pi < numPreds; pi++) {
+          System.arraycopy(params[pi].getParameters(), 0,
+              localParams[pi].getParameters(), 0, numOutcomes);
+        }
+        return nextIteration(localParams, shard, shardParams.length, stepsize);
+      }));
+    }
+
+    int numCorrect = 0;
+    for (Future<Integer> shard : shards) {
+      try {
+        numCorrect += shard.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while training the perceptron", e);
+      } catch (ExecutionException e) {
+        throw new RuntimeException("Exception during training: " + e.getMessage(), e);
+      }
+    }
+
+    // mix the parameters of the shards uniformly
+    for (int pi = 0; pi < numPreds; pi++) {
+      double[] mixed = params[pi].getParameters();
+      for (int aoi = 0; aoi < numOutcomes; aoi++) {
+        double sum = 0;
+        for (MutableContext[] localParams : shardParams) {
+          sum += localParams[pi].getParameters()[aoi];
+        }
+        mixed[aoi] = sum / shardParams.length;
+      }
+    }
+
+    return numCorrect;
+  }
+
+  /**
+   * Creates a copy of the summed parameters divided by the number of times they were summed.
+   */
+  private Context[] averageParameters(MutableContext[] summedParams, int numTimesSummed) {
+    Context[] averaged = copyParameters(summedParams);
+    for (Context context : averaged) {
+      double[] parameters = context.getParameters();
+      for (int oi = 0; oi < parameters.length; oi++) {
+        parameters[oi] /= numTimesSummed;
+      }
+    }
+    return averaged;
+  }
+
   private double trainingStats(EvalParameters evalParams) {
     int numCorrect = 0;
 
@@ -42,6 +42,11 @@ import opennlp.tools.ml.model.SequenceStreamEventStream;
  * with the Perceptron Algorithm. Michael Collins, EMNLP 2002.
  * Specifically only updates are applied to tokens which were incorrectly tagged by a sequence tagger
  * rather than to all feature across the sequence which differ from the training sequence.
+ * <p>
+ * The trainer does not notify {@link opennlp.tools.ml.TrainingMonitor}s and ignores the
+ * held-out parameters of {@link opennlp.tools.ml.AbstractEventTrainer}. The contexts of a
+ * sequence depend on the outcomes tagged before, so held-out events can't be evaluated
+ * independently, and the averaged parameters only exist after the last iteration.
  */
 public class SimplePerceptronSequenceTrainer extends AbstractEventModelSequenceTrainer {
 
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.namefind;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import opennlp.tools.ml.BatchEvaluator;
+import opennlp.tools.util.PerThreadInstances;
+import opennlp.tools.util.Span;
+
+/**
+ * A thread-safe version of {@link NameFinderME}. All threads share the
+ * {@link TokenNameFinderModel} and its parsed feature generator descriptor, every
+ * thread decodes with its own {@link NameFinderME} instance which holds the per call
+ * state and the adaptive data, it is created on first use.
+ * <p>
+ * The adaptive data of the single sentence methods is collected per thread,
+ * {@link #clearAdaptiveData()} only clears the data of the calling thread.
+ * The batch methods decode with pooled instances and do not use or change the
+ * adaptive data of the calling thread, their results do not depend on the
+ * threads which process the batch.
+ * <p>
+ * {@link #close()} releases the instances of all threads.
+ */
+public class ThreadSafeNameFinderME implements TokenNameFinder, AutoCloseable {
+
+  private final PerThreadInstances<NameFinderME> nameFinders;
+
+  public ThreadSafeNameFinderME(TokenNameFinderModel model) {
+    nameFinders = new PerThreadInstances<>(() -> new NameFinderME(model));
+  }
+
+  private NameFinderME getNameFinder() {
+    return nameFinders.get();
+  }
+
+  @Override
+  public Span[] find(String[] tokens) {
+    return getNameFinder().find(tokens);
+  }
+
+  public Span[] find(String[] tokens, String[][] additionalContext) {
+    return getNameFinder().find(tokens, additionalContext);
+  }
+
+  /**
+   * Generates name tags for a batch of unrelated sentences. The batch is split into
+   * consecutive parts which are processed by the executor. Every sentence is decoded
+   * without adaptive data, like the first sentence of a document.
+   *
+   * @param sentences the tokens of the sentences
+   * @param executor the executor, or null to process the batch on the calling thread
+   *
+   * @return the spans of the names identified in each sentence
+   */
+  public List<Span[]> find(List<String[]> sentences, ExecutorService executor) {
+    return BatchEvaluator.apply(sentences,
+        tokens -> nameFinders.apply(nameFinder -> findInDocument(nameFinder, tokens)), executor);
+  }
+
+  /**
+   * Generates name tags for a batch of documents. The documents are processed by the
+   * executor, the sentences of a document are decoded in order by one name finder, the
+   * adaptive data is collected per document like with consecutive calls to
+   * {@link NameFinderME#find(String[])} followed by
+   * {@link NameFinderME#clearAdaptiveData()}.
+   *
+   * @param documents the tokens of the sentences of each document
+   * @param executor the executor, or null to process the batch on the calling thread
+   *
+   * @return the spans of the names identified in each sentence of each document
+   */
+  public List<List<Span[]>> findDocuments(List<List<String[]>> documents,
+      ExecutorService executor) {
+    return BatchEvaluator.apply(documents, document -> nameFinders.apply(nameFinder -> {
+      List<Span[]> spans = new ArrayList<>(document.size());
+      try {
+        for (String[] tokens : document) {
+          spans.add(nameFinder.find(tokens));
+        }
+      }
+      finally {
+        nameFinder.clearAdaptiveData();
+      }
+      return spans;
+    }), executor);
+  }
+
+  /**
+   * Decodes a sentence as a document of its own, the adaptive data of the pooled
+   * name finder is cleared afterwards.
+   */
+  private static Span[] findInDocument(NameFinderME nameFinder, String[] tokens) {
+    try {
+      return nameFinder.find(tokens);
+    }
+    finally {
+      nameFinder.clearAdaptiveData();
+    }
+  }
+
+  @Override
+  public void clearAdaptiveData() {
+    getNameFinder().clearAdaptiveData();
+  }
+
+  /**
+   * Returns the probabilities of the last sequence decoded by the calling thread.
+   *
+   * @return the probabilities, see {@link NameFinderME#probs()}
+   */
+  public double[] probs() {
+    return getNameFinder().probs();
+  }
+
+  /**
+   * Returns the probabilities of spans found by the calling thread.
+   *
+   * @param spans the spans of the names for which probabilities are desired
+   * @return the probabilities, see {@link NameFinderME#probs(Span[])}
+   */
+  public double[] probs(Span[] spans) {
+    return getNameFinder().probs(spans);
+  }
+
+  /**
+   * Releases the name finder instances of all threads, this name finder can't be
+   * used afterwards.
+   */
+  @Override
+  public void close() {
+    nameFinders.close();
+  }
+}
@@ -17,7 +17,6 @@
 
 package opennlp.tools.namefind;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -32,7 +31,8 @@ import opennlp.tools.util.featuregen.AdaptiveFeatureGenerator;
 import opennlp.tools.util.featuregen.AggregatedFeatureGenerator;
 import opennlp.tools.util.featuregen.BigramNameFeatureGenerator;
 import opennlp.tools.util.featuregen.CachedFeatureGenerator;
-import opennlp.tools.util.featuregen.GeneratorFactory;
+import opennlp.tools.util.featuregen.CompiledFeatureGenerator;
+import opennlp.tools.util.featuregen.FeatureGeneratorDescriptor;
 import opennlp.tools.util.featuregen.OutcomePriorFeatureGenerator;
 import opennlp.tools.util.featuregen.PreviousMapFeatureGenerator;
 import opennlp.tools.util.featuregen.SentenceFeatureGenerator;
@@ -47,6 +47,7 @@ import opennlp.tools.util.featuregen.WindowFeatureGenerator;
 public class TokenNameFinderFactory extends BaseToolFactory {
 
   private byte[] featureGeneratorBytes;
+  private FeatureGeneratorDescriptor featureGeneratorDescriptor;
   private Map<String, Object> resources;
   private SequenceCodec<String> seqCodec;
 
@@ -159,7 +160,20 @@ public class TokenNameFinderFactory extends BaseToolFactory {
           new SentenceFeatureGenerator(true, false));
     }
 
-    return new DefaultNameContextGenerator(featureGenerator);
+    return new DefaultNameContextGenerator(new CompiledFeatureGenerator(featureGenerator));
+  }
+
+  /**
+   * Retrieves the parsed descriptor of the current feature generator bytes, the
+   * descriptor is shared by all generators created by this factory.
+   */
+  private synchronized FeatureGeneratorDescriptor getFeatureGeneratorDescriptor()
+      throws IOException {
+    if (featureGeneratorDescriptor == null
+        || !featureGeneratorDescriptor.isParsedFrom(featureGeneratorBytes)) {
+      featureGeneratorDescriptor = new FeatureGeneratorDescriptor(featureGeneratorBytes);
+    }
+    return featureGeneratorDescriptor;
   }
 
   /**
@@ -167,7 +181,8 @@ public class TokenNameFinderFactory extends BaseToolFactory {
    * is a set of generators contained in the {@link AggregatedFeatureGenerator}.
    *
    * Note:
-   * The generators are created on every call to this method.
+   * The generators are created on every call to this method, the descriptor
+   * is only parsed on the first call.
    *
    * @return the feature generator or null if there is no descriptor in the model
    */
@@ -182,11 +197,9 @@ public class TokenNameFinderFactory extends BaseToolFactory {
       featureGeneratorBytes = loadDefaultFeatureGeneratorBytes();
     }
 
-    InputStream descriptorIn = new ByteArrayInputStream(featureGeneratorBytes);
-
     AdaptiveFeatureGenerator generator;
     try {
-      generator = GeneratorFactory.create(descriptorIn, key -> {
+      generator = getFeatureGeneratorDescriptor().create(key -> {
         if (artifactProvider != null) {
           return artifactProvider.getArtifact(key);
         }
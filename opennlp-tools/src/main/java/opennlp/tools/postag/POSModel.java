@@ -129,12 +129,7 @@ public final class POSModel extends BaseModel implements SerializableArtifact {
    */
   @Deprecated
   public MaxentModel getPosModel() {
-    if (artifactMap.get(POS_MODEL_ENTRY_NAME) instanceof MaxentModel) {
-      return (MaxentModel) artifactMap.get(POS_MODEL_ENTRY_NAME);
-    }
-    else {
-      return null;
-    }
+    return getMaxentModel(POS_MODEL_ENTRY_NAME);
   }
 
   public SequenceClassificationModel<String> getPosSequenceModel() {
@@ -149,7 +144,7 @@ public final class POSModel extends BaseModel implements SerializableArtifact {
         beamSize = Integer.parseInt(beamSizeString);
       }
 
-      return new BeamSearch<>(beamSize, (MaxentModel) artifactMap.get(POS_MODEL_ENTRY_NAME));
+      return new BeamSearch<>(beamSize, getCompiledMaxentModel(POS_MODEL_ENTRY_NAME));
     }
     else if (artifactMap.get(POS_MODEL_ENTRY_NAME) instanceof SequenceClassificationModel) {
       return (SequenceClassificationModel) artifactMap.get(POS_MODEL_ENTRY_NAME);
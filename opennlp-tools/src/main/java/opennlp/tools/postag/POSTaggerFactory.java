@@ -17,7 +17,6 @@
 
 package opennlp.tools.postag;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -40,7 +39,7 @@ import opennlp.tools.util.Version;
 import opennlp.tools.util.ext.ExtensionLoader;
 import opennlp.tools.util.featuregen.AdaptiveFeatureGenerator;
 import opennlp.tools.util.featuregen.AggregatedFeatureGenerator;
-import opennlp.tools.util.featuregen.GeneratorFactory;
+import opennlp.tools.util.featuregen.FeatureGeneratorDescriptor;
 import opennlp.tools.util.model.ArtifactSerializer;
 import opennlp.tools.util.model.UncloseableInputStream;
 
@@ -55,6 +54,7 @@ public class POSTaggerFactory extends BaseToolFactory {
 
   protected Dictionary ngramDictionary;
   private byte[] featureGeneratorBytes;
+  private FeatureGeneratorDescriptor featureGeneratorDescriptor;
   private Map<String, Object> resources;
   protected TagDictionary posDictionary;
 
@@ -130,12 +130,26 @@ public class POSTaggerFactory extends BaseToolFactory {
     return bytes.toByteArray();
   }
 
+  /**
+   * Retrieves the parsed descriptor of the current feature generator bytes, the
+   * descriptor is shared by all generators created by this factory.
+   */
+  private synchronized FeatureGeneratorDescriptor getFeatureGeneratorDescriptor()
+      throws IOException {
+    if (featureGeneratorDescriptor == null
+        || !featureGeneratorDescriptor.isParsedFrom(featureGeneratorBytes)) {
+      featureGeneratorDescriptor = new FeatureGeneratorDescriptor(featureGeneratorBytes);
+    }
+    return featureGeneratorDescriptor;
+  }
+
   /**
    * Creates the {@link AdaptiveFeatureGenerator}. Usually this
    * is a set of generators contained in the {@link AggregatedFeatureGenerator}.
    *
    * Note:
-   * The generators are created on every call to this method.
+   * The generators are created on every call to this method, the descriptor
+   * is only parsed on the first call.
    *
    * @return the feature generator or null if there is no descriptor in the model
    */
@@ -150,11 +164,9 @@ public class POSTaggerFactory extends BaseToolFactory {
       featureGeneratorBytes = loadDefaultFeatureGeneratorBytes();
     }
 
-    InputStream descriptorIn = new ByteArrayInputStream(featureGeneratorBytes);
-
     AdaptiveFeatureGenerator generator;
     try {
-      generator = GeneratorFactory.create(descriptorIn, key -> {
+      generator = getFeatureGeneratorDescriptor().create(key -> {
         if (artifactProvider != null) {
           return artifactProvider.getArtifact(key);
         }
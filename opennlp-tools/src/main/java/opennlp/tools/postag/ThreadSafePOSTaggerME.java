@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.postag;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import opennlp.tools.ml.BatchEvaluator;
+import opennlp.tools.util.PerThreadInstances;
+import opennlp.tools.util.Sequence;
+
+/**
+ * A thread-safe version of {@link POSTaggerME}. All threads share the
+ * {@link POSModel} and its parsed feature generator descriptor, every thread tags
+ * with its own {@link POSTaggerME} instance which holds the per call state, it is
+ * created on first use.
+ * The batch methods tag with pooled instances.
+ * <p>
+ * {@link #close()} releases the instances of all threads.
+ */
+public class ThreadSafePOSTaggerME implements POSTagger, AutoCloseable {
+
+  private final PerThreadInstances<POSTaggerME> taggers;
+
+  public ThreadSafePOSTaggerME(POSModel model) {
+    taggers = new PerThreadInstances<>(() -> new POSTaggerME(model));
+  }
+
+  private POSTaggerME getTagger() {
+    return taggers.get();
+  }
+
+  @Override
+  public String[] tag(String[] sentence) {
+    return getTagger().tag(sentence);
+  }
+
+  @Override
+  public String[] tag(String[] sentence, Object[] additionaContext) {
+    return getTagger().tag(sentence, additionaContext);
+  }
+
+  public String[][] tag(int numTaggings, String[] sentence) {
+    return getTagger().tag(numTaggings, sentence);
+  }
+
+  /**
+   * Tags a batch of sentences, identical sentences of the batch are only tagged once.
+   * The distinct sentences are split into consecutive parts which are processed
+   * by the executor.
+   *
+   * @param sentences the tokens of the sentences
+   * @param executor the executor, or null to process the batch on the calling thread
+   *
+   * @return the tags of each sentence
+   */
+  public List<String[]> tag(List<String[]> sentences, ExecutorService executor) {
+    return BatchEvaluator.applyDistinct(sentences,
+        sentence -> taggers.apply(tagger -> tagger.tag(sentence)), String[]::clone, executor);
+  }
+
+  @Override
+  public Sequence[] topKSequences(String[] sentence) {
+    return getTagger().topKSequences(sentence);
+  }
+
+  @Override
+  public Sequence[] topKSequences(String[] sentence, Object[] additionaContext) {
+    return getTagger().topKSequences(sentence, additionaContext);
+  }
+
+  /**
+   * Returns the probabilities of the last sequence tagged by the calling thread.
+   *
+   * @return the probabilities, see {@link POSTaggerME#probs()}
+   */
+  public double[] probs() {
+    return getTagger().probs();
+  }
+
+  public String[] getAllPosTags() {
+    return getTagger().getAllPosTags();
+  }
+
+  /**
+   * Releases the tagger instances of all threads, this tagger can't be used afterwards.
+   */
+  @Override
+  public void close() {
+    taggers.close();
+  }
+}
@@ -19,6 +19,7 @@
 package opennlp.tools.sentdetect;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -61,6 +62,32 @@ public class DefaultEndOfSentenceScanner implements EndOfSentenceScanner {
     return l;
   }
 
+  @Override
+  public int[] getPositionArray(CharSequence s) {
+
+    // A subclass might return other positions from getPositions
+    if (getClass() != DefaultEndOfSentenceScanner.class) {
+      return EndOfSentenceScanner.super.getPositionArray(s);
+    }
+
+    char[] eosCharacters = getEndOfSentenceCharacters();
+    int[] positions = new int[16];
+    int size = 0;
+    for (int i = 0, length = s.length(); i < length; i++) {
+      char c = s.charAt(i);
+      for (char eosCharacter : eosCharacters) {
+        if (c == eosCharacter) {
+          if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size << 1);
+          }
+          positions[size++] = i;
+          break;
+        }
+      }
+    }
+    return Arrays.copyOf(positions, size);
+  }
+
   public char[] getEndOfSentenceCharacters() {
     return eosCharacters;
   }
@@ -18,6 +18,7 @@
 package opennlp.tools.sentdetect;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -44,6 +45,20 @@ public class DefaultSDContextGenerator implements SDContextGenerator {
 
   private char[] eosCharacters;
 
+  // Reused by the scanning path, which is used if collectFeatures is not overridden
+  private final boolean scanning;
+  private final StringBuilder featureBuffer = new StringBuilder();
+  private final String[] features = new String[16];
+  private final String[] eosFeatures;
+
+  private static final String[] LENGTH_FEATURES = new String[64];
+
+  static {
+    for (int i = 0; i < LENGTH_FEATURES.length; i++) {
+      LENGTH_FEATURES[i] = Integer.toString(i);
+    }
+  }
+
   /**
    * Creates a new <code>SDContextGenerator</code> instance with
    * no induced abbreviations.
@@ -69,6 +84,29 @@ public class DefaultSDContextGenerator implements SDContextGenerator {
     this.eosCharacters = eosCharacters;
     buf = new StringBuffer();
     collectFeats = new ArrayList<>();
+
+    scanning = getClass() == DefaultSDContextGenerator.class;
+    eosFeatures = new String[eosCharacters.length];
+    for (int eci = 0; eci < eosCharacters.length; eci++) {
+      eosFeatures[eci] = "eos=" + escapeChar(eosCharacters[eci]);
+    }
+  }
+
+  /**
+   * Creates a new <code>SDContextGenerator</code> instance which shares the
+   * abbreviations and the end of sentence characters with the given generator,
+   * only the buffers for the features are created.
+   *
+   * @param generator the generator
+   */
+  DefaultSDContextGenerator(DefaultSDContextGenerator generator) {
+    this.inducedAbbreviations = generator.inducedAbbreviations;
+    this.eosCharacters = generator.eosCharacters;
+    buf = new StringBuffer();
+    collectFeats = new ArrayList<>();
+
+    scanning = generator.scanning;
+    eosFeatures = generator.eosFeatures;
   }
 
   private static String escapeChar(Character c) {
@@ -88,6 +126,10 @@ public class DefaultSDContextGenerator implements SDContextGenerator {
    */
   public String[] getContext(CharSequence sb, int position) {
 
+    if (scanning) {
+      return scanContext(sb, position);
+    }
+
     /*
      * String preceding the eos character in the eos token.
      */
@@ -244,6 +286,136 @@ public class DefaultSDContextGenerator implements SDContextGenerator {
     }
   }
 
+  /**
+   * Computes the same features as {@link #getContext(CharSequence, int)} and
+   * {@link #collectFeatures(String, String, String, String, Character)}, but works with
+   * offsets into the text instead of creating the prefix, suffix, previous and next strings.
+   */
+  private String[] scanContext(CharSequence sb, int position) {
+    int count = 0;
+
+    int lastIndex = sb.length() - 1;
+    if (position > 0 && StringUtil.isWhitespace(sb.charAt(position - 1)))
+      features[count++] = "sp";
+    if (position < lastIndex && StringUtil.isWhitespace(sb.charAt(position + 1)))
+      features[count++] = "sn";
+
+    char eosChar = sb.charAt(position);
+    features[count++] = eosFeature(eosChar);
+
+    int prefixStart = previousSpaceIndex(sb, position);
+    for (int c = position - 1; c > prefixStart; c--) {
+      if (isEosCharacter(sb.charAt(c))) {
+        prefixStart = c;
+        break;
+      }
+    }
+
+    int prevStart = previousSpaceIndex(sb, prefixStart);
+
+    int suffixEnd = nextSpaceIndex(sb, position, lastIndex);
+    for (int c = position + 1; c < suffixEnd; c++) {
+      if (isEosCharacter(sb.charAt(c))) {
+        suffixEnd = c;
+        break;
+      }
+    }
+
+    int nextEnd = nextSpaceIndex(sb, suffixEnd + 1, lastIndex + 1);
+
+    // prefix
+    int start = trimStart(sb, prefixStart, position);
+    int end = trimEnd(sb, start, position);
+    features[count++] = feature("x=", sb, start, end);
+    if (start < end) {
+      int length = end - start;
+      features[count++] = length < LENGTH_FEATURES.length
+          ? LENGTH_FEATURES[length] : Integer.toString(length);
+      if (Character.isUpperCase(sb.charAt(start))) {
+        features[count++] = "xcap";
+      }
+      // look up through the set itself, the set of a Dictionary might ignore the case
+      if (inducedAbbreviations.contains(String.valueOf(sb.subSequence(start, end)) + eosChar)) {
+        features[count++] = "xabbrev";
+      }
+    }
+
+    // previous
+    start = trimStart(sb, prevStart, prefixStart);
+    end = trimEnd(sb, start, prefixStart);
+    count = addTokenFeatures(sb, start, end, "v=", "vcap", "vabbrev", count);
+
+    // suffix and next
+    if (position == lastIndex) {
+      start = end = position;
+    }
+    else {
+      start = trimStart(sb, position + 1, suffixEnd);
+      end = trimEnd(sb, start, suffixEnd);
+    }
+    count = addTokenFeatures(sb, start, end, "s=", "scap", "sabbrev", count);
+
+    if (position != lastIndex) {
+      start = trimStart(sb, suffixEnd + 1, nextEnd);
+      end = trimEnd(sb, start, nextEnd);
+    }
+    count = addTokenFeatures(sb, start, end, "n=", "ncap", "nabbrev", count);
+
+    return Arrays.copyOf(features, count);
+  }
+
+  private int addTokenFeatures(CharSequence sb, int start, int end, String name,
+      String capFeature, String abbrevFeature, int count) {
+    features[count++] = feature(name, sb, start, end);
+    if (start < end) {
+      if (Character.isUpperCase(sb.charAt(start))) {
+        features[count++] = capFeature;
+      }
+      if (inducedAbbreviations.contains(String.valueOf(sb.subSequence(start, end)))) {
+        features[count++] = abbrevFeature;
+      }
+    }
+    return count;
+  }
+
+  private String feature(String name, CharSequence sb, int start, int end) {
+    featureBuffer.setLength(0);
+    return featureBuffer.append(name).append(sb, start, end).toString();
+  }
+
+  private String eosFeature(char c) {
+    for (int eci = 0; eci < eosCharacters.length; eci++) {
+      if (c == eosCharacters[eci]) {
+        return eosFeatures[eci];
+      }
+    }
+    return "eos=" + escapeChar(c);
+  }
+
+  private boolean isEosCharacter(char c) {
+    for (char eosCharacter : eosCharacters) {
+      if (c == eosCharacter) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Trims like String.trim, which removes all characters up to and including space
+  private static int trimStart(CharSequence sb, int start, int end) {
+    while (start < end && sb.charAt(start) <= ' ') {
+      start++;
+    }
+    return start;
+  }
+
+  private static int trimEnd(CharSequence sb, int start, int end) {
+    while (end > start && sb.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    return end;
+  }
+
   private static boolean isFirstUpper(String s) {
     return Character.isUpperCase(s.charAt(0));
   }
@@ -62,4 +62,21 @@ public interface EndOfSentenceScanner {
    * @return a <code>List</code> of Integer objects.
    */
   List<Integer> getPositions(char[] cbuf);
+
+  /**
+   * The receiver scans the specified text for sentence ending characters and
+   * returns their offsets without boxing them. The default implementation
+   * delegates to {@link #getPositions(String)}.
+   *
+   * @param s the text to scan
+   * @return the offsets of the sentence ending characters in ascending order
+   */
+  default int[] getPositionArray(CharSequence s) {
+    List<Integer> positions = getPositions(s.toString());
+    int[] array = new int[positions.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = positions.get(i);
+    }
+    return array;
+  }
 }
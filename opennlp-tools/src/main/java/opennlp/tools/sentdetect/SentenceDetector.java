@@ -44,4 +44,18 @@ public interface SentenceDetector {
      * detected sentence as the individuals array elements.
      */
     Span[] sentPosDetect(String s);
+
+    /**
+     * Sentence detect a character sequence. The default implementation converts
+     * the sequence to a string, implementations should override it if they can
+     * detect the sentences without a copy.
+     *
+     * @param s The character sequence to be sentence detected.
+     *
+     * @return The Span[] with the spans (offsets into s) for each
+     * detected sentence as the individuals array elements.
+     */
+    default Span[] sentPosDetect(CharSequence s) {
+      return sentPosDetect(s.toString());
+    }
 }
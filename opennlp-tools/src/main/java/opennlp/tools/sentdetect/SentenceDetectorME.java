@@ -19,10 +19,9 @@
 package opennlp.tools.sentdetect;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -72,9 +71,15 @@ public class SentenceDetectorME implements SentenceDetector {
   private final EndOfSentenceScanner scanner;
 
   /**
-   * The list of probabilities associated with each decision.
+   * The probabilities associated with each decision.
    */
-  private List<Double> sentProbs = new ArrayList<>();
+  private double[] sentProbs = new double[16];
+  private int numSentProbs;
+
+  /**
+   * Subclasses might override {@link #isAcceptableBreak(String, int, int)}.
+   */
+  private final boolean checkAcceptableBreaks = getClass() != SentenceDetectorME.class;
 
   protected boolean useTokenEnd;
 
@@ -91,6 +96,26 @@ public class SentenceDetectorME implements SentenceDetector {
     useTokenEnd = sdFactory.isUseTokenEnd();
   }
 
+  /**
+   * Initializes a sentence detector which shares the immutable parts of the context
+   * generator of the given sentence detector, only the per call state is created.
+   *
+   * @param model the {@link SentenceModel} of the given sentence detector
+   * @param sentenceDetector the sentence detector
+   */
+  SentenceDetectorME(SentenceModel model, SentenceDetectorME sentenceDetector) {
+    SentenceDetectorFactory sdFactory = model.getFactory();
+    this.model = model.getMaxentModel();
+    if (sentenceDetector.cgen.getClass() == DefaultSDContextGenerator.class) {
+      cgen = new DefaultSDContextGenerator((DefaultSDContextGenerator) sentenceDetector.cgen);
+    }
+    else {
+      cgen = sdFactory.getSDContextGenerator();
+    }
+    scanner = sdFactory.getEndOfSentenceScanner();
+    useTokenEnd = sdFactory.isUseTokenEnd();
+  }
+
   /**
    * @deprecated Use a {@link SentenceDetectorFactory} to extend
    *             SentenceDetector functionality.
@@ -141,13 +166,13 @@ public class SentenceDetectorME implements SentenceDetector {
     return sentences;
   }
 
-  private int getFirstWS(String s, int pos) {
+  private int getFirstWS(CharSequence s, int pos) {
     while (pos < s.length() && !StringUtil.isWhitespace(s.charAt(pos)))
       pos++;
     return pos;
   }
 
-  private int getFirstNonWS(String s, int pos) {
+  private int getFirstNonWS(CharSequence s, int pos) {
     while (pos < s.length() && StringUtil.isWhitespace(s.charAt(pos)))
       pos++;
     return pos;
@@ -162,45 +187,106 @@ public class SentenceDetectorME implements SentenceDetector {
    *
    */
   public Span[] sentPosDetect(String s) {
-    sentProbs.clear();
-    StringBuffer sb = new StringBuffer(s);
-    List<Integer> enders = scanner.getPositions(s);
-    List<Integer> positions = new ArrayList<>(enders.size());
+    return sentPosDetect((CharSequence) s);
+  }
 
-    for (int i = 0, end = enders.size(), index = 0; i < end; i++) {
-      int cint = enders.get(i);
+  /**
+   * Detect the sentences in a character array, without copying it.
+   *
+   * @param text The characters to be processed.
+   * @return The spans of the sentences.
+   */
+  public Span[] sentPosDetect(char[] text) {
+    return sentPosDetect(new CharArraySequence(text));
+  }
+
+  /**
+   * A {@link CharSequence} view of a character array. It is cheaper to access than
+   * a {@link java.nio.CharBuffer}, which has to consider its position and byte order.
+   */
+  private static final class CharArraySequence implements CharSequence {
+
+    private final char[] chars;
+
+    CharArraySequence(char[] chars) {
+      this.chars = chars;
+    }
+
+    @Override
+    public int length() {
+      return chars.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return new String(chars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+      return new String(chars);
+    }
+  }
+
+  /**
+   * Detect the sentences in a {@link CharSequence}, without copying it.
+   *
+   * @param s The text to be processed.
+   * @return The spans of the sentences.
+   */
+  @Override
+  public Span[] sentPosDetect(CharSequence s) {
+    numSentProbs = 0;
+    int[] enders = scanner.getPositionArray(s);
+    int[] starts = new int[enders.length];
+    int numStarts = 0;
+
+    // Subclasses can veto breaks with isAcceptableBreak, which takes the text as String
+    String text = s instanceof String ? (String) s : null;
+
+    for (int i = 0, end = enders.length, index = 0; i < end; i++) {
+      int cint = enders[i];
       // skip over the leading parts of non-token final delimiters
       int fws = getFirstWS(s,cint + 1);
-      if (i + 1 < end && enders.get(i + 1) < fws) {
+      if (i + 1 < end && enders[i + 1] < fws) {
         continue;
       }
-      if (positions.size() > 0 && cint < positions.get(positions.size() - 1)) continue;
+      if (numStarts > 0 && cint < starts[numStarts - 1]) continue;
 
-      double[] probs = model.eval(cgen.getContext(sb, cint));
+      double[] probs = model.eval(cgen.getContext(s, cint));
       String bestOutcome = model.getBestOutcome(probs);
 
-      if (bestOutcome.equals(SPLIT) && isAcceptableBreak(s, index, cint)) {
+      if (bestOutcome.equals(SPLIT)) {
+        if (checkAcceptableBreaks) {
+          if (text == null) {
+            text = s.toString();
+          }
+          if (!isAcceptableBreak(text, index, cint)) {
+            continue;
+          }
+        }
+
         if (index != cint) {
           if (useTokenEnd) {
-            positions.add(getFirstNonWS(s, getFirstWS(s,cint + 1)));
+            starts[numStarts++] = getFirstNonWS(s, getFirstWS(s,cint + 1));
           }
           else {
-            positions.add(getFirstNonWS(s, cint + 1));
+            starts[numStarts++] = getFirstNonWS(s, cint + 1);
           }
-          sentProbs.add(probs[model.getIndex(bestOutcome)]);
+          addSentProb(probs[model.getIndex(bestOutcome)]);
         }
 
         index = cint + 1;
       }
     }
 
-    int[] starts = new int[positions.size()];
-    for (int i = 0; i < starts.length; i++) {
-      starts[i] = positions.get(i);
-    }
-
     // string does not contain sentence end positions
-    if (starts.length == 0) {
+    if (numStarts == 0) {
 
       // remove leading and trailing whitespace
       int start = 0;
@@ -213,7 +299,7 @@ public class SentenceDetectorME implements SentenceDetector {
         end--;
 
       if (end - start > 0) {
-        sentProbs.add(1d);
+        addSentProb(1d);
         return new Span[] {new Span(start, end)};
       }
       else
@@ -222,10 +308,10 @@ public class SentenceDetectorME implements SentenceDetector {
 
     // Convert the sentence end indexes to spans
 
-    boolean leftover = starts[starts.length - 1] != s.length();
-    Span[] spans = new Span[leftover ? starts.length + 1 : starts.length];
+    boolean leftover = starts[numStarts - 1] != s.length();
+    Span[] spans = new Span[leftover ? numStarts + 1 : numStarts];
 
-    for (int si = 0; si < starts.length; si++) {
+    for (int si = 0; si < numStarts; si++) {
       int start;
 
       if (si == 0) {
@@ -242,22 +328,22 @@ public class SentenceDetectorME implements SentenceDetector {
         spans[si] = span;
       }
       else {
-        sentProbs.remove(si);
+        removeSentProb(si);
       }
     }
 
     if (leftover) {
-      Span span = new Span(starts[starts.length - 1], s.length()).trim(s);
+      Span span = new Span(starts[numStarts - 1], s.length()).trim(s);
       if (span.length() > 0) {
         spans[spans.length - 1] = span;
-        sentProbs.add(1d);
+        addSentProb(1d);
       }
     }
     /*
      * set the prob for each span
      */
     for (int i = 0; i < spans.length; i++) {
-      double prob = sentProbs.get(i);
+      double prob = sentProbs[i];
       spans[i] = new Span(spans[i], prob);
 
     }
@@ -265,6 +351,18 @@ public class SentenceDetectorME implements SentenceDetector {
     return spans;
   }
 
+  private void addSentProb(double prob) {
+    if (numSentProbs == sentProbs.length) {
+      sentProbs = Arrays.copyOf(sentProbs, Math.max(16, numSentProbs << 1));
+    }
+    sentProbs[numSentProbs++] = prob;
+  }
+
+  private void removeSentProb(int index) {
+    System.arraycopy(sentProbs, index + 1, sentProbs, index, numSentProbs - index - 1);
+    numSentProbs--;
+  }
+
   /**
    * Returns the probabilities associated with the most recent
    * calls to sentDetect().
@@ -273,11 +371,7 @@ public class SentenceDetectorME implements SentenceDetector {
    *     call to sentDetect.  If not applicable an empty array is returned.
    */
   public double[] getSentenceProbabilities() {
-    double[] sentProbArray = new double[sentProbs.size()];
-    for (int i = 0; i < sentProbArray.length; i++) {
-      sentProbArray[i] = sentProbs.get(i);
-    }
-    return sentProbArray;
+    return Arrays.copyOf(sentProbs, numSentProbs);
   }
 
   /**
@@ -130,7 +130,7 @@ public class SentenceModel extends BaseModel {
   }
 
   public MaxentModel getMaxentModel() {
-    return (MaxentModel) artifactMap.get(MAXENT_MODEL_ENTRY_NAME);
+    return getMaxentModel(MAXENT_MODEL_ENTRY_NAME);
   }
 
   public Dictionary getAbbreviations() {
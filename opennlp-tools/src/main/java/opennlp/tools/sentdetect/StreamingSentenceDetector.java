@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.sentdetect;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.Span;
+import opennlp.tools.util.StringUtil;
+
+/**
+ * Detects the sentences of a document which is read incrementally from a {@link Reader}
+ * or an {@link ObjectStream} of text pieces, and returns their spans with offsets into
+ * the whole document as soon as they are decided.
+ * <p>
+ * The text is buffered in a window of fixed size, the memory usage does not depend on
+ * the size of the document. A sentence is decided when at least the look-ahead number
+ * of characters follows its end, the detector runs on the window again after the
+ * decided sentences are removed from it, only the look-ahead before the first undecided
+ * sentence is kept as left context. A sentence which does not fit into the window
+ * is broken at the last whitespace before the look-ahead.
+ * <p>
+ * Span offsets are ints, the document can have at most {@link Integer#MAX_VALUE} characters.
+ */
+public class StreamingSentenceDetector implements ObjectStream<Span> {
+
+  public static final int DEFAULT_WINDOW_SIZE = 65536;
+  public static final int DEFAULT_LOOK_AHEAD = 256;
+
+  private static final int READ_BUFFER_SIZE = 8192;
+
+  private final SentenceDetector detector;
+  private final ObjectStream<? extends CharSequence> input;
+  private final int windowSize;
+  private final int lookAhead;
+
+  private final StringBuilder window;
+  private long windowOffset;
+  private long decidedOffset;
+
+  private CharSequence chunk;
+  private int chunkOffset;
+  private boolean eof;
+
+  private final Queue<Span> sentences = new ArrayDeque<>();
+  private final Queue<String> sentenceTexts = new ArrayDeque<>();
+  private String coveredText;
+
+  /**
+   * Initializes the detector.
+   *
+   * @param detector the sentence detector which is run on the window
+   * @param input the pieces of the document, which are concatenated
+   * @param windowSize the maximal number of buffered characters
+   * @param lookAhead the number of characters which must follow a sentence
+   *                  until it is decided, it must be less than half of the window size
+   */
+  public StreamingSentenceDetector(SentenceDetector detector,
+      ObjectStream<? extends CharSequence> input, int windowSize, int lookAhead) {
+    this.detector = Objects.requireNonNull(detector, "detector must not be null");
+    this.input = Objects.requireNonNull(input, "input must not be null");
+
+    if (lookAhead < 1) {
+      throw new IllegalArgumentException("lookAhead must be positive: " + lookAhead);
+    }
+    if (windowSize <= 2 * lookAhead) {
+      throw new IllegalArgumentException("windowSize must be larger than twice the lookAhead: "
+          + windowSize);
+    }
+
+    this.windowSize = windowSize;
+    this.lookAhead = lookAhead;
+    this.window = new StringBuilder(windowSize);
+  }
+
+  public StreamingSentenceDetector(SentenceDetector detector,
+      ObjectStream<? extends CharSequence> input) {
+    this(detector, input, DEFAULT_WINDOW_SIZE, DEFAULT_LOOK_AHEAD);
+  }
+
+  /**
+   * Initializes the detector. The reader is closed when this stream is closed,
+   * the stream cannot be reset.
+   *
+   * @param detector the sentence detector which is run on the window
+   * @param reader the document
+   * @param windowSize the maximal number of buffered characters
+   * @param lookAhead the number of characters which must follow a sentence
+   *                  until it is decided, it must be less than half of the window size
+   */
+  public StreamingSentenceDetector(SentenceDetector detector, Reader reader,
+      int windowSize, int lookAhead) {
+    this(detector, new ReaderStream(reader), windowSize, lookAhead);
+  }
+
+  public StreamingSentenceDetector(SentenceDetector detector, Reader reader) {
+    this(detector, reader, DEFAULT_WINDOW_SIZE, DEFAULT_LOOK_AHEAD);
+  }
+
+  /**
+   * Returns the span of the next sentence.
+   *
+   * @return the span with offsets into the whole document, or null at the end of the document
+   */
+  @Override
+  public Span read() throws IOException {
+    while (sentences.isEmpty()) {
+      if (eof && window.length() == 0) {
+        coveredText = null;
+        return null;
+      }
+
+      fill();
+      detect();
+    }
+
+    coveredText = sentenceTexts.poll();
+    return sentences.poll();
+  }
+
+  /**
+   * @return the text of the sentence which was returned by the last call of {@link #read()}
+   */
+  public String getCoveredText() {
+    return coveredText;
+  }
+
+  private void fill() throws IOException {
+    while (window.length() < windowSize && !eof) {
+      if (chunk == null || chunkOffset == chunk.length()) {
+        chunk = input.read();
+        chunkOffset = 0;
+        eof = chunk == null;
+      } else {
+        int end = Math.min(chunk.length(), chunkOffset + windowSize - window.length());
+        window.append(chunk, chunkOffset, end);
+        chunkOffset = end;
+      }
+    }
+  }
+
+  private void detect() {
+    int decidedEnd = (int) (decidedOffset - windowOffset);
+    boolean decided = false;
+
+    Span[] spans = detector.sentPosDetect(window);
+    for (int si = 0; si < spans.length; si++) {
+      Span span = spans[si];
+
+      // the sentence is in the left context, it was returned before
+      if (span.getEnd() <= decidedEnd) {
+        continue;
+      }
+
+      // the last sentence can continue, and the end of a sentence needs the look-ahead
+      if (!eof && (si == spans.length - 1 || window.length() - span.getEnd() < lookAhead)) {
+        break;
+      }
+
+      addSentence(Math.max(span.getStart(), decidedEnd), span.getEnd());
+      decidedEnd = span.getEnd();
+      decided = true;
+    }
+
+    if (eof) {
+      windowOffset += window.length();
+      decidedOffset = windowOffset;
+      window.setLength(0);
+      return;
+    }
+
+    if (!decided && window.length() == windowSize) {
+      int end = windowSize - lookAhead;
+      for (int i = end - 1; i > decidedEnd; i--) {
+        if (StringUtil.isWhitespace(window.charAt(i))) {
+          end = i;
+          break;
+        }
+      }
+
+      addSentence(decidedEnd, end);
+      decidedEnd = end;
+    }
+
+    int keepFrom = Math.max(0, decidedEnd - lookAhead);
+    window.delete(0, keepFrom);
+    decidedOffset = windowOffset + decidedEnd;
+    windowOffset += keepFrom;
+  }
+
+  private void addSentence(int start, int end) {
+    while (start < end && StringUtil.isWhitespace(window.charAt(start))) {
+      start++;
+    }
+    while (end > start && StringUtil.isWhitespace(window.charAt(end - 1))) {
+      end--;
+    }
+
+    if (start < end) {
+      if (windowOffset + end > Integer.MAX_VALUE) {
+        throw new IllegalStateException("The document is too long for int span offsets");
+      }
+
+      sentences.add(new Span((int) windowOffset + start, (int) windowOffset + end));
+      sentenceTexts.add(window.substring(start, end));
+    }
+  }
+
+  /**
+   * Repositions the stream at the beginning of the document, if the input can be reset.
+   */
+  @Override
+  public void reset() throws IOException, UnsupportedOperationException {
+    input.reset();
+
+    window.setLength(0);
+    windowOffset = 0;
+    decidedOffset = 0;
+    chunk = null;
+    chunkOffset = 0;
+    eof = false;
+    sentences.clear();
+    sentenceTexts.clear();
+    coveredText = null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    input.close();
+  }
+
+  /**
+   * Reads a {@link Reader} in pieces, the returned piece is only valid until the next read.
+   */
+  private static class ReaderStream implements ObjectStream<CharSequence> {
+
+    private final Reader reader;
+    private final char[] buffer = new char[READ_BUFFER_SIZE];
+
+    ReaderStream(Reader reader) {
+      this.reader = Objects.requireNonNull(reader, "reader must not be null");
+    }
+
+    @Override
+    public CharSequence read() throws IOException {
+      int length = reader.read(buffer);
+      return length == -1 ? null : CharBuffer.wrap(buffer, 0, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+}
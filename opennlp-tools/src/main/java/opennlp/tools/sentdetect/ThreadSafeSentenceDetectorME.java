@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.sentdetect;
+
+import opennlp.tools.util.PerThreadInstances;
+import opennlp.tools.util.Span;
+
+/**
+ * A thread-safe version of {@link SentenceDetectorME}. All threads share the
+ * {@link SentenceModel} and the abbreviations of the default context generator, every
+ * thread detects with its own {@link SentenceDetectorME} instance which holds the per
+ * call state, it is created on first use.
+ * <p>
+ * {@link #close()} releases the instances of all threads.
+ */
+public class ThreadSafeSentenceDetectorME implements SentenceDetector, AutoCloseable {
+
+  private final PerThreadInstances<SentenceDetectorME> sentenceDetectors;
+
+  public ThreadSafeSentenceDetectorME(SentenceModel model) {
+    SentenceDetectorME prototype = new SentenceDetectorME(model);
+    sentenceDetectors = new PerThreadInstances<>(() -> new SentenceDetectorME(model, prototype));
+  }
+
+  private SentenceDetectorME getSentenceDetector() {
+    return sentenceDetectors.get();
+  }
+
+  @Override
+  public String[] sentDetect(String s) {
+    return getSentenceDetector().sentDetect(s);
+  }
+
+  @Override
+  public Span[] sentPosDetect(String s) {
+    return getSentenceDetector().sentPosDetect(s);
+  }
+
+  /**
+   * @see SentenceDetectorME#sentPosDetect(CharSequence)
+   */
+  @Override
+  public Span[] sentPosDetect(CharSequence s) {
+    return getSentenceDetector().sentPosDetect(s);
+  }
+
+  /**
+   * @see SentenceDetectorME#sentPosDetect(char[])
+   */
+  public Span[] sentPosDetect(char[] text) {
+    return getSentenceDetector().sentPosDetect(text);
+  }
+
+  /**
+   * Returns the probabilities of the sentences of the last call of the calling thread.
+   *
+   * @return the probabilities, see {@link SentenceDetectorME#getSentenceProbabilities()}
+   */
+  public double[] getSentenceProbabilities() {
+    return getSentenceDetector().getSentenceProbabilities();
+  }
+
+  /**
+   * Releases the sentence detector instances of all threads, this sentence detector
+   * can't be used afterwards.
+   */
+  @Override
+  public void close() {
+    sentenceDetectors.close();
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.tokenize;
+
+import java.util.Collections;
+import java.util.Set;
+
+import opennlp.tools.ml.model.FeatureHasher;
+import opennlp.tools.util.StringUtil;
+
+/**
+ * Generates the features of the {@link DefaultTokenContextGenerator} as hashed
+ * feature ids, see {@link FeatureHasher}. The id of a feature is the id of the
+ * feature string of the {@link DefaultTokenContextGenerator}.
+ * <p>
+ * The ids are computed directly from a character array, the classes of the
+ * characters are looked up in a precomputed table, and no strings are created.
+ * The string based {@link #getContext(String, int)} returns the decimal ids, which
+ * are the predicates of a model trained with the
+ * {@link opennlp.tools.ml.model.HashingDataIndexer}.
+ */
+public class HashedTokenContextGenerator implements TokenContextGenerator {
+
+  /**
+   * The maximal number of features of a context.
+   */
+  public static final int MAX_CONTEXT_SIZE = 19;
+
+  private static final int OTHER = 0;
+  private static final int ALPHA = 1;
+  private static final int CAPS = 2;
+  private static final int NUM = 3;
+  private static final int WS = 4;
+  private static final int EOS = 5;
+  private static final int QUOTE = 6;
+  private static final int LP = 7;
+  private static final int RP = 8;
+
+  /** The feature suffixes of each character class. */
+  private static final String[][] CLASS_FEATURES = {
+      {}, {"_alpha"}, {"_alpha", "_caps"}, {"_num"}, {"_ws"},
+      {"_eos"}, {"_quote"}, {"_lp"}, {"_rp"}
+  };
+
+  private static final byte[] CHAR_CLASSES = createCharClasses();
+
+  private static final int P1 = 0;
+  private static final int P2 = 1;
+  private static final int F1 = 2;
+  private static final int F2 = 3;
+
+  private static final String[] CHAR_KEYS = {"p1", "p2", "f1", "f2"};
+
+  private static final long[] CHAR_KEY_HASHES = new long[CHAR_KEYS.length];
+
+  static {
+    for (int k = 0; k < CHAR_KEYS.length; k++) {
+      CHAR_KEY_HASHES[k] = FeatureHasher.hash(CHAR_KEYS[k] + "=");
+    }
+  }
+
+  private static final long PREFIX_HASH = FeatureHasher.hash("p=");
+  private static final long SUFFIX_HASH = FeatureHasher.hash("s=");
+  private static final long P21_HASH = FeatureHasher.hash("p21=");
+  private static final long P1F1_HASH = FeatureHasher.hash("p1f1=");
+  private static final long F12_HASH = FeatureHasher.hash("f12=");
+
+  private final Set<String> inducedAbbreviations;
+  private final int bits;
+
+  /** The ids of the class features, by key and character class. */
+  private final int[][][] classIds;
+
+  private final int p1Bok;
+  private final int p2Bok;
+  private final int f2Bok;
+  private final int characterCode;
+  private final int abbreviation;
+
+  /**
+   * Creates a hashed context generator for the tokenizer.
+   *
+   * @param inducedAbbreviations the induced abbreviations
+   * @param bits the number of bits of the feature ids
+   */
+  public HashedTokenContextGenerator(Set<String> inducedAbbreviations, int bits) {
+    FeatureHasher.checkBits(bits);
+
+    this.inducedAbbreviations = inducedAbbreviations;
+    this.bits = bits;
+
+    classIds = new int[CHAR_KEYS.length][CLASS_FEATURES.length][];
+    for (int k = 0; k < CHAR_KEYS.length; k++) {
+      for (int c = 0; c < CLASS_FEATURES.length; c++) {
+        classIds[k][c] = new int[CLASS_FEATURES[c].length];
+        for (int f = 0; f < CLASS_FEATURES[c].length; f++) {
+          classIds[k][c][f] = FeatureHasher.id(CHAR_KEYS[k] + CLASS_FEATURES[c][f], bits);
+        }
+      }
+    }
+
+    p1Bok = FeatureHasher.id("p1=bok", bits);
+    p2Bok = FeatureHasher.id("p2=bok", bits);
+    f2Bok = FeatureHasher.id("f2=bok", bits);
+    characterCode = FeatureHasher.id("cc", bits);
+    abbreviation = FeatureHasher.id("pabb", bits);
+  }
+
+  public HashedTokenContextGenerator(int bits) {
+    this(Collections.emptySet(), bits);
+  }
+
+  private static byte[] createCharClasses() {
+    byte[] classes = new byte[Character.MAX_VALUE + 1];
+    for (int i = 0; i < classes.length; i++) {
+      char c = (char) i;
+
+      int charClass;
+      if (Character.isLetter(c)) {
+        charClass = Character.isUpperCase(c) ? CAPS : ALPHA;
+      } else if (Character.isDigit(c)) {
+        charClass = NUM;
+      } else if (StringUtil.isWhitespace(c)) {
+        charClass = WS;
+      } else if (c == '.' || c == '?' || c == '!') {
+        charClass = EOS;
+      } else if (c == '`' || c == '"' || c == '\'') {
+        charClass = QUOTE;
+      } else if (c == '[' || c == '{' || c == '(') {
+        charClass = LP;
+      } else if (c == ']' || c == '}' || c == ')') {
+        charClass = RP;
+      } else {
+        charClass = OTHER;
+      }
+      classes[i] = (byte) charClass;
+    }
+    return classes;
+  }
+
+  /**
+   * @return the number of bits of the feature ids
+   */
+  public int getBits() {
+    return bits;
+  }
+
+  /**
+   * Returns the decimal feature ids for the specified token at the specified index.
+   */
+  public String[] getContext(String sentence, int index) {
+    int[] featureIds = new int[MAX_CONTEXT_SIZE];
+    int length = getContext(sentence.toCharArray(), 0, sentence.length(), index, featureIds);
+
+    String[] context = new String[length];
+    for (int i = 0; i < length; i++) {
+      context[i] = Integer.toString(featureIds[i]);
+    }
+    return context;
+  }
+
+  /**
+   * Computes the feature ids for a token at the specified index.
+   *
+   * @param text the text which contains the token
+   * @param start the start of the token in the text
+   * @param end the end of the token in the text
+   * @param index the index to consider splitting, relative to the start of the token
+   * @param featureIds the array to store the ids in, it must have
+   *     at least {@link #MAX_CONTEXT_SIZE} elements
+   *
+   * @return the number of feature ids
+   */
+  public int getContext(char[] text, int start, int end, int index, int[] featureIds) {
+    int length = end - start;
+    int pos = start + index;
+    int n = 0;
+
+    featureIds[n++] = id(FeatureHasher.update(PREFIX_HASH, text, start, pos));
+    featureIds[n++] = id(FeatureHasher.update(SUFFIX_HASH, text, pos, end));
+
+    if (index > 0) {
+      n = addCharFeatures(P1, text[pos - 1], featureIds, n);
+      if (index > 1) {
+        n = addCharFeatures(P2, text[pos - 2], featureIds, n);
+        featureIds[n++] = id(FeatureHasher.update(
+            FeatureHasher.update(P21_HASH, text[pos - 2]), text[pos - 1]));
+      } else {
+        featureIds[n++] = p2Bok;
+      }
+      featureIds[n++] = id(FeatureHasher.update(
+          FeatureHasher.update(P1F1_HASH, text[pos - 1]), text[pos]));
+    } else {
+      featureIds[n++] = p1Bok;
+    }
+
+    n = addCharFeatures(F1, text[pos], featureIds, n);
+    if (index + 1 < length) {
+      n = addCharFeatures(F2, text[pos + 1], featureIds, n);
+      featureIds[n++] = id(FeatureHasher.update(
+          FeatureHasher.update(F12_HASH, text[pos]), text[pos + 1]));
+    } else {
+      featureIds[n++] = f2Bok;
+    }
+
+    if (text[start] == '&' && text[end - 1] == ';') {
+      featureIds[n++] = characterCode;
+    }
+
+    if (index == length - 1 && !inducedAbbreviations.isEmpty()
+        && inducedAbbreviations.contains(new String(text, start, length))) {
+      featureIds[n++] = abbreviation;
+    }
+
+    return n;
+  }
+
+  private int addCharFeatures(int key, char c, int[] featureIds, int n) {
+    featureIds[n++] = id(FeatureHasher.update(CHAR_KEY_HASHES[key], c));
+    for (int id : classIds[key][CHAR_CLASSES[c]]) {
+      featureIds[n++] = id;
+    }
+    return n;
+  }
+
+  private int id(long hash) {
+    return FeatureHasher.id(hash, bits);
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.tokenize;
+
+import opennlp.tools.util.PerThreadInstances;
+import opennlp.tools.util.Span;
+import opennlp.tools.util.cache.ArrayKey;
+import opennlp.tools.util.cache.CacheStats;
+import opennlp.tools.util.cache.ConcurrentCache;
+
+/**
+ * A thread-safe version of {@link TokenizerME}. All threads share the
+ * {@link TokenizerModel} and the default context generators, every thread tokenizes
+ * with its own {@link TokenizerME} instance which holds the per call state, it is
+ * created on first use.
+ * <p>
+ * {@link #close()} releases the instances of all threads.
+ */
+public class ThreadSafeTokenizerME implements Tokenizer, AutoCloseable {
+
+  private final ConcurrentCache<ArrayKey, double[]> cache;
+
+  private final PerThreadInstances<TokenizerME> tokenizers;
+
+  public ThreadSafeTokenizerME(TokenizerModel model) {
+    this(model, null);
+  }
+
+  /**
+   * Initializes a tokenizer whose threads share a cache of the split whitespace tokens.
+   *
+   * @param model the tokenizer model
+   * @param cache the cache, or null to disable caching
+   *
+   * @see TokenizerME#TokenizerME(TokenizerModel, ConcurrentCache)
+   */
+  public ThreadSafeTokenizerME(TokenizerModel model, ConcurrentCache<ArrayKey, double[]> cache) {
+    this.cache = cache;
+    TokenizerME prototype = new TokenizerME(model, cache);
+    this.tokenizers = new PerThreadInstances<>(() -> new TokenizerME(model, prototype));
+  }
+
+  private TokenizerME getTokenizer() {
+    return tokenizers.get();
+  }
+
+  @Override
+  public String[] tokenize(String s) {
+    return getTokenizer().tokenize(s);
+  }
+
+  @Override
+  public Span[] tokenizePos(String s) {
+    return getTokenizer().tokenizePos(s);
+  }
+
+  /**
+   * Returns the probabilities of the tokens of the last call of the calling thread.
+   *
+   * @return the probabilities, see {@link TokenizerME#getTokenProbabilities()}
+   */
+  public double[] getTokenProbabilities() {
+    return getTokenizer().getTokenProbabilities();
+  }
+
+  /**
+   * @return the statistics of the shared cache, or null if no cache is used
+   */
+  public CacheStats getCacheStats() {
+    return cache != null ? cache.stats() : null;
+  }
+
+  /**
+   * Releases the tokenizer instances of all threads, this tokenizer can't be used afterwards.
+   */
+  @Override
+  public void close() {
+    tokenizers.close();
+  }
+}
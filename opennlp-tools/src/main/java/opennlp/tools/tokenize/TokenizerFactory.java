@@ -23,6 +23,7 @@ import java.util.Set;
 import java.util.regex.Pattern;
 
 import opennlp.tools.dictionary.Dictionary;
+import opennlp.tools.ml.model.HashedModel;
 import opennlp.tools.tokenize.lang.Factory;
 import opennlp.tools.util.BaseToolFactory;
 import opennlp.tools.util.InvalidFormatException;
@@ -219,19 +220,47 @@ public class TokenizerFactory extends BaseToolFactory {
   }
 
   /**
-   * Gets the context generator
+   * Gets the number of bits of the hashed feature ids the model was trained with.
+   *
+   * @return the number of bits, or 0 if the model was trained on feature strings
+   */
+  public int getFeatureHashBits() {
+    if (artifactProvider != null) {
+      String featureHashBits = artifactProvider.getManifestProperty(HashedModel.BITS_PROPERTY);
+      if (featureHashBits != null) {
+        return Integer.parseInt(featureHashBits);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Gets the context generator. The features of a model which was trained with
+   * hashed features are hashed by its {@link HashedModel}.
    *
    * @return a new instance of the context generator
    */
   public TokenContextGenerator getContextGenerator() {
     Factory f = new Factory();
-    Set<String> abbs;
+    return f.createTokenContextGenerator(getLanguageCode(), getAbbreviationSet());
+  }
+
+  /**
+   * Gets the context generator for hashed features.
+   *
+   * @param featureHashBits the number of bits of the feature ids
+   * @return a new instance of the hashed context generator
+   */
+  public HashedTokenContextGenerator getHashedContextGenerator(int featureHashBits) {
+    return new HashedTokenContextGenerator(getAbbreviationSet(), featureHashBits);
+  }
+
+  private Set<String> getAbbreviationSet() {
     Dictionary abbDict = getAbbreviationDictionary();
     if (abbDict != null) {
-      abbs = abbDict.asStringSet();
+      return abbDict.asStringSet();
     } else {
-      abbs = Collections.emptySet();
+      return Collections.emptySet();
     }
-    return f.createTokenContextGenerator(getLanguageCode(), abbs);
   }
 }
@@ -24,17 +24,26 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import opennlp.tools.dictionary.Dictionary;
+import opennlp.tools.ml.AbstractEventTrainer;
 import opennlp.tools.ml.EventTrainer;
 import opennlp.tools.ml.TrainerFactory;
 import opennlp.tools.ml.model.Event;
+import opennlp.tools.ml.model.HashedModel;
+import opennlp.tools.ml.model.HashingDataIndexer;
 import opennlp.tools.ml.model.MaxentModel;
 import opennlp.tools.tokenize.lang.Factory;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.Span;
 import opennlp.tools.util.TrainingParameters;
+import opennlp.tools.util.cache.ArrayKey;
+import opennlp.tools.util.cache.CacheStats;
+import opennlp.tools.util.cache.ConcurrentCache;
+import opennlp.tools.util.cache.EvictionPolicy;
+import opennlp.tools.util.cache.Weigher;
 
 /**
  * A Tokenizer for converting raw text into separated tokens.  It uses
@@ -85,6 +94,14 @@ public class TokenizerME extends AbstractTokenizer {
    */
   public static final String NO_SPLIT = "F";
 
+  /**
+   * The training parameter which enables hashed features, its value is the number
+   * of bits of the feature ids, e.g. 20. The features are hashed by the
+   * {@link HashingDataIndexer}, the tokenizer computes the same ids with the
+   * {@link HashedTokenContextGenerator}.
+   */
+  public static final String FEATURE_HASH_BITS_PARAM = HashingDataIndexer.BITS_PARAM;
+
   /**
    * Alpha-Numeric Pattern
    * @deprecated As of release 1.5.2, replaced by {@link Factory#getAlphanumeric(String)}
@@ -94,6 +111,8 @@ public class TokenizerME extends AbstractTokenizer {
 
   private final Pattern alphanumeric;
 
+  private final Matcher alphanumericMatcher;
+
   /**
    * The maximum entropy model to use to evaluate contexts.
    */
@@ -104,6 +123,20 @@ public class TokenizerME extends AbstractTokenizer {
    */
   private final TokenContextGenerator cg;
 
+  /**
+   * The context generator and model for hashed feature ids, null if the
+   * model was trained on feature strings or on signed hashed features.
+   */
+  private final HashedTokenContextGenerator hashedCg;
+  private final HashedModel hashedModel;
+  private final int[] featureIds;
+  private final double[] probs;
+
+  /**
+   * The cache of the split whitespace tokens, null if no cache is used.
+   */
+  private final ConcurrentCache<ArrayKey, double[]> cache;
+
   /**
    * Optimization flag to skip alpha numeric tokens for further
    * tokenization
@@ -119,12 +152,71 @@ public class TokenizerME extends AbstractTokenizer {
   private List<Span> newTokens;
 
   public TokenizerME(TokenizerModel model) {
+    this(model, (ConcurrentCache<ArrayKey, double[]>) null);
+  }
+
+  /**
+   * Initializes a tokenizer which caches how the given number of
+   * whitespace tokens are split.
+   *
+   * @param model the tokenizer model
+   * @param cacheSize the number of whitespace tokens to cache, zero disables the cache
+   */
+  public TokenizerME(TokenizerModel model, int cacheSize) {
+    this(model, cacheSize > 0 ? new ConcurrentCache<>(cacheSize, EvictionPolicy.LRU,
+        Weigher.entries(), 1) : null);
+  }
+
+  /**
+   * Initializes a tokenizer which caches how whitespace tokens are split in the given
+   * cache. The cache can be shared with other tokenizers and threads, the tokens of
+   * different models are cached separately.
+   *
+   * @param model the tokenizer model
+   * @param cache the cache for the split whitespace tokens, or null to disable caching
+   */
+  public TokenizerME(TokenizerModel model, ConcurrentCache<ArrayKey, double[]> cache) {
+    this(model, cache, model.getFactory().getContextGenerator(), null);
+  }
+
+  /**
+   * Initializes a tokenizer which shares the cache and the thread-safe context
+   * generators of the given tokenizer, only the per call state is created.
+   *
+   * @param model the tokenizer model of the given tokenizer
+   * @param tokenizer the tokenizer
+   */
+  TokenizerME(TokenizerModel model, TokenizerME tokenizer) {
+    this(model, tokenizer.cache,
+        tokenizer.cg.getClass() == DefaultTokenContextGenerator.class
+            ? tokenizer.cg : model.getFactory().getContextGenerator(),
+        tokenizer.hashedCg);
+  }
+
+  private TokenizerME(TokenizerModel model, ConcurrentCache<ArrayKey, double[]> cache,
+      TokenContextGenerator cg, HashedTokenContextGenerator hashedCg) {
     TokenizerFactory factory = model.getFactory();
     this.alphanumeric = factory.getAlphaNumericPattern();
-    this.cg = factory.getContextGenerator();
+    this.alphanumericMatcher = alphanumeric.matcher("");
+    this.cache = cache;
+    this.cg = cg;
     this.model = model.getMaxentModel();
     this.useAlphaNumericOptimization = factory.isUseAlphaNumericOptmization();
 
+    // the hashed context generator is immutable
+    this.hashedModel = getUnsignedHashedModel(this.model);
+    if (hashedModel == null) {
+      this.hashedCg = null;
+    }
+    else if (hashedCg != null) {
+      this.hashedCg = hashedCg;
+    }
+    else {
+      this.hashedCg = factory.getHashedContextGenerator(hashedModel.getBits());
+    }
+    this.featureIds = new int[HashedTokenContextGenerator.MAX_CONTEXT_SIZE];
+    this.probs = new double[this.model.getNumOutcomes()];
+
     newTokens = new ArrayList<>();
     tokProbs = new ArrayList<>(50);
   }
@@ -137,16 +229,35 @@ public class TokenizerME extends AbstractTokenizer {
     String languageCode = model.getLanguage();
 
     this.alphanumeric = factory.getAlphanumeric(languageCode);
+    this.alphanumericMatcher = alphanumeric.matcher("");
+    this.cache = null;
     this.cg = factory.createTokenContextGenerator(languageCode,
         getAbbreviations(model.getAbbreviations()));
 
     this.model = model.getMaxentModel();
     useAlphaNumericOptimization = model.useAlphaNumericOptimization();
 
+    this.hashedModel = getUnsignedHashedModel(this.model);
+    this.hashedCg = hashedModel != null
+        ? model.getFactory().getHashedContextGenerator(hashedModel.getBits()) : null;
+    this.featureIds = new int[HashedTokenContextGenerator.MAX_CONTEXT_SIZE];
+    this.probs = new double[this.model.getNumOutcomes()];
+
     newTokens = new ArrayList<>();
     tokProbs = new ArrayList<>(50);
   }
 
+  /**
+   * The ids of the {@link HashedTokenContextGenerator} carry no sign, signed
+   * models are evaluated with the feature strings.
+   */
+  private static HashedModel getUnsignedHashedModel(MaxentModel model) {
+    if (model instanceof HashedModel && !((HashedModel) model).isSigned()) {
+      return (HashedModel) model;
+    }
+    return null;
+  }
+
   private static Set<String> getAbbreviations(Dictionary abbreviations) {
     if (abbreviations == null) {
       return Collections.emptySet();
@@ -169,6 +280,15 @@ public class TokenizerME extends AbstractTokenizer {
     return tokProbArray;
   }
 
+  /**
+   * Retrieves the counters of the cache of the split whitespace tokens.
+   *
+   * @return the statistics of the cache, or null if no cache is used
+   */
+  public CacheStats getCacheStats() {
+    return cache != null ? cache.stats() : null;
+  }
+
   /**
    * Tokenizes the string.
    *
@@ -180,34 +300,28 @@ public class TokenizerME extends AbstractTokenizer {
     Span[] tokens = WhitespaceTokenizer.INSTANCE.tokenizePos(d);
     newTokens.clear();
     tokProbs.clear();
+
+    // the hashed features are computed from the characters without token strings
+    char[] text = hashedModel != null ? d.toCharArray() : null;
+    alphanumericMatcher.reset(d);
+
     for (Span s : tokens) {
-      String tok = d.substring(s.getStart(), s.getEnd());
+      int start = s.getStart();
+      int end = s.getEnd();
       // Can't tokenize single characters
-      if (tok.length() < 2) {
+      if (end - start < 2) {
         newTokens.add(s);
         tokProbs.add(1d);
-      } else if (useAlphaNumericOptimization() && alphanumeric.matcher(tok).matches()) {
+      } else if (useAlphaNumericOptimization()
+          && alphanumericMatcher.region(start, end).matches()) {
         newTokens.add(s);
         tokProbs.add(1d);
+      } else if (cache != null) {
+        splitCached(d, text, start, end);
+      } else if (hashedModel != null) {
+        splitHashed(text, start, end);
       } else {
-        int start = s.getStart();
-        int end = s.getEnd();
-        final int origStart = s.getStart();
-        double tokenProb = 1.0;
-        for (int j = origStart + 1; j < end; j++) {
-          double[] probs =
-              model.eval(cg.getContext(tok, j - origStart));
-          String best = model.getBestOutcome(probs);
-          tokenProb *= probs[model.getIndex(best)];
-          if (best.equals(TokenizerME.SPLIT)) {
-            newTokens.add(new Span(start, j));
-            tokProbs.add(tokenProb);
-            start = j;
-            tokenProb = 1.0;
-          }
-        }
-        newTokens.add(new Span(start, end));
-        tokProbs.add(tokenProb);
+        split(d.substring(start, end), start);
       }
     }
 
@@ -216,6 +330,94 @@ public class TokenizerME extends AbstractTokenizer {
     return spans;
   }
 
+  /**
+   * Splits a whitespace token, the result is looked up in the cache first and
+   * the computed result is added to it.
+   */
+  private void splitCached(String d, char[] text, int start, int end) {
+    String tok = d.substring(start, end);
+    ArrayKey key = new ArrayKey(model, new String[] {tok});
+
+    // the end offsets relative to the whitespace token and the probabilities, alternating
+    double[] splits = cache.get(key);
+
+    if (splits == null) {
+      int firstToken = newTokens.size();
+
+      if (hashedModel != null) {
+        splitHashed(text, start, end);
+      } else {
+        split(tok, start);
+      }
+
+      splits = new double[2 * (newTokens.size() - firstToken)];
+      for (int ti = firstToken, si = 0; ti < newTokens.size(); ti++, si += 2) {
+        splits[si] = newTokens.get(ti).getEnd() - start;
+        splits[si + 1] = tokProbs.get(ti);
+      }
+      cache.put(key, splits);
+    } else {
+      int tokenStart = start;
+      for (int si = 0; si < splits.length; si += 2) {
+        int tokenEnd = start + (int) splits[si];
+        newTokens.add(new Span(tokenStart, tokenEnd));
+        tokProbs.add(splits[si + 1]);
+        tokenStart = tokenEnd;
+      }
+    }
+  }
+
+  private void split(String tok, int origStart) {
+    int start = origStart;
+    int end = origStart + tok.length();
+    double tokenProb = 1.0;
+    for (int j = origStart + 1; j < end; j++) {
+      double[] probs =
+          model.eval(cg.getContext(tok, j - origStart));
+      String best = model.getBestOutcome(probs);
+      tokenProb *= probs[model.getIndex(best)];
+      if (best.equals(TokenizerME.SPLIT)) {
+        newTokens.add(new Span(start, j));
+        tokProbs.add(tokenProb);
+        start = j;
+        tokenProb = 1.0;
+      }
+    }
+    newTokens.add(new Span(start, end));
+    tokProbs.add(tokenProb);
+  }
+
+  /**
+   * Splits a whitespace token with the hashed features, which are computed
+   * from the characters of the text without creating the token string.
+   */
+  private void splitHashed(char[] text, int origStart, int end) {
+    int splitIndex = hashedModel.getIndex(SPLIT);
+    int start = origStart;
+    double tokenProb = 1.0;
+    for (int j = origStart + 1; j < end; j++) {
+      int length = hashedCg.getContext(text, origStart, end, j - origStart, featureIds);
+      hashedModel.eval(featureIds, length, probs);
+
+      int best = 0;
+      for (int oi = 1; oi < probs.length; oi++) {
+        if (probs[oi] > probs[best]) {
+          best = oi;
+        }
+      }
+
+      tokenProb *= probs[best];
+      if (best == splitIndex) {
+        newTokens.add(new Span(start, j));
+        tokProbs.add(tokenProb);
+        start = j;
+        tokenProb = 1.0;
+      }
+    }
+    newTokens.add(new Span(start, end));
+    tokProbs.add(tokenProb);
+  }
+
   /**
    * Trains a model for the {@link TokenizerME}.
    *
@@ -237,6 +439,12 @@ public class TokenizerME extends AbstractTokenizer {
 
     Map<String, String> manifestInfoEntries = new HashMap<>();
 
+    if (mlParams.getIntParameter(FEATURE_HASH_BITS_PARAM, 0) > 0) {
+      mlParams = new TrainingParameters(mlParams);
+      mlParams.put(AbstractEventTrainer.DATA_INDEXER_PARAM,
+          AbstractEventTrainer.DATA_INDEXER_HASHING_VALUE);
+    }
+
     ObjectStream<Event> eventStream = new TokSpanEventStream(samples,
         factory.isUseAlphaNumericOptmization(),
         factory.getAlphaNumericPattern(), factory.getContextGenerator());
@@ -129,8 +129,14 @@ public final class TokenizerModel extends BaseModel {
     return TokenizerFactory.class;
   }
 
+  /**
+   * Retrieves the maxent model, it is a {@link opennlp.tools.ml.model.HashedModel}
+   * if the model was trained with hashed features.
+   *
+   * @return the maxent model
+   */
   public MaxentModel getMaxentModel() {
-    return (MaxentModel) artifactMap.get(TOKENIZER_MODEL_ENTRY);
+    return getMaxentModel(TOKENIZER_MODEL_ENTRY);
   }
 
   public Dictionary getAbbreviations() {
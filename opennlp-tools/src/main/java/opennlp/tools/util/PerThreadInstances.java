@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Manages the instances of a tool which is not thread-safe for a thread-safe facade.
+ * Every thread which calls {@link #get()} gets its own instance, which keeps the state
+ * of the calls of that thread, e.g. the probabilities of the last call. Batch tasks
+ * borrow an instance from a pool with {@link #apply(Function)}, their results do not
+ * depend on the thread which runs the task.
+ * <p>
+ * All instances are tracked, {@link #close()} releases the instances of all threads
+ * and of the pool. The instance of a thread which terminates is released with the thread.
+ *
+ * @param <T> the type of the tool
+ */
+public class PerThreadInstances<T> implements AutoCloseable {
+
+  /**
+   * Holds the instance of a thread, the instance is removed when this is closed.
+   */
+  private static class Holder<T> {
+    volatile T instance;
+
+    Holder(T instance) {
+      this.instance = instance;
+    }
+  }
+
+  private final Supplier<T> factory;
+
+  private final ThreadLocal<Holder<T>> threadInstances = new ThreadLocal<>();
+
+  // The holders are only weakly referenced, a holder is released with its thread
+  private final Set<Reference<Holder<T>>> holders = ConcurrentHashMap.newKeySet();
+  private final ReferenceQueue<Holder<T>> releasedHolders = new ReferenceQueue<>();
+
+  private final Queue<T> pool = new ConcurrentLinkedQueue<>();
+
+  private volatile boolean closed;
+
+  /**
+   * Initializes the current instance.
+   *
+   * @param factory creates the instances
+   */
+  public PerThreadInstances(Supplier<T> factory) {
+    this.factory = factory;
+  }
+
+  private void checkOpen() {
+    if (closed) {
+      throw new IllegalStateException("The instances are closed");
+    }
+  }
+
+  /**
+   * Retrieves the instance of the calling thread, it is created on first use.
+   *
+   * @return the instance
+   * @throws IllegalStateException if this was closed
+   */
+  public T get() {
+    Holder<T> holder = threadInstances.get();
+
+    if (holder == null) {
+      checkOpen();
+
+      Reference<? extends Holder<T>> released;
+      while ((released = releasedHolders.poll()) != null) {
+        holders.remove(released);
+      }
+
+      holder = new Holder<>(factory.get());
+      holders.add(new WeakReference<>(holder, releasedHolders));
+      threadInstances.set(holder);
+
+      // a concurrent close might not have seen the new holder
+      if (closed) {
+        holder.instance = null;
+      }
+    }
+
+    T instance = holder.instance;
+    if (instance == null) {
+      throw new IllegalStateException("The instances are closed");
+    }
+    return instance;
+  }
+
+  /**
+   * Applies a function to an instance of the pool, the instance is not used by
+   * another thread until the function returns. The function must leave the instance
+   * in a state which does not affect the results of later tasks.
+   *
+   * @param function the function
+   * @return the result of the function
+   * @throws IllegalStateException if this was closed
+   */
+  public <R> R apply(Function<? super T, R> function) {
+    checkOpen();
+
+    T instance = pool.poll();
+    if (instance == null) {
+      instance = factory.get();
+    }
+
+    try {
+      return function.apply(instance);
+    }
+    finally {
+      if (!closed) {
+        pool.offer(instance);
+      }
+    }
+  }
+
+  /**
+   * Releases the instances of all threads and of the pool. The instances can't
+   * be retrieved afterwards.
+   */
+  @Override
+  public void close() {
+    closed = true;
+
+    for (Reference<Holder<T>> reference : holders) {
+      Holder<T> holder = reference.get();
+      if (holder != null) {
+        holder.instance = null;
+      }
+    }
+    holders.clear();
+    pool.clear();
+    threadInstances.remove();
+  }
+}
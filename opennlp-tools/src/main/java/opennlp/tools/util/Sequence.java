@@ -54,6 +54,19 @@ public class Sequence implements Comparable<Sequence> {
     score = s.score + Math.log(p);
   }
 
+  /**
+   * Creates a sequence from already computed outcomes, probabilities and score.
+   *
+   * @param score the score of the sequence, the sum of the log probabilities
+   * @param outcomes the outcomes
+   * @param probs the probabilities of the outcomes
+   */
+  public Sequence(double score, List<String> outcomes, List<Double> probs) {
+    this.score = score;
+    this.outcomes = outcomes;
+    this.probs = probs;
+  }
+
   public Sequence(List<String> outcomes) {
     this.outcomes = outcomes;
     this.probs = Collections.nCopies(outcomes.size(),ONE);
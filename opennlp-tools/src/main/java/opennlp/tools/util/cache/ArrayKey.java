@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.cache;
+
+import java.util.Arrays;
+
+/**
+ * A cache key which compares a String[] by its content instead of its identity.
+ * <p>
+ * An optional namespace, compared by identity, separates the keys of different
+ * users of a shared cache, e.g. the model which was evaluated, and an optional
+ * index can identify a position inside the array.
+ * The array must not be modified after the key was created.
+ */
+public final class ArrayKey {
+
+  private final Object namespace;
+  private final String[] array;
+  private final int index;
+  private final int hash;
+
+  public ArrayKey(Object namespace, String[] array, int index) {
+    this.namespace = namespace;
+    this.array = array;
+    this.index = index;
+    this.hash = 31 * (31 * System.identityHashCode(namespace) + Arrays.hashCode(array)) + index;
+  }
+
+  public ArrayKey(Object namespace, String[] array) {
+    this(namespace, array, 0);
+  }
+
+  public ArrayKey(String[] array) {
+    this(null, array, 0);
+  }
+
+  public String[] getArray() {
+    return array;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+
+    if (obj instanceof ArrayKey) {
+      ArrayKey other = (ArrayKey) obj;
+      return hash == other.hash && namespace == other.namespace && index == other.index
+          && Arrays.equals(array, other.array);
+    }
+
+    return false;
+  }
+}
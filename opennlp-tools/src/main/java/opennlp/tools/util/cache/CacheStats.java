@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.cache;
+
+/**
+ * An immutable snapshot of the counters of a {@link ConcurrentCache}.
+ */
+public final class CacheStats {
+
+  private final long hits;
+  private final long misses;
+  private final long evictions;
+  private final long size;
+  private final long weight;
+
+  public CacheStats(long hits, long misses, long evictions, long size, long weight) {
+    this.hits = hits;
+    this.misses = misses;
+    this.evictions = evictions;
+    this.size = size;
+    this.weight = weight;
+  }
+
+  public long getHits() {
+    return hits;
+  }
+
+  public long getMisses() {
+    return misses;
+  }
+
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * @return the number of entries
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * @return the sum of the weights of the entries
+   */
+  public long getWeight() {
+    return weight;
+  }
+
+  /**
+   * @return the ratio of hits to lookups, or zero if there were no lookups
+   */
+  public double getHitRate() {
+    long lookups = hits + misses;
+    return lookups > 0 ? (double) hits / lookups : 0;
+  }
+
+  @Override
+  public String toString() {
+    return "hits=" + hits + " misses=" + misses + " hit%=" + getHitRate()
+        + " evictions=" + evictions + " size=" + size + " weight=" + weight;
+  }
+}
@@ -0,0 +1,506 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache which keeps the sum of the weights of its entries, by
+ * default their estimated heap size in bytes, below a maximum weight.
+ * <p>
+ * The entries are distributed over a number of segments which are locked
+ * independently, each segment evicts entries according to the
+ * {@link EvictionPolicy} when its share of the maximum weight is exceeded.
+ * The keys must implement content based {@link Object#hashCode()} and
+ * {@link Object#equals(Object)}, use {@link ArrayKey} for String[] keys.
+ * <p>
+ * One instance can be shared by all threads of a process, the number of hits,
+ * misses and evictions is counted and can be retrieved with {@link #stats()}.
+ */
+public class ConcurrentCache<K, V> {
+
+  private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+  /** The minimum weight each segment should be able to hold. */
+  private static final long MIN_SEGMENT_WEIGHT = 8;
+
+  private final Segment<K, V>[] segments;
+  private final int segmentShift;
+  private final int segmentMask;
+  private final Weigher<? super K, ? super V> weigher;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Initializes a cache which measures its entries with {@link Weigher#memory()}.
+   *
+   * @param maxWeight the memory budget in bytes
+   * @param policy the eviction policy
+   */
+  public ConcurrentCache(long maxWeight, EvictionPolicy policy) {
+    this(maxWeight, policy, Weigher.memory(), DEFAULT_CONCURRENCY_LEVEL);
+  }
+
+  /**
+   * Initializes a cache.
+   *
+   * @param maxWeight the maximum sum of the weights of all entries
+   * @param policy the eviction policy
+   * @param weigher computes the weight of an entry
+   * @param concurrencyLevel the expected number of threads which access
+   *     the cache concurrently, used to determine the number of segments
+   */
+  public ConcurrentCache(long maxWeight, EvictionPolicy policy,
+      Weigher<? super K, ? super V> weigher, int concurrencyLevel) {
+
+    if (maxWeight < 1) {
+      throw new IllegalArgumentException("maxWeight must be positive: " + maxWeight);
+    }
+
+    this.weigher = Objects.requireNonNull(weigher, "weigher must not be null");
+    Objects.requireNonNull(policy, "policy must not be null");
+
+    int numSegments = 1;
+    while (numSegments < concurrencyLevel
+        && maxWeight / (numSegments * 2) >= MIN_SEGMENT_WEIGHT) {
+      numSegments <<= 1;
+    }
+
+    segments = newSegments(numSegments);
+    segmentShift = 32 - Integer.numberOfTrailingZeros(numSegments);
+    segmentMask = numSegments - 1;
+
+    long segmentWeight = maxWeight / numSegments;
+    for (int i = 0; i < numSegments; i++) {
+      // the first segments receive the remainder of the division
+      long weight = segmentWeight + (i < maxWeight % numSegments ? 1 : 0);
+      segments[i] = new Segment<>(weight, policy, evictions);
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static <K, V> Segment<K, V>[] newSegments(int size) {
+    return new Segment[size];
+  }
+
+  private static int spread(int h) {
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private Segment<K, V> segmentFor(int hash) {
+    return segments[(hash >>> segmentShift) & segmentMask];
+  }
+
+  /**
+   * Retrieves the value of a key.
+   *
+   * @param key the key
+   * @return the value or null if it is not cached
+   */
+  public V get(K key) {
+    int hash = spread(key.hashCode());
+    V value = segmentFor(hash).get(key, hash);
+
+    if (value != null) {
+      hits.increment();
+    }
+    else {
+      misses.increment();
+    }
+
+    return value;
+  }
+
+  /**
+   * Adds an entry to the cache, it is not added if its weight is larger than
+   * the weight a segment can hold.
+   *
+   * @param key the key
+   * @param value the value
+   */
+  public void put(K key, V value) {
+    Objects.requireNonNull(value, "value must not be null");
+    int hash = spread(key.hashCode());
+    segmentFor(hash).put(key, hash, value, weigher.weigh(key, value));
+  }
+
+  /**
+   * Retrieves the value of a key, if it is not cached it is computed and added.
+   * The value is computed without holding a lock, concurrent threads might
+   * compute the value of the same key.
+   *
+   * @param key the key
+   * @param mappingFunction computes the value
+   * @return the value
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    V value = get(key);
+
+    if (value == null) {
+      value = mappingFunction.apply(key);
+      if (value != null) {
+        put(key, value);
+      }
+    }
+
+    return value;
+  }
+
+  /**
+   * Removes all entries, the counters are not reset.
+   */
+  public void invalidateAll() {
+    for (Segment<K, V> segment : segments) {
+      segment.clear();
+    }
+  }
+
+  /**
+   * @return the number of entries
+   */
+  public long size() {
+    long size = 0;
+    for (Segment<K, V> segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * @return the sum of the weights of all entries
+   */
+  public long weight() {
+    long weight = 0;
+    for (Segment<K, V> segment : segments) {
+      weight += segment.weight();
+    }
+    return weight;
+  }
+
+  /**
+   * @return a snapshot of the counters of this cache
+   */
+  public CacheStats stats() {
+    return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size(), weight());
+  }
+
+  @Override
+  public String toString() {
+    return super.toString() + ": " + stats();
+  }
+
+  private static final class Node<V> {
+
+    private final V value;
+    private final long weight;
+    private int frequency;
+
+    Node(V value, long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * A part of the cache which is guarded by its own lock.
+   */
+  private static final class Segment<K, V> {
+
+    /** The number of least recently used entries the LFU policy chooses the victim from. */
+    private static final int LFU_SAMPLE_SIZE = 8;
+
+    private final long maxWeight;
+    private final EvictionPolicy policy;
+    private final LongAdder evictions;
+
+    private final LinkedHashMap<K, Node<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+    private long mainWeight;
+
+    // only used by W_TINY_LFU
+    private final LinkedHashMap<K, Node<V>> window;
+    private final long maxWindowWeight;
+    private long windowWeight;
+    private final FrequencySketch sketch;
+
+    Segment(long maxWeight, EvictionPolicy policy, LongAdder evictions) {
+      this.maxWeight = maxWeight;
+      this.policy = policy;
+      this.evictions = evictions;
+
+      if (policy == EvictionPolicy.W_TINY_LFU) {
+        window = new LinkedHashMap<>(16, 0.75f, true);
+        maxWindowWeight = Math.max(1, maxWeight / 100);
+        sketch = new FrequencySketch();
+      }
+      else {
+        window = null;
+        maxWindowWeight = 0;
+        sketch = null;
+      }
+    }
+
+    synchronized V get(K key, int hash) {
+      if (sketch != null) {
+        sketch.increment(hash);
+      }
+
+      Node<V> node = main.get(key);
+      if (node == null && window != null) {
+        node = window.get(key);
+      }
+
+      if (node != null) {
+        if (node.frequency < Integer.MAX_VALUE) {
+          node.frequency++;
+        }
+        return node.value;
+      }
+
+      return null;
+    }
+
+    synchronized void put(K key, int hash, V value, long weight) {
+      remove(key);
+
+      if (weight > maxWeight) {
+        return;
+      }
+
+      Node<V> node = new Node<>(value, weight);
+
+      if (window != null) {
+        window.put(key, node);
+        windowWeight += weight;
+
+        // the number of entries which fit into the segment, estimated with the average weight
+        long averageWeight = Math.max(1, (mainWeight + windowWeight) / (main.size() + window.size()));
+        sketch.ensureCapacity(maxWeight / averageWeight);
+
+        while (windowWeight > maxWindowWeight && !window.isEmpty()) {
+          Iterator<Map.Entry<K, Node<V>>> it = window.entrySet().iterator();
+          Map.Entry<K, Node<V>> candidate = it.next();
+          it.remove();
+          windowWeight -= candidate.getValue().weight;
+          admit(candidate.getKey(), candidate.getValue());
+        }
+      }
+      else {
+        main.put(key, node);
+        mainWeight += weight;
+
+        while (mainWeight > maxWeight) {
+          evict(key);
+        }
+      }
+    }
+
+    private void remove(K key) {
+      Node<V> old = main.remove(key);
+      if (old != null) {
+        mainWeight -= old.weight;
+      }
+      else if (window != null) {
+        old = window.remove(key);
+        if (old != null) {
+          windowWeight -= old.weight;
+        }
+      }
+    }
+
+    /**
+     * Moves an entry which left the window to the main area if it was used more
+     * frequently than the entries which would be evicted for it.
+     */
+    private void admit(K key, Node<V> candidate) {
+      long maxMainWeight = maxWeight - maxWindowWeight;
+
+      if (candidate.weight > maxMainWeight) {
+        evictions.increment();
+        return;
+      }
+
+      int candidateFrequency = sketch.frequency(spread(key.hashCode()));
+
+      while (mainWeight + candidate.weight > maxMainWeight) {
+        Iterator<Map.Entry<K, Node<V>>> it = main.entrySet().iterator();
+        Map.Entry<K, Node<V>> victim = it.next();
+
+        if (candidateFrequency <= sketch.frequency(spread(victim.getKey().hashCode()))) {
+          evictions.increment();
+          return;
+        }
+
+        it.remove();
+        mainWeight -= victim.getValue().weight;
+        evictions.increment();
+      }
+
+      main.put(key, candidate);
+      mainWeight += candidate.weight;
+    }
+
+    /**
+     * Evicts an entry, the LFU policy never evicts the entry which was just
+     * added because it had no chance to be used yet.
+     */
+    private void evict(K addedKey) {
+      Iterator<Map.Entry<K, Node<V>>> it = main.entrySet().iterator();
+
+      if (policy == EvictionPolicy.LFU && main.size() > 1) {
+        K victim = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        for (int i = 0; i < LFU_SAMPLE_SIZE && it.hasNext(); i++) {
+          Map.Entry<K, Node<V>> entry = it.next();
+          if (entry.getKey().equals(addedKey)) {
+            continue;
+          }
+          if (entry.getValue().frequency < victimFrequency) {
+            victim = entry.getKey();
+            victimFrequency = entry.getValue().frequency;
+          }
+        }
+        mainWeight -= main.remove(victim).weight;
+      }
+      else {
+        Map.Entry<K, Node<V>> eldest = it.next();
+        it.remove();
+        mainWeight -= eldest.getValue().weight;
+      }
+
+      evictions.increment();
+    }
+
+    synchronized void clear() {
+      main.clear();
+      mainWeight = 0;
+      if (window != null) {
+        window.clear();
+        windowWeight = 0;
+      }
+    }
+
+    synchronized int size() {
+      return main.size() + (window != null ? window.size() : 0);
+    }
+
+    synchronized long weight() {
+      return mainWeight + windowWeight;
+    }
+  }
+
+  /**
+   * A count-min sketch with four rows of 4-bit saturating counters packed into
+   * longs, it estimates how often a key hash was accessed. All counters are
+   * halved after a number of increments so that old accesses lose their weight.
+   * <p>
+   * The table has about one long per entry of the cache. The number of entries which
+   * fit into a weight budget is not known in advance, the table starts small and grows
+   * with the estimated number of entries, growing discards the counts.
+   */
+  static final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private static final int MIN_LENGTH = 16;
+    private static final int MAX_LENGTH = 1 << 13;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    FrequencySketch() {
+      resize(MIN_LENGTH);
+    }
+
+    /**
+     * Grows the table if it is too small for the given number of entries.
+     *
+     * @param entries the expected number of entries of the cache
+     */
+    void ensureCapacity(long entries) {
+      if (entries > table.length && table.length < MAX_LENGTH) {
+        int length = table.length;
+        while (length < Math.min(entries, MAX_LENGTH)) {
+          length <<= 1;
+        }
+        resize(length);
+      }
+    }
+
+    private void resize(int length) {
+      table = new long[length];
+      tableMask = length - 1;
+      sampleSize = 10 * 16 * length;
+      size = 0;
+    }
+
+    int length() {
+      return table.length;
+    }
+
+    private int index(int hash, int row) {
+      long h = (hash + SEEDS[row]) * SEEDS[row];
+      h += h >>> 32;
+      return (int) h & tableMask;
+    }
+
+    int frequency(int hash) {
+      int start = (hash & 3) << 2;
+      int frequency = Integer.MAX_VALUE;
+      for (int row = 0; row < 4; row++) {
+        int offset = (start + row) << 2;
+        int count = (int) ((table[index(hash, row)] >>> offset) & 0xfL);
+        frequency = Math.min(frequency, count);
+      }
+      return frequency;
+    }
+
+    void increment(int hash) {
+      int start = (hash & 3) << 2;
+      boolean added = false;
+      for (int row = 0; row < 4; row++) {
+        int i = index(hash, row);
+        int offset = (start + row) << 2;
+        long mask = 0xfL << offset;
+        if ((table[i] & mask) != mask) {
+          table[i] += 1L << offset;
+          added = true;
+        }
+      }
+
+      if (added && ++size == sampleSize) {
+        for (int i = 0; i < table.length; i++) {
+          table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size /= 2;
+      }
+    }
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.cache;
+
+/**
+ * The eviction policies supported by the {@link ConcurrentCache}.
+ */
+public enum EvictionPolicy {
+
+  /**
+   * Evicts the least recently used entry.
+   */
+  LRU,
+
+  /**
+   * Evicts the least frequently used entry among a sample of the least
+   * recently used entries.
+   */
+  LFU,
+
+  /**
+   * New entries are kept in a small LRU window, when they leave the window they are
+   * only admitted to the main LRU area if they were accessed more frequently
+   * than the entry which would be evicted for them. The access frequencies are
+   * estimated with a periodically aged count-min sketch.
+   */
+  W_TINY_LFU
+}
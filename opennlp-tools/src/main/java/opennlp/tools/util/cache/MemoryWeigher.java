@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.cache;
+
+import java.util.Collection;
+
+/**
+ * A {@link Weigher} which estimates the heap size of an entry in bytes.
+ *
+ * @see Weigher#memory()
+ */
+final class MemoryWeigher<K, V> implements Weigher<K, V> {
+
+  /** The estimated overhead of the entry and the map node in bytes. */
+  private static final long ENTRY_OVERHEAD = 64;
+
+  @Override
+  public long weigh(K key, V value) {
+    return ENTRY_OVERHEAD + estimateSize(key) + estimateSize(value);
+  }
+
+  /**
+   * Estimates the heap size of an object in bytes.
+   *
+   * @param o the object
+   * @return the estimated size
+   */
+  private static long estimateSize(Object o) {
+    if (o == null) {
+      return 0;
+    }
+    else if (o instanceof String) {
+      return 40 + 2L * ((String) o).length();
+    }
+    else if (o instanceof ArrayKey) {
+      return 24 + estimateSize(((ArrayKey) o).getArray());
+    }
+    else if (o instanceof Object[]) {
+      long size = 16 + 4L * ((Object[]) o).length;
+      for (Object element : (Object[]) o) {
+        size += estimateSize(element);
+      }
+      return size;
+    }
+    else if (o instanceof Collection) {
+      long size = 40 + 4L * ((Collection<?>) o).size();
+      for (Object element : (Collection<?>) o) {
+        size += estimateSize(element);
+      }
+      return size;
+    }
+    else if (o instanceof double[]) {
+      return 16 + 8L * ((double[]) o).length;
+    }
+    else if (o instanceof long[]) {
+      return 16 + 8L * ((long[]) o).length;
+    }
+    else if (o instanceof int[]) {
+      return 16 + 4L * ((int[]) o).length;
+    }
+    else if (o instanceof float[]) {
+      return 16 + 4L * ((float[]) o).length;
+    }
+    else if (o instanceof char[]) {
+      return 16 + 2L * ((char[]) o).length;
+    }
+    else if (o instanceof byte[]) {
+      return 16 + ((byte[]) o).length;
+    }
+    return 16;
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.cache;
+
+/**
+ * Computes the weight of a cache entry, the {@link ConcurrentCache} keeps
+ * the sum of the weights of its entries below its maximum weight.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+  /**
+   * Computes the weight of an entry.
+   *
+   * @param key the key
+   * @param value the value
+   * @return the weight, must not be negative
+   */
+  long weigh(K key, V value);
+
+  /**
+   * Retrieves a weigher which gives every entry the weight one, the maximum
+   * weight of the cache is then the maximum number of entries.
+   *
+   * @return the weigher
+   */
+  static <K, V> Weigher<K, V> entries() {
+    return (key, value) -> 1;
+  }
+
+  /**
+   * Retrieves a weigher which estimates the heap size of an entry in bytes.
+   * Strings, arrays of strings and primitives, collections and {@link ArrayKey}s
+   * are measured, other objects are counted with a fixed size.
+   *
+   * @return the weigher
+   */
+  static <K, V> Weigher<K, V> memory() {
+    return new MemoryWeigher<>();
+  }
+}
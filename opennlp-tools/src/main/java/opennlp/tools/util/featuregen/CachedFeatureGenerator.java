@@ -20,8 +20,11 @@ package opennlp.tools.util.featuregen;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import opennlp.tools.util.Cache;
+import opennlp.tools.util.cache.ArrayKey;
+import opennlp.tools.util.cache.ConcurrentCache;
 
 /**
  * Caches features of the aggregated {@link AdaptiveFeatureGenerator}s.
@@ -34,6 +37,9 @@ public class CachedFeatureGenerator implements AdaptiveFeatureGenerator {
 
   private Cache<Integer, List<String>> contextsCache;
 
+  private ConcurrentCache<ArrayKey, List<String>> sharedCache;
+  private Object namespace;
+
   private long numberOfCacheHits;
   private long numberOfCacheMisses;
 
@@ -48,11 +54,63 @@ public class CachedFeatureGenerator implements AdaptiveFeatureGenerator {
     contextsCache = new Cache<>(100);
   }
 
+  /**
+   * Initializes the generator with a cache which can be shared between threads
+   * and sentences. The features are keyed by the namespace, the content of the
+   * sentence and the token index. Generators which create identical features,
+   * e.g. the generators created for the threads of one model, can share their
+   * entries by using the same namespace, e.g. the model. The aggregated generators
+   * must not use adaptive data or the previous outcomes.
+   *
+   * @param namespace the namespace of the cache keys, compared by identity
+   * @param generator the generator to cache
+   * @param sharedCache the cache
+   */
+  public CachedFeatureGenerator(Object namespace, AdaptiveFeatureGenerator generator,
+      ConcurrentCache<ArrayKey, List<String>> sharedCache) {
+    this.generator = generator;
+    this.sharedCache = sharedCache;
+    this.namespace = Objects.requireNonNull(namespace, "namespace must not be null");
+  }
+
+  /**
+   * Initializes the generator with a cache which can be shared between threads
+   * and sentences. The entries of this generator are not shared with other
+   * generators.
+   *
+   * @param generator the generator to cache
+   * @param sharedCache the cache
+   */
+  public CachedFeatureGenerator(AdaptiveFeatureGenerator generator,
+      ConcurrentCache<ArrayKey, List<String>> sharedCache) {
+    this.generator = generator;
+    this.sharedCache = sharedCache;
+    this.namespace = this;
+  }
+
   public void createFeatures(List<String> features, String[] tokens, int index,
       String[] previousOutcomes) {
 
     List<String> cacheFeatures;
 
+    if (sharedCache != null) {
+      ArrayKey key = new ArrayKey(namespace, tokens, index);
+      cacheFeatures = sharedCache.get(key);
+
+      if (cacheFeatures != null) {
+        numberOfCacheHits++;
+      }
+      else {
+        numberOfCacheMisses++;
+        cacheFeatures = new ArrayList<>();
+        generator.createFeatures(cacheFeatures, tokens, index, previousOutcomes);
+        sharedCache.put(new ArrayKey(namespace, tokens.clone(), index), cacheFeatures);
+      }
+
+      features.addAll(cacheFeatures);
+      return;
+    }
+
     if (tokens == prevTokens) {
       cacheFeatures = contextsCache.get(index);
 
@@ -113,4 +171,8 @@ public class CachedFeatureGenerator implements AdaptiveFeatureGenerator {
   public AdaptiveFeatureGenerator getCachedFeatureGenerator() {
     return generator;
   }
+
+  boolean hasSharedCache() {
+    return sharedCache != null;
+  }
 }
@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.featuregen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A feature generator which evaluates a tree of {@link AdaptiveFeatureGenerator}s,
+ * as created by the {@link GeneratorFactory} from a descriptor, with less work per
+ * token than the tree itself.
+ * <p>
+ * The tree is analyzed once. Generators whose features only depend on the tokens of the
+ * sentence and the token index, but not on the previous outcomes, are base generators.
+ * Their features are computed at most once per sentence and position into a columnar
+ * buffer. A {@link WindowFeatureGenerator} over a base generator reads the features of the
+ * neighbor positions from that buffer instead of running its generator again for every
+ * position of the window. The features of consecutive base and window generators are
+ * assembled once per position, a beam search which asks for the features of the same
+ * position several times only copies them. All other generators are called for every
+ * request, exactly like in the tree.
+ * <p>
+ * The generated features and their order are identical to the ones of the tree. A new
+ * sentence is detected by the identity of the tokens array, like in the
+ * {@link CachedFeatureGenerator}, and the buffered features are discarded when the
+ * adaptive data changes.
+ */
+public class CompiledFeatureGenerator implements AdaptiveFeatureGenerator {
+
+  /**
+   * Generators which do not read the previous outcomes. A generator with adaptive data
+   * only updates it between sentences.
+   */
+  private static final Set<Class<?>> BASE_GENERATORS = new HashSet<>(Arrays.asList(
+      BigramNameFeatureGenerator.class,
+      BrownBigramFeatureGenerator.class,
+      BrownTokenClassFeatureGenerator.class,
+      BrownTokenFeatureGenerator.class,
+      CharacterNgramFeatureGenerator.class,
+      DictionaryFeatureGenerator.class,
+      DocumentBeginFeatureGenerator.class,
+      InSpanGenerator.class,
+      OutcomePriorFeatureGenerator.class,
+      POSTaggerNameFeatureGenerator.class,
+      PrefixFeatureGenerator.class,
+      PreviousMapFeatureGenerator.class,
+      PreviousTwoMapFeatureGenerator.class,
+      SentenceFeatureGenerator.class,
+      SuffixFeatureGenerator.class,
+      TokenClassFeatureGenerator.class,
+      TokenFeatureGenerator.class,
+      TokenPatternFeatureGenerator.class,
+      TrigramNameFeatureGenerator.class,
+      WordClusterFeatureGenerator.class));
+
+  /**
+   * Produces the features of a base or window generator for one position.
+   */
+  private interface Emitter {
+    void emit(List<String> features, int index);
+  }
+
+  /**
+   * Consecutive emitters whose features are assembled once per position,
+   * or a generator which is called for every request.
+   */
+  private static class Segment {
+    final Emitter[] emitters;
+    final AdaptiveFeatureGenerator generator;
+
+    Segment(Emitter[] emitters) {
+      this.emitters = emitters;
+      this.generator = null;
+    }
+
+    Segment(AdaptiveFeatureGenerator generator) {
+      this.emitters = null;
+      this.generator = generator;
+    }
+  }
+
+  private final AdaptiveFeatureGenerator generator;
+
+  private final AdaptiveFeatureGenerator[] baseGenerators;
+
+  private final Segment[] segments;
+
+  private String[] tokens;
+  private String[] previousOutcomes;
+
+  // Features of base generator b at position i are in columns[b][i]
+  private String[][][] columns;
+
+  // Assembled features of the s-th segment at position i are in assembled[s][i]
+  private String[][][] assembled;
+
+  private final List<String> buffer = new ArrayList<>();
+
+  /**
+   * Initializes the current instance.
+   *
+   * @param generator the feature generator tree to compile
+   */
+  public CompiledFeatureGenerator(AdaptiveFeatureGenerator generator) {
+    this.generator = Objects.requireNonNull(generator, "generator must not be null");
+
+    Map<AdaptiveFeatureGenerator, Integer> baseIds = new IdentityHashMap<>();
+    List<Segment> segmentList = new ArrayList<>();
+    List<Emitter> emitters = new ArrayList<>();
+    compile(generator, baseIds, segmentList, emitters);
+    flush(segmentList, emitters);
+
+    this.baseGenerators = new AdaptiveFeatureGenerator[baseIds.size()];
+    for (Map.Entry<AdaptiveFeatureGenerator, Integer> entry : baseIds.entrySet()) {
+      baseGenerators[entry.getValue()] = entry.getKey();
+    }
+    this.segments = segmentList.toArray(new Segment[segmentList.size()]);
+
+    this.columns = new String[baseGenerators.length][0][];
+    this.assembled = new String[segments.length][0][];
+  }
+
+  private void compile(AdaptiveFeatureGenerator generator,
+      Map<AdaptiveFeatureGenerator, Integer> baseIds, List<Segment> segments,
+      List<Emitter> emitters) {
+
+    if (generator instanceof AggregatedFeatureGenerator) {
+      for (AdaptiveFeatureGenerator aggregated
+          : ((AggregatedFeatureGenerator) generator).getGenerators()) {
+        compile(aggregated, baseIds, segments, emitters);
+      }
+    }
+    else if (generator instanceof CachedFeatureGenerator
+        && !((CachedFeatureGenerator) generator).hasSharedCache()) {
+      // the buffer of this generator replaces the cache
+      compile(((CachedFeatureGenerator) generator).getCachedFeatureGenerator(),
+          baseIds, segments, emitters);
+    }
+    else if (generator instanceof WindowFeatureGenerator
+        && isBase(((WindowFeatureGenerator) generator).getGenerator())) {
+      WindowFeatureGenerator window = (WindowFeatureGenerator) generator;
+      int base = baseId(window.getGenerator(), baseIds);
+      emitters.add(new WindowEmitter(base, window.getPrevWindowSize(),
+          window.getNextWindowSize()));
+    }
+    else if (isBase(generator)) {
+      int base = baseId(generator, baseIds);
+      emitters.add((features, index) -> Collections.addAll(features, column(base, index)));
+    }
+    else {
+      flush(segments, emitters);
+      segments.add(new Segment(generator));
+    }
+  }
+
+  private static void flush(List<Segment> segments, List<Emitter> emitters) {
+    if (!emitters.isEmpty()) {
+      segments.add(new Segment(emitters.toArray(new Emitter[emitters.size()])));
+      emitters.clear();
+    }
+  }
+
+  private static int baseId(AdaptiveFeatureGenerator generator,
+      Map<AdaptiveFeatureGenerator, Integer> baseIds) {
+    return baseIds.computeIfAbsent(generator, g -> baseIds.size());
+  }
+
+  /**
+   * Checks if the features of the generator do not depend on the previous outcomes.
+   */
+  static boolean isBase(AdaptiveFeatureGenerator generator) {
+    if (generator instanceof AggregatedFeatureGenerator) {
+      for (AdaptiveFeatureGenerator aggregated
+          : ((AggregatedFeatureGenerator) generator).getGenerators()) {
+        if (!isBase(aggregated)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    else if (generator instanceof CachedFeatureGenerator) {
+      return isBase(((CachedFeatureGenerator) generator).getCachedFeatureGenerator());
+    }
+    else if (generator instanceof WindowFeatureGenerator) {
+      return isBase(((WindowFeatureGenerator) generator).getGenerator());
+    }
+
+    return BASE_GENERATORS.contains(generator.getClass());
+  }
+
+  private class WindowEmitter implements Emitter {
+
+    private final int base;
+    private final String[] prevPrefixes;
+    private final String[] nextPrefixes;
+
+    WindowEmitter(int base, int prevWindowSize, int nextWindowSize) {
+      this.base = base;
+
+      prevPrefixes = new String[prevWindowSize];
+      for (int i = 1; i <= prevWindowSize; i++) {
+        prevPrefixes[i - 1] = WindowFeatureGenerator.PREV_PREFIX + i;
+      }
+
+      nextPrefixes = new String[nextWindowSize];
+      for (int i = 1; i <= nextWindowSize; i++) {
+        nextPrefixes[i - 1] = WindowFeatureGenerator.NEXT_PREFIX + i;
+      }
+    }
+
+    public void emit(List<String> features, int index) {
+      Collections.addAll(features, column(base, index));
+
+      for (int i = 1; i <= prevPrefixes.length && index - i >= 0; i++) {
+        for (String feature : column(base, index - i)) {
+          features.add(prevPrefixes[i - 1] + feature);
+        }
+      }
+
+      for (int i = 1; i <= nextPrefixes.length && index + i < tokens.length; i++) {
+        for (String feature : column(base, index + i)) {
+          features.add(nextPrefixes[i - 1] + feature);
+        }
+      }
+    }
+  }
+
+  /**
+   * Retrieves the features of a base generator at a position, they are computed
+   * on the first request in a sentence.
+   */
+  private String[] column(int base, int index) {
+    String[] features = columns[base][index];
+
+    if (features == null) {
+      buffer.clear();
+      baseGenerators[base].createFeatures(buffer, tokens, index, previousOutcomes);
+      features = buffer.toArray(new String[buffer.size()]);
+      columns[base][index] = features;
+    }
+
+    return features;
+  }
+
+  private void startSentence(String[] tokens) {
+    this.tokens = tokens;
+
+    for (int b = 0; b < columns.length; b++) {
+      if (columns[b].length < tokens.length) {
+        columns[b] = new String[tokens.length][];
+      }
+      else {
+        Arrays.fill(columns[b], 0, tokens.length, null);
+      }
+    }
+
+    for (int s = 0; s < assembled.length; s++) {
+      if (assembled[s].length < tokens.length) {
+        assembled[s] = new String[tokens.length][];
+      }
+      else {
+        Arrays.fill(assembled[s], 0, tokens.length, null);
+      }
+    }
+  }
+
+  public void createFeatures(List<String> features, String[] tokens, int index,
+      String[] previousOutcomes) {
+
+    if (tokens != this.tokens) {
+      startSentence(tokens);
+    }
+
+    this.previousOutcomes = previousOutcomes;
+
+    for (int s = 0; s < segments.length; s++) {
+      Segment segment = segments[s];
+
+      if (segment.generator != null) {
+        segment.generator.createFeatures(features, tokens, index, previousOutcomes);
+        continue;
+      }
+
+      String[] segmentFeatures = assembled[s][index];
+      if (segmentFeatures == null) {
+        List<String> emitted = new ArrayList<>();
+        for (Emitter emitter : segment.emitters) {
+          emitter.emit(emitted, index);
+        }
+        segmentFeatures = emitted.toArray(new String[emitted.size()]);
+        assembled[s][index] = segmentFeatures;
+      }
+
+      Collections.addAll(features, segmentFeatures);
+    }
+  }
+
+  public void updateAdaptiveData(String[] tokens, String[] outcomes) {
+    generator.updateAdaptiveData(tokens, outcomes);
+    this.tokens = null;
+  }
+
+  public void clearAdaptiveData() {
+    generator.clearAdaptiveData();
+    this.tokens = null;
+  }
+
+  /**
+   * Retrieves the compiled feature generator tree.
+   *
+   * @return the compiled generator
+   */
+  public AdaptiveFeatureGenerator getCompiledFeatureGenerator() {
+    return generator;
+  }
+}
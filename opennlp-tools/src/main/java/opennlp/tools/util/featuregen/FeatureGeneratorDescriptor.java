@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.featuregen;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import org.w3c.dom.Element;
+
+/**
+ * A parsed XML feature generator descriptor. The descriptor is parsed once and the
+ * generators are created from the parsed elements, a tool which creates a generator
+ * per thread or per instance does not parse the descriptor again.
+ * <p>
+ * Instances are thread-safe, the generators are created one at a time because the
+ * parsed elements must not be read concurrently.
+ *
+ * @see GeneratorFactory#create(java.io.InputStream, FeatureGeneratorResourceProvider)
+ */
+public class FeatureGeneratorDescriptor {
+
+  private final byte[] descriptor;
+
+  private final Element generatorElement;
+
+  /**
+   * Parses the descriptor.
+   *
+   * @param descriptor the XML descriptor
+   *
+   * @throws IOException if the descriptor is not valid XML
+   */
+  public FeatureGeneratorDescriptor(byte[] descriptor) throws IOException {
+    this.descriptor = descriptor;
+    this.generatorElement = GeneratorFactory.createDOM(
+        new ByteArrayInputStream(descriptor)).getDocumentElement();
+  }
+
+  /**
+   * Checks if this was parsed from the given descriptor.
+   *
+   * @param descriptor the XML descriptor, compared by identity
+   * @return true if this was parsed from the descriptor, false otherwise
+   */
+  public boolean isParsedFrom(byte[] descriptor) {
+    return this.descriptor == descriptor;
+  }
+
+  /**
+   * Creates new feature generators from the descriptor.
+   *
+   * @param resourceManager the resource manager which is used to resolve resources
+   *     referenced by a key in the descriptor
+   *
+   * @return created feature generators
+   *
+   * @throws IOException if the generators can't be created from the descriptor
+   */
+  // createGenerator is the only path which still reads the classic descriptor format
+  @SuppressWarnings("deprecation")
+  public synchronized AdaptiveFeatureGenerator create(
+      FeatureGeneratorResourceProvider resourceManager) throws IOException {
+    return GeneratorFactory.createGenerator(generatorElement, resourceManager);
+  }
+}
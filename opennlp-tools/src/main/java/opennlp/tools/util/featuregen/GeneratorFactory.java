@@ -551,7 +551,7 @@ public class GeneratorFactory {
     }
   }
 
-  private static org.w3c.dom.Document createDOM(InputStream xmlDescriptorIn)
+  static org.w3c.dom.Document createDOM(InputStream xmlDescriptorIn)
       throws IOException {
 
     DocumentBuilder documentBuilder = XmlUtil.createDocumentBuilder();
@@ -110,6 +110,23 @@ public class WindowFeatureGenerator implements AdaptiveFeatureGenerator {
     }
   }
 
+  /**
+   * Retrieves the feature generator which is applied to the window.
+   *
+   * @return the generator
+   */
+  public AdaptiveFeatureGenerator getGenerator() {
+    return generator;
+  }
+
+  public int getPrevWindowSize() {
+    return prevWindowSize;
+  }
+
+  public int getNextWindowSize() {
+    return nextWindowSize;
+  }
+
   public void updateAdaptiveData(String[] tokens, String[] outcomes) {
     generator.updateAdaptiveData(tokens, outcomes);
   }
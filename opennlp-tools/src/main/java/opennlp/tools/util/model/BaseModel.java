@@ -19,9 +19,10 @@ package opennlp.tools.util.model;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
@@ -29,16 +30,25 @@ import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.FeatureHasher;
+import opennlp.tools.ml.model.HashedModel;
+import opennlp.tools.ml.model.MaxentModel;
 import opennlp.tools.util.BaseToolFactory;
 import opennlp.tools.util.InvalidFormatException;
 import opennlp.tools.util.Version;
@@ -68,6 +78,9 @@ public abstract class BaseModel implements ArtifactProvider, Serializable {
 
   private static String SERIALIZER_CLASS_NAME_PREFIX = "serializer-class-";
 
+  /** The id of the zip extra field which aligns the data of mapped entries. */
+  private static final int ALIGNMENT_EXTRA_FIELD_ID = 0xD935;
+
   private Map<String, ArtifactSerializer> artifactSerializers = new HashMap<>();
 
   protected Map<String, Object> artifactMap = new HashMap<>();
@@ -81,6 +94,9 @@ public abstract class BaseModel implements ArtifactProvider, Serializable {
 
   private boolean isLoadedFromSerialized;
 
+  /** The hashed models by entry name, created on first use. */
+  private transient volatile Map<String, HashedModel> hashedModels;
+
   private BaseModel(String componentName, boolean isLoadedFromSerialized) {
     this.isLoadedFromSerialized = isLoadedFromSerialized;
 
@@ -179,9 +195,7 @@ public abstract class BaseModel implements ArtifactProvider, Serializable {
   protected BaseModel(String componentName, File modelFile) throws IOException  {
     this(componentName, true);
 
-    try (InputStream in = new BufferedInputStream(new FileInputStream(modelFile))) {
-      loadModel(in);
-    }
+    loadModel(modelFile);
   }
 
   protected BaseModel(String componentName, URL modelURL) throws IOException  {
@@ -297,29 +311,89 @@ public abstract class BaseModel implements ArtifactProvider, Serializable {
       // there should be no need to prevent that.
 
       String entryName = entry.getName();
-      String extension = getEntryExtension(entryName);
+      artifactMap.put(entryName, getEntrySerializer(entryName).create(zip));
+
+      zip.closeEntry();
+    }
 
-      ArtifactSerializer factory = artifactSerializers.get(extension);
+    this.artifactMap.putAll(artifactMap);
 
-      String artifactSerializerClazzName =
-          getManifestProperty(SERIALIZER_CLASS_NAME_PREFIX + entryName);
+    finishedLoadingArtifacts = true;
+  }
 
-      if (artifactSerializerClazzName != null) {
-        factory = ExtensionLoader.instantiateExtension(ArtifactSerializer.class, artifactSerializerClazzName);
-      }
+  /**
+   * Loads the model from a file. The entries are read through random access, the
+   * uncompressed entries of mapped models are mapped from the file instead.
+   */
+  private void loadModel(File modelFile) throws IOException {
+
+    Objects.requireNonNull(modelFile, "modelFile must not be null");
+
+    createBaseArtifactSerializers(artifactSerializers);
+
+    Map<String, Object> artifactMap = new HashMap<>();
 
-      if (factory != null) {
-        artifactMap.put(entryName, factory.create(zip));
-      } else {
-        throw new InvalidFormatException("Unknown artifact format: " + extension);
+    try (ZipFile zip = new ZipFile(modelFile);
+         ZipEntryLocator locator = new ZipEntryLocator(modelFile)) {
+
+      ZipEntry manifestEntry = zip.getEntry(MANIFEST_ENTRY);
+      if (manifestEntry != null) {
+        try (InputStream in = zip.getInputStream(manifestEntry)) {
+          this.artifactMap.put(MANIFEST_ENTRY, artifactSerializers.get("properties").create(in));
+        }
       }
 
-      zip.closeEntry();
+      initializeFactory();
+
+      loadArtifactSerializers();
+
+      Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        String entryName = entry.getName();
+
+        ArtifactSerializer factory = getEntrySerializer(entryName);
+
+        if (factory instanceof MappedModelSerializer && entry.getMethod() == ZipEntry.STORED) {
+          artifactMap.put(entryName, ((MappedModelSerializer) factory).map(modelFile,
+              locator.getDataOffset(entryName), entry.getSize()));
+        }
+        else {
+          try (InputStream in = zip.getInputStream(entry)) {
+            artifactMap.put(entryName, factory.create(in));
+          }
+        }
+      }
     }
 
     this.artifactMap.putAll(artifactMap);
 
     finishedLoadingArtifacts = true;
+
+    checkArtifactMap();
+  }
+
+  /**
+   * Retrieves the serializer of an entry, a serializer class in the manifest
+   * overrides the serializer of the entry extension.
+   */
+  private ArtifactSerializer getEntrySerializer(String entryName) throws InvalidFormatException {
+    String extension = getEntryExtension(entryName);
+
+    ArtifactSerializer factory = artifactSerializers.get(extension);
+
+    String artifactSerializerClazzName =
+        getManifestProperty(SERIALIZER_CLASS_NAME_PREFIX + entryName);
+
+    if (artifactSerializerClazzName != null) {
+      factory = ExtensionLoader.instantiateExtension(ArtifactSerializer.class, artifactSerializerClazzName);
+    }
+
+    if (factory == null) {
+      throw new InvalidFormatException("Unknown artifact format: " + extension);
+    }
+
+    return factory;
   }
 
   /**
@@ -449,6 +523,16 @@ public abstract class BaseModel implements ArtifactProvider, Serializable {
       throw new InvalidFormatException("Missing " + LANGUAGE_PROPERTY + " property in " +
           MANIFEST_ENTRY + "!");
 
+    String featureHashBits = getManifestProperty(HashedModel.BITS_PROPERTY);
+    if (featureHashBits != null) {
+      try {
+        FeatureHasher.checkBits(Integer.parseInt(featureHashBits));
+      } catch (IllegalArgumentException e) {
+        throw new InvalidFormatException("Invalid " + HashedModel.BITS_PROPERTY + " property in "
+            + MANIFEST_ENTRY + ": " + featureHashBits, e);
+      }
+    }
+
     // Validate the factory. We try to load it using the ExtensionLoader. It
     // will return the factory, null or raise an exception
     String factoryName = getManifestProperty(FACTORY_NAME);
@@ -506,6 +590,62 @@ public abstract class BaseModel implements ArtifactProvider, Serializable {
     return manifest.getProperty(key);
   }
 
+  /**
+   * Retrieves the maxent model of the given entry. A model which was trained on hashed
+   * features, see {@link opennlp.tools.ml.model.HashingDataIndexer}, is returned as a
+   * {@link HashedModel}, which is created on the first call and shared by all callers.
+   * Components should retrieve their maxent models with this method, the
+   * {@link HashedModel#BITS_PROPERTY} applies to all maxent models of the component.
+   *
+   * @param entryName the name of the model entry
+   *
+   * @return the model, or null if the entry is not a maxent model
+   */
+  protected final MaxentModel getMaxentModel(String entryName) {
+    Object artifact = artifactMap.get(entryName);
+    if (!(artifact instanceof MaxentModel)) {
+      return null;
+    }
+
+    String featureHashBits = getManifestProperty(HashedModel.BITS_PROPERTY);
+    if (featureHashBits == null) {
+      return (MaxentModel) artifact;
+    }
+
+    Map<String, HashedModel> models = hashedModels;
+    if (models == null) {
+      synchronized (this) {
+        models = hashedModels;
+        if (models == null) {
+          models = new ConcurrentHashMap<>();
+          hashedModels = models;
+        }
+      }
+    }
+
+    return models.computeIfAbsent(entryName, name -> new HashedModel((MaxentModel) artifact,
+        Integer.parseInt(featureHashBits),
+        Boolean.parseBoolean(getManifestProperty(HashedModel.SIGNED_PROPERTY))));
+  }
+
+  /**
+   * Retrieves the maxent model of the given entry for evaluation, a model which can be
+   * compiled is returned in its compiled form, see {@link AbstractModel#compile()}.
+   * The compiled form is shared by all callers and the model keeps no other copy of
+   * its parameters.
+   *
+   * @param entryName the name of the model entry
+   *
+   * @return the model, or null if the entry is not a maxent model
+   */
+  protected final MaxentModel getCompiledMaxentModel(String entryName) {
+    MaxentModel model = getMaxentModel(entryName);
+    if (model instanceof AbstractModel && ((AbstractModel) model).isCompilable()) {
+      return ((AbstractModel) model).compile();
+    }
+    return model;
+  }
+
   /**
    * Sets a given value for a given key to the manifest.properties entry.
    *
@@ -567,13 +707,17 @@ public abstract class BaseModel implements ArtifactProvider, Serializable {
         setManifestProperty(SERIALIZER_CLASS_NAME_PREFIX + name,
             artifactSerializerName);
       }
+      else if (MappedModelSerializer.isSupported(artifact)) {
+        setManifestProperty(SERIALIZER_CLASS_NAME_PREFIX + name,
+            MappedModelSerializer.class.getName());
+      }
     }
 
-    ZipOutputStream zip = new ZipOutputStream(out);
+    CountingOutputStream counter = new CountingOutputStream(out);
+    ZipOutputStream zip = new ZipOutputStream(counter);
 
     for (Entry<String, Object> entry : artifactMap.entrySet()) {
       String name = entry.getKey();
-      zip.putNextEntry(new ZipEntry(name));
 
       Object artifact = entry.getValue();
 
@@ -589,20 +733,91 @@ public abstract class BaseModel implements ArtifactProvider, Serializable {
 
         serializer = ExtensionLoader.instantiateExtension(ArtifactSerializer.class, artifactSerializerName);
       }
+      else if (MappedModelSerializer.isSupported(artifact)) {
+        serializer = new MappedModelSerializer();
+      }
 
       if (serializer == null) {
         throw new IllegalStateException("Missing serializer for " + name);
       }
 
-      serializer.serialize(artifactMap.get(name), zip);
-
-      zip.closeEntry();
+      if (serializer instanceof MappedModelSerializer) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        serializer.serialize(artifact, content);
+        putAlignedEntry(zip, counter.getCount(), name, content.toByteArray());
+      }
+      else {
+        zip.putNextEntry(new ZipEntry(name));
+        serializer.serialize(artifact, zip);
+        zip.closeEntry();
+      }
     }
 
     zip.finish();
     zip.flush();
   }
 
+  /**
+   * Writes an uncompressed entry whose data starts at an eight byte boundary of the
+   * package, so that it can be mapped. The extra field of the local header is padded.
+   *
+   * @param offset the position of the local header of the entry
+   */
+  private static void putAlignedEntry(ZipOutputStream zip, long offset, String name, byte[] data)
+      throws IOException {
+    CRC32 crc = new CRC32();
+    crc.update(data);
+
+    ZipEntry entry = new ZipEntry(name);
+    entry.setMethod(ZipEntry.STORED);
+    entry.setSize(data.length);
+    entry.setCompressedSize(data.length);
+    entry.setCrc(crc.getValue());
+
+    // the padding is stored in an extra field with its own four byte header
+    long dataOffset = offset + ZipEntryLocator.LOCAL_HEADER_SIZE
+        + name.getBytes(StandardCharsets.UTF_8).length + 4;
+    int padding = (int) ((8 - dataOffset % 8) % 8);
+
+    byte[] extra = new byte[4 + padding];
+    extra[0] = (byte) ALIGNMENT_EXTRA_FIELD_ID;
+    extra[1] = (byte) (ALIGNMENT_EXTRA_FIELD_ID >> 8);
+    extra[2] = (byte) padding;
+    entry.setExtra(extra);
+
+    zip.putNextEntry(entry);
+    zip.write(data);
+    zip.closeEntry();
+  }
+
+  /**
+   * Counts the bytes written to a stream, to know the positions of the zip entries.
+   */
+  private static final class CountingOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+
+    long getCount() {
+      return count;
+    }
+  }
+
   public final void serialize(File model) throws IOException {
     try (OutputStream out = new BufferedOutputStream(new FileOutputStream(model))) {
       serialize(out);
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package opennlp.tools.util.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import opennlp.tools.ml.model.MappedModel;
+import opennlp.tools.ml.model.MappedModelWriter;
+import opennlp.tools.ml.model.MaxentModel;
+import opennlp.tools.ml.model.QuantizedModel;
+
+/**
+ * Serializes a {@link MappedModel} or a {@link QuantizedModel} in the format of
+ * {@link MappedModelWriter}, a quantized model is loaded as a {@link MappedModel}
+ * with the same precision.
+ * <p>
+ * {@link BaseModel} stores the entries of this serializer uncompressed and aligned to
+ * eight bytes. A model package which is loaded from a file maps these entries directly
+ * from the package file with {@link #map(File, long, long)}, when it is loaded from a
+ * stream the content of the entry is read into the heap.
+ */
+public class MappedModelSerializer implements ArtifactSerializer<MaxentModel> {
+
+  public MaxentModel create(InputStream in) throws IOException {
+    return MappedModel.wrap(ByteBuffer.wrap(ModelUtil.read(in)));
+  }
+
+  /**
+   * Maps the model from the uncompressed entry of a model package.
+   *
+   * @param file the model package
+   * @param offset the position of the entry data in the package
+   * @param size the size of the entry data
+   * @return the model
+   *
+   * @throws IOException if the entry can't be mapped
+   */
+  public MaxentModel map(File file, long offset, long size) throws IOException {
+    return MappedModel.map(file, offset, size);
+  }
+
+  public void serialize(MaxentModel artifact, OutputStream out) throws IOException {
+    if (!isSupported(artifact)) {
+      throw new IllegalArgumentException("Artifact can't be mapped: " + artifact.getClass().getName());
+    }
+
+    if (artifact instanceof QuantizedModel) {
+      new MappedModelWriter((QuantizedModel) artifact, out).persist();
+    }
+    else {
+      ((MappedModel) artifact).write(out);
+    }
+  }
+
+  /**
+   * Checks if an artifact is serialized with this serializer.
+   *
+   * @param artifact the artifact
+   * @return true if the artifact is a mapped or a quantized model
+   */
+  static boolean isSupported(Object artifact) {
+    return artifact instanceof MappedModel || artifact instanceof QuantizedModel;
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package opennlp.tools.util.model;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import opennlp.tools.util.InvalidFormatException;
+
+/**
+ * Locates the data of the entries of a zip file, which {@link java.util.zip.ZipFile}
+ * doesn't expose. The offsets of the local headers are read from the central
+ * directory on the first lookup, zip64 files are not supported.
+ */
+final class ZipEntryLocator implements Closeable {
+
+  private static final int END_SIGNATURE = 0x06054b50;
+  private static final int CENTRAL_SIGNATURE = 0x02014b50;
+  private static final int LOCAL_SIGNATURE = 0x04034b50;
+
+  private static final int END_SIZE = 22;
+  private static final int CENTRAL_HEADER_SIZE = 46;
+  static final int LOCAL_HEADER_SIZE = 30;
+
+  private final FileChannel channel;
+
+  /** The offsets of the local headers by entry name. */
+  private Map<String, Long> headerOffsets;
+
+  ZipEntryLocator(File file) throws IOException {
+    channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+  }
+
+  private Map<String, Long> readCentralDirectory() throws IOException {
+    // the end record is followed by a comment of at most 64k
+    int tailSize = (int) Math.min(channel.size(), END_SIZE + 0xFFFF);
+    ByteBuffer tail = read(channel.size() - tailSize, tailSize);
+
+    int end = tailSize - END_SIZE;
+    while (end >= 0 && tail.getInt(end) != END_SIGNATURE) {
+      end--;
+    }
+
+    if (end < 0) {
+      throw new InvalidFormatException("Missing the end of the zip central directory!");
+    }
+
+    int numEntries = tail.getShort(end + 10) & 0xFFFF;
+    long directorySize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+    long directoryOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+
+    if (numEntries == 0xFFFF || directoryOffset == 0xFFFFFFFFL) {
+      throw new InvalidFormatException("Zip64 model packages are not supported!");
+    }
+
+    ByteBuffer directory = read(directoryOffset, (int) directorySize);
+
+    Map<String, Long> headerOffsets = new HashMap<>();
+    int position = 0;
+    for (int i = 0; i < numEntries; i++) {
+      if (directory.getInt(position) != CENTRAL_SIGNATURE) {
+        throw new InvalidFormatException("Zip central directory is corrupt!");
+      }
+
+      int nameLength = directory.getShort(position + 28) & 0xFFFF;
+      int extraLength = directory.getShort(position + 30) & 0xFFFF;
+      int commentLength = directory.getShort(position + 32) & 0xFFFF;
+      long headerOffset = directory.getInt(position + 42) & 0xFFFFFFFFL;
+
+      byte[] name = new byte[nameLength];
+      directory.position(position + CENTRAL_HEADER_SIZE);
+      directory.get(name);
+      headerOffsets.put(new String(name, StandardCharsets.UTF_8), headerOffset);
+
+      position += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+    }
+
+    return headerOffsets;
+  }
+
+  private ByteBuffer read(long offset, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new InvalidFormatException("Zip file is truncated!");
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Retrieves the position of the data of an entry, the local header of the
+   * entry is read to skip its name and extra field.
+   *
+   * @param entryName the name of the entry
+   * @return the offset of the entry data
+   *
+   * @throws IOException if the entry doesn't exist or its header can't be read
+   */
+  long getDataOffset(String entryName) throws IOException {
+    if (headerOffsets == null) {
+      headerOffsets = readCentralDirectory();
+    }
+
+    Long headerOffset = headerOffsets.get(entryName);
+    if (headerOffset == null) {
+      throw new InvalidFormatException("Missing zip entry: " + entryName);
+    }
+
+    ByteBuffer header = read(headerOffset, LOCAL_HEADER_SIZE);
+    if (header.getInt(0) != LOCAL_SIGNATURE) {
+      throw new InvalidFormatException("Zip entry header is corrupt: " + entryName);
+    }
+
+    return headerOffset + LOCAL_HEADER_SIZE + (header.getShort(26) & 0xFFFF)
+        + (header.getShort(28) & 0xFFFF);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,995 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.util.normalizer;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * A normalizer which applies the rules of the {@link EmojiCharSequenceNormalizer},
+ * {@link UrlCharSequenceNormalizer}, {@link TwitterCharSequenceNormalizer},
+ * {@link NumberCharSequenceNormalizer} and {@link ShrinkCharSequenceNormalizer}
+ * in a single left to right scan over the text.
+ * <p>
+ * Each regular expression of these normalizers is replaced by a hand written state
+ * machine which reproduces the matches of {@link java.util.regex.Matcher#replaceAll(String)}.
+ * The machines are chained in the order of the normalizers, every char of the text is
+ * pushed through the chain once and no intermediate strings are created. The output is
+ * identical to the output of an {@link AggregateCharSequenceNormalizer} with the same
+ * normalizers. Surrogate chars which reach the repeated char rule of the shrink normalizer,
+ * because no emoji rule removed them before, are rare and the text is then normalized
+ * with the regular expressions.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public class FusedCharSequenceNormalizer implements CharSequenceNormalizer {
+
+  /**
+   * True if \b treats all letters and digits as word chars, up to Java 18, and false
+   * if only the ASCII word chars are used, since Java 19.
+   */
+  private static final boolean UNICODE_WORD_BOUNDARY =
+      Pattern.compile("\\b").matcher("\u00e9").find();
+
+  /**
+   * True if a search for an emoji can start in the middle of a surrogate pair, up to
+   * Java 8, and false if the search advances by code points, since Java 9.
+   */
+  private static final boolean EMOJI_SEARCH_SPLITS_PAIRS =
+      Pattern.compile("[\\uD83C-\\uDBFF\\uDC00-\\uDFFF]+").matcher("\uDBFF\uDFFD").find();
+
+  private static final UnsupportedTextException UNSUPPORTED_TEXT = new UnsupportedTextException();
+
+  private final CharSequenceNormalizer[] normalizers;
+  private final AggregateCharSequenceNormalizer fallback;
+
+  /**
+   * Initializes the normalizer with the normalizers to fuse.
+   *
+   * @param normalizers the normalizers in the order they are applied
+   *
+   * @throws IllegalArgumentException if one of the normalizers can't be fused
+   */
+  public FusedCharSequenceNormalizer(CharSequenceNormalizer... normalizers) {
+    for (CharSequenceNormalizer normalizer : normalizers) {
+      if (!isSupported(normalizer)) {
+        throw new IllegalArgumentException("Normalizer can't be fused: "
+            + normalizer.getClass().getName());
+      }
+    }
+
+    this.normalizers = normalizers.clone();
+    this.fallback = new AggregateCharSequenceNormalizer(this.normalizers);
+  }
+
+  /**
+   * Checks if normalizers can be fused. Only the listed normalizers are supported,
+   * sub classes might change the rules.
+   *
+   * @param normalizers the normalizers
+   * @return true if all normalizers can be fused
+   */
+  public static boolean isSupported(CharSequenceNormalizer... normalizers) {
+    for (CharSequenceNormalizer normalizer : normalizers) {
+      if (!isSupported(normalizer)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSupported(CharSequenceNormalizer normalizer) {
+    Class<?> normalizerClass = normalizer.getClass();
+    return normalizerClass == EmojiCharSequenceNormalizer.class
+        || normalizerClass == UrlCharSequenceNormalizer.class
+        || normalizerClass == TwitterCharSequenceNormalizer.class
+        || normalizerClass == NumberCharSequenceNormalizer.class
+        || normalizerClass == ShrinkCharSequenceNormalizer.class;
+  }
+
+  @Override
+  public CharSequence normalize(CharSequence text) {
+    Sink sink = new Sink(text.length());
+
+    Stage first = sink;
+    for (int i = normalizers.length - 1; i >= 0; i--) {
+      first = createStages(normalizers[i], first);
+    }
+
+    try {
+      for (int i = 0; i < text.length(); i++) {
+        first.put(text.charAt(i));
+      }
+      first.end();
+    } catch (UnsupportedTextException e) {
+      return fallback.normalize(text);
+    }
+
+    return sink.toString();
+  }
+
+  /**
+   * Creates the stages for the regular expressions of a normalizer, in the
+   * order the normalizer applies them.
+   */
+  private static Stage createStages(CharSequenceNormalizer normalizer, Stage next) {
+    Class<?> normalizerClass = normalizer.getClass();
+    if (normalizerClass == EmojiCharSequenceNormalizer.class) {
+      return new EmojiStage().link(next);
+    }
+    else if (normalizerClass == UrlCharSequenceNormalizer.class) {
+      return new UrlStage().link(new MailStage().link(next));
+    }
+    else if (normalizerClass == TwitterCharSequenceNormalizer.class) {
+      return new HashUserStage().link(new RetweetStage().link(
+          new FaceStage().link(new LaughStage().link(next))));
+    }
+    else if (normalizerClass == NumberCharSequenceNormalizer.class) {
+      return new NumberStage().link(next);
+    }
+    else {
+      return new SpaceStage().link(new RepeatedCharStage().link(new TrimStage().link(next)));
+    }
+  }
+
+  /** The \s class without the UNICODE_CHARACTER_CLASS flag. */
+  private static boolean isSpace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  /** Compares chars like a case insensitive back reference without the UNICODE_CASE flag. */
+  private static boolean equalsIgnoreCase(char c1, char c2) {
+    return toLowerAscii(c1) == toLowerAscii(c2);
+  }
+
+  private static char toLowerAscii(char c) {
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+
+  /**
+   * Signals that a text can't be normalized exactly like the regular expressions do.
+   */
+  private static final class UnsupportedTextException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private UnsupportedTextException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * A state machine for one regular expression. The chars of the input are pushed with
+   * {@link #put(char)}, the chars of the output are pushed to the next stage. The chars
+   * of a possible match are kept in the pending buffer until the match is decided.
+   */
+  private abstract static class Stage {
+
+    Stage next;
+
+    int state;
+
+    char[] pending = new char[16];
+    int size;
+
+    final Stage link(Stage next) {
+      this.next = next;
+      return this;
+    }
+
+    abstract void put(char c);
+
+    /**
+     * Signals the end of the input, a possible match which isn't complete
+     * can't match anymore.
+     */
+    void end() {
+      emitPending(0);
+      state = 0;
+      next.end();
+    }
+
+    final void push(char c) {
+      if (size == pending.length) {
+        pending = Arrays.copyOf(pending, size * 2);
+      }
+      pending[size++] = c;
+    }
+
+    /**
+     * Passes the pending chars from the given index on to the next stage and
+     * clears the pending buffer.
+     */
+    final void emitPending(int from) {
+      for (int i = from; i < size; i++) {
+        next.put(pending[i]);
+      }
+      size = 0;
+    }
+
+    /**
+     * Passes the pending chars before the given index on to the next stage and examines
+     * the others again as start of a match, like the regular expression is retried at the
+     * next positions after a failed match.
+     */
+    final void replay(int from) {
+      char[] chars = Arrays.copyOfRange(pending, from, size);
+      size = from;
+      emitPending(0);
+      state = 0;
+      for (char c : chars) {
+        put(c);
+      }
+    }
+  }
+
+  /** Collects the output of the last stage. */
+  private static final class Sink extends Stage {
+
+    private char[] chars;
+    private int length;
+
+    Sink(int capacity) {
+      chars = new char[Math.max(capacity, 16)];
+    }
+
+    @Override
+    void put(char c) {
+      if (length == chars.length) {
+        chars = Arrays.copyOf(chars, length * 2);
+      }
+      chars[length++] = c;
+    }
+
+    @Override
+    void end() {
+    }
+
+    @Override
+    public String toString() {
+      return new String(chars, 0, length);
+    }
+  }
+
+  /**
+   * <code>[\uD83C-\uDBFF\uDC00-\uDFFF]+</code> replaced by a space. The regular expression
+   * parser combines <code>\uDBFF\uDC00</code> to one code point, so the class is the range
+   * from U+D83C to U+10FC00 and the hyphen. It is matched against code points,
+   * but Java 8 also tries to match the low surrogate of a pair which doesn't match.
+   */
+  private static final class EmojiStage extends Stage {
+
+    private char high;
+
+    @Override
+    void put(char c) {
+      if (high != 0) {
+        char h = high;
+        high = 0;
+        if (Character.isLowSurrogate(c)) {
+          int cp = Character.toCodePoint(h, c);
+          if (EMOJI_SEARCH_SPLITS_PAIRS && !isEmoji(cp)) {
+            // the search fails at the pair and matches the low surrogate alone
+            state = 0;
+            next.put(h);
+            codePoint(c);
+          }
+          else {
+            codePoint(cp);
+          }
+          return;
+        }
+        codePoint(h);
+      }
+
+      if (Character.isHighSurrogate(c)) {
+        high = c;
+      }
+      else {
+        codePoint(c);
+      }
+    }
+
+    private static boolean isEmoji(int cp) {
+      return cp == '-' || cp >= 0xD83C && cp <= 0x10FC00;
+    }
+
+    private void codePoint(int cp) {
+      if (isEmoji(cp)) {
+        if (state == 0) {
+          next.put(' ');
+          state = 1;
+        }
+      }
+      else {
+        state = 0;
+        if (Character.isSupplementaryCodePoint(cp)) {
+          next.put(Character.highSurrogate(cp));
+          next.put(Character.lowSurrogate(cp));
+        }
+        else {
+          next.put((char) cp);
+        }
+      }
+    }
+
+    @Override
+    void end() {
+      if (high != 0) {
+        codePoint(high);
+        high = 0;
+      }
+      super.end();
+    }
+  }
+
+  /** <code>https?://[-_.?&amp;~;+=/#0-9A-Za-z]+</code> replaced by a space. */
+  private static final class UrlStage extends Stage {
+
+    private static boolean isUrlChar(char c) {
+      return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+          || "-_.?&~;+=/#".indexOf(c) >= 0;
+    }
+
+    @Override
+    void put(char c) {
+      switch (state) {
+        case 0:
+          if (c == 'h') {
+            push(c);
+            state = 1;
+          }
+          else {
+            next.put(c);
+          }
+          break;
+        case 1:
+        case 2:
+          expect(c, 't');
+          break;
+        case 3:
+          expect(c, 'p');
+          break;
+        case 4:
+          if (c == 's') {
+            push(c);
+            state = 5;
+          }
+          else {
+            // the s is optional
+            state = 5;
+            expect(c, ':');
+          }
+          break;
+        case 5:
+          expect(c, ':');
+          break;
+        case 6:
+        case 7:
+          expect(c, '/');
+          break;
+        case 8:
+          if (isUrlChar(c)) {
+            size = 0;
+            next.put(' ');
+            state = 9;
+          }
+          else {
+            fail(c);
+          }
+          break;
+        default:
+          if (!isUrlChar(c)) {
+            state = 0;
+            put(c);
+          }
+      }
+    }
+
+    private void expect(char c, char expected) {
+      if (c == expected) {
+        push(c);
+        state++;
+      }
+      else {
+        fail(c);
+      }
+    }
+
+    // none of the pending chars after the h can start a match
+    private void fail(char c) {
+      emitPending(0);
+      state = 0;
+      put(c);
+    }
+  }
+
+  /** <code>[-_.0-9A-Za-z]+@[-_0-9A-Za-z]+[-_.0-9A-Za-z]+</code> replaced by a space. */
+  private static final class MailStage extends Stage {
+
+    private static boolean isDomainChar(char c) {
+      return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+          || c == '-' || c == '_';
+    }
+
+    private static boolean isMailChar(char c) {
+      return isDomainChar(c) || c == '.';
+    }
+
+    @Override
+    void put(char c) {
+      switch (state) {
+        case 0:
+          if (isMailChar(c)) {
+            push(c);
+            state = 1;
+          }
+          else {
+            next.put(c);
+          }
+          break;
+        case 1:
+          // every start in the run of mail chars leads to the same @ and domain
+          if (isMailChar(c)) {
+            push(c);
+          }
+          else if (c == '@') {
+            push(c);
+            state = 2;
+          }
+          else {
+            emitPending(0);
+            state = 0;
+            next.put(c);
+          }
+          break;
+        case 2:
+          if (isDomainChar(c)) {
+            push(c);
+            state = 3;
+          }
+          else {
+            emitPending(0);
+            state = 0;
+            put(c);
+          }
+          break;
+        case 3:
+          // two domain chars, or one followed by a dot, are a match up to the end of the run
+          if (isMailChar(c)) {
+            size = 0;
+            next.put(' ');
+            state = 4;
+          }
+          else {
+            // the single domain char can start a new match
+            replay(size - 1);
+            put(c);
+          }
+          break;
+        default:
+          if (!isMailChar(c)) {
+            state = 0;
+            put(c);
+          }
+      }
+    }
+  }
+
+  /** <code>[#@]\S+</code> replaced by a space. */
+  private static final class HashUserStage extends Stage {
+
+    @Override
+    void put(char c) {
+      switch (state) {
+        case 0:
+          if (c == '#' || c == '@') {
+            push(c);
+            state = 1;
+          }
+          else {
+            next.put(c);
+          }
+          break;
+        case 1:
+          if (!isSpace(c)) {
+            size = 0;
+            next.put(' ');
+            state = 2;
+          }
+          else {
+            emitPending(0);
+            state = 0;
+            next.put(c);
+          }
+          break;
+        default:
+          if (isSpace(c)) {
+            state = 0;
+            next.put(c);
+          }
+      }
+    }
+  }
+
+  /**
+   * <code>\b(rt[ :])+</code>, case insensitive, replaced by a space. The word boundary
+   * depends on the input before the match, the last two chars are kept to reproduce
+   * the boundary check of the regular expression including its handling of non spacing
+   * marks.
+   */
+  private static final class RetweetStage extends Stage {
+
+    private int count;
+    private char last;
+    private char secondLast;
+
+    /** True if a letter or digit precedes the non spacing marks ending at the second last char. */
+    private boolean secondLastHasBase;
+
+    private static boolean isWord(int cp) {
+      if (UNICODE_WORD_BOUNDARY) {
+        return cp == '_' || Character.isLetterOrDigit(cp);
+      }
+      return cp == '_' || cp >= 'a' && cp <= 'z' || cp >= 'A' && cp <= 'Z' || cp >= '0' && cp <= '9';
+    }
+
+    private void addHistory(char c) {
+      if (count > 0) {
+        int cp = Character.isHighSurrogate(last) && Character.isLowSurrogate(c)
+            ? Character.toCodePoint(last, c) : last;
+        secondLastHasBase = Character.isLetterOrDigit(cp)
+            || Character.getType(cp) == Character.NON_SPACING_MARK && secondLastHasBase;
+      }
+      secondLast = last;
+      last = c;
+      count++;
+    }
+
+    /** Checks the left side of the word boundary before a word char at the current position. */
+    private boolean isWordBefore() {
+      if (count == 0) {
+        return false;
+      }
+
+      int cp = count > 1 && Character.isLowSurrogate(last) && Character.isHighSurrogate(secondLast)
+          ? Character.toCodePoint(secondLast, last) : last;
+      if (isWord(cp)) {
+        return true;
+      }
+      if (Character.getType(cp) != Character.NON_SPACING_MARK) {
+        return false;
+      }
+      return Character.isLetterOrDigit(last)
+          || Character.getType(last) == Character.NON_SPACING_MARK && secondLastHasBase;
+    }
+
+    private static boolean isR(char c) {
+      return c == 'r' || c == 'R';
+    }
+
+    private static boolean isT(char c) {
+      return c == 't' || c == 'T';
+    }
+
+    private static boolean isSeparator(char c) {
+      return c == ' ' || c == ':';
+    }
+
+    @Override
+    void put(char c) {
+      switch (state) {
+        case 0:
+          if (isR(c) && !isWordBefore()) {
+            push(c);
+            state = 1;
+          }
+          else {
+            next.put(c);
+          }
+          addHistory(c);
+          break;
+        case 1:
+          if (isT(c)) {
+            push(c);
+            state = 2;
+          }
+          else {
+            fail(c);
+          }
+          break;
+        case 2:
+          if (isSeparator(c)) {
+            push(c);
+            matched(1);
+            next.put(' ');
+            state = 3;
+          }
+          else {
+            fail(c);
+          }
+          break;
+        case 3:
+          if (isR(c)) {
+            push(c);
+            state = 4;
+          }
+          else {
+            state = 0;
+            put(c);
+          }
+          break;
+        case 4:
+          if (isT(c)) {
+            push(c);
+            state = 5;
+          }
+          else {
+            replay(0);
+            put(c);
+          }
+          break;
+        default:
+          if (isSeparator(c)) {
+            push(c);
+            matched(0);
+            state = 3;
+          }
+          else {
+            replay(0);
+            put(c);
+          }
+      }
+    }
+
+    /**
+     * Adds the matched pending chars to the input history, the first char of the
+     * match was added when it was examined as start.
+     */
+    private void matched(int from) {
+      for (int i = from; i < size; i++) {
+        addHistory(pending[i]);
+      }
+      size = 0;
+    }
+
+    private void fail(char c) {
+      // the r is already part of the history
+      replay(1);
+      put(c);
+    }
+  }
+
+  /** <code>[:;x]-?[()dop]</code>, case insensitive, replaced by a space. */
+  private static final class FaceStage extends Stage {
+
+    private static boolean isMouth(char c) {
+      switch (c) {
+        case '(':
+        case ')':
+        case 'd':
+        case 'D':
+        case 'o':
+        case 'O':
+        case 'p':
+        case 'P':
+          return true;
+        default:
+          return false;
+      }
+    }
+
+    @Override
+    void put(char c) {
+      if (state == 0) {
+        if (c == ':' || c == ';' || c == 'x' || c == 'X') {
+          push(c);
+          state = 1;
+        }
+        else {
+          next.put(c);
+        }
+      }
+      else if (state == 1 && c == '-') {
+        // the nose is optional
+        push(c);
+        state = 2;
+      }
+      else if (isMouth(c)) {
+        size = 0;
+        next.put(' ');
+        state = 0;
+      }
+      else {
+        // the hyphen can't start a match
+        emitPending(0);
+        state = 0;
+        put(c);
+      }
+    }
+  }
+
+  /**
+   * <code>([hj])+([aieou])+(\1+\2+)+</code>, case insensitive, replaced by
+   * <code>$1$2$1$2</code>. The groups must end with the runs of their chars, so group 1
+   * is the last char of the run of h and j and group 2 the last char of the run of vowels.
+   */
+  private static final class LaughStage extends Stage {
+
+    private char group1;
+    private char group2;
+    private int pairStart;
+
+    private static boolean isHJ(char c) {
+      return c == 'h' || c == 'j' || c == 'H' || c == 'J';
+    }
+
+    private static boolean isVowel(char c) {
+      switch (c) {
+        case 'a':
+        case 'e':
+        case 'i':
+        case 'o':
+        case 'u':
+        case 'A':
+        case 'E':
+        case 'I':
+        case 'O':
+        case 'U':
+          return true;
+        default:
+          return false;
+      }
+    }
+
+    @Override
+    void put(char c) {
+      switch (state) {
+        case 0:
+          if (isHJ(c)) {
+            push(c);
+            state = 1;
+          }
+          else {
+            next.put(c);
+          }
+          break;
+        case 1:
+          if (isHJ(c)) {
+            push(c);
+          }
+          else if (isVowel(c)) {
+            group1 = pending[size - 1];
+            push(c);
+            state = 2;
+          }
+          else {
+            emitPending(0);
+            state = 0;
+            next.put(c);
+          }
+          break;
+        case 2:
+          if (isVowel(c)) {
+            push(c);
+          }
+          else if (equalsIgnoreCase(c, group1)) {
+            group2 = pending[size - 1];
+            pairStart = size;
+            push(c);
+            state = 3;
+          }
+          else {
+            emitPending(0);
+            state = 0;
+            put(c);
+          }
+          break;
+        case 3:
+          if (equalsIgnoreCase(c, group1)) {
+            push(c);
+          }
+          else if (equalsIgnoreCase(c, group2)) {
+            // the first repetition is complete, the match is certain
+            size = 0;
+            next.put(group1);
+            next.put(group2);
+            next.put(group1);
+            next.put(group2);
+            state = 4;
+          }
+          else {
+            // the starts in the runs of group 1 and 2 fail in the same way
+            replay(pairStart);
+            put(c);
+          }
+          break;
+        case 4:
+          if (equalsIgnoreCase(c, group1)) {
+            push(c);
+            state = 5;
+          }
+          else if (!equalsIgnoreCase(c, group2)) {
+            state = 0;
+            put(c);
+          }
+          break;
+        default:
+          if (equalsIgnoreCase(c, group1)) {
+            push(c);
+          }
+          else if (equalsIgnoreCase(c, group2)) {
+            size = 0;
+            state = 4;
+          }
+          else {
+            // the incomplete repetition is not part of the match
+            replay(0);
+            put(c);
+          }
+      }
+    }
+
+    @Override
+    void end() {
+      if (state == 3) {
+        replay(pairStart);
+      }
+      else if (state == 5) {
+        replay(0);
+      }
+      super.end();
+    }
+  }
+
+  /** <code>\d+</code> replaced by a space. */
+  private static final class NumberStage extends Stage {
+
+    @Override
+    void put(char c) {
+      if (c >= '0' && c <= '9') {
+        if (state == 0) {
+          next.put(' ');
+          state = 1;
+        }
+      }
+      else {
+        state = 0;
+        next.put(c);
+      }
+    }
+  }
+
+  /** <code>\s{2,}</code> replaced by a space. */
+  private static final class SpaceStage extends Stage {
+
+    @Override
+    void put(char c) {
+      switch (state) {
+        case 0:
+          if (isSpace(c)) {
+            push(c);
+            state = 1;
+          }
+          else {
+            next.put(c);
+          }
+          break;
+        case 1:
+          if (isSpace(c)) {
+            size = 0;
+            next.put(' ');
+            state = 2;
+          }
+          else {
+            emitPending(0);
+            state = 0;
+            next.put(c);
+          }
+          break;
+        default:
+          if (!isSpace(c)) {
+            state = 0;
+            next.put(c);
+          }
+      }
+    }
+  }
+
+  /**
+   * <code>(.)\1{2,}</code>, case insensitive, replaced by <code>$1$1</code>. Supplementary
+   * code points are compared differently by the back reference of the Java versions,
+   * texts with surrogate chars are not supported.
+   */
+  private static final class RepeatedCharStage extends Stage {
+
+    private char group;
+
+    private static boolean isLineTerminator(char c) {
+      return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    @Override
+    void put(char c) {
+      if (Character.isSurrogate(c)) {
+        throw UNSUPPORTED_TEXT;
+      }
+
+      switch (state) {
+        case 0:
+          if (isLineTerminator(c)) {
+            next.put(c);
+          }
+          else {
+            push(c);
+            state = 1;
+          }
+          break;
+        case 1:
+          if (equalsIgnoreCase(c, pending[0])) {
+            if (size == 2) {
+              group = pending[0];
+              size = 0;
+              next.put(group);
+              next.put(group);
+              state = 2;
+            }
+            else {
+              push(c);
+            }
+          }
+          else {
+            // the second char can start a new match
+            replay(1);
+            put(c);
+          }
+          break;
+        default:
+          if (!equalsIgnoreCase(c, group)) {
+            state = 0;
+            put(c);
+          }
+      }
+    }
+  }
+
+  /** {@link String#trim()}. */
+  private static final class TrimStage extends Stage {
+
+    @Override
+    void put(char c) {
+      if (c <= ' ') {
+        if (state == 1) {
+          push(c);
+        }
+      }
+      else {
+        state = 1;
+        emitPending(0);
+        next.put(c);
+      }
+    }
+
+    @Override
+    void end() {
+      size = 0;
+      next.end();
+    }
+  }
+}
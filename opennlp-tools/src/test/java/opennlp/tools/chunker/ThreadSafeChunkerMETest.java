@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.chunker;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import opennlp.tools.formats.ResourceAsStreamFactory;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.PlainTextByLineStream;
+import opennlp.tools.util.Span;
+import opennlp.tools.util.ThreadSafetyTestUtil;
+import opennlp.tools.util.TrainingParameters;
+
+/**
+ * Tests for the {@link ThreadSafeChunkerME} class.
+ */
+public class ThreadSafeChunkerMETest {
+
+  private static final String[][] TOKENS = {
+      {"Rockwell", "said", "the", "agreement", "calls", "for", "it", "to", "supply", "200",
+          "additional", "so-called", "shipsets", "for", "the", "planes", "."},
+      {"The", "company", "said", "the", "planes", "are", "ready", "."}
+  };
+
+  private static final String[][] TAGS = {
+      {"NNP", "VBD", "DT", "NN", "VBZ", "IN", "PRP", "TO", "VB", "CD", "JJ", "JJ", "NNS", "IN",
+          "DT", "NNS", "."},
+      {"DT", "NN", "VBD", "DT", "NNS", "VBP", "JJ", "."}
+  };
+
+  private static ChunkerModel chunkerModel;
+
+  private static String[][] expectedChunks;
+
+  private static Span[][] expectedSpans;
+
+  @BeforeClass
+  public static void trainModel() throws Exception {
+    ResourceAsStreamFactory in = new ResourceAsStreamFactory(ThreadSafeChunkerMETest.class,
+        "/opennlp/tools/chunker/test.txt");
+
+    ObjectStream<ChunkSample> sampleStream = new ChunkSampleStream(
+        new PlainTextByLineStream(in, StandardCharsets.UTF_8));
+
+    TrainingParameters params = new TrainingParameters();
+    params.put(TrainingParameters.ITERATIONS_PARAM, 70);
+    params.put(TrainingParameters.CUTOFF_PARAM, 1);
+
+    chunkerModel = ChunkerME.train("eng", sampleStream, params, new ChunkerFactory());
+
+    ChunkerME referenceChunker = new ChunkerME(chunkerModel);
+    expectedChunks = new String[TOKENS.length][];
+    expectedSpans = new Span[TOKENS.length][];
+    for (int i = 0; i < TOKENS.length; i++) {
+      expectedChunks[i] = referenceChunker.chunk(TOKENS[i], TAGS[i]);
+      expectedSpans[i] = referenceChunker.chunkAsSpans(TOKENS[i], TAGS[i]);
+    }
+  }
+
+  @Test
+  public void testChunkFromMultipleThreads() throws Exception {
+    try (ThreadSafeChunkerME chunker = new ThreadSafeChunkerME(chunkerModel)) {
+      ThreadSafetyTestUtil.runConcurrently(16, () -> {
+        for (int n = 0; n < 50; n++) {
+          for (int i = 0; i < TOKENS.length; i++) {
+            Assert.assertArrayEquals(expectedChunks[i], chunker.chunk(TOKENS[i], TAGS[i]));
+            Assert.assertEquals(TOKENS[i].length, chunker.probs().length);
+            Assert.assertArrayEquals(expectedSpans[i], chunker.chunkAsSpans(TOKENS[i], TAGS[i]));
+          }
+        }
+        return null;
+      });
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testChunkAfterClose() {
+    ThreadSafeChunkerME chunker = new ThreadSafeChunkerME(chunkerModel);
+    chunker.chunk(TOKENS[0], TAGS[0]);
+    chunker.close();
+    chunker.chunk(TOKENS[0], TAGS[0]);
+  }
+}
@@ -17,13 +17,23 @@
 
 package opennlp.tools.doccat;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import opennlp.tools.ml.AbstractEventTrainer;
+import opennlp.tools.ml.maxent.quasinewton.QNTrainer;
+import opennlp.tools.ml.model.HashedModel;
+import opennlp.tools.ml.model.HashingDataIndexer;
 import opennlp.tools.util.InsufficientTrainingDataException;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.ObjectStreamUtils;
@@ -63,6 +73,81 @@ public class DocumentCategorizerMETest {
     Assert.assertEquals(1, cat.size());
   }
   
+  @Test
+  public void testBatchCategorize() throws IOException {
+
+    ObjectStream<DocumentSample> samples = ObjectStreamUtils.createObjectStream(
+        new DocumentSample("1", new String[]{"a", "b", "c"}),
+        new DocumentSample("1", new String[]{"a", "b", "c", "1", "2"}),
+        new DocumentSample("0", new String[]{"x", "y", "z"}),
+        new DocumentSample("0", new String[]{"x", "y", "z", "5", "6"}));
+
+    TrainingParameters params = new TrainingParameters();
+    params.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    params.put(TrainingParameters.CUTOFF_PARAM, 0);
+
+    DoccatModel model = DocumentCategorizerME.train("x-unspecified", samples,
+        params, new DoccatFactory());
+
+    DocumentCategorizerME doccat = new DocumentCategorizerME(model);
+
+    List<String[]> documents = Arrays.asList(new String[]{"a"}, new String[]{"x", "y"},
+        new String[]{"a"}, new String[]{"y", "x"}, new String[]{"c", "2"});
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (List<double[]> probs : Arrays.asList(doccat.categorize(documents),
+          doccat.categorize(documents, executor))) {
+        Assert.assertEquals(documents.size(), probs.size());
+        for (int i = 0; i < documents.size(); i++) {
+          Assert.assertArrayEquals(doccat.categorize(documents.get(i)), probs.get(i), 0d);
+        }
+        Assert.assertNotSame(probs.get(0), probs.get(2));
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testHashedFeatures() throws IOException {
+
+    ObjectStream<DocumentSample> samples = ObjectStreamUtils.createObjectStream(
+        new DocumentSample("1", new String[]{"a", "b", "c"}),
+        new DocumentSample("1", new String[]{"a", "b", "c", "1", "2"}),
+        new DocumentSample("1", new String[]{"a", "b", "c", "3", "4"}),
+        new DocumentSample("0", new String[]{"x", "y", "z"}),
+        new DocumentSample("0", new String[]{"x", "y", "z", "5", "6"}),
+        new DocumentSample("0", new String[]{"x", "y", "z", "7", "8"}));
+
+    TrainingParameters params = new TrainingParameters();
+    params.put(TrainingParameters.ALGORITHM_PARAM, QNTrainer.MAXENT_QN_VALUE);
+    params.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    params.put(TrainingParameters.CUTOFF_PARAM, 0);
+    params.put(AbstractEventTrainer.DATA_INDEXER_PARAM,
+        AbstractEventTrainer.DATA_INDEXER_HASHING_VALUE);
+    params.put(HashingDataIndexer.BITS_PARAM, 18);
+    params.put(HashingDataIndexer.SIGNED_PARAM, true);
+
+    DoccatModel model = DocumentCategorizerME.train("x-unspecified", samples,
+        params, new DoccatFactory());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    model.serialize(out);
+    DoccatModel deserialized = new DoccatModel(new ByteArrayInputStream(out.toByteArray()));
+
+    for (DoccatModel m : Arrays.asList(model, deserialized)) {
+      Assert.assertTrue(m.getMaxentModel() instanceof HashedModel);
+      Assert.assertTrue(((HashedModel) m.getMaxentModel()).isSigned());
+      Assert.assertEquals(18, ((HashedModel) m.getMaxentModel()).getBits());
+
+      DocumentCategorizer doccat = new DocumentCategorizerME(m);
+      Assert.assertEquals("1", doccat.getBestCategory(doccat.categorize(new String[]{"a"})));
+      Assert.assertEquals("0", doccat.getBestCategory(doccat.categorize(new String[]{"x", "5"})));
+    }
+  }
+
   @Test(expected = InsufficientTrainingDataException.class)
   public void insufficientTestData() throws IOException {
 
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.langdetect;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CharNGramIndexTest {
+
+  private static final String[] PREDICATES = {"ab", "a", "abc", "e f", " fg", "xyz", "k", "abcd", "b"};
+
+  private static Set<String> found(CharNGramIndex.Counts counts) {
+    Set<String> ngrams = new HashSet<>();
+    for (int i = 0; i < counts.size(); i++) {
+      Assert.assertTrue(ngrams.add(PREDICATES[counts.ids()[i]]));
+    }
+    return ngrams;
+  }
+
+  @Test
+  public void testCount() {
+    CharNGramIndex index = new CharNGramIndex(PREDICATES, 1, 3);
+    CharNGramIndex.Counts counts = index.newCounts();
+
+    String text = "AbCde fghijk ab";
+    index.setText(text, counts);
+    index.count(counts, 0, counts.length());
+
+    // the known n-grams of the context, "abcd" is longer than the max length
+    Set<String> expected = new HashSet<>(Arrays.asList(
+        new DefaultLanguageDetectorContextGenerator(1, 3).getContext(text)));
+    expected.retainAll(Arrays.asList(PREDICATES));
+    Assert.assertEquals(new HashSet<>(Arrays.asList("ab", "a", "abc", "e f", " fg", "k", "b")), expected);
+    Assert.assertEquals(expected, found(counts));
+
+    Assert.assertEquals(2, counts.frequency(0));
+    Assert.assertEquals(1, counts.frequency(2));
+    Assert.assertEquals(0, counts.frequency(5));
+  }
+
+  @Test
+  public void testCountRanges() {
+    CharNGramIndex index = new CharNGramIndex(PREDICATES, 1, 3);
+    CharNGramIndex.Counts counts = index.newCounts();
+
+    index.setText("abcde fghijk ab", counts);
+    index.count(counts, 0, 6);
+    Assert.assertEquals(new HashSet<>(Arrays.asList("ab", "a", "abc", "b")), found(counts));
+
+    index.count(counts, 6, 8);
+    index.count(counts, 8, counts.length());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("ab", "a", "abc", "e f", " fg", "k", "b")),
+        found(counts));
+    Assert.assertEquals(2, counts.frequency(0));
+    Assert.assertEquals(1, counts.frequency(3));
+  }
+
+  @Test
+  public void testReuseCounts() {
+    CharNGramIndex index = new CharNGramIndex(PREDICATES, 1, 3);
+    CharNGramIndex.Counts counts = index.newCounts();
+
+    index.setText("abcde fghijk ab", counts);
+    index.count(counts, 0, counts.length());
+
+    index.setText("xyz", counts);
+    index.count(counts, 0, counts.length());
+    Assert.assertEquals(new HashSet<>(Arrays.asList("xyz")), found(counts));
+    Assert.assertEquals(0, counts.frequency(0));
+  }
+}
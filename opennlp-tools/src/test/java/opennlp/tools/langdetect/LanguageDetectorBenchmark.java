@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.langdetect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import opennlp.tools.ml.model.MaxentModel;
+import opennlp.tools.util.TrainingParameters;
+
+/**
+ * Measures the detection throughput on short texts, comparing the evaluation of the
+ * n-gram strings of the context generator with the n-gram ids found by the
+ * {@link LanguageDetectorME}, and on long documents, comparing the detection on the
+ * whole document with the incremental detection.
+ * <p>
+ * Run with <code>java opennlp.tools.langdetect.LanguageDetectorBenchmark</code>.
+ */
+public class LanguageDetectorBenchmark {
+
+  private static double sink;
+
+  private interface Detector {
+    double detect(String text);
+  }
+
+  private static void run(String name, Detector detector, List<String> texts) {
+    for (int round = 0; round < 8; round++) {
+      long start = System.nanoTime();
+      int detections = 0;
+      while (System.nanoTime() - start < 500_000_000L) {
+        for (String text : texts) {
+          sink += detector.detect(text);
+          detections++;
+        }
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      if (round >= 3) {
+        System.out.printf("%-8s %10.0f texts/s%n", name, detections / seconds);
+      }
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    TrainingParameters params = new TrainingParameters();
+    params.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    params.put(TrainingParameters.CUTOFF_PARAM, 1);
+    params.put(TrainingParameters.ALGORITHM_PARAM, "MAXENT");
+
+    LanguageDetectorModel model = LanguageDetectorME.train(
+        LanguageDetectorMETest.createSampleStream(), params, new LanguageDetectorFactory());
+
+    List<String> texts = new ArrayList<>();
+    try (LanguageDetectorSampleStream samples = LanguageDetectorMETest.createSampleStream()) {
+      LanguageSample sample;
+      while ((sample = samples.read()) != null) {
+        String text = sample.getContext().toString();
+        // social media sized texts
+        for (int start = 0; start + 80 <= text.length(); start += 80) {
+          texts.add(text.substring(start, start + 80));
+        }
+      }
+    }
+    System.out.println(texts.size() + " texts of 80 chars");
+
+    MaxentModel maxentModel = model.getMaxentModel();
+    LanguageDetectorContextGenerator cg = model.getFactory().getContextGenerator();
+    run("Strings", text -> maxentModel.eval(cg.getContext(text))[0], texts);
+
+    LanguageDetectorME detector = new LanguageDetectorME(model);
+    run("NGramIds", text -> detector.predictLanguages(text)[0].getConfidence(), texts);
+
+    List<String> documents = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      StringBuilder document = new StringBuilder();
+      for (int j = 0; document.length() < 200_000; j++) {
+        document.append(texts.get((i * 7919 + j) % texts.size())).append(' ');
+      }
+      documents.add(document.toString());
+    }
+    System.out.println(documents.size() + " documents of 200000 chars");
+
+    LanguageDetectorConfig config = new LanguageDetectorConfig(
+        LanguageDetectorConfig.DEFAULT_CHUNK_SIZE, LanguageDetectorConfig.DEFAULT_MAX_LENGTH, 0.05);
+    run("Whole", text -> detector.predictLanguages(text)[0].getConfidence(), documents);
+    run("Probing", text -> detector.probingPredictLanguages(text, config).getLength(), documents);
+
+    System.out.println(sink != 0 ? "" : " ");
+  }
+}
@@ -19,12 +19,20 @@ package opennlp.tools.langdetect;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import opennlp.tools.formats.ResourceAsStreamFactory;
+import opennlp.tools.ml.model.MaxentModel;
 import opennlp.tools.util.PlainTextByLineStream;
 import opennlp.tools.util.TrainingParameters;
 
@@ -60,6 +68,141 @@ public class LanguageDetectorMETest {
     Assert.assertEquals("ita", language.getLang());
   }
 
+  @Test
+  public void testPredictLanguagesCompiledModel() throws Exception {
+    TrainingParameters params = new TrainingParameters();
+    params.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    params.put(TrainingParameters.CUTOFF_PARAM, 5);
+    params.put(TrainingParameters.ALGORITHM_PARAM, "MAXENT");
+
+    LanguageDetectorModel maxentModel = LanguageDetectorME.train(createSampleStream(), params,
+        new LanguageDetectorFactory());
+
+    LanguageDetectorME ld = new LanguageDetectorME(maxentModel);
+    MaxentModel model = maxentModel.getMaxentModel();
+    LanguageDetectorContextGenerator cg = maxentModel.getFactory().getContextGenerator();
+
+    List<String> documents = Arrays.asList("estava em uma marcenaria na Rua Bruno",
+        "Dove è meglio che giochi", "", "AAAA http://opennlp.apache.org 1234");
+    List<Language[]> batch = ld.predictLanguages(documents);
+
+    for (int i = 0; i < documents.size(); i++) {
+      double[] expected = model.eval(cg.getContext(documents.get(i)));
+      for (Language[] languages : Arrays.asList(ld.predictLanguages(documents.get(i)), batch.get(i))) {
+        Assert.assertEquals(expected.length, languages.length);
+        for (Language language : languages) {
+          Assert.assertEquals(expected[model.getIndex(language.getLang())],
+              language.getConfidence(), 1e-12);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testPredictLanguagesFromMultipleThreads() throws Exception {
+    TrainingParameters params = new TrainingParameters();
+    params.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    params.put(TrainingParameters.CUTOFF_PARAM, 5);
+    params.put(TrainingParameters.ALGORITHM_PARAM, "MAXENT");
+
+    LanguageDetectorME ld = new LanguageDetectorME(LanguageDetectorME.train(createSampleStream(),
+        params, new LanguageDetectorFactory()));
+
+    List<String> documents = Arrays.asList("estava em uma marcenaria na Rua Bruno",
+        "Dove è meglio che giochi", "Je ne sais pas ce qui se passe",
+        "AAAA http://opennlp.apache.org 1234");
+    List<Language[]> expected = new ArrayList<>();
+    List<ProbingLanguageDetectionResult> expectedProbing = new ArrayList<>();
+    LanguageDetectorConfig config = new LanguageDetectorConfig(10, 1000, 1);
+    for (String document : documents) {
+      expected.add(ld.predictLanguages(document));
+      expectedProbing.add(ld.probingPredictLanguages(document, config));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < 16; t++) {
+        results.add(executor.submit((Callable<Boolean>) () -> {
+          for (int n = 0; n < 50; n++) {
+            for (int i = 0; i < documents.size(); i++) {
+              assertLanguagesEquals(expected.get(i), ld.predictLanguages(documents.get(i)));
+
+              ProbingLanguageDetectionResult result =
+                  ld.probingPredictLanguages(documents.get(i), config);
+              Assert.assertEquals(expectedProbing.get(i).getLength(), result.getLength());
+              assertLanguagesEquals(expectedProbing.get(i).getLanguages(), result.getLanguages());
+            }
+          }
+          return true;
+        }));
+      }
+
+      for (Future<Boolean> result : results) {
+        Assert.assertTrue(result.get());
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  private static void assertLanguagesEquals(Language[] expected, Language[] actual) {
+    Assert.assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; i++) {
+      Assert.assertEquals(expected[i].getLang(), actual[i].getLang());
+      Assert.assertEquals(expected[i].getConfidence(), actual[i].getConfidence(), 0d);
+    }
+  }
+
+  @Test
+  public void testProbingPredictLanguages() throws Exception {
+    TrainingParameters params = new TrainingParameters();
+    params.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    params.put(TrainingParameters.CUTOFF_PARAM, 5);
+    params.put(TrainingParameters.ALGORITHM_PARAM, "MAXENT");
+
+    LanguageDetectorModel maxentModel = LanguageDetectorME.train(createSampleStream(), params,
+        new LanguageDetectorFactory());
+
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      text.append("estava em uma marcenaria na Rua Bruno, http://opennlp.apache.org 2017 ");
+    }
+
+    for (LanguageDetectorModel m : Arrays.asList(model, maxentModel)) {
+      LanguageDetectorME ld = new LanguageDetectorME(m);
+
+      // the small test models are not confident, the default min diff is not reached
+      ProbingLanguageDetectionResult result = ld.probingPredictLanguages(text,
+          new LanguageDetectorConfig(LanguageDetectorConfig.DEFAULT_CHUNK_SIZE,
+              LanguageDetectorConfig.DEFAULT_MAX_LENGTH, 0.05));
+      Assert.assertEquals("pob", result.getLanguages()[0].getLang());
+      Assert.assertTrue(result.getLength() > 0 && result.getLength() < text.length());
+      Assert.assertTrue(Character.isWhitespace(text.charAt(result.getLength() - 1)));
+
+      // the margin is never reached, the budget is consumed
+      result = ld.probingPredictLanguages(text, new LanguageDetectorConfig(50, 1000, 1));
+      Assert.assertEquals(1000, result.getLength());
+
+      // the whole text is consumed, the n-grams spanning the chunks are included
+      result = ld.probingPredictLanguages(text, new LanguageDetectorConfig(50, 100000, 1));
+      Assert.assertEquals(text.length(), result.getLength());
+      Language[] expected = ld.predictLanguages(text);
+      for (int i = 0; i < expected.length; i++) {
+        Assert.assertEquals(expected[i].getLang(), result.getLanguages()[i].getLang());
+        Assert.assertEquals(expected[i].getConfidence(), result.getLanguages()[i].getConfidence(), 1e-9);
+      }
+
+      Assert.assertEquals(0, ld.probingPredictLanguages("").getLength());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidConfig() {
+    new LanguageDetectorConfig(0, 1000, 0.2);
+  }
+
   @Test
   public void testSupportedLanguages() {
 
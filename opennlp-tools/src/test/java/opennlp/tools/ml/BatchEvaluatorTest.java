@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ml;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchEvaluatorTest {
+
+  private static final List<String[]> INPUTS = Arrays.asList(
+      new String[] {"a", "b"}, new String[] {"c"}, new String[] {"a", "b"},
+      new String[] {"b", "a"}, new String[] {"c"}, new String[] {});
+
+  @Test
+  public void testApplyDistinct() {
+    AtomicInteger calls = new AtomicInteger();
+
+    List<String> results = BatchEvaluator.applyDistinct(INPUTS, input -> {
+      calls.incrementAndGet();
+      return String.join("", input);
+    }, null, null);
+
+    Assert.assertEquals(Arrays.asList("ab", "c", "ab", "ba", "c", ""), results);
+    Assert.assertEquals(4, calls.get());
+  }
+
+  @Test
+  public void testApplyDistinctCopiesRepeatedResults() {
+    List<String[]> results = BatchEvaluator.applyDistinct(INPUTS, input -> input.clone(),
+        String[]::clone, null);
+
+    Assert.assertArrayEquals(results.get(0), results.get(2));
+    Assert.assertNotSame(results.get(0), results.get(2));
+  }
+
+  @Test
+  public void testApplyWithExecutor() {
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      AtomicInteger calls = new AtomicInteger();
+
+      List<Integer> results = BatchEvaluator.applyDistinct(INPUTS, input -> {
+        calls.incrementAndGet();
+        return input.length;
+      }, null, executor);
+
+      Assert.assertEquals(Arrays.asList(2, 1, 2, 2, 1, 0), results);
+      Assert.assertEquals(4, calls.get());
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+}
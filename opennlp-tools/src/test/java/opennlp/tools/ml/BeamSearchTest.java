@@ -17,6 +17,7 @@
 
 package opennlp.tools.ml;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -205,4 +206,37 @@ public class BeamSearchTest {
     Assert.assertNotSame("2", seq.getOutcomes().get(3));
     Assert.assertEquals("1", seq.getOutcomes().get(4));
   }
+
+  /**
+   * Tests that the k best sequences are returned in descending score order
+   * with the probabilities of their outcomes.
+   */
+  @Test
+  public void testBestSequences() {
+    String[] sequence = {"1", "2", "3"};
+    BeamSearchContextGenerator<String> cg = new IdentityFeatureGenerator(sequence);
+
+    String[] outcomes = new String[] {"1", "2", "3"};
+    MaxentModel model = new IdentityModel(outcomes);
+
+    BeamSearch<String> bs = new BeamSearch<>(3, model);
+
+    Sequence[] seqs = bs.bestSequences(3, sequence, null, cg,
+        (int i, String[] inputSequence, String[] outcomesSequence, String outcome) -> true);
+
+    Assert.assertEquals(3, seqs.length);
+    Assert.assertEquals(Arrays.asList(sequence), seqs[0].getOutcomes());
+    Assert.assertArrayEquals(new double[] {0.8, 0.8, 0.8}, seqs[0].getProbs(), 0d);
+
+    for (int i = 1; i < seqs.length; i++) {
+      Assert.assertTrue(seqs[i - 1].getScore() >= seqs[i].getScore());
+      Assert.assertEquals(sequence.length, seqs[i].getOutcomes().size());
+
+      double score = 0;
+      for (double p : seqs[i].getProbs()) {
+        score += Math.log(p);
+      }
+      Assert.assertEquals(score, seqs[i].getScore(), 0.0000001);
+    }
+  }
 }
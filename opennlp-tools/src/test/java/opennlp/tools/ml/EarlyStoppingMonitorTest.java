@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import opennlp.tools.ml.maxent.GISTrainer;
+import opennlp.tools.ml.maxent.quasinewton.QNTrainer;
+import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.Event;
+import opennlp.tools.ml.model.FileEventStream;
+import opennlp.tools.ml.model.MaxentModel;
+import opennlp.tools.ml.perceptron.PerceptronTrainer;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.TrainingParameters;
+
+public class EarlyStoppingMonitorTest {
+
+  private static AbstractEventTrainer createTrainer(String algorithm, int iterations) {
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractTrainer.ALGORITHM_PARAM, algorithm);
+    trainParams.put(AbstractTrainer.ITERATIONS_PARAM, iterations);
+    return (AbstractEventTrainer) TrainerFactory.getEventTrainer(trainParams, null);
+  }
+
+  /**
+   * Records the metrics and stops the training after the given iteration.
+   */
+  private static class RecordingMonitor implements TrainingMonitor {
+
+    private final List<IterationMetrics> metrics = new ArrayList<>();
+    private final int stopIteration;
+
+    RecordingMonitor(int stopIteration) {
+      this.stopIteration = stopIteration;
+    }
+
+    @Override
+    public boolean iterationCompleted(IterationMetrics metrics,
+        Supplier<AbstractModel> model) {
+      this.metrics.add(metrics);
+      return metrics.getIteration() == stopIteration;
+    }
+  }
+
+  private static void checkMetrics(List<IterationMetrics> metrics) {
+    for (int i = 0; i < metrics.size(); i++) {
+      IterationMetrics iteration = metrics.get(i);
+      Assert.assertEquals(i + 1, iteration.getIteration());
+      Assert.assertTrue(iteration.getTrainingAccuracy() >= 0);
+      Assert.assertTrue(iteration.getTrainingAccuracy() <= 1);
+      Assert.assertTrue(iteration.getEventsPerSecond() > 0);
+      Assert.assertTrue(iteration.getElapsedTimeMillis() >= iteration.getIterationTimeMillis());
+    }
+  }
+
+  @Test
+  public void testGISStopsWhenHeldOutAccuracyPlateaus() throws IOException {
+    AbstractEventTrainer trainer = createTrainer(GISTrainer.MAXENT_VALUE, 300);
+
+    EarlyStoppingMonitor earlyStopping =
+        new EarlyStoppingMonitor(PrepAttachDataUtil.createDevStream(), 5, 2);
+    RecordingMonitor recording = new RecordingMonitor(-1);
+    trainer.addTrainingMonitor(earlyStopping);
+    trainer.addTrainingMonitor(recording);
+
+    MaxentModel model = trainer.train(PrepAttachDataUtil.createTrainingStream());
+
+    int numIterations = recording.metrics.size();
+    Assert.assertTrue(numIterations < 300);
+    Assert.assertEquals(numIterations / 5, earlyStopping.getAccuracies().size());
+    Assert.assertSame(earlyStopping.getBestModel(), model);
+    Assert.assertTrue(earlyStopping.getBestIteration() <= numIterations - 10);
+
+    checkMetrics(recording.metrics);
+    for (int i = 1; i < numIterations; i++) {
+      Assert.assertTrue(recording.metrics.get(i).getLogLikelihood()
+          >= recording.metrics.get(i - 1).getLogLikelihood());
+    }
+
+    PrepAttachDataUtil.testModel(model, earlyStopping.getBestAccuracy());
+  }
+
+  @Test
+  public void testMonitorIsResetForEveryTraining() throws IOException {
+    AbstractEventTrainer trainer = createTrainer(GISTrainer.MAXENT_VALUE, 300);
+
+    EarlyStoppingMonitor earlyStopping =
+        new EarlyStoppingMonitor(PrepAttachDataUtil.createDevStream(), 5, 2);
+    trainer.addTrainingMonitor(earlyStopping);
+
+    trainer.train(PrepAttachDataUtil.createTrainingStream());
+    List<Double> firstAccuracies = new ArrayList<>(earlyStopping.getAccuracies());
+    int firstBestIteration = earlyStopping.getBestIteration();
+
+    MaxentModel model = trainer.train(PrepAttachDataUtil.createTrainingStream());
+
+    Assert.assertEquals(firstAccuracies, earlyStopping.getAccuracies());
+    Assert.assertEquals(firstBestIteration, earlyStopping.getBestIteration());
+    Assert.assertSame(earlyStopping.getBestModel(), model);
+  }
+
+  @Test
+  public void testHeldOutEventsParameter() throws IOException {
+    File heldOutFile = File.createTempFile("held-out", ".events");
+    heldOutFile.deleteOnExit();
+    try (ObjectStream<Event> events = PrepAttachDataUtil.createDevStream();
+         Writer out = new OutputStreamWriter(Files.newOutputStream(heldOutFile.toPath()),
+             StandardCharsets.UTF_8)) {
+      Event event;
+      while ((event = events.read()) != null) {
+        out.write(FileEventStream.toLine(event));
+      }
+    }
+
+    AbstractEventTrainer monitoredTrainer = createTrainer(GISTrainer.MAXENT_VALUE, 300);
+    EarlyStoppingMonitor earlyStopping =
+        new EarlyStoppingMonitor(PrepAttachDataUtil.createDevStream(), 5, 2);
+    monitoredTrainer.addTrainingMonitor(earlyStopping);
+    monitoredTrainer.train(PrepAttachDataUtil.createTrainingStream());
+
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractTrainer.ALGORITHM_PARAM, GISTrainer.MAXENT_VALUE);
+    trainParams.put(AbstractTrainer.ITERATIONS_PARAM, 300);
+    trainParams.put(AbstractEventTrainer.HELD_OUT_EVENTS_PARAM, heldOutFile.getAbsolutePath());
+    trainParams.put(AbstractEventTrainer.HELD_OUT_INTERVAL_PARAM, 5);
+    trainParams.put(AbstractEventTrainer.HELD_OUT_PATIENCE_PARAM, 2);
+
+    RecordingMonitor recording = new RecordingMonitor(-1);
+    AbstractEventTrainer trainer =
+        (AbstractEventTrainer) TrainerFactory.getEventTrainer(trainParams, null);
+    trainer.addTrainingMonitor(recording);
+    MaxentModel model = trainer.train(PrepAttachDataUtil.createTrainingStream());
+
+    Assert.assertTrue(recording.metrics.size() < 300);
+    PrepAttachDataUtil.testModel(model, earlyStopping.getBestAccuracy());
+  }
+
+  @Test
+  public void testPerceptronStopsOnRequest() throws IOException {
+    AbstractEventTrainer trainer = createTrainer(PerceptronTrainer.PERCEPTRON_VALUE, 100);
+    RecordingMonitor recording = new RecordingMonitor(3);
+    trainer.addTrainingMonitor(recording);
+
+    trainer.train(PrepAttachDataUtil.createTrainingStream());
+
+    Assert.assertEquals(3, recording.metrics.size());
+    checkMetrics(recording.metrics);
+    Assert.assertTrue(Double.isNaN(recording.metrics.get(0).getLogLikelihood()));
+  }
+
+  @Test
+  public void testQNStopsOnRequest() throws IOException {
+    AbstractEventTrainer trainer = createTrainer(QNTrainer.MAXENT_QN_VALUE, 100);
+    RecordingMonitor recording = new RecordingMonitor(5);
+    trainer.addTrainingMonitor(recording);
+
+    trainer.train(PrepAttachDataUtil.createTrainingStream());
+
+    Assert.assertEquals(5, recording.metrics.size());
+    checkMetrics(recording.metrics);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidInterval() throws IOException {
+    new EarlyStoppingMonitor(PrepAttachDataUtil.createDevStream(), 0, 1);
+  }
+}
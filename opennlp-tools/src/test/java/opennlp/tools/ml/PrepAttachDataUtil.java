@@ -26,11 +26,13 @@ import java.util.List;
 
 import org.junit.Assert;
 
+import opennlp.tools.ml.model.AbstractModel;
 import opennlp.tools.ml.model.Event;
 import opennlp.tools.ml.model.MaxentModel;
 import opennlp.tools.ml.perceptron.PerceptronPrepAttachTest;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.ObjectStreamUtils;
+import opennlp.tools.util.TrainingParameters;
 
 public class PrepAttachDataUtil {
 
@@ -59,32 +61,40 @@ public class PrepAttachDataUtil {
     return ObjectStreamUtils.createObjectStream(trainingEvents);
   }
 
-  public static void testModel(MaxentModel model, double expecedAccuracy) throws IOException {
-
+  public static ObjectStream<Event> createDevStream() throws IOException {
     List<Event> devEvents = readPpaFile("devset");
+    return ObjectStreamUtils.createObjectStream(devEvents);
+  }
 
-    int total = 0;
-    int correct = 0;
-    for (Event ev: devEvents) {
-      String targetLabel = ev.getOutcome();
-      double[] ocs = model.eval(ev.getContext());
-
-      int best = 0;
-      for (int i = 1; i < ocs.length; i++) {
-        if (ocs[i] > ocs[best]) {
-          best = i;
-        }
-      }
-
-      String predictedLabel = model.getOutcome(best);
+  /**
+   * Trains a model on the PPA training set with the given algorithm,
+   * a cutoff of one and ten iterations.
+   */
+  public static AbstractModel train(String algorithm) throws IOException {
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractTrainer.ALGORITHM_PARAM, algorithm);
+    trainParams.put(AbstractTrainer.CUTOFF_PARAM, 1);
+    trainParams.put(AbstractTrainer.ITERATIONS_PARAM, 10);
+
+    EventTrainer trainer = TrainerFactory.getEventTrainer(trainParams, null);
+    return (AbstractModel) trainer.train(createTrainingStream());
+  }
 
-      if (targetLabel.equals(predictedLabel))
+  public static double accuracy(MaxentModel model) throws IOException {
+    int correct = 0;
+    int total = 0;
+    for (Event event : readPpaFile("devset")) {
+      if (event.getOutcome().equals(model.getBestOutcome(model.eval(event.getContext())))) {
         correct++;
+      }
       total++;
     }
+    return (double) correct / total;
+  }
 
-    double accuracy = correct / (double) total;
-    System.out.println("Accuracy on PPA devset: (" + correct + "/" + total + ") " + accuracy);
+  public static void testModel(MaxentModel model, double expecedAccuracy) throws IOException {
+    double accuracy = accuracy(model);
+    System.out.println("Accuracy on PPA devset: " + accuracy);
 
     Assert.assertEquals(expecedAccuracy, accuracy, .00001);
   }
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ml.maxent.quasinewton;
+
+import java.util.Map;
+import java.util.Random;
+
+import opennlp.tools.ml.model.DataIndexer;
+import opennlp.tools.ml.model.Event;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.TrainingParameters;
+
+/**
+ * Measures how long the objective functions of the QN trainer need for one pass over
+ * a large synthetic training set, which is the cost of one line search step.
+ * <p>
+ * Run with <code>java -Xmx4g opennlp.tools.ml.maxent.quasinewton.NegLogLikelihoodBenchmark
+ * [events] [outcomes]</code>.
+ */
+public class NegLogLikelihoodBenchmark {
+
+  private static final int NUM_PREDICATES = 50000;
+  private static final int CONTEXT_SIZE = 20;
+
+  private static double sink;
+
+  /**
+   * Data indexer which holds randomly generated events, the predicates follow
+   * a skewed distribution like the features of natural language text.
+   */
+  private static class SyntheticDataIndexer implements DataIndexer {
+
+    private final int[][] contexts;
+    private final int[] outcomeList;
+    private final int[] numTimesEventsSeen;
+    private final String[] predLabels;
+    private final String[] outcomeLabels;
+
+    SyntheticDataIndexer(int numEvents, int numOutcomes, Random random) {
+      contexts = new int[numEvents][CONTEXT_SIZE];
+      outcomeList = new int[numEvents];
+      numTimesEventsSeen = new int[numEvents];
+      for (int ci = 0; ci < numEvents; ci++) {
+        for (int ai = 0; ai < CONTEXT_SIZE; ai++) {
+          double r = random.nextDouble();
+          contexts[ci][ai] = (int) (NUM_PREDICATES * r * r * r);
+        }
+        outcomeList[ci] = random.nextInt(numOutcomes);
+        numTimesEventsSeen[ci] = 1;
+      }
+
+      predLabels = new String[NUM_PREDICATES];
+      for (int pi = 0; pi < NUM_PREDICATES; pi++) {
+        predLabels[pi] = "p" + pi;
+      }
+      outcomeLabels = new String[numOutcomes];
+      for (int oi = 0; oi < numOutcomes; oi++) {
+        outcomeLabels[oi] = "o" + oi;
+      }
+    }
+
+    public int[][] getContexts() {
+      return contexts;
+    }
+
+    public int[] getNumTimesEventsSeen() {
+      return numTimesEventsSeen;
+    }
+
+    public int[] getOutcomeList() {
+      return outcomeList;
+    }
+
+    public String[] getPredLabels() {
+      return predLabels;
+    }
+
+    public int[] getPredCounts() {
+      throw new UnsupportedOperationException();
+    }
+
+    public String[] getOutcomeLabels() {
+      return outcomeLabels;
+    }
+
+    public float[][] getValues() {
+      return null;
+    }
+
+    public int getNumEvents() {
+      return contexts.length;
+    }
+
+    public void init(TrainingParameters trainParams, Map<String, String> reportMap) {
+    }
+
+    public void index(ObjectStream<Event> eventStream) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private interface Pass {
+    double run(double[] x);
+  }
+
+  private static void run(String name, Pass pass, double[] x) {
+    for (int round = 0; round < 6; round++) {
+      long start = System.nanoTime();
+      sink += pass.run(x);
+      double millis = (System.nanoTime() - start) / 1e6;
+      if (round >= 2) {
+        System.out.printf("%-28s %8.1f ms%n", name, millis);
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    int numEvents = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int numOutcomes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+    Random random = new Random(42);
+    DataIndexer indexer = new SyntheticDataIndexer(numEvents, numOutcomes, random);
+
+    System.out.println(numEvents + " events, " + numOutcomes + " outcomes, "
+        + CONTEXT_SIZE + " predicates per event");
+
+    NegLogLikelihood dense = new NegLogLikelihood(indexer);
+    double[] x = new double[dense.getDimension()];
+    for (int i = 0; i < x.length; i++) {
+      x[i] = random.nextGaussian() * 0.1;
+    }
+
+    run("dense value", dense::valueAt, x);
+    run("dense value + gradient", p -> dense.valueAt(p) + dense.gradientAt(p)[0], x);
+    double[] gradient = new double[dense.getDimension()];
+    run("dense valueAndGradient", p -> dense.valueAndGradientAt(p, gradient), x);
+
+    SparseNegLogLikelihood sparse = new SparseNegLogLikelihood(indexer);
+    double[] xs = new double[sparse.getDimension()];
+    for (int i = 0; i < xs.length; i++) {
+      xs[i] = random.nextGaussian() * 0.1;
+    }
+
+    run("sparse value", sparse::valueAt, xs);
+    run("sparse value + gradient", p -> sparse.valueAt(p) + sparse.gradientAt(p)[0], xs);
+    double[] sparseGradient = new double[sparse.getDimension()];
+    run("sparse valueAndGradient", p -> sparse.valueAndGradientAt(p, sparseGradient), xs);
+
+    run("innerProduct x 100", p -> {
+      double sum = 0;
+      for (int i = 0; i < 100; i++) {
+        sum += ArrayMath.innerProduct(p, p);
+      }
+      return sum;
+    }, x);
+
+    System.out.println(sink != 0 ? "" : " ");
+  }
+}
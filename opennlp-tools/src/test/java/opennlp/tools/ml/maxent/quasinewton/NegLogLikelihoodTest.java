@@ -27,6 +27,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import opennlp.tools.ml.AbstractTrainer;
+import opennlp.tools.ml.model.Context;
 import opennlp.tools.ml.model.DataIndexer;
 import opennlp.tools.ml.model.OnePassRealValueDataIndexer;
 import opennlp.tools.ml.model.RealValueFileEventStream;
@@ -174,6 +175,60 @@ public class NegLogLikelihoodTest {
         testDataIndexer, TOLERANCE01));
   }
 
+  @Test
+  public void testSparseMatchesDenseAtObservedPairs() throws IOException {
+    // given
+    RealValueFileEventStream rvfes1 = new RealValueFileEventStream(
+        "src/test/resources/data/opennlp/maxent/real-valued-weights-training-data.txt", "UTF-8");
+    testDataIndexer.index(rvfes1);
+    NegLogLikelihood dense = new NegLogLikelihood(testDataIndexer);
+    SparseNegLogLikelihood sparse = new SparseNegLogLikelihood(testDataIndexer);
+    // when
+    double[] denseGradient = dense.gradientAt(dense.getInitialPoint());
+    double[] sparseGradient = sparse.gradientAt(sparse.getInitialPoint());
+    // then
+    Assert.assertTrue(sparse.getDimension() < dense.getDimension());
+    Assert.assertEquals(dense.valueAt(dense.getInitialPoint()),
+        sparse.valueAt(sparse.getInitialPoint()), TOLERANCE02);
+
+    Context[] observed = sparse.toContexts(sparseGradient);
+    int numPreds = testDataIndexer.getPredLabels().length;
+    int k = 0;
+    for (int pi = 0; pi < numPreds; pi++) {
+      for (int oi : observed[pi].getOutcomes()) {
+        Assert.assertEquals(denseGradient[oi * numPreds + pi], sparseGradient[k++], TOLERANCE02);
+      }
+    }
+    Assert.assertEquals(sparse.getDimension(), k);
+  }
+
+  @Test
+  public void testValueAndGradientAtNonInitialPoint() throws IOException {
+    // given
+    RealValueFileEventStream rvfes1 = new RealValueFileEventStream(
+        "src/test/resources/data/opennlp/maxent/real-valued-weights-training-data.txt", "UTF-8");
+    testDataIndexer.index(rvfes1);
+    Function[] functions = new Function[] {new NegLogLikelihood(testDataIndexer),
+        new ParallelNegLogLikelihood(testDataIndexer, 2),
+        new SparseNegLogLikelihood(testDataIndexer),
+        new SparseNegLogLikelihood(testDataIndexer, 2)};
+    for (Function function : functions) {
+      double[] point = new double[function.getDimension()];
+      for (int i = 0; i < point.length; i++) {
+        point[i] = i % 2 == 0 ? 0.2 : 0.5;
+      }
+      // when
+      double[] gradient = new double[function.getDimension()];
+      double value = function.valueAndGradientAt(point, gradient);
+      // then
+      Assert.assertEquals(function.valueAt(point), value, TOLERANCE02);
+      double[] expectedGradient = function.gradientAt(point);
+      for (int i = 0; i < gradient.length; i++) {
+        Assert.assertEquals(expectedGradient[i], gradient[i], TOLERANCE02);
+      }
+    }
+  }
+
   private double[] alignDoubleArrayForTestData(double[] expected,
       String[] predLabels, String[] outcomeLabels) {
     double[] aligned = new double[predLabels.length * outcomeLabels.length];
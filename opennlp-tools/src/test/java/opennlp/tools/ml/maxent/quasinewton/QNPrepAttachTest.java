@@ -124,5 +124,32 @@ public class QNPrepAttachTest {
 
     PrepAttachDataUtil.testModel(model, 0.8115870264917059);
   }
+
+  @Test
+  public void testQNOnPrepAttachDataWithSparseParams() throws IOException {
+
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractTrainer.ALGORITHM_PARAM, QNTrainer.MAXENT_QN_VALUE);
+    trainParams.put(QNTrainer.SPARSE_PARAM, true);
+
+    MaxentModel model = TrainerFactory.getEventTrainer(trainParams, null)
+                                      .train(PrepAttachDataUtil.createTrainingStream());
+
+    PrepAttachDataUtil.testModel(model, 0.8135677147808864);
+  }
+
+  @Test
+  public void testQNOnPrepAttachDataWithSparseParamsInParallel() throws IOException {
+
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractTrainer.ALGORITHM_PARAM, QNTrainer.MAXENT_QN_VALUE);
+    trainParams.put(QNTrainer.SPARSE_PARAM, true);
+    trainParams.put(QNTrainer.THREADS_PARAM, 2);
+
+    MaxentModel model = TrainerFactory.getEventTrainer(trainParams, null)
+                                      .train(PrepAttachDataUtil.createTrainingStream());
+
+    PrepAttachDataUtil.testModel(model, 0.8135677147808864);
+  }
 }
 
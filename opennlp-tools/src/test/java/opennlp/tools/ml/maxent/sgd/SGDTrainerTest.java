@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.maxent.sgd;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import opennlp.tools.ml.AbstractTrainer;
+import opennlp.tools.ml.EventTrainer;
+import opennlp.tools.ml.PrepAttachDataUtil;
+import opennlp.tools.ml.TrainerFactory;
+import opennlp.tools.ml.maxent.GISModel;
+import opennlp.tools.ml.model.DataIndexer;
+import opennlp.tools.ml.model.MaxentModel;
+import opennlp.tools.ml.model.TwoPassDataIndexer;
+import opennlp.tools.util.TrainingParameters;
+
+public class SGDTrainerTest {
+
+  private static TrainingParameters createParameters(SGDTrainer.Optimizer optimizer) {
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractTrainer.ALGORITHM_PARAM, SGDTrainer.MAXENT_SGD_VALUE);
+    trainParams.put(AbstractTrainer.CUTOFF_PARAM, 1);
+    trainParams.put(SGDTrainer.OPTIMIZER_PARAM, optimizer.name());
+    return trainParams;
+  }
+
+  private static MaxentModel train(TrainingParameters trainParams) throws IOException {
+    EventTrainer trainer = TrainerFactory.getEventTrainer(trainParams, null);
+    Assert.assertTrue(trainer instanceof SGDTrainer);
+    return trainer.train(PrepAttachDataUtil.createTrainingStream());
+  }
+
+  @Test
+  public void testSGD() throws IOException {
+    TrainingParameters trainParams = createParameters(SGDTrainer.Optimizer.SGD);
+    PrepAttachDataUtil.testModel(train(trainParams), 0.8145580589254766);
+  }
+
+  @Test
+  public void testAdaGrad() throws IOException {
+    TrainingParameters trainParams = createParameters(SGDTrainer.Optimizer.ADAGRAD);
+    PrepAttachDataUtil.testModel(train(trainParams), 0.817776677395395);
+  }
+
+  @Test
+  public void testFTRL() throws IOException {
+    TrainingParameters trainParams = createParameters(SGDTrainer.Optimizer.FTRL);
+    PrepAttachDataUtil.testModel(train(trainParams), 0.8128249566724437);
+  }
+
+  @Test
+  public void testFTRLWithL1CostIsSparse() throws IOException {
+    TrainingParameters trainParams = createParameters(SGDTrainer.Optimizer.FTRL);
+    GISModel dense = (GISModel) train(trainParams);
+
+    trainParams.put(SGDTrainer.L1COST_PARAM, 1.0);
+    GISModel sparse = (GISModel) train(trainParams);
+
+    int numDense = ((Map<?, ?>) dense.getDataStructures()[1]).size();
+    int numSparse = ((Map<?, ?>) sparse.getDataStructures()[1]).size();
+
+    Assert.assertTrue(numSparse < numDense / 5);
+    Assert.assertTrue(PrepAttachDataUtil.accuracy(sparse) > 0.8);
+  }
+
+  @Test
+  public void testThreads() throws IOException {
+    TrainingParameters trainParams = createParameters(SGDTrainer.Optimizer.ADAGRAD);
+    trainParams.put(TrainingParameters.THREADS_PARAM, 4);
+    // the updates of the threads interleave, so only the quality is checked
+    Assert.assertTrue(PrepAttachDataUtil.accuracy(train(trainParams)) > 0.81);
+  }
+
+  @Test
+  public void testDataIndexer() throws IOException {
+    TrainingParameters trainParams = createParameters(SGDTrainer.Optimizer.SGD);
+
+    DataIndexer indexer = new TwoPassDataIndexer();
+    indexer.init(trainParams, null);
+    indexer.index(PrepAttachDataUtil.createTrainingStream());
+
+    SGDTrainer trainer = new SGDTrainer();
+    trainer.init(trainParams, null);
+    double accuracy = PrepAttachDataUtil.accuracy(trainer.train(indexer));
+
+    // the shuffling is seeded, so training again gives the same model
+    trainer = new SGDTrainer();
+    trainer.init(trainParams, null);
+    Assert.assertEquals(accuracy, PrepAttachDataUtil.accuracy(trainer.train(indexer)), 0);
+    Assert.assertTrue(accuracy > 0.8);
+  }
+}
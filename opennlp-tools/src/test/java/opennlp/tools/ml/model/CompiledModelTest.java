@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ml.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import opennlp.tools.ml.PrepAttachDataUtil;
+import opennlp.tools.ml.maxent.GISTrainer;
+import opennlp.tools.ml.maxent.quasinewton.QNTrainer;
+import opennlp.tools.ml.naivebayes.NaiveBayesTrainer;
+import opennlp.tools.ml.perceptron.PerceptronTrainer;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.model.ModelUtil;
+
+public class CompiledModelTest {
+
+  private static void assertSameEvaluation(AbstractModel model) throws IOException {
+    Assert.assertTrue(model.isCompilable());
+
+    List<String[]> contexts = new ArrayList<>();
+    List<double[]> expectedProbs = new ArrayList<>();
+    try (ObjectStream<Event> events = PrepAttachDataUtil.createDevStream()) {
+      Event event;
+      while ((event = events.read()) != null) {
+        contexts.add(event.getContext());
+        expectedProbs.add(model.eval(event.getContext()));
+      }
+    }
+
+    CompiledModel compiled = model.compile();
+    Assert.assertSame(compiled, model.compile());
+    Assert.assertEquals(model.getNumOutcomes(), compiled.getNumOutcomes());
+
+    double[] probs = new double[compiled.getNumOutcomes()];
+    String[] predLabels = compiled.getPredicateIndex().toArray();
+
+    for (int i = 0; i < contexts.size(); i++) {
+      String[] context = contexts.get(i);
+      double[] expected = expectedProbs.get(i);
+
+      Assert.assertArrayEquals(expected, compiled.eval(context), 0d);
+      Assert.assertArrayEquals(expected, compiled.eval(context, probs), 0d);
+
+      int[] predIds = compiled.getPredicateIndex().get(context, new int[context.length]);
+      Assert.assertEquals(context.length, predIds.length);
+      for (int ci = 0; ci < context.length; ci++) {
+        Assert.assertTrue(predIds[ci] < 0 || predLabels[predIds[ci]].equals(context[ci]));
+      }
+      Assert.assertArrayEquals(expected, compiled.eval(predIds, probs), 0d);
+      Assert.assertEquals(model.getBestOutcome(expected), compiled.getBestOutcome(probs));
+
+      // the compiled model evaluates in place of the source model
+      Assert.assertArrayEquals(expected, model.eval(context), 0d);
+    }
+  }
+
+  @Test
+  public void testGISModel() throws IOException {
+    assertSameEvaluation(PrepAttachDataUtil.train(GISTrainer.MAXENT_VALUE));
+  }
+
+  @Test
+  public void testQNModel() throws IOException {
+    assertSameEvaluation(PrepAttachDataUtil.train(QNTrainer.MAXENT_QN_VALUE));
+  }
+
+  @Test
+  public void testPerceptronModel() throws IOException {
+    assertSameEvaluation(PrepAttachDataUtil.train(PerceptronTrainer.PERCEPTRON_VALUE));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testCompiledModelKeepsTheDataStructures() throws IOException {
+    AbstractModel model = PrepAttachDataUtil.train(GISTrainer.MAXENT_VALUE);
+    Map<String, Context> pmap = new HashMap<>((Map<String, Context>) model.getDataStructures()[1]);
+
+    model.compile();
+
+    Object[] dataStructures = model.getDataStructures();
+    Assert.assertEquals(pmap, dataStructures[1]);
+    Assert.assertEquals(pmap.size(), ((Context[]) dataStructures[0]).length);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ModelUtil.writeModel(model, out);
+    AbstractModel readModel = new GenericModelReader(new BinaryFileDataReader(
+        new ByteArrayInputStream(out.toByteArray()))).getModel();
+    Assert.assertEquals(readModel, model);
+    Assert.assertEquals(model, readModel);
+  }
+
+  @Test
+  public void testNaiveBayesModelIsNotCompilable() throws IOException {
+    Assert.assertFalse(PrepAttachDataUtil.train(NaiveBayesTrainer.NAIVE_BAYES_VALUE).isCompilable());
+  }
+
+  @Test
+  public void testPredicateIndex() {
+    PredicateIndex index = new PredicateIndex(new String[] {"a", "b", "c=1", "d"});
+    Assert.assertEquals(4, index.size());
+    Assert.assertEquals(0, index.get("a"));
+    Assert.assertEquals(2, index.get("c=1"));
+    Assert.assertEquals(3, index.get("d"));
+    Assert.assertEquals(-1, index.get("e"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPredicateIndexWithDuplicates() {
+    new PredicateIndex(new String[] {"a", "b", "a"});
+  }
+}
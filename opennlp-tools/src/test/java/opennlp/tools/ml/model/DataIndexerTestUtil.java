@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.ml.model;
+
+import org.junit.Assert;
+
+public class DataIndexerTestUtil {
+
+  /**
+   * Asserts that two indexers produced the same index of events without values.
+   */
+  public static void assertSameIndex(DataIndexer expected, DataIndexer actual) {
+    Assert.assertEquals(expected.getNumEvents(), actual.getNumEvents());
+    Assert.assertArrayEquals(expected.getPredLabels(), actual.getPredLabels());
+    Assert.assertArrayEquals(expected.getPredCounts(), actual.getPredCounts());
+    Assert.assertArrayEquals(expected.getOutcomeLabels(), actual.getOutcomeLabels());
+    Assert.assertArrayEquals(expected.getOutcomeList(), actual.getOutcomeList());
+    Assert.assertArrayEquals(expected.getNumTimesEventsSeen(), actual.getNumTimesEventsSeen());
+    Assert.assertEquals(expected.getContexts().length, actual.getContexts().length);
+    for (int i = 0; i < expected.getContexts().length; i++) {
+      Assert.assertArrayEquals(expected.getContexts()[i], actual.getContexts()[i]);
+    }
+    Assert.assertNull(actual.getValues());
+  }
+}
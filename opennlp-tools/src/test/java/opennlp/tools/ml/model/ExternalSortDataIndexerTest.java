@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import opennlp.tools.ml.AbstractEventTrainer;
+import opennlp.tools.ml.PrepAttachDataUtil;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.TrainingParameters;
+
+public class ExternalSortDataIndexerTest {
+
+  private static DataIndexer index(DataIndexer indexer, int cutoff, int runSize)
+      throws IOException {
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractDataIndexer.CUTOFF_PARAM, cutoff);
+    trainParams.put(ExternalSortDataIndexer.RUN_SIZE_PARAM, runSize);
+
+    indexer.init(trainParams, null);
+    try (ObjectStream<Event> events = PrepAttachDataUtil.createTrainingStream()) {
+      indexer.index(events);
+    }
+    return indexer;
+  }
+
+  @Test
+  public void testSameIndexAsTwoPass() throws IOException {
+    for (int cutoff : new int[] {1, 3}) {
+      DataIndexer expected = index(new TwoPassDataIndexer(), cutoff, 1);
+
+      // a single run and many small runs
+      DataIndexerTestUtil.assertSameIndex(expected,
+          index(new ExternalSortDataIndexer(), cutoff, Integer.MAX_VALUE));
+      DataIndexerTestUtil.assertSameIndex(expected, index(new ExternalSortDataIndexer(), cutoff, 1000));
+      DataIndexerTestUtil.assertSameIndex(expected, index(new ExternalSortDataIndexer(), cutoff, 7));
+    }
+  }
+
+  @Test
+  public void testIndex() throws IOException {
+    ObjectStream<Event> eventStream = new SimpleEventStreamBuilder()
+        .add("other/w=he n1w=belongs po=other ppo=other")
+        .add("other/w=belongs p1w=he po=other ppo=other")
+        .add("org-start/w=apache p1w=to po=other ppo=other")
+        .add("other/w=he n1w=belongs po=other ppo=other")
+        .add("org-cont/w=software ppo=org-start")
+        .build();
+
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractDataIndexer.CUTOFF_PARAM, 2);
+    trainParams.put(ExternalSortDataIndexer.RUN_SIZE_PARAM, 2);
+
+    DataIndexer indexer = new ExternalSortDataIndexer();
+    indexer.init(trainParams, null);
+    indexer.index(eventStream);
+
+    Assert.assertEquals(4, indexer.getNumEvents());
+    Assert.assertArrayEquals(new String[] {"n1w=belongs", "po=other", "ppo=other", "w=he"},
+        indexer.getPredLabels());
+    Assert.assertArrayEquals(new int[] {2, 4, 4, 2}, indexer.getPredCounts());
+    Assert.assertArrayEquals(new String[] {"other", "org-start", "org-cont"},
+        indexer.getOutcomeLabels());
+    Assert.assertArrayEquals(new int[] {0, 0, 1}, indexer.getOutcomeList());
+    Assert.assertArrayEquals(new int[] {1, 2, 1}, indexer.getNumTimesEventsSeen());
+    Assert.assertArrayEquals(new int[] {1, 2}, indexer.getContexts()[0]);
+    Assert.assertArrayEquals(new int[] {3, 0, 1, 2}, indexer.getContexts()[1]);
+    Assert.assertArrayEquals(new int[] {1, 2}, indexer.getContexts()[2]);
+  }
+
+  @Test
+  public void testDataIndexerFactory() {
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractEventTrainer.DATA_INDEXER_PARAM,
+        AbstractEventTrainer.DATA_INDEXER_EXTERNAL_SORT_VALUE);
+
+    Assert.assertTrue(DataIndexerFactory.getDataIndexer(trainParams, null)
+        instanceof ExternalSortDataIndexer);
+  }
+}
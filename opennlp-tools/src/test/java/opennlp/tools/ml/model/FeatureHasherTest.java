@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link FeatureHasher} class.
+ */
+public class FeatureHasherTest {
+
+  @Test
+  public void testIncrementalHash() {
+    String feature = "p=U.S.";
+    char[] chars = ("  " + feature).toCharArray();
+
+    long hash = FeatureHasher.hash(feature);
+    Assert.assertEquals(hash, FeatureHasher.update(FeatureHasher.begin(), chars, 2, chars.length));
+    Assert.assertEquals(hash, FeatureHasher.update(FeatureHasher.hash("p="), "U.S.", 0, 4));
+    Assert.assertEquals(hash, FeatureHasher.update(FeatureHasher.hash("p=U.S"), '.'));
+  }
+
+  @Test
+  public void testStableIds() {
+    // models depend on the ids, they must never change
+    Assert.assertEquals(0xcbf29ce484222325L, FeatureHasher.hash(""));
+    Assert.assertEquals(0xaf63dc4c8601ec8cL, FeatureHasher.hash("a"));
+    Assert.assertEquals(FeatureHasher.id("f1=a", 20) >>> 10, FeatureHasher.id("f1=a", 10));
+  }
+
+  @Test
+  public void testIdRange() {
+    for (int i = 0; i < 1000; i++) {
+      int id = FeatureHasher.id("f" + i, 7);
+      Assert.assertTrue(id >= 0 && id < 128);
+    }
+    Assert.assertTrue(FeatureHasher.id("f", FeatureHasher.MAX_BITS) >= 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBits() {
+    FeatureHasher.checkBits(0);
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import opennlp.tools.ml.AbstractEventTrainer;
+import opennlp.tools.ml.TrainerFactory;
+import opennlp.tools.ml.maxent.quasinewton.QNTrainer;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.TrainingParameters;
+
+public class HashingDataIndexerTest {
+
+  private static ObjectStream<Event> createEventStream() {
+    return new SimpleEventStreamBuilder()
+        .add("other/w=he n1w=belongs ppo=other")
+        .add("other/w=belongs p1w=he ppo=other")
+        .add("org-start/w=apache p1w=to ppo=other")
+        .add("org-cont/w=software p1w=apache ppo=org-start")
+        .build();
+  }
+
+  private static DataIndexer createIndexer(int cutoff, boolean signed,
+      Map<String, String> reportMap) {
+    return createIndexer(16, cutoff, signed, reportMap);
+  }
+
+  private static DataIndexer createIndexer(int bits, int cutoff, boolean signed,
+      Map<String, String> reportMap) {
+    TrainingParameters params = new TrainingParameters();
+    params.put(TrainingParameters.CUTOFF_PARAM, cutoff);
+    params.put(HashingDataIndexer.BITS_PARAM, bits);
+    params.put(HashingDataIndexer.SIGNED_PARAM, signed);
+
+    DataIndexer indexer = new HashingDataIndexer();
+    indexer.init(params, reportMap);
+    return indexer;
+  }
+
+  @Test
+  public void testIndex() throws IOException {
+    Map<String, String> reportMap = new HashMap<>();
+    DataIndexer indexer = createIndexer(0, false, reportMap);
+    indexer.index(createEventStream());
+
+    Assert.assertEquals(4, indexer.getNumEvents());
+    Assert.assertArrayEquals(new String[]{"other", "org-start", "org-cont"},
+        indexer.getOutcomeLabels());
+    Assert.assertNull(indexer.getValues());
+
+    // the predicates are the ids of the features in increasing order
+    String[] predLabels = indexer.getPredLabels();
+    Assert.assertEquals(10, predLabels.length);
+    for (int i = 0; i < predLabels.length; i++) {
+      if (i > 0) {
+        Assert.assertTrue(Integer.parseInt(predLabels[i - 1]) < Integer.parseInt(predLabels[i]));
+      }
+    }
+    int ppoOther = indexOf(predLabels, Integer.toString(FeatureHasher.id("ppo=other", 16)));
+    Assert.assertEquals(3, indexer.getPredCounts()[ppoOther]);
+
+    Assert.assertEquals("16", reportMap.get(HashedModel.BITS_PROPERTY));
+    Assert.assertEquals("false", reportMap.get(HashedModel.SIGNED_PROPERTY));
+  }
+
+  @Test
+  public void testCutoff() throws IOException {
+    DataIndexer indexer = createIndexer(3, false, null);
+    indexer.index(createEventStream());
+
+    // only ppo=other passes the cutoff, the last event has no features left
+    Assert.assertArrayEquals(new String[]{Integer.toString(FeatureHasher.id("ppo=other", 16))},
+        indexer.getPredLabels());
+    Assert.assertEquals(3, indexer.getNumEvents());
+    Assert.assertEquals(2, indexer.getContexts().length);
+    Assert.assertArrayEquals(new int[]{0}, indexer.getContexts()[0]);
+  }
+
+  @Test
+  public void testMaxBits() throws IOException {
+    // the counts are not sized by the 2^bits possible ids
+    DataIndexer indexer = createIndexer(FeatureHasher.MAX_BITS, 0, false, null);
+    indexer.index(createEventStream());
+
+    String[] predLabels = indexer.getPredLabels();
+    Assert.assertEquals(10, predLabels.length);
+    int ppoOther = indexOf(predLabels,
+        Integer.toString(FeatureHasher.id("ppo=other", FeatureHasher.MAX_BITS)));
+    Assert.assertEquals(3, indexer.getPredCounts()[ppoOther]);
+  }
+
+  @Test
+  public void testSignedValues() throws IOException {
+    DataIndexer indexer = createIndexer(0, true, null);
+    indexer.index(createEventStream());
+
+    float[][] values = indexer.getValues();
+    Assert.assertNotNull(values);
+    Assert.assertEquals(indexer.getContexts().length, values.length);
+
+    String[] predLabels = indexer.getPredLabels();
+    for (String feature : new String[]{"w=he", "ppo=other", "p1w=apache"}) {
+      int pred = indexOf(predLabels, Integer.toString(FeatureHasher.id(feature, 16)));
+      int sign = FeatureHasher.sign(FeatureHasher.hash(feature));
+      for (int e = 0; e < values.length; e++) {
+        int[] context = indexer.getContexts()[e];
+        for (int i = 0; i < context.length; i++) {
+          if (context[i] == pred) {
+            Assert.assertEquals(sign, values[e][i], 0f);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testTrainAndEval() throws IOException {
+    TrainingParameters params = new TrainingParameters();
+    params.put(TrainingParameters.ALGORITHM_PARAM, QNTrainer.MAXENT_QN_VALUE);
+    params.put(TrainingParameters.CUTOFF_PARAM, 0);
+    params.put(TrainingParameters.ITERATIONS_PARAM, 50);
+    params.put(AbstractEventTrainer.DATA_INDEXER_PARAM,
+        AbstractEventTrainer.DATA_INDEXER_HASHING_VALUE);
+    params.put(HashingDataIndexer.BITS_PARAM, 16);
+    params.put(HashingDataIndexer.SIGNED_PARAM, true);
+
+    Map<String, String> reportMap = new HashMap<>();
+    MaxentModel model = TrainerFactory.getEventTrainer(params, reportMap)
+        .train(createEventStream());
+    HashedModel hashedModel = new HashedModel(model,
+        Integer.parseInt(reportMap.get(HashedModel.BITS_PROPERTY)),
+        Boolean.parseBoolean(reportMap.get(HashedModel.SIGNED_PROPERTY)));
+
+    Assert.assertEquals("org-start",
+        hashedModel.getBestOutcome(hashedModel.eval(new String[]{"w=apache", "p1w=to"})));
+    Assert.assertEquals("org-cont",
+        hashedModel.getBestOutcome(hashedModel.eval(new String[]{"w=software", "ppo=org-start"})));
+
+    int[] featureIds = {FeatureHasher.id("w=apache", 16), FeatureHasher.id("unseen", 16)};
+    double[] expected = hashedModel.eval(featureIds, 2, new double[hashedModel.getNumOutcomes()]);
+
+    // the ids are valid for more bits too, the table must not be sized by the bits
+    HashedModel maxBitsModel = new HashedModel(model, FeatureHasher.MAX_BITS);
+    Assert.assertArrayEquals(expected,
+        maxBitsModel.eval(featureIds, 2, new double[maxBitsModel.getNumOutcomes()]), 0);
+  }
+
+  private static int indexOf(String[] labels, String label) {
+    for (int i = 0; i < labels.length; i++) {
+      if (labels[i].equals(label)) {
+        return i;
+      }
+    }
+    throw new AssertionError(label + " not found");
+  }
+}
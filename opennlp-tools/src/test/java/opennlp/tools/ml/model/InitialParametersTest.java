@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import opennlp.tools.ml.AbstractEventTrainer;
+import opennlp.tools.ml.AbstractTrainer;
+import opennlp.tools.ml.EventTrainer;
+import opennlp.tools.ml.PrepAttachDataUtil;
+import opennlp.tools.ml.TrainerFactory;
+import opennlp.tools.ml.maxent.GISModel;
+import opennlp.tools.ml.maxent.GISTrainer;
+import opennlp.tools.ml.maxent.quasinewton.QNTrainer;
+import opennlp.tools.ml.naivebayes.NaiveBayesModel;
+import opennlp.tools.ml.naivebayes.NaiveBayesTrainer;
+import opennlp.tools.ml.perceptron.PerceptronTrainer;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.ObjectStreamUtils;
+import opennlp.tools.util.TrainingParameters;
+
+public class InitialParametersTest {
+
+  private static AbstractModel model;
+
+  @BeforeClass
+  public static void trainModel() throws IOException {
+    model = (AbstractModel) createTrainer(GISTrainer.MAXENT_VALUE, 100)
+        .train(PrepAttachDataUtil.createTrainingStream());
+  }
+
+  private static EventTrainer createTrainer(String algorithm, int iterations) {
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractTrainer.ALGORITHM_PARAM, algorithm);
+    trainParams.put(AbstractTrainer.CUTOFF_PARAM, 1);
+    trainParams.put(AbstractTrainer.ITERATIONS_PARAM, iterations);
+    return TrainerFactory.getEventTrainer(trainParams, null);
+  }
+
+  private static ModelDeltaEvaluator evaluate(MaxentModel trained) throws IOException {
+    ModelDeltaEvaluator evaluator = new ModelDeltaEvaluator(model, trained);
+    try (ObjectStream<Event> events = PrepAttachDataUtil.createDevStream()) {
+      evaluator.evaluate(events);
+    }
+    return evaluator;
+  }
+
+  @Test
+  public void testParametersAreMatchedByName() {
+    Context[] params = new Context[] {
+        new Context(new int[] {0, 1}, new double[] {1, 2}),
+        new Context(new int[] {1}, new double[] {3})
+    };
+    AbstractModel existing = new GISModel(params, new String[] {"a", "b"},
+        new String[] {"x", "y"});
+
+    InitialParameters initial = new InitialParameters(existing,
+        new String[] {"b", "c", "a"}, new String[] {"y", "z", "x"});
+
+    Assert.assertEquals(2, initial.getNumInitializedPredicates());
+
+    double[] parameters = new double[3];
+    Assert.assertTrue(initial.getParameters(0, parameters));
+    Assert.assertArrayEquals(new double[] {3, 0, 0}, parameters, 0d);
+
+    Assert.assertFalse(initial.getParameters(1, parameters));
+    Assert.assertArrayEquals(new double[] {0, 0, 0}, parameters, 0d);
+
+    Assert.assertTrue(initial.getParameters(2, parameters));
+    Assert.assertArrayEquals(new double[] {2, 0, 1}, parameters, 0d);
+
+    MutableContext[] contexts = new MutableContext[] {
+        new MutableContext(new int[] {0, 1}, new double[2]),
+        new MutableContext(new int[] {0}, new double[1]),
+        new MutableContext(new int[] {0, 2}, new double[2])
+    };
+    initial.initialize(contexts);
+
+    Assert.assertArrayEquals(new double[] {3, 0}, contexts[0].getParameters(), 0d);
+    Assert.assertArrayEquals(new double[] {0}, contexts[1].getParameters(), 0d);
+    Assert.assertArrayEquals(new double[] {2, 1}, contexts[2].getParameters(), 0d);
+  }
+
+  @Test
+  public void testUnionKeepsPredicatesOfExistingModel() {
+    Context[] params = new Context[] {
+        new Context(new int[] {0, 1}, new double[] {1, 2}),
+        new Context(new int[] {1}, new double[] {3})
+    };
+    AbstractModel existing = new NaiveBayesModel(params, new String[] {"a", "b"},
+        new String[] {"x", "y"});
+
+    InitialParameters initial = new InitialParameters(existing,
+        new String[] {"c", "b"}, new String[] {"z", "y"}, true);
+
+    Assert.assertArrayEquals(new String[] {"c", "b", "a"}, initial.getPredLabels());
+    Assert.assertArrayEquals(new String[] {"z", "y", "x"}, initial.getOutcomeLabels());
+    Assert.assertEquals(2, initial.getNumInitializedPredicates());
+
+    double[] parameters = new double[3];
+    Assert.assertFalse(initial.getParameters(0, parameters));
+    Assert.assertTrue(initial.getParameters(1, parameters));
+    Assert.assertArrayEquals(new double[] {0, 3, 0}, parameters, 0d);
+    Assert.assertTrue(initial.getParameters(2, parameters));
+    Assert.assertArrayEquals(new double[] {0, 2, 1}, parameters, 0d);
+  }
+
+  @Test
+  public void testNaiveBayesTrainsOnlyNewData() throws IOException {
+    AbstractModel existing = (AbstractModel) createTrainer(NaiveBayesTrainer.NAIVE_BAYES_VALUE, 1)
+        .train(ObjectStreamUtils.createObjectStream(
+            new Event("x", new String[] {"a"}),
+            new Event("y", new String[] {"b"})));
+
+    AbstractEventTrainer trainer =
+        (AbstractEventTrainer) createTrainer(NaiveBayesTrainer.NAIVE_BAYES_VALUE, 1);
+    trainer.setInitialModel(existing);
+    MaxentModel updated = trainer.train(ObjectStreamUtils.createObjectStream(
+        new Event("y", new String[] {"c"}),
+        new Event("z", new String[] {"c"})));
+
+    Assert.assertEquals(3, updated.getNumOutcomes());
+    Assert.assertEquals("x", updated.getBestOutcome(updated.eval(new String[] {"a"})));
+    Assert.assertEquals("y", updated.getBestOutcome(updated.eval(new String[] {"b"})));
+    Assert.assertEquals(0.5, updated.eval(new String[] {"c"})[updated.getIndex("z")], 0.1);
+  }
+
+  @Test
+  public void testGISContinuesFromInitialModel() throws IOException {
+    ModelDeltaEvaluator cold = evaluate(createTrainer(GISTrainer.MAXENT_VALUE, 1)
+        .train(PrepAttachDataUtil.createTrainingStream()));
+
+    AbstractEventTrainer trainer =
+        (AbstractEventTrainer) createTrainer(GISTrainer.MAXENT_VALUE, 1);
+    trainer.setInitialModel(model);
+    ModelDeltaEvaluator warm = evaluate(trainer.train(PrepAttachDataUtil.createTrainingStream()));
+
+    Assert.assertTrue(warm.getAgreement() > 0.99);
+    Assert.assertTrue(warm.getMeanProbabilityDelta() < cold.getMeanProbabilityDelta());
+  }
+
+  @Test
+  public void testQNStartsFromInitialModelFile() throws IOException {
+    File modelFile = File.createTempFile("initial", ".bin");
+    modelFile.deleteOnExit();
+    new GenericModelWriter(model, modelFile).persist();
+
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractTrainer.ALGORITHM_PARAM, QNTrainer.MAXENT_QN_VALUE);
+    trainParams.put(AbstractTrainer.CUTOFF_PARAM, 1);
+    trainParams.put(AbstractTrainer.ITERATIONS_PARAM, 1);
+    trainParams.put(AbstractEventTrainer.INITIAL_MODEL_PARAM, modelFile.getAbsolutePath());
+
+    MaxentModel warm = TrainerFactory.getEventTrainer(trainParams, null)
+        .train(PrepAttachDataUtil.createTrainingStream());
+
+    Assert.assertTrue(evaluate(warm).getAgreement() > 0.99);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testIncompatibleModelType() throws IOException {
+    AbstractEventTrainer trainer =
+        (AbstractEventTrainer) createTrainer(PerceptronTrainer.PERCEPTRON_VALUE, 1);
+    trainer.setInitialModel(model);
+    trainer.train(PrepAttachDataUtil.createTrainingStream());
+  }
+}
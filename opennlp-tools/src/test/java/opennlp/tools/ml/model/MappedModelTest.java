@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import opennlp.tools.ml.PrepAttachDataUtil;
+import opennlp.tools.ml.maxent.GISTrainer;
+import opennlp.tools.ml.maxent.quasinewton.QNTrainer;
+import opennlp.tools.ml.perceptron.PerceptronTrainer;
+import opennlp.tools.util.InvalidFormatException;
+import opennlp.tools.util.ObjectStream;
+
+public class MappedModelTest {
+
+  private static void assertSameEvaluation(AbstractModel model) throws IOException {
+    File modelFile = File.createTempFile("mapped-model", ".bin");
+    modelFile.deleteOnExit();
+
+    new MappedModelWriter(model, modelFile).persist();
+    MappedModel mapped = MappedModel.map(modelFile);
+
+    Assert.assertEquals(model.getModelType(), mapped.getModelType());
+    Assert.assertEquals(model.getNumOutcomes(), mapped.getNumOutcomes());
+    for (int i = 0; i < model.getNumOutcomes(); i++) {
+      Assert.assertEquals(model.getOutcome(i), mapped.getOutcome(i));
+    }
+
+    Object[] dataStructures = model.getDataStructures();
+    @SuppressWarnings("unchecked")
+    Map<String, Context> pmap = (Map<String, Context>) dataStructures[1];
+    Assert.assertEquals(-1, mapped.getPredicateId("not-a-predicate"));
+    for (String predicate : pmap.keySet()) {
+      Assert.assertTrue(mapped.getPredicateId(predicate) >= 0);
+    }
+
+    double[] probs = new double[mapped.getNumOutcomes()];
+
+    try (ObjectStream<Event> events = PrepAttachDataUtil.createDevStream()) {
+      Event event;
+      while ((event = events.read()) != null) {
+        String[] context = event.getContext();
+        double[] expected = model.eval(context);
+
+        Assert.assertArrayEquals(expected, mapped.eval(context), 0d);
+        Assert.assertArrayEquals(expected, mapped.eval(context, probs), 0d);
+        Assert.assertEquals(model.getBestOutcome(expected), mapped.getBestOutcome(probs));
+      }
+    }
+  }
+
+  @Test
+  public void testGISModel() throws IOException {
+    assertSameEvaluation(PrepAttachDataUtil.train(GISTrainer.MAXENT_VALUE));
+  }
+
+  @Test
+  public void testQNModel() throws IOException {
+    assertSameEvaluation(PrepAttachDataUtil.train(QNTrainer.MAXENT_QN_VALUE));
+  }
+
+  @Test
+  public void testPerceptronModel() throws IOException {
+    assertSameEvaluation(PrepAttachDataUtil.train(PerceptronTrainer.PERCEPTRON_VALUE));
+  }
+
+  @Test(expected = InvalidFormatException.class)
+  public void testInvalidFile() throws IOException {
+    MappedModel.wrap(ByteBuffer.wrap(new byte[64]));
+  }
+}
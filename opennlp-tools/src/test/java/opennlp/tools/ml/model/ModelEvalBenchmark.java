@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.util.Random;
+
+import opennlp.tools.ml.maxent.GISModel;
+import opennlp.tools.ml.maxent.quasinewton.QNModel;
+import opennlp.tools.ml.perceptron.PerceptronModel;
+
+/**
+ * Measures the evaluation throughput of models with many outcomes, such as the
+ * lemmatizer and parser models, where the parameters of a predicate cover most outcomes.
+ * <p>
+ * Run with <code>java opennlp.tools.ml.model.ModelEvalBenchmark [outcomes]</code>.
+ */
+public class ModelEvalBenchmark {
+
+  private static final int NUM_PREDICATES = 20000;
+  private static final int CONTEXT_SIZE = 30;
+  private static final int NUM_CONTEXTS = 2000;
+
+  private static double sink;
+
+  private static Context[] createParameters(int numOutcomes, Random random) {
+    int[] allOutcomes = new int[numOutcomes];
+    for (int oid = 0; oid < numOutcomes; oid++) {
+      allOutcomes[oid] = oid;
+    }
+
+    Context[] params = new Context[NUM_PREDICATES];
+    for (int pid = 0; pid < NUM_PREDICATES; pid++) {
+      double[] parameters = new double[numOutcomes];
+      for (int oid = 0; oid < numOutcomes; oid++) {
+        parameters[oid] = random.nextGaussian() * 0.1;
+      }
+      params[pid] = new Context(allOutcomes, parameters);
+    }
+    return params;
+  }
+
+  private static void run(String name, MaxentModel model, String[][] contexts) {
+    double[] probs = new double[model.getNumOutcomes()];
+    for (int round = 0; round < 8; round++) {
+      long start = System.nanoTime();
+      int evaluations = 0;
+      while (System.nanoTime() - start < 500_000_000L) {
+        for (String[] context : contexts) {
+          java.util.Arrays.fill(probs, 0);
+          sink += model.eval(context, probs)[0];
+          evaluations++;
+        }
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      if (round >= 3) {
+        System.out.printf("%-12s %10.0f evals/s%n", name, evaluations / seconds);
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    int numOutcomes = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+
+    Random random = new Random(42);
+    Context[] params = createParameters(numOutcomes, random);
+
+    String[] predLabels = new String[NUM_PREDICATES];
+    for (int pid = 0; pid < NUM_PREDICATES; pid++) {
+      predLabels[pid] = "p" + pid;
+    }
+
+    String[] outcomeNames = new String[numOutcomes];
+    for (int oid = 0; oid < numOutcomes; oid++) {
+      outcomeNames[oid] = "o" + oid;
+    }
+
+    String[][] contexts = new String[NUM_CONTEXTS][CONTEXT_SIZE];
+    for (String[] context : contexts) {
+      for (int ci = 0; ci < CONTEXT_SIZE; ci++) {
+        context[ci] = predLabels[random.nextInt(NUM_PREDICATES)];
+      }
+    }
+
+    System.out.println(numOutcomes + " outcomes, " + CONTEXT_SIZE + " predicates per context");
+
+    GISModel gisModel = new GISModel(params, predLabels, outcomeNames);
+    run("GIS", gisModel, contexts);
+    run("Perceptron", new PerceptronModel(params, predLabels, outcomeNames), contexts);
+    run("QN", new QNModel(params, predLabels, outcomeNames), contexts);
+    run("Compiled", gisModel.compile(), contexts);
+
+    System.out.println(sink != 0 ? "" : " ");
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import opennlp.tools.ml.PrepAttachDataUtil;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.TrainingParameters;
+
+public class ParallelDataIndexerTest {
+
+  private static DataIndexer index(DataIndexer indexer, int cutoff, boolean sort, int threads)
+      throws IOException {
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractDataIndexer.CUTOFF_PARAM, cutoff);
+    trainParams.put(AbstractDataIndexer.SORT_PARAM, sort);
+    trainParams.put(TrainingParameters.THREADS_PARAM, threads);
+
+    indexer.init(trainParams, null);
+    try (ObjectStream<Event> events = PrepAttachDataUtil.createTrainingStream()) {
+      indexer.index(events);
+    }
+    return indexer;
+  }
+
+  @Test
+  public void testSameIndexAsTwoPass() throws IOException {
+    for (int cutoff : new int[] {1, 3}) {
+      for (boolean sort : new boolean[] {true, false}) {
+        DataIndexer expected = index(new TwoPassDataIndexer(), cutoff, sort, 1);
+
+        for (int threads : new int[] {1, 3, 8}) {
+          DataIndexerTestUtil.assertSameIndex(expected,
+              index(new ParallelDataIndexer(), cutoff, sort, threads));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testPredicateCounts() {
+    PredicateCounts counts = new PredicateCounts(3);
+    for (int i = 0; i < 1000; i++) {
+      counts.increment("p" + (i % 100));
+    }
+
+    PredicateCounts.Shard merged = new PredicateCounts.Shard();
+    for (int i = 0; i < counts.getNumShards(); i++) {
+      merged.addAll(counts.getShard(i));
+    }
+
+    Assert.assertEquals(100, merged.size());
+    Assert.assertEquals(10, merged.get("p42"));
+    Assert.assertEquals(0, merged.get("q"));
+    Assert.assertEquals(100, merged.predicates(10).length);
+    Assert.assertEquals(0, merged.predicates(11).length);
+  }
+}
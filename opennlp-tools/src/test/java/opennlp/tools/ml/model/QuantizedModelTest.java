@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.ml.model;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import opennlp.tools.ml.PrepAttachDataUtil;
+import opennlp.tools.ml.maxent.GISTrainer;
+import opennlp.tools.util.ObjectStream;
+
+public class QuantizedModelTest {
+
+  private static AbstractModel model;
+
+  @BeforeClass
+  public static void trainModel() throws IOException {
+    model = PrepAttachDataUtil.train(GISTrainer.MAXENT_VALUE);
+  }
+
+  private static ModelDeltaEvaluator evaluate(MaxentModel quantized) throws IOException {
+    ModelDeltaEvaluator evaluator = new ModelDeltaEvaluator(model, quantized);
+    try (ObjectStream<Event> events = PrepAttachDataUtil.createDevStream()) {
+      evaluator.evaluate(events);
+    }
+    return evaluator;
+  }
+
+  @Test
+  public void testDoublePrecisionIsLossless() throws IOException {
+    ModelDeltaEvaluator evaluator = evaluate(new QuantizedModel(model, ParameterPrecision.DOUBLE));
+
+    Assert.assertTrue(evaluator.getEventCount() > 0);
+    Assert.assertEquals(0d, evaluator.getAccuracyDelta(), 0d);
+    Assert.assertEquals(1d, evaluator.getAgreement(), 0d);
+    Assert.assertEquals(0d, evaluator.getMaxProbabilityDelta(), 0d);
+  }
+
+  @Test
+  public void testReducedPrecision() throws IOException {
+    double previousDelta = 0;
+    for (ParameterPrecision precision : new ParameterPrecision[] {ParameterPrecision.FLOAT,
+        ParameterPrecision.INT16, ParameterPrecision.INT8}) {
+      ModelDeltaEvaluator evaluator = evaluate(new QuantizedModel(model, precision));
+
+      Assert.assertTrue(evaluator.getAgreement() > 0.98);
+      Assert.assertTrue(Math.abs(evaluator.getAccuracyDelta()) < 0.01);
+      Assert.assertTrue(evaluator.getMaxProbabilityDelta() < 0.05);
+      Assert.assertTrue(evaluator.getMaxProbabilityDelta() >= previousDelta);
+      previousDelta = evaluator.getMaxProbabilityDelta();
+    }
+  }
+
+  @Test
+  public void testMappedQuantizedModel() throws IOException {
+    for (ParameterPrecision precision : ParameterPrecision.values()) {
+      File modelFile = File.createTempFile("quantized-model", ".bin");
+      modelFile.deleteOnExit();
+
+      new MappedModelWriter(model, modelFile, precision).persist();
+      MappedModel mapped = MappedModel.map(modelFile);
+      Assert.assertEquals(precision, mapped.getPrecision());
+
+      QuantizedModel quantized = new QuantizedModel(model, precision);
+
+      try (ObjectStream<Event> events = PrepAttachDataUtil.createDevStream()) {
+        Event event;
+        while ((event = events.read()) != null) {
+          Assert.assertArrayEquals(quantized.eval(event.getContext()),
+              mapped.eval(event.getContext()), 0d);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testQuantize() {
+    Assert.assertEquals(127, QuantizedModel.quantize(2.0, 2.0 / 127, ParameterPrecision.INT8));
+    Assert.assertEquals(-127, QuantizedModel.quantize(-2.0, 2.0 / 127, ParameterPrecision.INT8));
+    Assert.assertEquals(0, QuantizedModel.quantize(1.0, 0, ParameterPrecision.INT16));
+  }
+}
@@ -68,6 +68,19 @@ public class PerceptronPrepAttachTest {
     PrepAttachDataUtil.testModel(model, 0.773706362961129);
   }
 
+  @Test
+  public void testPerceptronOnPrepAttachDataWithThreads() throws IOException {
+
+    TrainingParameters trainParams = new TrainingParameters();
+    trainParams.put(AbstractTrainer.ALGORITHM_PARAM, PerceptronTrainer.PERCEPTRON_VALUE);
+    trainParams.put(AbstractTrainer.CUTOFF_PARAM, 1);
+    trainParams.put(TrainingParameters.THREADS_PARAM, 4);
+
+    EventTrainer trainer = TrainerFactory.getEventTrainer(trainParams, null);
+    MaxentModel model = trainer.train(PrepAttachDataUtil.createTrainingStream());
+    PrepAttachDataUtil.testModel(model, 0.7969794503589998);
+  }
+
   @Test
   public void testPerceptronOnPrepAttachDataWithTolerance() throws IOException {
 
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.namefind;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import opennlp.tools.util.MockInputStreamFactory;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.PlainTextByLineStream;
+import opennlp.tools.util.Span;
+import opennlp.tools.util.ThreadSafetyTestUtil;
+import opennlp.tools.util.TrainingParameters;
+
+/**
+ * Tests for the {@link ThreadSafeNameFinderME} class.
+ */
+public class ThreadSafeNameFinderMETest {
+
+  private static TokenNameFinderModel model;
+
+  // the sentences of the documents of the training data
+  private static List<List<String[]>> documents;
+
+  @BeforeClass
+  public static void trainModel() throws IOException {
+    TrainingParameters params = new TrainingParameters();
+    params.put(TrainingParameters.ITERATIONS_PARAM, 70);
+    params.put(TrainingParameters.CUTOFF_PARAM, 1);
+
+    model = NameFinderME.train("eng", null, createSampleStream(), params,
+        TokenNameFinderFactory.create(null, null, Collections.emptyMap(), new BioCodec()));
+
+    documents = new ArrayList<>();
+    try (ObjectStream<NameSample> samples = createSampleStream()) {
+      NameSample sample;
+      while ((sample = samples.read()) != null) {
+        if (documents.isEmpty() || sample.isClearAdaptiveDataSet()) {
+          documents.add(new ArrayList<>());
+        }
+        documents.get(documents.size() - 1).add(sample.getSentence());
+      }
+    }
+  }
+
+  private static ObjectStream<NameSample> createSampleStream() throws IOException {
+    return new NameSampleDataStream(new PlainTextByLineStream(new MockInputStreamFactory(
+        new File("opennlp/tools/namefind/AnnotatedSentences.txt")), "ISO-8859-1"));
+  }
+
+  private static List<String[]> allSentences() {
+    List<String[]> sentences = new ArrayList<>();
+    for (List<String[]> document : documents) {
+      sentences.addAll(document);
+    }
+    return sentences;
+  }
+
+  private static void assertSpansEquals(List<Span[]> expected, List<Span[]> actual) {
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Assert.assertArrayEquals(expected.get(i), actual.get(i));
+    }
+  }
+
+  @Test
+  public void testFindFromMultipleThreads() throws Exception {
+    List<String[]> sentences = allSentences();
+
+    // every thread decodes the sentences as one document
+    NameFinderME referenceNameFinder = new NameFinderME(model);
+    List<Span[]> expected = new ArrayList<>();
+    for (String[] sentence : sentences) {
+      expected.add(referenceNameFinder.find(sentence));
+    }
+
+    try (ThreadSafeNameFinderME nameFinder = new ThreadSafeNameFinderME(model)) {
+      ThreadSafetyTestUtil.runConcurrently(16, () -> {
+        for (int n = 0; n < 5; n++) {
+          for (int i = 0; i < sentences.size(); i++) {
+            Assert.assertArrayEquals(expected.get(i), nameFinder.find(sentences.get(i)));
+            Assert.assertEquals(sentences.get(i).length, nameFinder.probs().length);
+          }
+          nameFinder.clearAdaptiveData();
+        }
+        return null;
+      });
+    }
+  }
+
+  @Test
+  public void testBatchesAreIndependentOfThreads() throws Exception {
+    List<String[]> sentences = allSentences();
+
+    NameFinderME referenceNameFinder = new NameFinderME(model);
+
+    // every sentence of the sentence batch is decoded without adaptive data
+    List<Span[]> expectedSentences = new ArrayList<>();
+    for (String[] sentence : sentences) {
+      expectedSentences.add(referenceNameFinder.find(sentence));
+      referenceNameFinder.clearAdaptiveData();
+    }
+
+    List<List<Span[]>> expectedDocuments = new ArrayList<>();
+    for (List<String[]> document : documents) {
+      List<Span[]> spans = new ArrayList<>();
+      for (String[] sentence : document) {
+        spans.add(referenceNameFinder.find(sentence));
+      }
+      referenceNameFinder.clearAdaptiveData();
+      expectedDocuments.add(spans);
+    }
+
+    ThreadSafeNameFinderME nameFinder = new ThreadSafeNameFinderME(model);
+
+    // the adaptive data of the calling thread is not used by the batches
+    for (String[] sentence : sentences) {
+      nameFinder.find(sentence);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(ThreadSafetyTestUtil.NUM_THREADS);
+    try {
+      for (int n = 0; n < 5; n++) {
+        assertSpansEquals(expectedSentences, nameFinder.find(sentences, executor));
+
+        List<List<Span[]>> spans = nameFinder.findDocuments(documents, executor);
+        Assert.assertEquals(expectedDocuments.size(), spans.size());
+        for (int i = 0; i < expectedDocuments.size(); i++) {
+          assertSpansEquals(expectedDocuments.get(i), spans.get(i));
+        }
+      }
+
+      assertSpansEquals(expectedSentences, nameFinder.find(sentences, null));
+    }
+    finally {
+      executor.shutdown();
+    }
+
+    nameFinder.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testClose() {
+    ThreadSafeNameFinderME nameFinder = new ThreadSafeNameFinderME(model);
+    nameFinder.find(documents.get(0).get(0));
+    nameFinder.close();
+    nameFinder.find(documents.get(0).get(0));
+  }
+}
@@ -24,6 +24,8 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import opennlp.tools.formats.ResourceAsStreamFactory;
+import opennlp.tools.ml.AbstractEventTrainer;
+import opennlp.tools.ml.model.HashedModel;
 import opennlp.tools.util.InputStreamFactory;
 import opennlp.tools.util.InsufficientTrainingDataException;
 import opennlp.tools.util.ObjectStream;
@@ -81,6 +83,24 @@ public class POSTaggerMETest {
     Assert.assertEquals(".", tags[5]);
   }
 
+  @Test
+  public void testHashedFeatures() throws IOException {
+    TrainingParameters params = new TrainingParameters();
+    params.put(TrainingParameters.ALGORITHM_PARAM, ModelType.MAXENT.toString());
+    params.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    params.put(TrainingParameters.CUTOFF_PARAM, 5);
+    params.put(AbstractEventTrainer.DATA_INDEXER_PARAM,
+        AbstractEventTrainer.DATA_INDEXER_HASHING_VALUE);
+
+    POSModel posModel = POSTaggerME.train("eng", createSampleStream(), params,
+        new POSTaggerFactory());
+    Assert.assertTrue(posModel.getPosModel() instanceof HashedModel);
+
+    POSTagger tagger = new POSTaggerME(posModel);
+    Assert.assertArrayEquals(new String[] {"DT", "NN", "VBD", "RB", "VBN", "."},
+        tagger.tag(new String[] {"The", "driver", "got", "badly", "injured", "."}));
+  }
+
   @Test
   public void testBuildNGramDictionary() throws IOException {
     ObjectStream<POSSample> samples = createSampleStream();
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.postag;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import opennlp.tools.util.ThreadSafetyTestUtil;
+import opennlp.tools.util.model.ModelType;
+
+/**
+ * Tests for the {@link ThreadSafePOSTaggerME} class.
+ */
+public class ThreadSafePOSTaggerMETest {
+
+  private static final String[][] SENTENCES = {
+      {"The", "driver", "got", "badly", "injured", "."},
+      {"He", "went", "to", "the", "hospital", "."},
+      {"The", "police", "said", "the", "driver", "was", "injured", "."}
+  };
+
+  private static POSModel posModel;
+
+  private static String[][] expectedTags;
+
+  @BeforeClass
+  public static void trainModel() throws Exception {
+    posModel = POSTaggerMETest.trainPOSModel(ModelType.MAXENT);
+
+    POSTaggerME referenceTagger = new POSTaggerME(posModel);
+    expectedTags = new String[SENTENCES.length][];
+    for (int i = 0; i < SENTENCES.length; i++) {
+      expectedTags[i] = referenceTagger.tag(SENTENCES[i]);
+    }
+  }
+
+  @Test
+  public void testTagFromMultipleThreads() throws Exception {
+    try (ThreadSafePOSTaggerME tagger = new ThreadSafePOSTaggerME(posModel)) {
+      ThreadSafetyTestUtil.runConcurrently(16, () -> {
+        for (int n = 0; n < 50; n++) {
+          for (int i = 0; i < SENTENCES.length; i++) {
+            Assert.assertArrayEquals(expectedTags[i], tagger.tag(SENTENCES[i]));
+            Assert.assertEquals(SENTENCES[i].length, tagger.probs().length);
+          }
+        }
+        return null;
+      });
+    }
+  }
+
+  @Test
+  public void testTagBatch() throws Exception {
+    List<String[]> batch = Arrays.asList(SENTENCES[0], SENTENCES[1], SENTENCES[0].clone(),
+        SENTENCES[2], SENTENCES[1]);
+    int[] expected = {0, 1, 0, 2, 1};
+
+    ExecutorService executor = Executors.newFixedThreadPool(ThreadSafetyTestUtil.NUM_THREADS);
+    try (ThreadSafePOSTaggerME tagger = new ThreadSafePOSTaggerME(posModel)) {
+      ThreadSafetyTestUtil.runConcurrently(16, () -> {
+        for (int n = 0; n < 20; n++) {
+          List<String[]> tags = tagger.tag(batch, executor);
+          Assert.assertEquals(batch.size(), tags.size());
+          for (int i = 0; i < expected.length; i++) {
+            Assert.assertArrayEquals(expectedTags[expected[i]], tags.get(i));
+          }
+          // the results of identical sentences are copies
+          Assert.assertNotSame(tags.get(0), tags.get(2));
+        }
+        return null;
+      });
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTagAfterClose() {
+    ThreadSafePOSTaggerME tagger = new ThreadSafePOSTaggerME(posModel);
+    tagger.tag(SENTENCES[0]);
+    tagger.close();
+    tagger.tag(SENTENCES[0]);
+  }
+}
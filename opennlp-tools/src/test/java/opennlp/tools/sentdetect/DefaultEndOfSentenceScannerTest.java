@@ -43,4 +43,14 @@ public class DefaultEndOfSentenceScannerTest {
     Assert.assertEquals(36, eosPositions.get(4).intValue());
   }
 
+  @Test
+  public void testScanningToArray() {
+    EndOfSentenceScanner scanner = new DefaultEndOfSentenceScanner(
+        new char[]{'.', '!', '?'});
+
+    Assert.assertArrayEquals(new int[] {0, 1, 2, 35, 36},
+        scanner.getPositionArray(new StringBuilder("... um die Wertmarken zu auswählen !?")));
+    Assert.assertArrayEquals(new int[0], scanner.getPositionArray("no end of sentence"));
+  }
+
 }
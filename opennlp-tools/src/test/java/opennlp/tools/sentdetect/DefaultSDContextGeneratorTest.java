@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.sentdetect;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import opennlp.tools.dictionary.Dictionary;
+import opennlp.tools.util.StringList;
+
+/**
+ * Tests for the {@link DefaultSDContextGenerator} class.
+ */
+public class DefaultSDContextGeneratorTest {
+
+  private static final char[] EOS_CHARACTERS = new char[] {'.', '!', '?'};
+
+  /**
+   * A subclass which computes the features with the prefix, suffix, previous
+   * and next strings, like subclasses which override collectFeatures.
+   */
+  private static class StringSDContextGenerator extends DefaultSDContextGenerator {
+    StringSDContextGenerator(Set<String> inducedAbbreviations, char[] eosCharacters) {
+      super(inducedAbbreviations, eosCharacters);
+    }
+  }
+
+  @Test
+  public void testContext() {
+    SDContextGenerator cg = new DefaultSDContextGenerator(
+        new HashSet<>(Arrays.asList("Mr.", "Jan.")), EOS_CHARACTERS);
+
+    String text = "Mr. Smith went home. It was Jan.";
+
+    Assert.assertArrayEquals(new String[] {"sn", "eos=.", "x=Mr", "2", "xcap", "xabbrev",
+        "v=", "s=", "n=Smith", "ncap"}, cg.getContext(text, 2));
+
+    Assert.assertArrayEquals(new String[] {"sn", "eos=.", "x=home", "4", "v=went", "s=",
+        "n=It", "ncap"}, cg.getContext(text, 19));
+
+    Assert.assertArrayEquals(new String[] {"eos=.", "x=Jan", "3", "xcap", "xabbrev",
+        "v=was", "s=", "n="}, cg.getContext(text, text.length() - 1));
+  }
+
+  @Test
+  public void testContextMatchesStringFeatures() {
+    Set<String> abbreviations = new HashSet<>(
+        Arrays.asList("Mr.", "Dr.", "e.g", "U.S", "Inc.", "etc", "No."));
+
+    SDContextGenerator scanning = new DefaultSDContextGenerator(abbreviations, EOS_CHARACTERS);
+    SDContextGenerator strings = new StringSDContextGenerator(abbreviations, EOS_CHARACTERS);
+
+    String text = ".Dr. Who met Mr. X (e.g. in the U.S.) ... at No. 5!?  Really?!\n"
+        + "\"Yes.\" he said.Then  etc. Inc.\r\n. ?";
+
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) == '.' || text.charAt(i) == '!' || text.charAt(i) == '?') {
+        Assert.assertArrayEquals("position " + i,
+            strings.getContext(text, i), scanning.getContext(text, i));
+      }
+    }
+  }
+
+  @Test
+  public void testCaseInsensitiveAbbreviations() {
+    Dictionary abbreviations = new Dictionary(false);
+    abbreviations.put(new StringList("mr."));
+    abbreviations.put(new StringList("jan."));
+
+    SDContextGenerator scanning = new DefaultSDContextGenerator(
+        abbreviations.asStringSet(), EOS_CHARACTERS);
+    SDContextGenerator strings = new StringSDContextGenerator(
+        abbreviations.asStringSet(), EOS_CHARACTERS);
+
+    String text = "Mr. Hello";
+    String[] context = scanning.getContext(text, 2);
+    Assert.assertTrue(Arrays.asList(context).contains("xabbrev"));
+    Assert.assertArrayEquals(strings.getContext(text, 2), context);
+
+    // the set of the dictionary is used directly, later changes are seen
+    abbreviations.put(new StringList("hello."));
+    Assert.assertTrue(Arrays.asList(scanning.getContext("Mr. Hello.", 9)).contains("xabbrev"));
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.sentdetect;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import opennlp.tools.formats.ResourceAsStreamFactory;
+import opennlp.tools.util.InputStreamFactory;
+import opennlp.tools.util.ObjectStream;
+import opennlp.tools.util.PlainTextByLineStream;
+import opennlp.tools.util.Span;
+import opennlp.tools.util.TrainingParameters;
+
+/**
+ * Measures the throughput of the {@link SentenceDetectorME} on a multi-megabyte document.
+ * <p>
+ * The benchmark is not run as part of the tests, it can be started with
+ * <code>java opennlp.tools.sentdetect.SentenceDetectorBenchmark [megabytes] [input]</code>,
+ * where input is one of String, CharSequence or char[]. The inputs should be measured
+ * in separate runs, since each input type makes the character access of the detector
+ * more polymorphic.
+ */
+public class SentenceDetectorBenchmark {
+
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int ROUNDS = 5;
+
+  private static SentenceModel trainModel() throws IOException {
+    InputStreamFactory in = new ResourceAsStreamFactory(SentenceDetectorBenchmark.class,
+        "/opennlp/tools/sentdetect/Sentences.txt");
+
+    TrainingParameters mlParams = new TrainingParameters();
+    mlParams.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    mlParams.put(TrainingParameters.CUTOFF_PARAM, 0);
+
+    SentenceDetectorFactory factory = new SentenceDetectorFactory("eng", true, null, null);
+
+    return SentenceDetectorME.train("eng", new SentenceSampleStream(
+        new PlainTextByLineStream(in, StandardCharsets.UTF_8)), factory, mlParams);
+  }
+
+  private static String createDocument(int megabytes) throws IOException {
+    InputStreamFactory in = new ResourceAsStreamFactory(SentenceDetectorBenchmark.class,
+        "/opennlp/tools/sentdetect/Sentences.txt");
+
+    StringBuilder sample = new StringBuilder();
+    try (ObjectStream<String> lines = new PlainTextByLineStream(in, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = lines.read()) != null) {
+        if (!line.isEmpty()) {
+          sample.append(line).append(' ');
+        }
+      }
+    }
+
+    StringBuilder document = new StringBuilder(megabytes << 20);
+    while (document.length() < megabytes << 20) {
+      document.append(sample);
+    }
+    return document.toString();
+  }
+
+  private static <T> void run(String name, T document, int length,
+      Function<T, Span[]> detector) {
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      detector.apply(document);
+    }
+
+    long sentences = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) {
+      sentences += detector.apply(document).length;
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.printf("%-12s %12.0f sentences/s %8.2f MB/s%n", name, sentences / seconds,
+        ROUNDS * length / seconds / (1 << 20));
+  }
+
+  public static void main(String[] args) throws IOException {
+    int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+    String input = args.length > 1 ? args[1] : null;
+
+    SentenceDetectorME detector = new SentenceDetectorME(trainModel());
+    String document = createDocument(megabytes);
+
+    System.out.println("Document: " + document.length() + " chars, "
+        + detector.sentPosDetect(document).length + " sentences");
+
+    if (input == null || input.equals("String")) {
+      run("String", document, document.length(), detector::sentPosDetect);
+    }
+    if (input == null || input.equals("CharSequence")) {
+      run("CharSequence", new StringBuilder(document), document.length(),
+          detector::sentPosDetect);
+    }
+    if (input == null || input.equals("char[]")) {
+      run("char[]", document.toCharArray(), document.length(), detector::sentPosDetect);
+    }
+  }
+}
@@ -153,5 +153,38 @@ public class SentenceDetectorMETest {
             new PlainTextByLineStream(in, StandardCharsets.UTF_8)), factory, mlParams);
     
   }
+
+  @Test
+  public void testCharSequenceInput() throws IOException {
+
+    InputStreamFactory in = new ResourceAsStreamFactory(getClass(),
+        "/opennlp/tools/sentdetect/Sentences.txt");
+
+    TrainingParameters mlParams = new TrainingParameters();
+    mlParams.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    mlParams.put(TrainingParameters.CUTOFF_PARAM, 0);
+
+    SentenceDetectorFactory factory = new SentenceDetectorFactory("eng", true, null, null);
+
+    SentenceDetectorME sentDetect = new SentenceDetectorME(SentenceDetectorME.train(
+        "eng", new SentenceSampleStream(new PlainTextByLineStream(in,
+            StandardCharsets.UTF_8)), factory, mlParams));
+
+    String text = "  This is a test.  There are many tests, this is the second. "
+        + "Mr. Smith went to Washington on Jan. 5th!And then? Nothing at all  ";
+
+    Span[] expected = sentDetect.sentPosDetect(text);
+    double[] expectedProbs = sentDetect.getSentenceProbabilities();
+    Assert.assertEquals(expected.length, expectedProbs.length);
+
+    Assert.assertArrayEquals(expected, sentDetect.sentPosDetect(new StringBuilder(text)));
+    Assert.assertArrayEquals(expectedProbs, sentDetect.getSentenceProbabilities(), 0d);
+
+    Assert.assertArrayEquals(expected, sentDetect.sentPosDetect(text.toCharArray()));
+    Assert.assertArrayEquals(expectedProbs, sentDetect.getSentenceProbabilities(), 0d);
+
+    Assert.assertEquals(0, sentDetect.sentPosDetect(new char[] {' ', ' '}).length);
+    Assert.assertEquals(0, sentDetect.getSentenceProbabilities().length);
+  }
   
 }
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.sentdetect;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import opennlp.tools.formats.ResourceAsStreamFactory;
+import opennlp.tools.util.InputStreamFactory;
+import opennlp.tools.util.ObjectStreamUtils;
+import opennlp.tools.util.PlainTextByLineStream;
+import opennlp.tools.util.Span;
+import opennlp.tools.util.TrainingParameters;
+
+/**
+ * Tests for the {@link StreamingSentenceDetector} class.
+ */
+public class StreamingSentenceDetectorTest {
+
+  private static SentenceModel model;
+  private static String document;
+
+  @BeforeClass
+  public static void train() throws IOException {
+    InputStreamFactory in = new ResourceAsStreamFactory(StreamingSentenceDetectorTest.class,
+        "/opennlp/tools/sentdetect/Sentences.txt");
+
+    TrainingParameters mlParams = new TrainingParameters();
+    mlParams.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    mlParams.put(TrainingParameters.CUTOFF_PARAM, 0);
+
+    model = SentenceDetectorME.train("eng", new SentenceSampleStream(
+        new PlainTextByLineStream(in, StandardCharsets.UTF_8)),
+        new SentenceDetectorFactory("eng", true, null, null), mlParams);
+
+    StringBuilder text = new StringBuilder();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        in.createInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        text.append(line).append(' ');
+      }
+    }
+    document = text.toString();
+  }
+
+  private static List<Span> readAll(StreamingSentenceDetector detector,
+      List<String> texts) throws IOException {
+    List<Span> spans = new ArrayList<>();
+    Span span;
+    while ((span = detector.read()) != null) {
+      spans.add(span);
+      texts.add(detector.getCoveredText());
+    }
+    return spans;
+  }
+
+  @Test
+  public void testReaderMatchesDocumentDetection() throws IOException {
+    Span[] expected = new SentenceDetectorME(model).sentPosDetect(document);
+
+    List<String> texts = new ArrayList<>();
+    List<Span> spans = readAll(new StreamingSentenceDetector(new SentenceDetectorME(model),
+        new StringReader(document), 1024, 128), texts);
+
+    Assert.assertArrayEquals(expected, spans.toArray(new Span[spans.size()]));
+    for (int i = 0; i < expected.length; i++) {
+      Assert.assertEquals(expected[i].getCoveredText(document), texts.get(i));
+    }
+  }
+
+  @Test
+  public void testPiecesMatchDocumentDetection() throws IOException {
+    Span[] expected = new SentenceDetectorME(model).sentPosDetect(document);
+
+    List<CharSequence> pieces = new ArrayList<>();
+    for (int i = 0, length = 1; i < document.length(); i += length, length = length * 7 % 3001) {
+      pieces.add(document.substring(i, Math.min(document.length(), i + length)));
+    }
+
+    StreamingSentenceDetector detector = new StreamingSentenceDetector(
+        new SentenceDetectorME(model), ObjectStreamUtils.createObjectStream(pieces), 1024, 128);
+
+    List<Span> spans = readAll(detector, new ArrayList<>());
+    Assert.assertArrayEquals(expected, spans.toArray(new Span[spans.size()]));
+
+    detector.reset();
+    Assert.assertEquals(spans, readAll(detector, new ArrayList<>()));
+  }
+
+  @Test
+  public void testSentenceLongerThanWindow() throws IOException {
+    StringBuilder text = new StringBuilder("Short line\n");
+    for (int i = 0; i < 100; i++) {
+      text.append("word ");
+    }
+    text.append("\nEnd");
+
+    List<String> texts = new ArrayList<>();
+    List<Span> spans = readAll(new StreamingSentenceDetector(new NewlineSentenceDetector(),
+        new StringReader(text.toString()), 100, 10), texts);
+
+    Assert.assertEquals("Short line", texts.get(0));
+    Assert.assertEquals("End", texts.get(texts.size() - 1));
+    Assert.assertTrue(texts.size() > 3);
+
+    StringBuilder words = new StringBuilder();
+    for (int i = 1; i < texts.size() - 1; i++) {
+      Assert.assertTrue(texts.get(i).length() <= 100);
+      Assert.assertEquals(texts.get(i), spans.get(i).getCoveredText(text));
+      words.append(texts.get(i)).append(' ');
+    }
+    Assert.assertEquals(text.substring(11, text.length() - 4), words.toString());
+  }
+
+  @Test
+  public void testEmptyDocument() throws IOException {
+    StreamingSentenceDetector detector = new StreamingSentenceDetector(
+        new SentenceDetectorME(model), new StringReader("   "));
+    Assert.assertNull(detector.read());
+    Assert.assertNull(detector.read());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWindowTooSmall() {
+    new StreamingSentenceDetector(new NewlineSentenceDetector(), new StringReader(""), 20, 10);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.sentdetect;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import opennlp.tools.dictionary.Dictionary;
+import opennlp.tools.formats.ResourceAsStreamFactory;
+import opennlp.tools.util.InputStreamFactory;
+import opennlp.tools.util.PlainTextByLineStream;
+import opennlp.tools.util.Span;
+import opennlp.tools.util.ThreadSafetyTestUtil;
+import opennlp.tools.util.TrainingParameters;
+
+/**
+ * Tests for the {@link ThreadSafeSentenceDetectorME} class.
+ */
+public class ThreadSafeSentenceDetectorMETest {
+
+  private static final String[] TEXTS = {
+      "This is a test. There are many tests, this is the second.",
+      "Mr. Smith went to the hospital. He got badly injured! Is he fine now?",
+      "The driver got badly injured, Mrs. Smith said. There were no other injuries"
+  };
+
+  private static SentenceModel sentenceModel;
+
+  private static Span[][] expectedSpans;
+
+  @BeforeClass
+  public static void trainModel() throws Exception {
+    InputStreamFactory in = new ResourceAsStreamFactory(ThreadSafeSentenceDetectorMETest.class,
+        "/opennlp/tools/sentdetect/Sentences.txt");
+
+    TrainingParameters mlParams = new TrainingParameters();
+    mlParams.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    mlParams.put(TrainingParameters.CUTOFF_PARAM, 0);
+
+    Dictionary abbreviations;
+    try (InputStream abbIn = ThreadSafeSentenceDetectorMETest.class
+        .getResourceAsStream("/opennlp/tools/sentdetect/abb.xml")) {
+      abbreviations = new Dictionary(abbIn);
+    }
+
+    SentenceDetectorFactory factory = new SentenceDetectorFactory("eng", true, abbreviations, null);
+
+    sentenceModel = SentenceDetectorME.train("eng", new SentenceSampleStream(
+        new PlainTextByLineStream(in, StandardCharsets.UTF_8)), factory, mlParams);
+
+    SentenceDetectorME referenceDetector = new SentenceDetectorME(sentenceModel);
+    expectedSpans = new Span[TEXTS.length][];
+    for (int i = 0; i < TEXTS.length; i++) {
+      expectedSpans[i] = referenceDetector.sentPosDetect(TEXTS[i]);
+    }
+  }
+
+  @Test
+  public void testSentPosDetectFromMultipleThreads() throws Exception {
+    try (ThreadSafeSentenceDetectorME sentenceDetector =
+        new ThreadSafeSentenceDetectorME(sentenceModel)) {
+      ThreadSafetyTestUtil.runConcurrently(16, () -> {
+        for (int n = 0; n < 50; n++) {
+          for (int i = 0; i < TEXTS.length; i++) {
+            Assert.assertArrayEquals(expectedSpans[i], sentenceDetector.sentPosDetect(TEXTS[i]));
+            Assert.assertEquals(expectedSpans[i].length,
+                sentenceDetector.getSentenceProbabilities().length);
+          }
+        }
+        return null;
+      });
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSentPosDetectAfterClose() {
+    ThreadSafeSentenceDetectorME sentenceDetector = new ThreadSafeSentenceDetectorME(sentenceModel);
+    sentenceDetector.sentPosDetect(TEXTS[0]);
+    sentenceDetector.close();
+    sentenceDetector.sentPosDetect(TEXTS[0]);
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.tokenize;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import opennlp.tools.ml.model.FeatureHasher;
+
+/**
+ * Tests for the {@link HashedTokenContextGenerator} class.
+ */
+public class HashedTokenContextGeneratorTest {
+
+  private static final int BITS = 22;
+
+  private static void assertSameFeatures(Set<String> abbreviations, String token) {
+    DefaultTokenContextGenerator cg = new DefaultTokenContextGenerator(abbreviations);
+    HashedTokenContextGenerator hashedCg = new HashedTokenContextGenerator(abbreviations, BITS);
+
+    // the token is embedded in a text to check the offsets
+    char[] text = ("  " + token + " x").toCharArray();
+    int[] featureIds = new int[HashedTokenContextGenerator.MAX_CONTEXT_SIZE];
+
+    for (int index = 0; index < token.length(); index++) {
+      String[] context = cg.getContext(token, index);
+      int[] expected = new int[context.length];
+      for (int i = 0; i < context.length; i++) {
+        expected[i] = FeatureHasher.id(context[i], BITS);
+      }
+
+      int length = hashedCg.getContext(text, 2, 2 + token.length(), index, featureIds);
+      int[] ids = new int[length];
+      System.arraycopy(featureIds, 0, ids, 0, length);
+
+      Assert.assertEquals(token + " at " + index, Arrays.toString(expected), Arrays.toString(ids));
+
+      String[] hashedContext = hashedCg.getContext(token, index);
+      Assert.assertEquals(length, hashedContext.length);
+      for (int i = 0; i < length; i++) {
+        Assert.assertEquals(Integer.toString(ids[i]), hashedContext[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testSameFeaturesAsDefault() {
+    String[] tokens = {"don't.", "U.S.,", "(2017).", "\"Quote\"", "[a]{b}", "&amp;", "Äpfel!?",
+        "x1-2", "`tab`"};
+    for (String token : tokens) {
+      assertSameFeatures(Collections.emptySet(), token);
+    }
+  }
+
+  @Test
+  public void testAbbreviation() {
+    assertSameFeatures(Collections.singleton("U.S."), "U.S.");
+    assertSameFeatures(Collections.singleton("U.S."), "U.K.");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBits() {
+    new HashedTokenContextGenerator(31);
+  }
+}
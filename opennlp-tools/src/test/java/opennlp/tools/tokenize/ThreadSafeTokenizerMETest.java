@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.tokenize;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import opennlp.tools.util.Span;
+import opennlp.tools.util.ThreadSafetyTestUtil;
+import opennlp.tools.util.cache.ConcurrentCache;
+import opennlp.tools.util.cache.EvictionPolicy;
+import opennlp.tools.util.cache.Weigher;
+
+/**
+ * Tests for the {@link ThreadSafeTokenizerME} class.
+ */
+public class ThreadSafeTokenizerMETest {
+
+  private static final String[] TEXTS = {
+      "Sounds like it's not properly thought through!",
+      "test, test.",
+      "The U.S. economy grew 2.5% in 2017."
+  };
+
+  private static void assertTokenizes(TokenizerModel model, ThreadSafeTokenizerME tokenizer)
+      throws Exception {
+    TokenizerME referenceTokenizer = new TokenizerME(model);
+    Span[][] expectedSpans = new Span[TEXTS.length][];
+    double[][] expectedProbs = new double[TEXTS.length][];
+    for (int i = 0; i < TEXTS.length; i++) {
+      expectedSpans[i] = referenceTokenizer.tokenizePos(TEXTS[i]);
+      expectedProbs[i] = referenceTokenizer.getTokenProbabilities();
+    }
+
+    ThreadSafetyTestUtil.runConcurrently(16, () -> {
+      for (int n = 0; n < 100; n++) {
+        for (int i = 0; i < TEXTS.length; i++) {
+          Assert.assertArrayEquals(expectedSpans[i], tokenizer.tokenizePos(TEXTS[i]));
+          Assert.assertArrayEquals(expectedProbs[i], tokenizer.getTokenProbabilities(), 1e-12);
+        }
+      }
+      return null;
+    });
+  }
+
+  @Test
+  public void testTokenizeFromMultipleThreads() throws Exception {
+    TokenizerModel model = TokenizerTestUtil.createMaxentTokenModel();
+
+    try (ThreadSafeTokenizerME tokenizer = new ThreadSafeTokenizerME(model)) {
+      assertTokenizes(model, tokenizer);
+      Assert.assertNull(tokenizer.getCacheStats());
+    }
+  }
+
+  @Test
+  public void testSharedCache() throws Exception {
+    TokenizerModel model = TokenizerTestUtil.createMaxentTokenModel();
+
+    ThreadSafeTokenizerME tokenizer = new ThreadSafeTokenizerME(model,
+        new ConcurrentCache<>(100, EvictionPolicy.LRU, Weigher.entries(), 4));
+    assertTokenizes(model, tokenizer);
+
+    // the whitespace tokens are only split once by all threads together
+    Assert.assertTrue(tokenizer.getCacheStats().getHits()
+        > 100 * tokenizer.getCacheStats().getMisses());
+    tokenizer.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTokenizeAfterClose() throws Exception {
+    ThreadSafeTokenizerME tokenizer =
+        new ThreadSafeTokenizerME(TokenizerTestUtil.createMaxentTokenModel());
+    tokenizer.tokenize(TEXTS[0]);
+    tokenizer.close();
+    tokenizer.tokenize(TEXTS[0]);
+  }
+}
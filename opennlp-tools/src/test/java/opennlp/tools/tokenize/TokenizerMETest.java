@@ -17,6 +17,8 @@
 
 package opennlp.tools.tokenize;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
@@ -24,11 +26,13 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import opennlp.tools.formats.ResourceAsStreamFactory;
+import opennlp.tools.ml.model.HashedModel;
 import opennlp.tools.util.InputStreamFactory;
 import opennlp.tools.util.InsufficientTrainingDataException;
 import opennlp.tools.util.ObjectStream;
 import opennlp.tools.util.PlainTextByLineStream;
 import opennlp.tools.util.TrainingParameters;
+import opennlp.tools.util.cache.CacheStats;
 
 /**
  * Tests for the {@link TokenizerME} class.
@@ -90,5 +94,75 @@ public class TokenizerMETest {
     TokenizerME.train(samples, TokenizerFactory.create(null, "eng", null, true, null), mlParams);
 
   }
-  
+
+  @Test
+  public void testHashedFeatures() throws IOException {
+    InputStreamFactory trainDataIn = new ResourceAsStreamFactory(
+        TokenizerModel.class, "/opennlp/tools/tokenize/token.train");
+
+    TrainingParameters mlParams = new TrainingParameters();
+    mlParams.put(TrainingParameters.ITERATIONS_PARAM, 100);
+    mlParams.put(TrainingParameters.CUTOFF_PARAM, 0);
+    mlParams.put(TokenizerME.FEATURE_HASH_BITS_PARAM, 20);
+
+    TokenizerModel hashedModel = TokenizerME.train(new TokenSampleStream(
+        new PlainTextByLineStream(trainDataIn, StandardCharsets.UTF_8)),
+        TokenizerFactory.create(null, "eng", null, true, null), mlParams);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    hashedModel.serialize(out);
+    hashedModel = new TokenizerModel(new ByteArrayInputStream(out.toByteArray()));
+
+    Assert.assertEquals(20, hashedModel.getFactory().getFeatureHashBits());
+    Assert.assertEquals("20", hashedModel.getManifestProperty(HashedModel.BITS_PROPERTY));
+    Assert.assertTrue(hashedModel.getMaxentModel() instanceof HashedModel);
+
+    TokenizerME tokenizer = new TokenizerME(TokenizerTestUtil.createMaxentTokenModel());
+    TokenizerME hashedTokenizer = new TokenizerME(hashedModel);
+
+    try (ObjectStream<TokenSample> samples = new TokenSampleStream(
+        new PlainTextByLineStream(trainDataIn, StandardCharsets.UTF_8))) {
+      TokenSample sample;
+      while ((sample = samples.read()) != null) {
+        String text = sample.getText();
+        Assert.assertArrayEquals(tokenizer.tokenizePos(text), hashedTokenizer.tokenizePos(text));
+        // a few of the features collide, the probabilities are close but not the same
+        Assert.assertArrayEquals(tokenizer.getTokenProbabilities(),
+            hashedTokenizer.getTokenProbabilities(), 1e-2);
+      }
+    }
+
+    String[] tokens = hashedTokenizer.tokenize("Sounds like it's not properly thought through!");
+    Assert.assertArrayEquals(new String[] {"Sounds", "like", "it", "'s", "not", "properly",
+        "thought", "through", "!"}, tokens);
+  }
+
+  @Test
+  public void testCache() throws IOException {
+    TokenizerModel model = TokenizerTestUtil.createMaxentTokenModel();
+
+    TokenizerME tokenizer = new TokenizerME(model);
+    TokenizerME cachedTokenizer = new TokenizerME(model, 1000);
+
+    InputStreamFactory trainDataIn = new ResourceAsStreamFactory(
+        TokenizerModel.class, "/opennlp/tools/tokenize/token.train");
+
+    for (int pass = 0; pass < 2; pass++) {
+      try (ObjectStream<TokenSample> samples = new TokenSampleStream(
+          new PlainTextByLineStream(trainDataIn, StandardCharsets.UTF_8))) {
+        TokenSample sample;
+        while ((sample = samples.read()) != null) {
+          String text = sample.getText();
+          Assert.assertArrayEquals(tokenizer.tokenizePos(text), cachedTokenizer.tokenizePos(text));
+          Assert.assertArrayEquals(tokenizer.getTokenProbabilities(),
+              cachedTokenizer.getTokenProbabilities(), 0);
+        }
+      }
+    }
+
+    CacheStats stats = cachedTokenizer.getCacheStats();
+    Assert.assertTrue(stats.getHits() > stats.getMisses());
+    Assert.assertTrue(stats.getSize() <= 1000);
+    Assert.assertNull(tokenizer.getCacheStats());
+  }
 }
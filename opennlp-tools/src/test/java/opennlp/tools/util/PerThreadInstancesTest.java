@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PerThreadInstancesTest {
+
+  @Test
+  public void testInstancePerThread() throws Exception {
+    AtomicInteger created = new AtomicInteger();
+    PerThreadInstances<Object> instances = new PerThreadInstances<>(() -> {
+      created.incrementAndGet();
+      return new Object();
+    });
+
+    Object instance = instances.get();
+    Assert.assertSame(instance, instances.get());
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Object otherInstance = executor.submit(instances::get).get();
+      Assert.assertNotSame(instance, otherInstance);
+      Assert.assertSame(otherInstance, executor.submit(instances::get).get());
+      Assert.assertEquals(2, created.get());
+
+      // the pooled instances are not the ones of the threads
+      Object pooled = instances.apply(o -> o);
+      Assert.assertNotSame(instance, pooled);
+      Assert.assertNotSame(otherInstance, pooled);
+      Assert.assertSame(pooled, instances.apply(o -> o));
+      Assert.assertEquals(3, created.get());
+
+      instances.close();
+
+      Future<Object> afterClose = executor.submit(instances::get);
+      try {
+        afterClose.get();
+        Assert.fail("The instance of the other thread must be released");
+      }
+      catch (ExecutionException e) {
+        Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGetAfterClose() {
+    PerThreadInstances<Object> instances = new PerThreadInstances<>(Object::new);
+    instances.get();
+    instances.close();
+    instances.get();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testApplyAfterClose() {
+    PerThreadInstances<Object> instances = new PerThreadInstances<>(Object::new);
+    instances.close();
+    instances.apply(o -> o);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the tasks of the tests of the thread-safe tools concurrently.
+ */
+public class ThreadSafetyTestUtil {
+
+  public static final int NUM_THREADS = 4;
+
+  /**
+   * Runs a task several times, the runs are distributed over {@link #NUM_THREADS}
+   * threads. A failure of a run is rethrown.
+   *
+   * @param numRuns the number of runs
+   * @param task the task
+   */
+  public static void runConcurrently(int numRuns, Callable<?> task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int i = 0; i < numRuns; i++) {
+        results.add(executor.submit(task));
+      }
+
+      for (Future<?> result : results) {
+        try {
+          result.get();
+        }
+        catch (ExecutionException e) {
+          if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+          }
+          throw (Exception) e.getCause();
+        }
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentCacheTest {
+
+  private static ConcurrentCache<String, String> createCache(int maxEntries, EvictionPolicy policy) {
+    return new ConcurrentCache<>(maxEntries, policy, Weigher.entries(), 1);
+  }
+
+  @Test
+  public void testLRUEviction() {
+    ConcurrentCache<String, String> cache = createCache(3, EvictionPolicy.LRU);
+
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.put("c", "3");
+    Assert.assertEquals("1", cache.get("a"));
+
+    cache.put("d", "4");
+
+    Assert.assertNull(cache.get("b"));
+    Assert.assertEquals("1", cache.get("a"));
+    Assert.assertEquals("3", cache.get("c"));
+    Assert.assertEquals("4", cache.get("d"));
+    Assert.assertEquals(3, cache.size());
+
+    CacheStats stats = cache.stats();
+    Assert.assertEquals(4, stats.getHits());
+    Assert.assertEquals(1, stats.getMisses());
+    Assert.assertEquals(1, stats.getEvictions());
+    Assert.assertEquals(0.8, stats.getHitRate(), 0.0000001);
+  }
+
+  @Test
+  public void testLFUEviction() {
+    ConcurrentCache<String, String> cache = createCache(3, EvictionPolicy.LFU);
+
+    cache.put("a", "1");
+    cache.put("b", "2");
+    cache.put("c", "3");
+    cache.get("a");
+    cache.get("a");
+    cache.get("b");
+    cache.get("c");
+    cache.get("c");
+
+    cache.put("d", "4");
+
+    Assert.assertNull(cache.get("b"));
+    Assert.assertEquals("1", cache.get("a"));
+    Assert.assertEquals("3", cache.get("c"));
+    Assert.assertEquals("4", cache.get("d"));
+  }
+
+  @Test
+  public void testTinyLFUKeepsFrequentEntries() {
+    ConcurrentCache<String, String> cache = createCache(100, EvictionPolicy.W_TINY_LFU);
+
+    for (int n = 0; n < 10; n++) {
+      for (int i = 0; i < 50; i++) {
+        cache.computeIfAbsent("hot" + i, key -> key);
+      }
+    }
+
+    // a scan over many keys which are used only once
+    for (int i = 0; i < 10000; i++) {
+      cache.computeIfAbsent("cold" + i, key -> key);
+    }
+
+    int hotHits = 0;
+    for (int i = 0; i < 50; i++) {
+      if (cache.get("hot" + i) != null) {
+        hotHits++;
+      }
+    }
+
+    Assert.assertEquals(50, hotHits);
+    Assert.assertTrue(cache.size() <= 100);
+  }
+
+  @Test
+  public void testMemoryBudget() {
+    ConcurrentCache<ArrayKey, double[]> cache = new ConcurrentCache<>(10000, EvictionPolicy.LRU);
+
+    for (int i = 0; i < 1000; i++) {
+      cache.put(new ArrayKey(new String[] {"f=" + i}), new double[10]);
+    }
+
+    Assert.assertTrue(cache.weight() <= 10000);
+    Assert.assertTrue(cache.size() > 0);
+    Assert.assertTrue(cache.stats().getEvictions() > 0);
+  }
+
+  @Test
+  public void testEntryLargerThanSegmentIsNotCached() {
+    ConcurrentCache<String, String> cache = new ConcurrentCache<>(100, EvictionPolicy.LRU,
+        (key, value) -> value.length(), 1);
+
+    cache.put("a", new String(new char[200]));
+    Assert.assertNull(cache.get("a"));
+    Assert.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testArrayKey() {
+    Object namespace = new Object();
+
+    Assert.assertEquals(new ArrayKey(new String[] {"a", "b"}), new ArrayKey(new String[] {"a", "b"}));
+    Assert.assertEquals(new ArrayKey(new String[] {"a", "b"}).hashCode(),
+        new ArrayKey(new String[] {"a", "b"}).hashCode());
+    Assert.assertNotEquals(new ArrayKey(new String[] {"a", "b"}), new ArrayKey(new String[] {"b", "a"}));
+    Assert.assertNotEquals(new ArrayKey(namespace, new String[] {"a"}), new ArrayKey(new String[] {"a"}));
+    Assert.assertNotEquals(new ArrayKey(null, new String[] {"a"}, 0),
+        new ArrayKey(null, new String[] {"a"}, 1));
+  }
+
+  @Test
+  public void testFrequencySketchGrowsWithEntries() {
+    ConcurrentCache.FrequencySketch sketch = new ConcurrentCache.FrequencySketch();
+    Assert.assertEquals(16, sketch.length());
+
+    sketch.ensureCapacity(10);
+    Assert.assertEquals(16, sketch.length());
+
+    sketch.increment(42);
+    sketch.ensureCapacity(100);
+    Assert.assertEquals(128, sketch.length());
+    Assert.assertEquals(0, sketch.frequency(42));
+
+    sketch.ensureCapacity(Long.MAX_VALUE);
+    Assert.assertEquals(1 << 13, sketch.length());
+  }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    ConcurrentCache<Integer, Integer> cache = new ConcurrentCache<>(500,
+        EvictionPolicy.W_TINY_LFU, Weigher.entries(), 8);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        final int seed = t;
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 20000; i++) {
+            int key = (i * (seed + 1)) % 1000;
+            Assert.assertEquals(Integer.valueOf(key * 2), cache.computeIfAbsent(key, k -> k * 2));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+
+    Assert.assertTrue(cache.size() <= 500);
+    Assert.assertEquals(160000, cache.stats().getHits() + cache.stats().getMisses());
+  }
+}
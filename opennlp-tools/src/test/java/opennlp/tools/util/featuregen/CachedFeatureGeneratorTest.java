@@ -18,12 +18,18 @@
 package opennlp.tools.util.featuregen;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import opennlp.tools.util.cache.ArrayKey;
+import opennlp.tools.util.cache.ConcurrentCache;
+import opennlp.tools.util.cache.EvictionPolicy;
+import opennlp.tools.util.cache.Weigher;
+
 /**
  * Test for the {@link CachedFeatureGenerator} class.
  */
@@ -137,4 +143,30 @@ public class CachedFeatureGeneratorTest {
     Assert.assertTrue(features.contains(expectedToken));
     Assert.assertEquals(1, features.size());
   }
+
+  /**
+   * Tests that generators share the entries of a shared cache only within their namespace.
+   */
+  @Test
+  public void testSharedCacheNamespaces() {
+    ConcurrentCache<ArrayKey, List<String>> cache =
+        new ConcurrentCache<>(100, EvictionPolicy.LRU, Weigher.entries(), 1);
+    Object model = new Object();
+
+    CachedFeatureGenerator generator1 = new CachedFeatureGenerator(model,
+        new IdentityFeatureGenerator(), cache);
+    CachedFeatureGenerator generator2 = new CachedFeatureGenerator(model,
+        new IdentityFeatureGenerator(), cache);
+    CachedFeatureGenerator otherGenerator = new CachedFeatureGenerator(
+        (features, tokens, index, previousOutcomes) -> features.add("other"), cache);
+
+    generator1.createFeatures(features, testSentence1, 0, null);
+    generator2.createFeatures(features, testSentence1.clone(), 0, null);
+    Assert.assertEquals(1, generator2.getNumberOfCacheHits());
+
+    features.clear();
+    otherGenerator.createFeatures(features, testSentence1, 0, null);
+    Assert.assertEquals(0, otherGenerator.getNumberOfCacheHits());
+    Assert.assertEquals(Collections.singletonList("other"), features);
+  }
 }
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package opennlp.tools.util.featuregen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the {@link CompiledFeatureGenerator} class.
+ */
+public class CompiledFeatureGeneratorTest {
+
+  private static final String[][] SENTENCES = {
+      {"Mr.", "Smith", "visited", "New", "York", "in", "2017", "."},
+      {"He", "liked", "New", "York", "."},
+      {"x"}
+  };
+
+  private static AdaptiveFeatureGenerator createDefaultNameFinderGenerator() throws IOException {
+    try (InputStream descriptorIn = CompiledFeatureGeneratorTest.class.getResourceAsStream(
+        "/opennlp/tools/namefind/ner-default-features.xml")) {
+      return GeneratorFactory.create(descriptorIn, null);
+    }
+  }
+
+  private static List<String> features(AdaptiveFeatureGenerator generator, String[] tokens,
+      int index, String[] previousOutcomes) {
+    List<String> features = new ArrayList<>();
+    generator.createFeatures(features, tokens, index, previousOutcomes);
+    return features;
+  }
+
+  private static void assertSameFeatures(AdaptiveFeatureGenerator expectedGenerator,
+      AdaptiveFeatureGenerator compiledGenerator) {
+    for (String[] sentence : SENTENCES) {
+      String[] outcomes = new String[sentence.length];
+      for (int i = 0; i < sentence.length; i++) {
+        // a beam search asks several times for the same position
+        for (String outcome : new String[] {"other", "start"}) {
+          outcomes[i] = outcome;
+          Assert.assertEquals(features(expectedGenerator, sentence, i, outcomes),
+              features(compiledGenerator, sentence, i, outcomes));
+        }
+      }
+
+      expectedGenerator.updateAdaptiveData(sentence, outcomes);
+      compiledGenerator.updateAdaptiveData(sentence, outcomes);
+    }
+  }
+
+  @Test
+  public void testDefaultNameFinderFeatures() throws IOException {
+    assertSameFeatures(createDefaultNameFinderGenerator(),
+        new CompiledFeatureGenerator(createDefaultNameFinderGenerator()));
+  }
+
+  @Test
+  public void testOutcomeDependentGenerator() {
+    AdaptiveFeatureGenerator tree = new AggregatedFeatureGenerator(
+        new WindowFeatureGenerator(new TokenClassFeatureGenerator(true), 2, 2),
+        new PosTaggerFeatureGenerator(),
+        new WindowFeatureGenerator(new PosTaggerFeatureGenerator(), 1, 1),
+        new BigramNameFeatureGenerator());
+
+    Assert.assertFalse(CompiledFeatureGenerator.isBase(new PosTaggerFeatureGenerator()));
+    Assert.assertTrue(CompiledFeatureGenerator.isBase(
+        new WindowFeatureGenerator(new TokenFeatureGenerator(), 2, 2)));
+
+    assertSameFeatures(tree, new CompiledFeatureGenerator(tree));
+  }
+
+  @Test
+  public void testAdaptiveDataInvalidatesFeatures() {
+    AdaptiveFeatureGenerator compiled = new CompiledFeatureGenerator(
+        new WindowFeatureGenerator(new PreviousMapFeatureGenerator(), 1, 1));
+
+    String[] sentence = {"a", "b"};
+    Assert.assertEquals("[pd=null, n1pd=null]", features(compiled, sentence, 0, null).toString());
+
+    compiled.updateAdaptiveData(sentence, new String[] {"start", "other"});
+    Assert.assertEquals("[pd=start, n1pd=other]",
+        features(compiled, sentence, 0, null).toString());
+
+    compiled.clearAdaptiveData();
+    Assert.assertEquals("[pd=null, n1pd=null]", features(compiled, sentence, 0, null).toString());
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package opennlp.tools.util.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import opennlp.tools.ml.model.AbstractModel;
+import opennlp.tools.ml.model.MappedModel;
+import opennlp.tools.ml.model.MappedModelWriter;
+import opennlp.tools.ml.model.ParameterPrecision;
+import opennlp.tools.ml.model.QuantizedModel;
+import opennlp.tools.postag.POSModel;
+import opennlp.tools.postag.POSTaggerFactory;
+import opennlp.tools.postag.POSTaggerME;
+import opennlp.tools.postag.POSTaggerMETest;
+
+public class MappedModelSerializerTest {
+
+  private static final String[] SENTENCE = {"The", "driver", "got", "badly", "injured", "."};
+
+  private static POSModel model;
+  private static POSModel mappedModel;
+
+  @BeforeClass
+  public static void createModels() throws IOException {
+    model = POSTaggerMETest.trainPOSModel(ModelType.MAXENT);
+
+    File mappedFile = File.createTempFile("pos", ".mapped");
+    mappedFile.deleteOnExit();
+    new MappedModelWriter((AbstractModel) model.getPosModel(), mappedFile).persist();
+
+    mappedModel = new POSModel(model.getLanguage(), MappedModel.map(mappedFile), null,
+        new POSTaggerFactory(null, null, null));
+  }
+
+  private static void assertSameTags(POSModel loadedModel) {
+    Assert.assertTrue(loadedModel.getPosModel() instanceof MappedModel);
+    Assert.assertArrayEquals(new POSTaggerME(model).tag(SENTENCE),
+        new POSTaggerME(loadedModel).tag(SENTENCE));
+  }
+
+  @Test
+  public void testMappedEntryIsMappedFromFile() throws IOException {
+    File packageFile = File.createTempFile("pos", ".bin");
+    packageFile.deleteOnExit();
+    mappedModel.serialize(packageFile);
+
+    try (ZipFile zip = new ZipFile(packageFile);
+         ZipEntryLocator locator = new ZipEntryLocator(packageFile)) {
+      Assert.assertEquals(ZipEntry.STORED, zip.getEntry("pos.model").getMethod());
+      Assert.assertEquals(0, locator.getDataOffset("pos.model") % 8);
+    }
+
+    assertSameTags(new POSModel(packageFile));
+  }
+
+  @Test
+  public void testMappedEntryIsReadFromStream() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    mappedModel.serialize(out);
+
+    POSModel loadedModel = new POSModel(new ByteArrayInputStream(out.toByteArray()));
+    assertSameTags(loadedModel);
+
+    // a model which was read into the heap is written the same way
+    ByteArrayOutputStream rewritten = new ByteArrayOutputStream();
+    loadedModel.serialize(rewritten);
+    assertSameTags(new POSModel(new ByteArrayInputStream(rewritten.toByteArray())));
+  }
+
+  @Test
+  public void testQuantizedModelIsStoredInPackage() throws IOException {
+    for (ParameterPrecision precision : new ParameterPrecision[] {ParameterPrecision.FLOAT,
+        ParameterPrecision.INT16, ParameterPrecision.INT8}) {
+      POSModel quantizedModel = new POSModel(model.getLanguage(),
+          new QuantizedModel((AbstractModel) model.getPosModel(), precision), null,
+          new POSTaggerFactory(null, null, null));
+
+      File packageFile = File.createTempFile("pos", ".bin");
+      packageFile.deleteOnExit();
+      quantizedModel.serialize(packageFile);
+
+      POSModel loadedModel = new POSModel(packageFile);
+      Assert.assertTrue(loadedModel.getPosModel() instanceof MappedModel);
+      Assert.assertEquals(precision, ((MappedModel) loadedModel.getPosModel()).getPrecision());
+      Assert.assertArrayEquals(new POSTaggerME(quantizedModel).tag(SENTENCE),
+          new POSTaggerME(loadedModel).tag(SENTENCE));
+    }
+  }
+}
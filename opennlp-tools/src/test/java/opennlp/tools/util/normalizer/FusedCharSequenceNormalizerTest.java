@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.util.normalizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FusedCharSequenceNormalizerTest {
+
+  private static final CharSequenceNormalizer[] ALL_NORMALIZERS = {
+      EmojiCharSequenceNormalizer.getInstance(),
+      UrlCharSequenceNormalizer.getInstance(),
+      TwitterCharSequenceNormalizer.getInstance(),
+      NumberCharSequenceNormalizer.getInstance(),
+      ShrinkCharSequenceNormalizer.getInstance()
+  };
+
+  private static final String[] FRAGMENTS = {
+      "h", "j", "H", "J", "a", "e", "i", "o", "u", "A", "O", "r", "t", "R", "T", ":", ";", "x",
+      "X", "-", "(", ")", "d", "D", "o", "p", "P", "#", "@", ".", "_", "/", "http://", "https://",
+      "0", "7", " ", " ", "  ", "\t", "\n", "\r", "\u00E9", "\u0301", "\uD83D\uDE00",
+      "\uD83C", "\uDC00", "\uDBFF\uDFFD", "\u0085", "\u2028", "\u00FF", "w", "m", "hahaha",
+      "rt ", "RT:", "a@b.c", "x@yz", ":-)", ";p", "ss", "lll"
+  };
+
+  private final CharSequenceNormalizer normalizer = new FusedCharSequenceNormalizer(ALL_NORMALIZERS);
+
+  private final CharSequenceNormalizer regexNormalizer =
+      new AggregateCharSequenceNormalizer(ALL_NORMALIZERS);
+
+  private void assertSameAsRegex(String text) {
+    Assert.assertEquals(regexNormalizer.normalize(text).toString(),
+        normalizer.normalize(text).toString());
+  }
+
+  @Test
+  public void testNormalize() {
+    Assert.assertEquals("hi !", normalizer.normalize("hi \uD83D\uDE00 !").toString());
+    Assert.assertEquals("see", normalizer.normalize("see https://opennlp.apache.org/").toString());
+    Assert.assertEquals("mail to", normalizer.normalize("mail dev@opennlp.apache.org to").toString());
+    Assert.assertEquals("lol", normalizer.normalize("RT @user: lol #fun :)").toString());
+    Assert.assertEquals("haha", normalizer.normalize("hahahahaha").toString());
+    Assert.assertEquals("a b", normalizer.normalize("a 123 b").toString());
+    Assert.assertEquals("Helloo a b", normalizer.normalize("  Helllllloooooo a  \t b ").toString());
+  }
+
+  @Test
+  public void testSameAsRegex() {
+    assertSameAsRegex("");
+    assertSameAsRegex("http:/x https://a.b/c?d=e&f=g#h");
+    assertSameAsRegex("a@b x@y.z ab@cd a@b@cd");
+    assertSameAsRegex("rt rt:rt x rtrt \u00E9rt a\u0301rt _rt 1rt");
+    assertSameAsRegex("hahaHAhah jejeje hiihihh haa");
+    assertSameAsRegex("xd XP :o ;-( x-x");
+    assertSameAsRegex("aaAaa \n\n\n ...");
+  }
+
+  @Test
+  public void testRandomTextsSameAsRegex() {
+    Random random = new Random(42);
+    List<CharSequenceNormalizer> normalizers = new ArrayList<>();
+    for (int i = 0; i < 20000; i++) {
+      normalizers.clear();
+      for (CharSequenceNormalizer candidate : ALL_NORMALIZERS) {
+        if (random.nextInt(4) != 0) {
+          normalizers.add(candidate);
+        }
+      }
+      Collections.shuffle(normalizers, random);
+
+      StringBuilder text = new StringBuilder();
+      int length = random.nextInt(30);
+      for (int j = 0; j < length; j++) {
+        text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+      }
+
+      CharSequenceNormalizer[] chain = normalizers.toArray(new CharSequenceNormalizer[0]);
+      Assert.assertEquals(normalizers + " " + text,
+          normalize(new AggregateCharSequenceNormalizer(chain), text),
+          normalize(new FusedCharSequenceNormalizer(chain), text));
+    }
+  }
+
+  /**
+   * Some back references to supplementary chars fail with an exception in the regular
+   * expressions, the fused normalizer must fail in the same way.
+   */
+  private static String normalize(CharSequenceNormalizer normalizer, CharSequence text) {
+    try {
+      return normalizer.normalize(text).toString();
+    } catch (RuntimeException e) {
+      return e.getClass().getName();
+    }
+  }
+
+  @Test
+  public void testIsSupported() {
+    Assert.assertTrue(FusedCharSequenceNormalizer.isSupported(ALL_NORMALIZERS));
+    Assert.assertFalse(FusedCharSequenceNormalizer.isSupported(
+        text -> text, NumberCharSequenceNormalizer.getInstance()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedNormalizer() {
+    new FusedCharSequenceNormalizer(text -> text);
+  }
+}
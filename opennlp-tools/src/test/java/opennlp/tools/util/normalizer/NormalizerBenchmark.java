@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package opennlp.tools.util.normalizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the throughput of the normalizers used by the language detector on tweet like
+ * texts, comparing the regular expressions of the {@link AggregateCharSequenceNormalizer}
+ * with the {@link FusedCharSequenceNormalizer}.
+ * <p>
+ * Run with <code>java opennlp.tools.util.normalizer.NormalizerBenchmark</code>.
+ */
+public class NormalizerBenchmark {
+
+  private static final String[] WORDS = {
+      "the", "language", "detector", "is", "sooooo", "fast", "today", "RT", "@opennlp", "#nlp",
+      "https://opennlp.apache.org/docs/", "dev@opennlp.apache.org", "hahahaha", ":-)", ";p",
+      "2018", "12:30", "\uD83D\uDE00", "\uD83D\uDC4D\uD83D\uDC4D", "muy", "bien", "gr\u00FC\u00DFe",
+      "caf\u00E9", "what", "a", "great", "release", "!!!", "lol", "and", "new", "models"
+  };
+
+  private static int sink;
+
+  private static void run(String name, CharSequenceNormalizer normalizer, List<String> texts) {
+    for (int round = 0; round < 8; round++) {
+      long start = System.nanoTime();
+      int normalized = 0;
+      while (System.nanoTime() - start < 500_000_000L) {
+        for (String text : texts) {
+          sink += normalizer.normalize(text).length();
+          normalized++;
+        }
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      if (round >= 3) {
+        System.out.printf("%-6s %10.0f texts/s%n", name, normalized / seconds);
+      }
+    }
+  }
+
+  public static void main(String[] args) {
+    Random random = new Random(7);
+    List<String> texts = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      StringBuilder text = new StringBuilder();
+      while (text.length() < 100) {
+        text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(8) == 0 ? "  " : " ");
+      }
+      texts.add(text.toString());
+    }
+    System.out.println(texts.size() + " texts of about 100 chars");
+
+    CharSequenceNormalizer[] normalizers = {
+        EmojiCharSequenceNormalizer.getInstance(),
+        UrlCharSequenceNormalizer.getInstance(),
+        TwitterCharSequenceNormalizer.getInstance(),
+        NumberCharSequenceNormalizer.getInstance(),
+        ShrinkCharSequenceNormalizer.getInstance()
+    };
+
+    run("Regex", new AggregateCharSequenceNormalizer(normalizers), texts);
+    run("Fused", new FusedCharSequenceNormalizer(normalizers), texts);
+
+    System.out.println(sink != 0 ? "" : " ");
+  }
+}